@@ -0,0 +1,38 @@
+package com.dtflys.forest.benchmark;
+
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * 基准测试入口
+ * <p>参数与 {@code org.openjdk.jmh.Main} 相同，默认开启内存分配分析（{@code -prof gc}），
+ * 命令行中指定了任意 {@code -prof} 参数时以命令行为准</p>
+ * <pre>
+ * mvn -P benchmark -pl forest-benchmarks -am package
+ * java -jar forest-benchmarks/target/benchmarks.jar [正则表达式] [JMH参数]
+ * </pre>
+ *
+ * @author gongjun[dt_flys@hotmail.com]
+ * @since 1.5.2
+ */
+public class BenchmarkRunner {
+
+    public static void main(String[] args) throws Exception {
+        CommandLineOptions commandLine = new CommandLineOptions(args);
+        if (commandLine.shouldHelp() || commandLine.shouldList() || commandLine.shouldListProfilers()
+                || commandLine.shouldListResultFormats() || commandLine.shouldListWithParams()) {
+            org.openjdk.jmh.Main.main(args);
+            return;
+        }
+        OptionsBuilder builder = new OptionsBuilder();
+        builder.parent(commandLine);
+        if (commandLine.getProfilers().isEmpty()) {
+            builder.addProfiler(GCProfiler.class);
+        }
+        Options options = builder.build();
+        new Runner(options).run();
+    }
+}
@@ -0,0 +1,42 @@
+package com.dtflys.forest.benchmark.client;
+
+import com.dtflys.forest.annotation.BaseRequest;
+import com.dtflys.forest.annotation.Get;
+import com.dtflys.forest.annotation.JSONBody;
+import com.dtflys.forest.annotation.Post;
+import com.dtflys.forest.annotation.Query;
+import com.dtflys.forest.annotation.Var;
+import com.dtflys.forest.benchmark.model.User;
+import com.dtflys.forest.http.ForestRequest;
+
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * 基准测试用的接口
+ * <p>返回 {@link ForestRequest} 的方法只构造请求，不发送</p>
+ *
+ * @author gongjun[dt_flys@hotmail.com]
+ * @since 1.5.2
+ */
+@BaseRequest(baseURL = "http://localhost:${port}", headers = {"Accept: application/json"})
+public interface UserClient {
+
+    @Get("/users/${user.id}")
+    ForestRequest<User> buildGetUser(@Var("user") User user, @Query("page") int page, @Query("size") int size);
+
+    @Get("/users/${user.id}")
+    User getUser(@Var("user") User user, @Query("page") int page, @Query("size") int size);
+
+    @Get(url = "/users/${user.id}", async = true)
+    CompletableFuture<User> getUserAsync(@Var("user") User user, @Query("page") int page, @Query("size") int size);
+
+    @Post("/users")
+    ForestRequest<User> buildPostUser(@JSONBody User user);
+
+    @Post("/users")
+    User postUser(@JSONBody User user);
+
+    @Post(url = "/users", async = true)
+    CompletableFuture<User> postUserAsync(@JSONBody User user);
+
+}
@@ -0,0 +1,99 @@
+package com.dtflys.forest.benchmark.macro;
+
+import com.dtflys.forest.benchmark.client.UserClient;
+import com.dtflys.forest.benchmark.model.User;
+import com.dtflys.forest.config.ForestConfiguration;
+import okhttp3.mockwebserver.Dispatcher;
+import okhttp3.mockwebserver.MockResponse;
+import okhttp3.mockwebserver.MockWebServer;
+import okhttp3.mockwebserver.RecordedRequest;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 端到端基准测试
+ * <p>通过本地的 {@link MockWebServer} 分别测试两种后端的同步和异步请求，
+ * 服务端不做任何处理，直接返回固定的JSON响应</p>
+ *
+ * @author gongjun[dt_flys@hotmail.com]
+ * @since 1.5.2
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class EndToEndBenchmark {
+
+    @Param({"okhttp3", "httpclient"})
+    private String backend;
+
+    private MockWebServer server;
+
+    private ForestConfiguration configuration;
+
+    private UserClient userClient;
+
+    private User user;
+
+    @Setup
+    public void setup() throws IOException {
+        user = User.sample();
+        configuration = ForestConfiguration.configuration();
+        configuration.setLogEnabled(false);
+        configuration.setBackendName(backend);
+        String body = configuration.getJsonConverter().encodeToString(user);
+        server = new MockWebServer();
+        server.setDispatcher(new Dispatcher() {
+            @Override
+            public MockResponse dispatch(RecordedRequest request) {
+                return new MockResponse()
+                        .setHeader("Content-Type", "application/json; charset=utf-8")
+                        .setBody(body);
+            }
+        });
+        server.start();
+        configuration.setVariableValue("port", server.getPort());
+        userClient = configuration.createInstance(UserClient.class);
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        configuration.close();
+        server.shutdown();
+    }
+
+    @Benchmark
+    public User getSync() {
+        return userClient.getUser(user, 1, 20);
+    }
+
+    @Benchmark
+    public User getAsync() {
+        return userClient.getUserAsync(user, 1, 20).join();
+    }
+
+    @Benchmark
+    public User postJsonSync() {
+        return userClient.postUser(user);
+    }
+
+    @Benchmark
+    public User postJsonAsync() {
+        return userClient.postUserAsync(user).join();
+    }
+}
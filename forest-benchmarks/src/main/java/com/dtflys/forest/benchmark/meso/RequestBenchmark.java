@@ -0,0 +1,72 @@
+package com.dtflys.forest.benchmark.meso;
+
+import com.dtflys.forest.benchmark.client.UserClient;
+import com.dtflys.forest.benchmark.model.User;
+import com.dtflys.forest.config.ForestConfiguration;
+import com.dtflys.forest.http.ForestRequest;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 接口调用基准测试
+ * <ul>
+ *     <li>{@code build*}: 从调用代理接口方法到构造出请求对象，不发送请求</li>
+ *     <li>{@code invoke*}: 完整的调用过程，包括拦截器、URL和请求体构造、响应反序列化，
+ *     由 {@link StubBackend} 代替网络I/O</li>
+ * </ul>
+ *
+ * @author gongjun[dt_flys@hotmail.com]
+ * @since 1.5.2
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class RequestBenchmark {
+
+    private UserClient userClient;
+
+    private User user;
+
+    @Setup
+    public void setup() {
+        user = User.sample();
+        ForestConfiguration configuration = ForestConfiguration.configuration();
+        configuration.setLogEnabled(false);
+        configuration.setVariableValue("port", 8080);
+        configuration.setBackend(new StubBackend(configuration.getJsonConverter().encodeToString(user)));
+        userClient = configuration.createInstance(UserClient.class);
+    }
+
+    @Benchmark
+    public ForestRequest<User> buildGet() {
+        return userClient.buildGetUser(user, 1, 20);
+    }
+
+    @Benchmark
+    public ForestRequest<User> buildPostJson() {
+        return userClient.buildPostUser(user);
+    }
+
+    @Benchmark
+    public User invokeGet() {
+        return userClient.getUser(user, 1, 20);
+    }
+
+    @Benchmark
+    public User invokePostJson() {
+        return userClient.postUser(user);
+    }
+}
@@ -0,0 +1,98 @@
+package com.dtflys.forest.benchmark.meso;
+
+import com.dtflys.forest.backend.BodyBuilder;
+import com.dtflys.forest.backend.HttpBackend;
+import com.dtflys.forest.backend.HttpExecutor;
+import com.dtflys.forest.backend.okhttp3.body.OkHttp3GetBodyBuilder;
+import com.dtflys.forest.backend.okhttp3.body.OkHttp3PostBodyBuilder;
+import com.dtflys.forest.backend.okhttp3.response.OkHttp3ForestResponse;
+import com.dtflys.forest.backend.okhttp3.response.OkHttp3ResponseHandler;
+import com.dtflys.forest.backend.url.URLBuilder;
+import com.dtflys.forest.config.ForestConfiguration;
+import com.dtflys.forest.handler.LifeCycleHandler;
+import com.dtflys.forest.http.ForestHeader;
+import com.dtflys.forest.http.ForestRequest;
+import com.dtflys.forest.http.ForestRequestType;
+import okhttp3.MediaType;
+import okhttp3.Protocol;
+import okhttp3.Request;
+import okhttp3.Response;
+import okhttp3.ResponseBody;
+
+import java.util.Date;
+import java.util.Iterator;
+
+/**
+ * 不发送网络请求的HTTP后端
+ * <p>按OkHttp后端的方式构造URL、请求头和请求体，然后直接返回固定的响应，
+ * 用于测量除网络I/O以外的整个调用过程</p>
+ *
+ * @author gongjun[dt_flys@hotmail.com]
+ * @since 1.5.2
+ */
+public class StubBackend implements HttpBackend {
+
+    private final static MediaType JSON = MediaType.get("application/json; charset=utf-8");
+
+    private final static BodyBuilder<Request.Builder> GET_BODY_BUILDER = new OkHttp3GetBodyBuilder();
+
+    private final static BodyBuilder<Request.Builder> POST_BODY_BUILDER = new OkHttp3PostBodyBuilder();
+
+    private final String responseBody;
+
+    public StubBackend(String responseBody) {
+        this.responseBody = responseBody;
+    }
+
+    @Override
+    public String getName() {
+        return "stub";
+    }
+
+    @Override
+    public HttpExecutor createExecutor(ForestRequest request, LifeCycleHandler lifeCycleHandler) {
+        return new StubExecutor(request);
+    }
+
+    @Override
+    public void init(ForestConfiguration configuration) {
+    }
+
+    private class StubExecutor implements HttpExecutor {
+
+        private final ForestRequest request;
+
+        StubExecutor(ForestRequest request) {
+            this.request = request;
+        }
+
+        @Override
+        public void execute(LifeCycleHandler lifeCycleHandler) {
+            Date requestTime = new Date();
+            Request.Builder builder = new Request.Builder()
+                    .url(URLBuilder.getQueryableURLBuilder().buildUrl(request));
+            Iterator<ForestHeader> headerIterator = request.getHeaders().headerIterator();
+            while (headerIterator.hasNext()) {
+                ForestHeader header = headerIterator.next();
+                builder.addHeader(header.getName(), header.getValue());
+            }
+            BodyBuilder<Request.Builder> bodyBuilder = request.getType() == ForestRequestType.GET ?
+                    GET_BODY_BUILDER : POST_BODY_BUILDER;
+            bodyBuilder.buildBody(builder, request, lifeCycleHandler);
+            Response okResponse = new Response.Builder()
+                    .request(builder.build())
+                    .protocol(Protocol.HTTP_1_1)
+                    .code(200)
+                    .message("OK")
+                    .header("Content-Type", JSON.toString())
+                    .body(ResponseBody.create(JSON, responseBody))
+                    .build();
+            OkHttp3ForestResponse response = new OkHttp3ForestResponse(request, okResponse, requestTime, new Date());
+            new OkHttp3ResponseHandler(request, lifeCycleHandler).handleSync(okResponse, response);
+        }
+
+        @Override
+        public void close() {
+        }
+    }
+}
@@ -0,0 +1,96 @@
+package com.dtflys.forest.benchmark.micro;
+
+import com.dtflys.forest.backend.ContentType;
+import com.dtflys.forest.backend.httpclient.body.HttpclientBodyBuilder;
+import com.dtflys.forest.backend.okhttp3.body.OkHttp3PostBodyBuilder;
+import com.dtflys.forest.benchmark.model.User;
+import com.dtflys.forest.config.ForestConfiguration;
+import com.dtflys.forest.http.ForestRequest;
+import com.dtflys.forest.http.ForestRequestType;
+import com.dtflys.forest.http.body.ObjectRequestBody;
+import okhttp3.Request;
+import org.apache.http.client.methods.HttpPost;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 请求体构造基准测试
+ * <p>分别以两种后端的请求体构造器构造表单请求体和JSON请求体</p>
+ *
+ * @author gongjun[dt_flys@hotmail.com]
+ * @since 1.5.2
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class BodyBuilderBenchmark {
+
+    private final static OkHttp3PostBodyBuilder OKHTTP3_BODY_BUILDER = new OkHttp3PostBodyBuilder();
+
+    private final static HttpclientBodyBuilder<HttpPost> HTTPCLIENT_BODY_BUILDER = new HttpclientBodyBuilder<>();
+
+    private ForestRequest formRequest;
+
+    private ForestRequest jsonRequest;
+
+    @Setup
+    public void setup() {
+        ForestConfiguration configuration = ForestConfiguration.configuration();
+        User user = User.sample();
+        formRequest = new ForestRequest(configuration)
+                .setUrl("http://localhost:8080/users")
+                .setType(ForestRequestType.POST)
+                .setContentType(ContentType.APPLICATION_X_WWW_FORM_URLENCODED)
+                .addBody("id", user.getId())
+                .addBody("name", user.getName())
+                .addBody("age", user.getAge())
+                .addBody("city", user.getAddress().getCity())
+                .addBody("street", user.getAddress().getStreet());
+        jsonRequest = new ForestRequest(configuration)
+                .setUrl("http://localhost:8080/users")
+                .setType(ForestRequestType.POST)
+                .setContentType(ContentType.APPLICATION_JSON)
+                .addBody(new ObjectRequestBody(user));
+    }
+
+    @Benchmark
+    public Request okhttp3Form() {
+        Request.Builder builder = new Request.Builder().url("http://localhost:8080/users");
+        OKHTTP3_BODY_BUILDER.buildBody(builder, formRequest, null);
+        return builder.build();
+    }
+
+    @Benchmark
+    public Request okhttp3Json() {
+        Request.Builder builder = new Request.Builder().url("http://localhost:8080/users");
+        OKHTTP3_BODY_BUILDER.buildBody(builder, jsonRequest, null);
+        return builder.build();
+    }
+
+    @Benchmark
+    public HttpPost httpclientForm() {
+        HttpPost httpPost = new HttpPost("http://localhost:8080/users");
+        HTTPCLIENT_BODY_BUILDER.buildBody(httpPost, formRequest, null);
+        return httpPost;
+    }
+
+    @Benchmark
+    public HttpPost httpclientJson() {
+        HttpPost httpPost = new HttpPost("http://localhost:8080/users");
+        HTTPCLIENT_BODY_BUILDER.buildBody(httpPost, jsonRequest, null);
+        return httpPost;
+    }
+}
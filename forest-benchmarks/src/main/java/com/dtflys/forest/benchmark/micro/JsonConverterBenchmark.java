@@ -0,0 +1,77 @@
+package com.dtflys.forest.benchmark.micro;
+
+import com.dtflys.forest.benchmark.model.User;
+import com.dtflys.forest.converter.json.ForestFastjsonConverter;
+import com.dtflys.forest.converter.json.ForestGsonConverter;
+import com.dtflys.forest.converter.json.ForestJacksonConverter;
+import com.dtflys.forest.converter.json.ForestJsonConverter;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * JSON转换器基准测试
+ * <p>比较三种JSON转换器的序列化和反序列化耗时</p>
+ *
+ * @author gongjun[dt_flys@hotmail.com]
+ * @since 1.5.2
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class JsonConverterBenchmark {
+
+    @Param({"fastjson", "jackson", "gson"})
+    private String converterName;
+
+    private ForestJsonConverter converter;
+
+    private User user;
+
+    private String json;
+
+    @Setup
+    public void setup() {
+        switch (converterName) {
+            case "jackson":
+                converter = new ForestJacksonConverter();
+                break;
+            case "gson":
+                converter = new ForestGsonConverter();
+                break;
+            default:
+                converter = new ForestFastjsonConverter();
+        }
+        user = User.sample();
+        json = converter.encodeToString(user);
+    }
+
+    @Benchmark
+    public String encode() {
+        return converter.encodeToString(user);
+    }
+
+    @Benchmark
+    public User decode() {
+        return converter.convertToJavaObject(json, User.class);
+    }
+
+    @Benchmark
+    public Map decodeToMap() {
+        return converter.convertObjectToMap(json);
+    }
+}
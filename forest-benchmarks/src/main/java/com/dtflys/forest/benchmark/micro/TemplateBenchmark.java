@@ -0,0 +1,128 @@
+package com.dtflys.forest.benchmark.micro;
+
+import com.dtflys.forest.benchmark.model.User;
+import com.dtflys.forest.config.ForestConfiguration;
+import com.dtflys.forest.config.VariableScope;
+import com.dtflys.forest.mapping.MappingParameter;
+import com.dtflys.forest.mapping.MappingTemplate;
+import com.dtflys.forest.mapping.MappingVariable;
+import com.dtflys.forest.utils.StringUtils;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.lang.reflect.Method;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 模板渲染基准测试
+ * <p>{@code renderPropertyReflective} 按原来的解释执行方式，每次渲染都通过 {@code getDeclaredMethod} 查找getter
+ * 并用 {@code Method.invoke} 调用，作为编译为 {@code MethodHandle} 后的 {@code renderProperty} 的对照；
+ * {@code concat} 为直接拼接字符串的下限</p>
+ *
+ * @author gongjun[dt_flys@hotmail.com]
+ * @since 1.5.2
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class TemplateBenchmark {
+
+    private final static String[] PROPERTY_NAMES = {"address", "city"};
+
+    private MappingTemplate constantTemplate;
+
+    private MappingTemplate indexTemplate;
+
+    private MappingTemplate propertyTemplate;
+
+    private Object[] args;
+
+    @Setup
+    public void setup() {
+        ForestConfiguration configuration = ForestConfiguration.configuration();
+        MappingVariable userVariable = new MappingVariable("user", User.class);
+        userVariable.setIndex(0);
+        VariableScope scope = new BenchmarkScope(configuration, userVariable);
+        MappingParameter[] parameters = new MappingParameter[] {userVariable, new MappingParameter(Long.class)};
+        constantTemplate = new MappingTemplate("http://localhost:8080/users", scope, configuration.getProperties(), parameters);
+        indexTemplate = new MappingTemplate("http://localhost:8080/users/${1}", scope, configuration.getProperties(), parameters);
+        propertyTemplate = new MappingTemplate("http://localhost:8080/cities/${user.address.city}", scope, configuration.getProperties(), parameters);
+        args = new Object[] {User.sample(), 10001L};
+    }
+
+    @Benchmark
+    public String renderConstant() {
+        return constantTemplate.render(args);
+    }
+
+    @Benchmark
+    public String renderIndex() {
+        return indexTemplate.render(args);
+    }
+
+    @Benchmark
+    public String renderProperty() {
+        return propertyTemplate.render(args);
+    }
+
+    @Benchmark
+    public String renderPropertyReflective() throws Exception {
+        Object value = args[0];
+        for (String name : PROPERTY_NAMES) {
+            Method getter = value.getClass().getDeclaredMethod(StringUtils.toGetterName(name));
+            value = getter.invoke(value);
+        }
+        return "http://localhost:8080/cities/" + value;
+    }
+
+    @Benchmark
+    public String concat() {
+        return "http://localhost:8080/cities/" + ((User) args[0]).getAddress().getCity();
+    }
+
+    /**
+     * 只包含一个参数变量的变量作用域
+     */
+    private static class BenchmarkScope implements VariableScope {
+
+        private final ForestConfiguration configuration;
+
+        private final MappingVariable variable;
+
+        BenchmarkScope(ForestConfiguration configuration, MappingVariable variable) {
+            this.configuration = configuration;
+            this.variable = variable;
+        }
+
+        @Override
+        public boolean isVariableDefined(String name) {
+            return variable.getName().equals(name);
+        }
+
+        @Override
+        public Object getVariableValue(String name) {
+            return null;
+        }
+
+        @Override
+        public MappingVariable getVariable(String name) {
+            return variable.getName().equals(name) ? variable : null;
+        }
+
+        @Override
+        public ForestConfiguration getConfiguration() {
+            return configuration;
+        }
+    }
+}
@@ -0,0 +1,66 @@
+package com.dtflys.forest.benchmark.micro;
+
+import com.dtflys.forest.backend.url.URLBuilder;
+import com.dtflys.forest.config.ForestConfiguration;
+import com.dtflys.forest.http.ForestRequest;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * URL构造基准测试
+ * <p>将请求URL与查询参数拼接为完整的URL，包括查询参数值的URL编码</p>
+ *
+ * @author gongjun[dt_flys@hotmail.com]
+ * @since 1.5.2
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class UrlBuilderBenchmark {
+
+    private final static URLBuilder URL_BUILDER = URLBuilder.getQueryableURLBuilder();
+
+    private ForestRequest request;
+
+    private ForestRequest encodedRequest;
+
+    @Setup
+    public void setup() {
+        ForestConfiguration configuration = ForestConfiguration.configuration();
+        request = new ForestRequest(configuration)
+                .setUrl("http://localhost:8080/users")
+                .addQuery("id", 10001L)
+                .addQuery("name", "foo")
+                .addQuery("age", 25)
+                .addQuery("page", 1)
+                .addQuery("size", 20);
+        encodedRequest = new ForestRequest(configuration)
+                .setUrl("http://localhost:8080/search")
+                .addQuery("q", "forest http 客户端")
+                .addQuery("filter", "city=上海&street=南京路")
+                .addQuery("sort", "name,asc");
+    }
+
+    @Benchmark
+    public String buildUrl() {
+        return URL_BUILDER.buildUrl(request);
+    }
+
+    @Benchmark
+    public String buildEncodedUrl() {
+        return URL_BUILDER.buildUrl(encodedRequest);
+    }
+}
@@ -0,0 +1,84 @@
+package com.dtflys.forest.benchmark.model;
+
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * 基准测试用的用户
+ *
+ * @author gongjun[dt_flys@hotmail.com]
+ * @since 1.5.2
+ */
+public class User {
+
+    private Long id;
+
+    private String name;
+
+    private Integer age;
+
+    private Address address;
+
+    private List<String> tags;
+
+    public User() {
+    }
+
+    public User(Long id, String name, Integer age, Address address, List<String> tags) {
+        this.id = id;
+        this.name = name;
+        this.age = age;
+        this.address = address;
+        this.tags = tags;
+    }
+
+    /**
+     * 创建一个字段都有值的用户
+     *
+     * @return {@link User}类实例
+     */
+    public static User sample() {
+        return new User(10001L, "foo", 25, new Address("Shanghai", "Nanjing Road 100"),
+                Arrays.asList("a", "b", "c"));
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public void setId(Long id) {
+        this.id = id;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public void setName(String name) {
+        this.name = name;
+    }
+
+    public Integer getAge() {
+        return age;
+    }
+
+    public void setAge(Integer age) {
+        this.age = age;
+    }
+
+    public Address getAddress() {
+        return address;
+    }
+
+    public void setAddress(Address address) {
+        this.address = address;
+    }
+
+    public List<String> getTags() {
+        return tags;
+    }
+
+    public void setTags(List<String> tags) {
+        this.tags = tags;
+    }
+}
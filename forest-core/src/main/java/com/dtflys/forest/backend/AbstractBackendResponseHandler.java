@@ -45,9 +45,15 @@ public abstract class AbstractBackendResponseHandler<R> {
     }
 
 
-    public Object handleSuccess(ForestResponse response) {
-        Type onSuccessGenericType = lifeCycleHandler.getOnSuccessClassGenericType();
-        Object resultData = lifeCycleHandler.handleResultType(request, response, onSuccessGenericType, ReflectUtils.getClassByType(onSuccessGenericType));
+    /**
+     * 处理成功的响应
+     * <p>响应已按方法返回值的类型解码过一次，解码结果直接交给拦截器和 OnSuccess 回调，不再重复解码</p>
+     *
+     * @param response Forest响应对象
+     * @param resultData 按方法返回值的类型解码后的结果
+     * @return 响应结果
+     */
+    public Object handleSuccess(ForestResponse response, Object resultData) {
         return lifeCycleHandler.handleSuccess(resultData, request, response);
     }
 
@@ -61,6 +67,21 @@ public abstract class AbstractBackendResponseHandler<R> {
     }
 
 
+    /**
+     * 方法返回值是否为 {@link java.util.concurrent.CompletionStage} 类型
+     * <p>此类返回值由后端回调直接完成，不需要阻塞线程等待响应</p>
+     *
+     * @return {@code true}：是，{@code false}：否
+     */
+    public boolean isCompletionStageReturn() {
+        Type returnType = lifeCycleHandler.getReturnType();
+        if (returnType == null) {
+            return false;
+        }
+        Class returnClass = ReflectUtils.getClassByType(returnType);
+        return returnClass != null && ReflectUtils.isCompletionStageType(returnClass);
+    }
+
     public abstract void handleFuture(
                      final Future<R> httpResponseFuture,
                      Date requestTime,
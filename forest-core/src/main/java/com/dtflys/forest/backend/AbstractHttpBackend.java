@@ -6,6 +6,7 @@ import com.dtflys.forest.exceptions.ForestRuntimeException;
 import com.dtflys.forest.handler.LifeCycleHandler;
 import com.dtflys.forest.http.ForestRequest;
 import com.dtflys.forest.http.ForestRequestType;
+import com.dtflys.forest.metrics.ForestMetrics;
 
 import java.util.HashMap;
 import java.util.Map;
@@ -47,6 +48,30 @@ public abstract class AbstractHttpBackend implements HttpBackend {
         }
     }
 
+    @Override
+    public void close() {
+        synchronized (this) {
+            if (initialized) {
+                this.connectionManager.close();
+                initialized = false;
+            }
+        }
+    }
+
+    @Override
+    public void evictIdleConnections() {
+        if (initialized) {
+            this.connectionManager.evictIdleConnections();
+        }
+    }
+
+    @Override
+    public void bindMetrics(ForestMetrics metrics) {
+        if (initialized) {
+            this.connectionManager.bindMetrics(metrics);
+        }
+    }
+
     protected abstract HttpExecutor createHeadExecutor(ForestConnectionManager connectionManager, ForestRequest request, LifeCycleHandler lifeCycleHandler);
 
     protected abstract HttpExecutor createGetExecutor(ForestConnectionManager connectionManager, ForestRequest request, LifeCycleHandler lifeCycleHandler);
@@ -1,6 +1,7 @@
 package com.dtflys.forest.backend;
 
 import com.dtflys.forest.config.ForestConfiguration;
+import com.dtflys.forest.metrics.ForestMetrics;
 
 /**
  * @author gongjun[jun.gong@thebeastshop.com]
@@ -9,4 +10,26 @@ import com.dtflys.forest.config.ForestConfiguration;
 public interface ForestConnectionManager {
 
     void init(ForestConfiguration configuration);
+
+    /**
+     * 关闭连接管理器，释放连接池和I/O线程等资源
+     */
+    default void close() {
+    }
+
+    /**
+     * 关闭连接池中所有空闲的连接
+     * <p>对端重启后池中的持久连接都已失效，调用该方法可以让之后的请求都使用新建的连接</p>
+     */
+    default void evictIdleConnections() {
+    }
+
+    /**
+     * 将连接池绑定到指标收集器
+     * <p>初始化时绑定到配置中的指标收集器，之后设置的指标收集器通过该方法绑定</p>
+     *
+     * @param metrics 指标收集器，{@link ForestMetrics}接口实例
+     */
+    default void bindMetrics(ForestMetrics metrics) {
+    }
 }
@@ -3,6 +3,7 @@ package com.dtflys.forest.backend;
 import com.dtflys.forest.config.ForestConfiguration;
 import com.dtflys.forest.handler.LifeCycleHandler;
 import com.dtflys.forest.http.ForestRequest;
+import com.dtflys.forest.metrics.ForestMetrics;
 
 /**
  * HTTP后端接口
@@ -17,6 +18,26 @@ public interface HttpBackend {
 
     void init(ForestConfiguration configuration);
 
+    /**
+     * 关闭HTTP后端，释放连接池和I/O线程等资源
+     */
+    default void close() {
+    }
+
+    /**
+     * 关闭连接池中所有空闲的连接
+     */
+    default void evictIdleConnections() {
+    }
+
+    /**
+     * 将连接池绑定到指标收集器
+     *
+     * @param metrics 指标收集器，{@link ForestMetrics}接口实例
+     */
+    default void bindMetrics(ForestMetrics metrics) {
+    }
+
     interface HttpExecutorCreator {
         HttpExecutor createExecutor(ForestConnectionManager connectionManager, ForestRequest request, LifeCycleHandler lifeCycleHandler);
     }
@@ -22,5 +22,13 @@ public class HttpConnectionConstants {
      * read timeout
      */
     public final static int DEFAULT_READ_TIMEOUT = 10000;
+    /**
+     * re-validate pooled connections that have been idle longer than this, in milliseconds
+     */
+    public final static int DEFAULT_VALIDATE_AFTER_INACTIVITY = 2000;
+    /**
+     * pooled connections idle longer than this are evicted in the background, in milliseconds
+     */
+    public final static int DEFAULT_MAX_IDLE_TIME = 60000;
 
 }
@@ -7,22 +7,33 @@ import com.dtflys.forest.converter.json.ForestJsonConverter;
 import com.dtflys.forest.handler.LifeCycleHandler;
 import com.dtflys.forest.http.ForestRequest;
 import com.dtflys.forest.http.ForestRequestBody;
+import com.dtflys.forest.http.body.InputStreamRequestBody;
 import com.dtflys.forest.http.body.NameValueRequestBody;
 import com.dtflys.forest.http.body.ObjectRequestBody;
 import com.dtflys.forest.http.body.StringRequestBody;
+import com.dtflys.forest.metrics.ForestMetrics;
+import com.dtflys.forest.multipart.ByteArrayMultipart;
 import com.dtflys.forest.multipart.ForestMultipart;
+import com.dtflys.forest.utils.ForestDataType;
 import com.dtflys.forest.utils.ReflectUtils;
 import com.dtflys.forest.utils.RequestNameValue;
 import com.dtflys.forest.utils.StringUtils;
 
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.io.SequenceInputStream;
 import java.lang.reflect.Array;
+import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Enumeration;
 import java.util.HashMap;
 import java.util.Iterator;
 import java.util.LinkedHashMap;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
 
 
 /**
@@ -150,6 +161,8 @@ public abstract class AbstractBodyBuilder<T> implements BodyBuilder<T> {
                         }
                     }
                     String text = null;
+                    ForestMetrics metrics = request.getConfiguration().getMetrics();
+                    long startTime = metrics != null ? System.nanoTime() : 0;
                     if (toJsonObj instanceof CharSequence || toJsonObj instanceof StringRequestBody) {
                         text = toJsonObj.toString();
                     } else if (toJsonObj instanceof ObjectRequestBody) {
@@ -161,6 +174,9 @@ public abstract class AbstractBodyBuilder<T> implements BodyBuilder<T> {
                     } else {
                         text = jsonConverter.encodeToString(toJsonObj);
                     }
+                    if (metrics != null) {
+                        metrics.recordEncode(ForestDataType.JSON, System.nanoTime() - startTime, TimeUnit.NANOSECONDS);
+                    }
                     setStringBody(httpRequest, text, charset, contentType, mergeCharset);
                 } else {
                     setStringBody(httpRequest, "", charset, contentType, mergeCharset);
@@ -170,27 +186,36 @@ public abstract class AbstractBodyBuilder<T> implements BodyBuilder<T> {
                 setFileBody(httpRequest, request, charset, contentType, nameValueList, multiparts, lifeCycleHandler);
             } else if (mineContentType.isBinary()) {
                 List<ForestMultipart> multiparts = request.getMultiparts();
-                List<byte[]> byteList = new LinkedList<>();
-                int size = 0;
-                for (ForestMultipart multipart : multiparts) {
-                    byte[] byteArray = multipart.getBytes();
-                    byteList.add(byteArray);
-                    size += byteArray.length;
-                }
-                for (ForestRequestBody body : reqBody) {
-                    byte[] byteArray = body.getByteArray();
-                    byteList.add(byteArray);
-                    size += byteArray.length;
-                }
-                byte[] bytes = new byte[size];
-                int pos = 0;
-                for (byte[] bytesItem : byteList) {
-                    for (int i = 0; i < bytesItem.length; i++) {
-                        bytes[pos + i] = bytesItem[i];
+                byte[] bytes = getSingleByteArray(multiparts, reqBody);
+                if (bytes != null) {
+                    setBinaryBody(httpRequest, request, charset, contentType, nameValueList, bytes, lifeCycleHandler);
+                } else {
+                    // 多个二进制内容或输入流按顺序依次写入请求体，不在内存中合并
+                    List<Supplier<InputStream>> suppliers = new ArrayList<>(multiparts.size() + reqBody.size());
+                    long size = 0;
+                    boolean repeatable = true;
+                    for (ForestMultipart multipart : multiparts) {
+                        suppliers.add(multipart::getInputStream);
+                        size = addSize(size, multipart.getSize());
+                        repeatable = repeatable && multipart.isRepeatable();
+                    }
+                    for (ForestRequestBody body : reqBody) {
+                        if (body instanceof InputStreamRequestBody) {
+                            InputStream inputStream = ((InputStreamRequestBody) body).getInputStream();
+                            suppliers.add(() -> inputStream);
+                            size = -1;
+                            repeatable = false;
+                        } else {
+                            byte[] byteArray = body.getByteArray();
+                            suppliers.add(() -> new ByteArrayInputStream(byteArray));
+                            size = addSize(size, byteArray.length);
+                        }
                     }
-                    pos += bytesItem.length;
+                    Supplier<InputStream> contentSupplier = suppliers.size() == 1 ? suppliers.get(0) :
+                            () -> new SequenceInputStream(lazyStreams(suppliers));
+                    setBinaryBody(httpRequest, request, charset, contentType, nameValueList,
+                            contentSupplier, size, repeatable, lifeCycleHandler);
                 }
-                setBinaryBody(httpRequest, request, charset, contentType, nameValueList, bytes, lifeCycleHandler);
             } else {
                 StringBuilder builder = new StringBuilder();
                 List bodyList = request.getBody();
@@ -204,6 +229,55 @@ public abstract class AbstractBodyBuilder<T> implements BodyBuilder<T> {
         }
     }
 
+    /**
+     * 获取只由一个字节数组组成的二进制请求体
+     * @param multiparts Multiparts
+     * @param bodyItems 请求体列表
+     * @return 字节数组，请求体为空时返回空数组，需要以流的形式写入时返回 {@code null}
+     */
+    private byte[] getSingleByteArray(List<ForestMultipart> multiparts, List<ForestRequestBody> bodyItems) {
+        int count = multiparts.size() + bodyItems.size();
+        if (count == 0) {
+            return new byte[0];
+        }
+        if (count > 1) {
+            return null;
+        }
+        if (multiparts.size() == 1) {
+            ForestMultipart multipart = multiparts.get(0);
+            return multipart instanceof ByteArrayMultipart ? multipart.getBytes() : null;
+        }
+        ForestRequestBody body = bodyItems.get(0);
+        return body instanceof InputStreamRequestBody ? null : body.getByteArray();
+    }
+
+    /**
+     * 按顺序依次打开各部分的输入流，读到某一部分时才打开它
+     * @param suppliers 各部分输入流的提供者
+     * @return 输入流的枚举
+     */
+    private static Enumeration<InputStream> lazyStreams(List<Supplier<InputStream>> suppliers) {
+        Iterator<Supplier<InputStream>> iterator = suppliers.iterator();
+        return new Enumeration<InputStream>() {
+            @Override
+            public boolean hasMoreElements() {
+                return iterator.hasNext();
+            }
+
+            @Override
+            public InputStream nextElement() {
+                return iterator.next().get();
+            }
+        };
+    }
+
+    private static long addSize(long size, long partSize) {
+        if (size < 0 || partSize < 0) {
+            return -1;
+        }
+        return size + partSize;
+    }
+
     /**
      * 处理Form表单中的集合项
      * @param newNameValueList 键值对列表
@@ -376,5 +450,28 @@ public abstract class AbstractBodyBuilder<T> implements BodyBuilder<T> {
                                  byte[] bytes,
                                  LifeCycleHandler lifeCycleHandler);
 
+    /**
+     * 设置以流的形式写入的二进制请求体
+     * <p>内容在发送时分块写入，长度未知时使用分块传输编码</p>
+     * @param httpReq 后端请求对象
+     * @param request Forest请求对象
+     * @param charset 字符集
+     * @param contentType 数据类型
+     * @param nameValueList 键值对列表
+     * @param contentSupplier 请求体内容的输入流提供者，每次发送时打开新的输入流
+     * @param contentLength 内容长度，未知时为 -1
+     * @param repeatable 请求体是否可以重复发送
+     * @param lifeCycleHandler 生命周期处理器
+     */
+    protected abstract void setBinaryBody(T httpReq,
+                                 ForestRequest request,
+                                 String charset,
+                                 String contentType,
+                                 List<RequestNameValue> nameValueList,
+                                 Supplier<InputStream> contentSupplier,
+                                 long contentLength,
+                                 boolean repeatable,
+                                 LifeCycleHandler lifeCycleHandler);
+
 
 }
@@ -23,10 +23,12 @@ import org.apache.http.entity.mime.MultipartEntityBuilder;
 import org.apache.http.entity.mime.content.AbstractContentBody;
 import org.apache.http.message.BasicNameValuePair;
 
+import java.io.InputStream;
 import java.io.UnsupportedEncodingException;
 import java.net.URLConnection;
 import java.nio.charset.Charset;
 import java.util.*;
+import java.util.function.Supplier;
 
 /**
  * HttpClient后端的请求Body构造器
@@ -178,4 +180,23 @@ public class HttpclientBodyBuilder<T extends HttpEntityEnclosingRequestBase> ext
         httpReq.setEntity(entity);
     }
 
+    @Override
+    protected void setBinaryBody(T httpReq,
+                                 ForestRequest request,
+                                 String charset,
+                                 String contentType,
+                                 List<RequestNameValue> nameValueList,
+                                 Supplier<InputStream> contentSupplier,
+                                 long contentLength,
+                                 boolean repeatable,
+                                 LifeCycleHandler lifeCycleHandler) {
+
+        if (StringUtils.isBlank(contentType)) {
+            contentType = ContentType.APPLICATION_OCTET_STREAM.toString();
+        }
+        ContentType ctype = ContentType.create(contentType, charset);
+        HttpEntity entity = new HttpclientInputStreamEntity(contentSupplier, contentLength, repeatable, ctype);
+        httpReq.setEntity(entity);
+    }
+
 }
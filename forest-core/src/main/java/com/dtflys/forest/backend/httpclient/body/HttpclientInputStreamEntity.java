@@ -0,0 +1,71 @@
+package com.dtflys.forest.backend.httpclient.body;
+
+import org.apache.http.entity.AbstractHttpEntity;
+import org.apache.http.entity.ContentType;
+import org.apache.http.util.Args;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.function.Supplier;
+
+/**
+ * HttpClient后端以输入流为内容的请求体
+ * <p>发送时从输入流中分块读取并直接写入连接，不在内存中缓存完整的内容，
+ * 长度未知时使用分块传输编码。内容来自只能读取一次的输入流时，请求体不能被重复发送</p>
+ *
+ * @author gongjun[dt_flys@hotmail.com]
+ * @since 1.5.2
+ */
+public class HttpclientInputStreamEntity extends AbstractHttpEntity {
+
+    private final static int BUFFER_SIZE = 4096;
+
+    private final Supplier<InputStream> contentSupplier;
+
+    private final long contentLength;
+
+    private final boolean repeatable;
+
+    public HttpclientInputStreamEntity(Supplier<InputStream> contentSupplier, long contentLength, boolean repeatable, ContentType contentType) {
+        this.contentSupplier = contentSupplier;
+        this.contentLength = contentLength;
+        this.repeatable = repeatable;
+        if (contentType != null) {
+            setContentType(contentType.toString());
+        }
+        setChunked(contentLength < 0);
+    }
+
+    @Override
+    public boolean isRepeatable() {
+        return repeatable;
+    }
+
+    @Override
+    public long getContentLength() {
+        return contentLength;
+    }
+
+    @Override
+    public InputStream getContent() {
+        return contentSupplier.get();
+    }
+
+    @Override
+    public void writeTo(OutputStream outputStream) throws IOException {
+        Args.notNull(outputStream, "Output stream");
+        try (InputStream in = getContent()) {
+            byte[] buffer = new byte[BUFFER_SIZE];
+            int len;
+            while ((len = in.read(buffer)) != -1) {
+                outputStream.write(buffer, 0, len);
+            }
+        }
+    }
+
+    @Override
+    public boolean isStreaming() {
+        return !repeatable;
+    }
+}
@@ -0,0 +1,35 @@
+package com.dtflys.forest.backend.httpclient.conn;
+
+import org.apache.http.HttpRequest;
+import org.apache.http.impl.client.DefaultHttpRequestRetryHandler;
+
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Locale;
+import java.util.Set;
+
+/**
+ * 同步请求的重试处理器
+ * <p>连接池不再在每次租用连接前做阻塞式的过期检查，
+ * 当对端已关闭池中的持久连接（如服务端重启或空闲超时）导致没有响应或连接被重置时，使用新连接重试。
+ * 出错的连接在重试前已经被 httpclient 中止并移出连接池，不影响池中的其它连接</p>
+ * <p>请求发出后才失败的，只重试幂等的请求，POST、PATCH 等非幂等请求不会被重复发送。
+ * 幂等性按请求方法判断，带请求体的 GET、DELETE 等请求同样视为幂等</p>
+ *
+ * @author gongjun[dt_flys@hotmail.com]
+ * @since 1.5.2
+ */
+public class ForestHttpRequestRetryHandler extends DefaultHttpRequestRetryHandler {
+
+    /**
+     * 幂等的请求方法
+     */
+    private final static Set<String> IDEMPOTENT_METHODS = new HashSet<>(Arrays.asList(
+            "GET", "HEAD", "PUT", "DELETE", "OPTIONS", "TRACE"));
+
+    @Override
+    protected boolean handleAsIdempotent(HttpRequest request) {
+        String method = request.getRequestLine().getMethod().toUpperCase(Locale.ROOT);
+        return IDEMPOTENT_METHODS.contains(method);
+    }
+}
@@ -7,9 +7,13 @@ import com.dtflys.forest.exceptions.ForestRuntimeException;
 import com.dtflys.forest.exceptions.ForestUnsupportException;
 import com.dtflys.forest.http.ForestProxy;
 import com.dtflys.forest.http.ForestRequest;
+import com.dtflys.forest.metrics.ForestConnectionPool;
+import com.dtflys.forest.metrics.ForestMetrics;
+import com.dtflys.forest.ssl.SSLKeyStore;
 import com.dtflys.forest.utils.StringUtils;
 import org.apache.http.Consts;
 import org.apache.http.HttpHost;
+import org.apache.http.HttpResponseInterceptor;
 import org.apache.http.auth.AuthSchemeProvider;
 import org.apache.http.auth.AuthScope;
 import org.apache.http.auth.UsernamePasswordCredentials;
@@ -20,42 +24,100 @@ import org.apache.http.client.config.AuthSchemes;
 import org.apache.http.client.config.CookieSpecs;
 import org.apache.http.client.config.RequestConfig;
 import org.apache.http.config.ConnectionConfig;
+import org.apache.http.conn.routing.HttpRoute;
 import org.apache.http.config.Lookup;
 import org.apache.http.config.Registry;
 import org.apache.http.config.RegistryBuilder;
 import org.apache.http.conn.socket.ConnectionSocketFactory;
 import org.apache.http.conn.socket.PlainConnectionSocketFactory;
 import org.apache.http.impl.auth.*;
+import org.apache.http.client.protocol.HttpClientContext;
 import org.apache.http.impl.client.BasicCredentialsProvider;
-import org.apache.http.impl.client.DecompressingHttpClient;
-import org.apache.http.impl.client.HttpClientBuilder;
+import org.apache.http.impl.client.CloseableHttpClient;
 import org.apache.http.impl.client.HttpClients;
 import org.apache.http.impl.conn.PoolingHttpClientConnectionManager;
 import org.apache.http.impl.nio.client.CloseableHttpAsyncClient;
-import org.apache.http.impl.nio.client.HttpAsyncClientBuilder;
 import org.apache.http.impl.nio.client.HttpAsyncClients;
 import org.apache.http.impl.nio.conn.PoolingNHttpClientConnectionManager;
 import org.apache.http.impl.nio.reactor.DefaultConnectingIOReactor;
+import org.apache.http.impl.nio.reactor.IOReactorConfig;
 import org.apache.http.nio.reactor.ConnectingIOReactor;
 import org.apache.http.params.BasicHttpParams;
 import org.apache.http.params.HttpParams;
+import org.apache.http.pool.ConnPoolControl;
 
+import java.io.IOException;
+import java.net.URI;
 import java.nio.charset.CodingErrorAction;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 
 /**
  * @author gongjun[jun.gong@thebeastshop.com]
  * @since 2017-04-20 17:23
  */
 public class HttpclientConnectionManager implements ForestConnectionManager {
+    /**
+     * 异步请求I/O线程工厂，创建的线程均为守护线程，不会阻止JVM退出
+     */
+    private final static ThreadFactory IO_THREAD_FACTORY = new ThreadFactory() {
+        private final AtomicInteger count = new AtomicInteger(0);
+
+        @Override
+        public Thread newThread(Runnable r) {
+            Thread thread = new Thread(r, "forest-httpclient-io-" + count.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        }
+    };
+
+    /**
+     * 请求上下文中记录接收到响应头的时间的属性名，值为 {@link System#nanoTime()} 的返回值
+     */
+    public final static String RESPONSE_RECEIVED_TIME = "forest.response.received.time";
+
+    /**
+     * 异步客户端在接收到响应头、读取响应体之前记录时间，
+     * 与同步客户端和OkHttp后端一样按接收到响应头的时间计算往返时间
+     */
+    private final static HttpResponseInterceptor RECORD_RESPONSE_TIME =
+            (response, context) -> context.setAttribute(RESPONSE_RECEIVED_TIME, System.nanoTime());
+
     private HttpParams httpParams;
-    private static PoolingHttpClientConnectionManager tsConnectionManager;
+    private PoolingHttpClientConnectionManager tsConnectionManager;
+
+    /**
+     * 所有同步请求共享的客户端，超时、代理、Cookie等请求级别的配置通过{@link HttpClientContext}传递
+     */
+    private CloseableHttpClient syncClient;
 
-    private static PoolingNHttpClientConnectionManager asyncConnectionManager;
+    private PoolingNHttpClientConnectionManager asyncConnectionManager;
 
-    private static Lookup<AuthSchemeProvider> authSchemeRegistry;
+    private Lookup<AuthSchemeProvider> authSchemeRegistry;
+
+    /**
+     * 所有异步请求共享的异步客户端，在第一次发送异步请求时创建并启动
+     */
+    private volatile CloseableHttpAsyncClient asyncClient;
 
     private final ForestSSLConnectionFactory sslConnectFactory = new ForestSSLConnectionFactory();
 
+    /**
+     * 单独设置了最大连接数的主机，Key 为小写的主机名
+     */
+    private volatile Map<String, Integer> hostMaxConnections = Collections.emptyMap();
+
+    /**
+     * 已经设置过最大连接数的请求路径
+     */
+    private final Set<HttpRoute> limitedRoutes = ConcurrentHashMap.newKeySet();
+
     public HttpclientConnectionManager() {
     }
 
@@ -67,6 +129,10 @@ public class HttpclientConnectionManager implements ForestConnectionManager {
                     configuration.getMaxConnections() : HttpConnectionConstants.DEFAULT_MAX_TOTAL_CONNECTIONS;
             Integer maxRouteConnections = configuration.getMaxRouteConnections() != null ?
                     configuration.getMaxRouteConnections() : HttpConnectionConstants.DEFAULT_MAX_TOTAL_CONNECTIONS;
+            long keepAliveTime = configuration.getKeepAliveTime() != null ?
+                    configuration.getKeepAliveTime() : HttpConnectionConstants.DEFAULT_MAX_IDLE_TIME;
+            hostMaxConnections = createHostMaxConnections(configuration.getHostMaxConnections());
+            limitedRoutes.clear();
 
             Registry<ConnectionSocketFactory> socketFactoryRegistry =
                     RegistryBuilder.<ConnectionSocketFactory>create()
@@ -77,6 +143,20 @@ public class HttpclientConnectionManager implements ForestConnectionManager {
             tsConnectionManager = new PoolingHttpClientConnectionManager(socketFactoryRegistry);
             tsConnectionManager.setMaxTotal(maxConnections);
             tsConnectionManager.setDefaultMaxPerRoute(maxRouteConnections);
+            // 代替每次请求前的阻塞式过期检查，只有空闲超过一定时间的连接在租用前才重新校验
+            tsConnectionManager.setValidateAfterInactivity(HttpConnectionConstants.DEFAULT_VALIDATE_AFTER_INACTIVITY);
+
+            syncClient = HttpClients.custom()
+                    .setConnectionManager(tsConnectionManager)
+                    .setDefaultRequestConfig(RequestConfig.custom()
+                            .setCookieSpec(CookieSpecs.STANDARD)
+                            .build())
+                    .disableContentCompression()
+                    .setRetryHandler(new ForestHttpRequestRetryHandler())
+                    // 由后台线程清理过期和长时间空闲的连接
+                    .evictExpiredConnections()
+                    .evictIdleConnections(keepAliveTime, TimeUnit.MILLISECONDS)
+                    .build();
 
             /// init async connection manager
             boolean supportAsync = true;
@@ -86,72 +166,116 @@ public class HttpclientConnectionManager implements ForestConnectionManager {
                 supportAsync = false;
             }
             if (supportAsync) {
-                if (asyncConnectionManager == null) {
-                    synchronized (this) {
-                        if (asyncConnectionManager == null) {
-                            int errorRetryCount = 0;
-                            while (errorRetryCount < 5) {
-                                try {
-                                    ConnectingIOReactor ioReactor = new DefaultConnectingIOReactor();
-                                    ConnectionConfig connectionConfig = ConnectionConfig.custom()
-                                            .setMalformedInputAction(CodingErrorAction.IGNORE)
-                                            .setUnmappableInputAction(CodingErrorAction.IGNORE)
-                                            .setCharset(Consts.UTF_8).build();
-
-                                    authSchemeRegistry = RegistryBuilder
-                                            .<AuthSchemeProvider>create()
-                                            .register(AuthSchemes.BASIC, new BasicSchemeFactory())
-                                            .register(AuthSchemes.DIGEST, new DigestSchemeFactory())
-                                            .register(AuthSchemes.NTLM, new NTLMSchemeFactory())
-                                            .register(AuthSchemes.SPNEGO, new SPNegoSchemeFactory())
-                                            .register(AuthSchemes.KERBEROS, new KerberosSchemeFactory())
-                                            .build();
-
-                                    asyncConnectionManager = new PoolingNHttpClientConnectionManager(ioReactor);
-                                    asyncConnectionManager.setMaxTotal(maxConnections);
-                                    asyncConnectionManager.setDefaultMaxPerRoute(maxRouteConnections);
-                                    asyncConnectionManager.setDefaultConnectionConfig(connectionConfig);
-                                    break;
-                                } catch (Throwable t) {
-                                    errorRetryCount++;
-                                    if (errorRetryCount < 5) {
-                                        Thread.sleep((long) Math.pow(2F, errorRetryCount) * 100);
-                                    }
-
-                                }
-                            }
+                int errorRetryCount = 0;
+                while (errorRetryCount < 5) {
+                    try {
+                        ConnectingIOReactor ioReactor = new DefaultConnectingIOReactor(
+                                createIOReactorConfig(configuration), IO_THREAD_FACTORY);
+                        ConnectionConfig connectionConfig = ConnectionConfig.custom()
+                                .setMalformedInputAction(CodingErrorAction.IGNORE)
+                                .setUnmappableInputAction(CodingErrorAction.IGNORE)
+                                .setCharset(Consts.UTF_8).build();
+
+                        authSchemeRegistry = RegistryBuilder
+                                .<AuthSchemeProvider>create()
+                                .register(AuthSchemes.BASIC, new BasicSchemeFactory())
+                                .register(AuthSchemes.DIGEST, new DigestSchemeFactory())
+                                .register(AuthSchemes.NTLM, new NTLMSchemeFactory())
+                                .register(AuthSchemes.SPNEGO, new SPNegoSchemeFactory())
+                                .register(AuthSchemes.KERBEROS, new KerberosSchemeFactory())
+                                .build();
+
+                        asyncConnectionManager = new PoolingNHttpClientConnectionManager(ioReactor);
+                        asyncConnectionManager.setMaxTotal(maxConnections);
+                        asyncConnectionManager.setDefaultMaxPerRoute(maxRouteConnections);
+                        asyncConnectionManager.setDefaultConnectionConfig(connectionConfig);
+                        break;
+                    } catch (Throwable t) {
+                        errorRetryCount++;
+                        if (errorRetryCount < 5) {
+                            Thread.sleep((long) Math.pow(2F, errorRetryCount) * 100);
                         }
+
                     }
                 }
             }
+            ForestMetrics metrics = configuration.getMetrics();
+            if (metrics != null) {
+                bindMetrics(metrics);
+            }
         } catch (Throwable th) {
             throw new ForestRuntimeException(th);
         }
     }
 
-    public HttpClient getHttpClient(ForestRequest request, CookieStore cookieStore) {
+    /**
+     * 获取同步请求客户端
+     * <p>所有同步请求共享同一个客户端和连接池</p>
+     *
+     * @param request Forest请求对象，{@link ForestRequest}类实例
+     * @return 同步请求客户端，{@link HttpClient}类实例
+     */
+    public HttpClient getHttpClient(ForestRequest request) {
         sslConnectFactory.setCurrentRequest(request);
-        HttpClientBuilder builder = HttpClients.custom();
-        builder.setConnectionManager(tsConnectionManager);
-
-        RequestConfig.Builder configBuilder = RequestConfig.custom();
-        // 设置连接超时
-        configBuilder.setConnectTimeout(request.getTimeout());
+        limitRoute(request);
+        return syncClient;
+    }
 
-        // 设置读取超时
+    private static Map<String, Integer> createHostMaxConnections(Map<String, Integer> hostMaxConnections) {
+        if (hostMaxConnections == null || hostMaxConnections.isEmpty()) {
+            return Collections.emptyMap();
+        }
+        Map<String, Integer> result = new HashMap<>();
+        for (Map.Entry<String, Integer> entry : hostMaxConnections.entrySet()) {
+            result.put(entry.getKey().toLowerCase(), entry.getValue());
+        }
+        return result;
+    }
 
-        Integer timeout = request.getTimeout();
-        if (timeout == null) {
-            timeout = request.getConfiguration().getTimeout();
+    /**
+     * 为单独设置了最大连接数的主机设置请求路径的最大连接数
+     * <p>请求路径包含协议和端口，所以在第一次向该路径发送请求时设置</p>
+     *
+     * @param request Forest请求对象，{@link ForestRequest}类实例
+     */
+    private void limitRoute(ForestRequest request) {
+        Map<String, Integer> maxConnections = hostMaxConnections;
+        if (maxConnections.isEmpty()) {
+            return;
         }
-        configBuilder.setSocketTimeout(timeout);
-        // 设置从连接池获取连接实例的超时
-        configBuilder.setConnectionRequestTimeout(HttpConnectionConstants.DEFAULT_READ_TIMEOUT);
-        // 在提交请求之前 测试连接是否可用
-        configBuilder.setStaleConnectionCheckEnabled(true);
-        // 设置Cookie策略
-        configBuilder.setCookieSpec(CookieSpecs.STANDARD);
+        URI uri;
+        try {
+            uri = request.getURI();
+        } catch (ForestRuntimeException e) {
+            return;
+        }
+        String host = uri.getHost();
+        Integer max = host != null ? maxConnections.get(host.toLowerCase()) : null;
+        if (max == null) {
+            return;
+        }
+        boolean secure = "https".equalsIgnoreCase(uri.getScheme());
+        int port = uri.getPort() > 0 ? uri.getPort() : (secure ? 443 : 80);
+        HttpRoute route = new HttpRoute(new HttpHost(host, port, uri.getScheme()), null, secure);
+        if (limitedRoutes.add(route)) {
+            tsConnectionManager.setMaxPerRoute(route, max);
+            if (asyncConnectionManager != null) {
+                asyncConnectionManager.setMaxPerRoute(route, max);
+            }
+        }
+    }
 
+    /**
+     * 创建请求上下文
+     * <p>超时、代理、代理认证信息以及Cookie存储都通过请求上下文传递</p>
+     *
+     * @param request Forest请求对象，{@link ForestRequest}类实例
+     * @param cookieStore Cookie存储
+     * @return 请求上下文，{@link HttpClientContext}类实例
+     */
+    public HttpClientContext createHttpContext(ForestRequest request, CookieStore cookieStore) {
+        HttpClientContext context = HttpClientContext.create();
+        RequestConfig.Builder configBuilder = RequestConfig.copy(getRequestConfig(request));
         ForestProxy forestProxy = request.getProxy();
         if (forestProxy != null) {
             HttpHost proxy = new HttpHost(forestProxy.getHost(), forestProxy.getPort());
@@ -163,22 +287,20 @@ public class HttpclientConnectionManager implements ForestConnectionManager {
                         new UsernamePasswordCredentials(
                                 forestProxy.getUsername(),
                                 forestProxy.getPassword()));
-                builder.setDefaultCredentialsProvider(provider);
+                context.setCredentialsProvider(provider);
             }
             configBuilder.setProxy(proxy);
-
         }
+        context.setRequestConfig(configBuilder.build());
         if (cookieStore != null) {
-            builder.setDefaultCookieStore(cookieStore);
+            context.setCookieStore(cookieStore);
         }
-
-
-        RequestConfig requestConfig = configBuilder.build();
-        HttpClient httpClient = builder
-                .setDefaultRequestConfig(requestConfig)
-                .disableContentCompression()
-                .build();
-        return httpClient;
+        SSLKeyStore keyStore = request.getKeyStore();
+        if (keyStore != null) {
+            // 以Key Store区分连接池中的HTTPS连接，避免不同证书的请求复用同一连接
+            context.setUserToken(keyStore.getId());
+        }
+        return context;
     }
 
 
@@ -189,28 +311,156 @@ public class HttpclientConnectionManager implements ForestConnectionManager {
 
 
 
+    /**
+     * 根据全局配置创建异步请求的I/O反应器配置
+     *
+     * @param configuration 全局配置，{@link ForestConfiguration}类实例
+     * @return I/O反应器配置，{@link IOReactorConfig}类实例
+     */
+    protected IOReactorConfig createIOReactorConfig(ForestConfiguration configuration) {
+        IOReactorConfig.Builder builder = IOReactorConfig.custom();
+        if (configuration.getIoThreadCount() != null) {
+            builder.setIoThreadCount(configuration.getIoThreadCount());
+        }
+        if (configuration.getIoSelectInterval() != null) {
+            builder.setSelectInterval(configuration.getIoSelectInterval());
+        }
+        if (configuration.getIoTcpNoDelay() != null) {
+            builder.setTcpNoDelay(configuration.getIoTcpNoDelay());
+        }
+        if (configuration.getIoSoKeepAlive() != null) {
+            builder.setSoKeepAlive(configuration.getIoSoKeepAlive());
+        }
+        Integer connectTimeout = configuration.getConnectTimeout();
+        if (connectTimeout != null) {
+            builder.setConnectTimeout(connectTimeout);
+        }
+        return builder.build();
+    }
+
+    /**
+     * 获取请求配置
+     * <p>超时时间等请求级别的配置通过每个请求自己的{@link RequestConfig}传递，
+     * 而不是为每个请求创建新的客户端</p>
+     *
+     * @param request Forest请求对象，{@link ForestRequest}类实例
+     * @return 请求配置，{@link RequestConfig}类实例
+     */
+    public RequestConfig getRequestConfig(ForestRequest request) {
+        int timeout = request.getTimeout();
+        return RequestConfig.custom()
+                .setConnectTimeout(timeout)
+                .setSocketTimeout(timeout)
+                .setConnectionRequestTimeout(HttpConnectionConstants.DEFAULT_READ_TIMEOUT)
+                .setCookieSpec(CookieSpecs.STANDARD)
+                .build();
+    }
+
+    /**
+     * 获取异步请求客户端
+     * <p>所有异步请求共享同一个已启动的异步客户端，在连接管理器关闭时一并关闭</p>
+     *
+     * @param request Forest请求对象，{@link ForestRequest}类实例
+     * @return 异步请求客户端，{@link CloseableHttpAsyncClient}类实例
+     */
     public CloseableHttpAsyncClient getHttpAsyncClient(ForestRequest request) {
         if (asyncConnectionManager == null) {
             throw new ForestUnsupportException("Async forest request is unsupported.");
         }
+        limitRoute(request);
+        CloseableHttpAsyncClient client = asyncClient;
+        if (client == null) {
+            synchronized (this) {
+                client = asyncClient;
+                if (client == null) {
+                    RequestConfig defaultRequestConfig = RequestConfig.custom()
+                            .setCookieSpec(CookieSpecs.STANDARD)
+                            .build();
+                    client = HttpAsyncClients.custom()
+                            .setConnectionManager(asyncConnectionManager)
+                            .setDefaultAuthSchemeRegistry(authSchemeRegistry)
+                            .setDefaultRequestConfig(defaultRequestConfig)
+                            .setThreadFactory(IO_THREAD_FACTORY)
+                            .addInterceptorLast(RECORD_RESPONSE_TIME)
+                            .build();
+                    client.start();
+                    asyncClient = client;
+                }
+            }
+        }
+        return client;
+    }
 
-        HttpAsyncClientBuilder builder = HttpAsyncClients.custom();
-
-        Integer timeout = request.getTimeout();
-        if (timeout == null) {
-            timeout = request.getConfiguration().getTimeout();
+    @Override
+    public void close() {
+        synchronized (this) {
+            CloseableHttpAsyncClient client = asyncClient;
+            asyncClient = null;
+            try {
+                if (syncClient != null) {
+                    syncClient.close();
+                    syncClient = null;
+                }
+                if (client != null) {
+                    client.close();
+                } else if (asyncConnectionManager != null) {
+                    asyncConnectionManager.shutdown();
+                }
+            } catch (IOException e) {
+                throw new ForestRuntimeException(e);
+            }
         }
+    }
 
-        RequestConfig requestConfig = RequestConfig.custom()
-                .setConnectTimeout(timeout)
-                .setCookieSpec(CookieSpecs.STANDARD)
-                .setSocketTimeout(HttpConnectionConstants.DEFAULT_READ_TIMEOUT).build();
+    @Override
+    public void bindMetrics(ForestMetrics metrics) {
+        if (tsConnectionManager != null) {
+            metrics.bindConnectionPool("httpclient", new PoolState(tsConnectionManager));
+        }
+        if (asyncConnectionManager != null) {
+            metrics.bindConnectionPool("httpclient-async", new PoolState(asyncConnectionManager));
+        }
+    }
 
-        return builder
-                .setConnectionManager(asyncConnectionManager)
-                .setDefaultAuthSchemeRegistry(authSchemeRegistry)
-                .setDefaultRequestConfig(requestConfig)
-                .build();
+    @Override
+    public void evictIdleConnections() {
+        if (tsConnectionManager != null) {
+            tsConnectionManager.closeIdleConnections(0, TimeUnit.MILLISECONDS);
+        }
+        if (asyncConnectionManager != null) {
+            asyncConnectionManager.closeIdleConnections(0, TimeUnit.MILLISECONDS);
+        }
     }
 
+    /**
+     * 连接池状态，每次读取时从连接池的统计信息中获取
+     */
+    private static class PoolState implements ForestConnectionPool {
+
+        private final ConnPoolControl<?> pool;
+
+        PoolState(ConnPoolControl<?> pool) {
+            this.pool = pool;
+        }
+
+        @Override
+        public int getLeased() {
+            return pool.getTotalStats().getLeased();
+        }
+
+        @Override
+        public int getIdle() {
+            return pool.getTotalStats().getAvailable();
+        }
+
+        @Override
+        public int getPending() {
+            return pool.getTotalStats().getPending();
+        }
+
+        @Override
+        public int getMax() {
+            return pool.getTotalStats().getMax();
+        }
+    }
 }
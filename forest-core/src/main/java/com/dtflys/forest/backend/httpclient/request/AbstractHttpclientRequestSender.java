@@ -2,10 +2,13 @@ package com.dtflys.forest.backend.httpclient.request;
 
 import com.dtflys.forest.backend.httpclient.conn.HttpclientConnectionManager;
 import com.dtflys.forest.backend.httpclient.logging.HttpclientLogBodyMessage;
+import com.dtflys.forest.balancer.ForestEndpoint;
 import com.dtflys.forest.http.ForestCookie;
 import com.dtflys.forest.http.ForestCookies;
 import com.dtflys.forest.http.ForestProxy;
 import com.dtflys.forest.http.ForestRequest;
+import com.dtflys.forest.limiter.ConcurrencyLimitExceededException;
+import com.dtflys.forest.limiter.ForestConcurrencyLimiter;
 import com.dtflys.forest.logging.ForestLogHandler;
 import com.dtflys.forest.logging.LogBodyMessage;
 import com.dtflys.forest.logging.LogConfiguration;
@@ -17,11 +20,14 @@ import org.apache.http.HttpEntity;
 import org.apache.http.client.CookieStore;
 import org.apache.http.client.methods.HttpEntityEnclosingRequestBase;
 import org.apache.http.client.methods.HttpRequestBase;
+import org.apache.http.client.methods.HttpUriRequest;
 import org.apache.http.cookie.Cookie;
+import org.apache.http.protocol.HttpContext;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.net.URI;
+import java.util.concurrent.CompletableFuture;
 
 
 /**
@@ -40,6 +46,112 @@ public abstract class AbstractHttpclientRequestSender implements HttpclientReque
         this.request = request;
     }
 
+    /**
+     * 获取请求所在主机的并发许可
+     *
+     * @param httpRequest HttpClient请求对象
+     * @return 请求许可，没有设置并发限制器时返回 {@code null}
+     * @throws ConcurrencyLimitExceededException 超出并发上限且无法排队时抛出
+     */
+    protected ForestConcurrencyLimiter.Permit acquirePermit(HttpUriRequest httpRequest) throws ConcurrencyLimitExceededException {
+        ForestConcurrencyLimiter limiter = request.getConfiguration().getConcurrencyLimiter();
+        if (limiter == null) {
+            return null;
+        }
+        URI uri = httpRequest.getURI();
+        return limiter.acquire(ForestConcurrencyLimiter.hostOf(uri.getScheme(), uri.getHost(), uri.getPort()));
+    }
+
+    /**
+     * 异步获取请求所在主机的并发许可
+     * <p>超出上限时排队等待其它请求归还许可，不阻塞当前线程</p>
+     *
+     * @param httpRequest HttpClient请求对象
+     * @return 请求许可的 {@link CompletableFuture}，没有设置并发限制器时以 {@code null} 完成
+     */
+    protected CompletableFuture<ForestConcurrencyLimiter.Permit> acquirePermitAsync(HttpUriRequest httpRequest) {
+        ForestConcurrencyLimiter limiter = request.getConfiguration().getConcurrencyLimiter();
+        if (limiter == null) {
+            return CompletableFuture.completedFuture(null);
+        }
+        URI uri = httpRequest.getURI();
+        return limiter.acquireAsync(ForestConcurrencyLimiter.hostOf(uri.getScheme(), uri.getHost(), uri.getPort()),
+                request.getConfiguration().getRetryScheduler());
+    }
+
+    /**
+     * 接收到响应或请求失败后归还并发许可
+     *
+     * @param permit 请求许可，为 {@code null} 时忽略
+     * @param statusCode 响应状态码，请求失败时为 -1
+     */
+    protected void releasePermit(ForestConcurrencyLimiter.Permit permit, int statusCode) {
+        if (permit == null) {
+            return;
+        }
+        ForestConcurrencyLimiter limiter = request.getConfiguration().getConcurrencyLimiter();
+        permit.release(statusCode < 0 || limiter == null || limiter.isDropped(statusCode));
+    }
+
+    /**
+     * 异步请求接收到响应后归还并发许可
+     * <p>异步客户端在读取完响应体后才回调，往返时间按上下文中记录的接收到响应头的时间计算</p>
+     *
+     * @param permit 请求许可，为 {@code null} 时忽略
+     * @param statusCode 响应状态码
+     * @param context 请求上下文
+     */
+    protected void releasePermit(ForestConcurrencyLimiter.Permit permit, int statusCode, HttpContext context) {
+        if (permit == null) {
+            return;
+        }
+        Object responseTime = context.getAttribute(HttpclientConnectionManager.RESPONSE_RECEIVED_TIME);
+        if (!(responseTime instanceof Long)) {
+            releasePermit(permit, statusCode);
+            return;
+        }
+        ForestConcurrencyLimiter limiter = request.getConfiguration().getConcurrencyLimiter();
+        permit.release(limiter == null || limiter.isDropped(statusCode), (Long) responseTime);
+    }
+
+    /**
+     * 重试时切换到节点组中的另一个节点
+     * <p>HttpClient请求对象在重试时会被重复发送，所以需要同时替换它的URI</p>
+     *
+     * @param httpRequest HttpClient请求对象
+     */
+    protected void switchEndpoint(HttpUriRequest httpRequest) {
+        ForestEndpoint previous = request.switchEndpoint();
+        ForestEndpoint current = request.getEndpoint();
+        if (previous == null || previous == current) {
+            return;
+        }
+        String url = previous.rewrite(httpRequest.getURI().toString(), current);
+        ((HttpRequestBase) httpRequest).setURI(URI.create(url));
+    }
+
+    /**
+     * 开始向请求当前使用的节点发送请求
+     *
+     * @return 节点租约，URL没有引用节点组时返回 {@code null}
+     */
+    protected ForestEndpoint.Lease leaseEndpoint() {
+        ForestEndpoint endpoint = request.getEndpoint();
+        return endpoint != null ? endpoint.lease() : null;
+    }
+
+    /**
+     * 接收到响应或请求失败后归还节点租约
+     *
+     * @param lease 节点租约，为 {@code null} 时忽略
+     * @param statusCode 响应状态码，请求失败时为 -1
+     */
+    protected static void releaseEndpoint(ForestEndpoint.Lease lease, int statusCode) {
+        if (lease != null) {
+            lease.release(ForestEndpoint.isFailure(statusCode));
+        }
+    }
+
     protected <T extends  HttpRequestBase> void setLogHeaders(RequestLogMessage logMessage, T httpReq) {
         Header[] headers = httpReq.getAllHeaders();
         for (int i = 0; i < headers.length; i++) {
@@ -2,22 +2,33 @@ package com.dtflys.forest.backend.httpclient.request;
 
 import com.dtflys.forest.backend.httpclient.conn.HttpclientConnectionManager;
 import com.dtflys.forest.backend.httpclient.response.HttpclientForestResponseFactory;
+import com.dtflys.forest.backend.httpclient.response.HttpclientResponseFuture;
 import com.dtflys.forest.backend.httpclient.response.HttpclientResponseHandler;
+import com.dtflys.forest.balancer.ForestEndpoint;
 import com.dtflys.forest.exceptions.ForestNetworkException;
+import com.dtflys.forest.exceptions.ForestRuntimeException;
 import com.dtflys.forest.exceptions.ForestRetryException;
 import com.dtflys.forest.handler.LifeCycleHandler;
+import com.dtflys.forest.hedge.ForestHedge;
 import com.dtflys.forest.http.ForestCookies;
 import com.dtflys.forest.http.ForestRequest;
 import com.dtflys.forest.http.ForestResponse;
 import com.dtflys.forest.http.ForestResponseFactory;
+import com.dtflys.forest.http.HttpStatus;
+import com.dtflys.forest.limiter.ForestConcurrencyLimiter;
+import com.dtflys.forest.utils.ThreadUtils;
 import org.apache.http.client.CookieStore;
 import org.apache.http.client.methods.HttpRequestBase;
+import org.apache.http.client.protocol.HttpClientContext;
 import org.apache.http.concurrent.FutureCallback;
 import org.apache.http.HttpResponse;
 import org.apache.http.client.methods.HttpUriRequest;
 import org.apache.http.impl.nio.client.CloseableHttpAsyncClient;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 
 import java.io.IOException;
+import java.net.URI;
 import java.util.Date;
 import java.util.concurrent.*;
 
@@ -26,6 +37,7 @@ import java.util.concurrent.*;
  * @since 2017-07-21 15:49
  */
 public class AsyncHttpclientRequestSender extends AbstractHttpclientRequestSender {
+    private static Logger log = LoggerFactory.getLogger(AsyncHttpclientRequestSender.class);
 
 
     public AsyncHttpclientRequestSender(HttpclientConnectionManager connectionManager, ForestRequest request) {
@@ -37,63 +49,422 @@ public class AsyncHttpclientRequestSender extends AbstractHttpclientRequestSende
             final ForestRequest request, final HttpclientResponseHandler responseHandler,
             final HttpUriRequest httpRequest, LifeCycleHandler lifeCycleHandler,
             CookieStore cookieStore, Date startDate, int retryCount)  {
-        final CloseableHttpAsyncClient client = connectionManager.getHttpAsyncClient(request);
-        client.start();
-        final ForestResponseFactory forestResponseFactory = new HttpclientForestResponseFactory();
+        HttpclientResponseFuture responseFuture = null;
+        if (responseHandler.isCompletionStageReturn()) {
+            responseFuture = new HttpclientResponseFuture();
+            lifeCycleHandler.handleResult(responseFuture);
+        }
+        sendRequest(request, responseHandler, httpRequest, lifeCycleHandler, cookieStore, startDate, retryCount, responseFuture);
+    }
+
+    /**
+     * 发送异步请求
+     * <p>请求设置了对冲等待时间时，等待时间结束后仍未返回则再发送一个对冲请求，先成功返回的请求胜出</p>
+     *
+     * @param responseFuture 方法返回值为 {@link java.util.concurrent.CompletionStage} 类型时，
+     *                       所有重试共用的异步请求结果，否则为 {@code null}
+     */
+    protected void sendRequest(
+            final ForestRequest request, final HttpclientResponseHandler responseHandler,
+            final HttpUriRequest httpRequest, LifeCycleHandler lifeCycleHandler,
+            CookieStore cookieStore, Date startDate, int retryCount,
+            final HttpclientResponseFuture responseFuture)  {
+        if (responseFuture != null && responseFuture.isDone()) {
+            return;
+        }
+        if (retryCount > 0) {
+            switchEndpoint(httpRequest);
+        }
         logRequest(retryCount, (HttpRequestBase) httpRequest);
-        final Future<HttpResponse> future = client.execute(httpRequest, new FutureCallback<HttpResponse>() {
+        ForestHedge hedge = null;
+        HttpclientResponseFuture raceFuture = null;
+        if (request.isHedged()) {
+            hedge = new ForestHedge(request.getConfiguration().getHedgeBudget());
+            if (responseFuture == null) {
+                // 原始请求可能因为对冲请求胜出而被取消，所以方法返回的 Future 以胜出的请求的结果完成
+                raceFuture = new HttpclientResponseFuture();
+            }
+        }
+        // 只有决定结果的请求会创建响应对象，所以原始请求和对冲请求可以共用同一个响应工厂
+        final ForestResponseFactory forestResponseFactory = new HttpclientForestResponseFactory();
+        final Future<HttpResponse> future = execute(
+                request, responseHandler, httpRequest, httpRequest, request.getEndpoint(), lifeCycleHandler,
+                cookieStore, startDate, retryCount, responseFuture, forestResponseFactory,
+                hedge, ForestHedge.PRIMARY, raceFuture);
+        if (responseFuture != null) {
+            responseFuture.setHttpResponseFuture(future);
+        } else if (raceFuture != null) {
+            raceFuture.setHttpResponseFuture(future);
+            responseHandler.handleFuture(raceFuture, startDate, forestResponseFactory);
+        } else {
+            responseHandler.handleFuture(future, startDate, forestResponseFactory);
+        }
+        if (hedge != null) {
+            // 中止请求会同时关闭连接，只取消 Future 时连接会一直被占用到响应结束
+            hedge.setCanceller(ForestHedge.PRIMARY, ((HttpRequestBase) httpRequest)::abort);
+            scheduleHedge(request, responseHandler, httpRequest, lifeCycleHandler, cookieStore,
+                    startDate, retryCount, responseFuture, forestResponseFactory, hedge, raceFuture);
+        }
+    }
+
+    /**
+     * 等待时间结束后发出对冲请求
+     * <p>对冲请求是原始请求的副本，URL引用节点组时优先发送到另一个节点</p>
+     */
+    private void scheduleHedge(
+            final ForestRequest request, final HttpclientResponseHandler responseHandler,
+            final HttpUriRequest httpRequest, LifeCycleHandler lifeCycleHandler,
+            CookieStore cookieStore, Date startDate, int retryCount,
+            final HttpclientResponseFuture responseFuture, final ForestResponseFactory forestResponseFactory,
+            final ForestHedge hedge, final HttpclientResponseFuture raceFuture) {
+        final HttpclientResponseFuture resultFuture = responseFuture != null ? responseFuture : raceFuture;
+        request.getConfiguration().getRetryScheduler().schedule(() -> {
+            if (resultFuture.isDone() || !hedge.tryHedge()) {
+                return;
+            }
+            HttpRequestBase hedgeRequest;
+            Future<HttpResponse> hedgeFuture;
+            try {
+                hedgeRequest = (HttpRequestBase) ((HttpRequestBase) httpRequest).clone();
+                ForestEndpoint current = request.getEndpoint();
+                ForestEndpoint endpoint = null;
+                if (current != null) {
+                    endpoint = current.getGroup().choose(current);
+                    hedgeRequest.setURI(URI.create(current.rewrite(httpRequest.getURI().toString(), endpoint)));
+                }
+                logRequest(retryCount, hedgeRequest);
+                hedgeFuture = execute(
+                        request, responseHandler, httpRequest, hedgeRequest, endpoint, lifeCycleHandler,
+                        cookieStore, startDate, retryCount, responseFuture, forestResponseFactory,
+                        hedge, ForestHedge.HEDGE, raceFuture);
+            } catch (CloneNotSupportedException | RuntimeException e) {
+                log.error("[Forest] Failed to send the hedged request", e);
+                if (hedge.fail(ForestHedge.HEDGE)) {
+                    resultFuture.completeExceptionally(e);
+                    ForestResponse response = forestResponseFactory.createResponse(
+                            request, null, lifeCycleHandler, e, startDate);
+                    responseHandler.handleError(response, e);
+                }
+                return;
+            }
+            resultFuture.setHedgeResponseFuture(hedgeFuture);
+            hedge.setCanceller(ForestHedge.HEDGE, hedgeRequest::abort);
+        }, request.getHedgeDelay());
+    }
+
+    /**
+     * 执行一次网络请求
+     *
+     * @param httpRequest 原始请求，重试时重新发送该请求
+     * @param attemptRequest 本次执行的请求，为原始请求或对冲请求
+     * @param endpoint 本次请求发送到的节点，URL没有引用节点组时为 {@code null}
+     * @param forestResponseFactory 响应工厂，同一次发送中的原始请求和对冲请求共用
+     * @param hedge 原始请求和对冲请求之间的竞争，不发送对冲请求时为 {@code null}
+     * @param index 请求在竞争中的序号
+     * @param raceFuture 发送对冲请求且方法返回值不是 {@link java.util.concurrent.CompletionStage} 类型时，
+     *                   以胜出的请求的响应完成的结果，否则为 {@code null}
+     * @return 本次请求的 {@link Future}
+     */
+    private Future<HttpResponse> execute(
+            final ForestRequest request, final HttpclientResponseHandler responseHandler,
+            final HttpUriRequest httpRequest, final HttpUriRequest attemptRequest, ForestEndpoint endpoint,
+            LifeCycleHandler lifeCycleHandler, CookieStore cookieStore, Date startDate, int retryCount,
+            final HttpclientResponseFuture responseFuture, final ForestResponseFactory forestResponseFactory,
+            final ForestHedge hedge, final int index, final HttpclientResponseFuture raceFuture) {
+        final CompletableFuture<ForestConcurrencyLimiter.Permit> permitFuture = acquirePermitAsync(attemptRequest);
+        if (permitFuture.isDone()) {
+            return send(request, responseHandler, httpRequest, attemptRequest, endpoint, lifeCycleHandler,
+                    cookieStore, startDate, retryCount, responseFuture, forestResponseFactory,
+                    hedge, index, raceFuture, permitFuture, null);
+        }
+        // 超出并发上限时排队，由归还许可的线程发送请求，不阻塞当前线程
+        final PendingResponseFuture pendingFuture = new PendingResponseFuture(permitFuture);
+        permitFuture.whenComplete((permit, th) -> {
+            if (pendingFuture.isCancelled()) {
+                return;
+            }
+            try {
+                pendingFuture.setHttpResponseFuture(send(
+                        request, responseHandler, httpRequest, attemptRequest, endpoint, lifeCycleHandler,
+                        cookieStore, startDate, retryCount, responseFuture, forestResponseFactory,
+                        hedge, index, raceFuture, permitFuture, pendingFuture));
+            } catch (Throwable sendError) {
+                if (permit != null) {
+                    permit.ignore();
+                }
+                pendingFuture.completeExceptionally(sendError);
+                if (responseFuture != null) {
+                    responseFuture.completeExceptionally(sendError);
+                }
+                if (raceFuture != null) {
+                    raceFuture.completeExceptionally(sendError);
+                }
+                log.error("[Forest] An error occurred while sending the async request", sendError);
+            }
+        });
+        return pendingFuture;
+    }
+
+    /**
+     * 获得并发许可后发送请求
+     *
+     * @param permitFuture 已完成的请求许可
+     * @param pendingFuture 请求排队等待许可时返回的 {@link Future}，由本次请求的结果完成，没有排队时为 {@code null}
+     * @return 本次请求的 {@link Future}
+     */
+    private Future<HttpResponse> send(
+            final ForestRequest request, final HttpclientResponseHandler responseHandler,
+            final HttpUriRequest httpRequest, final HttpUriRequest attemptRequest, ForestEndpoint endpoint,
+            LifeCycleHandler lifeCycleHandler, CookieStore cookieStore, Date startDate, int retryCount,
+            final HttpclientResponseFuture responseFuture, final ForestResponseFactory forestResponseFactory,
+            final ForestHedge hedge, final int index, final HttpclientResponseFuture raceFuture,
+            final CompletableFuture<ForestConcurrencyLimiter.Permit> permitFuture,
+            final PendingResponseFuture pendingFuture) {
+        final CloseableHttpAsyncClient client = connectionManager.getHttpAsyncClient(request);
+        final HttpClientContext context = connectionManager.createHttpContext(request, cookieStore);
+        ForestConcurrencyLimiter.Permit acquiredPermit = null;
+        Exception limitException = null;
+        try {
+            acquiredPermit = permitFuture.join();
+        } catch (CompletionException e) {
+            Throwable cause = e.getCause();
+            limitException = cause instanceof Exception ? (Exception) cause : new ForestRuntimeException(cause);
+        }
+        final ForestConcurrencyLimiter.Permit permit = acquiredPermit;
+        final ForestEndpoint.Lease lease = limitException == null && endpoint != null ? endpoint.lease() : null;
+        final FutureCallback<HttpResponse> callback = new FutureCallback<HttpResponse>() {
+            /**
+             * 由重试调度器在等待结束后重新发送请求，不占用I/O线程
+             *
+             * @param retryException 重试异常
+             * @param onGiveUp 不能重试时的处理
+             */
+            private void retry(ForestRetryException retryException, Runnable onGiveUp) {
+                request.getConfiguration().getRetryScheduler().retry(request, retryException,
+                        () -> sendRequest(request, responseHandler, httpRequest, lifeCycleHandler, cookieStore,
+                                startDate, retryCount + 1, responseFuture),
+                        th -> onGiveUp.run(),
+                        this::retryFailed);
+            }
+
+            /**
+             * 重新发送请求时出错，以异常结束方法返回的结果
+             */
+            private void retryFailed(Throwable th) {
+                completeExceptionally(th);
+                try {
+                    ForestResponse response = new HttpclientForestResponseFactory().createResponse(
+                            request, null, lifeCycleHandler, th, startDate);
+                    responseHandler.handleError(response, th);
+                } catch (Throwable handleError) {
+                    log.error("[Forest] An error occurred while handling the async response", handleError);
+                }
+            }
+
+            /**
+             * 以异常结束方法返回的结果，回调中的异常不能抛到I/O线程，否则会终止共享的I/O反应器
+             */
+            private void completeExceptionally(Throwable th) {
+                if (responseFuture != null) {
+                    responseFuture.completeExceptionally(th);
+                }
+                if (raceFuture != null) {
+                    raceFuture.completeExceptionally(th);
+                }
+            }
+
             @Override
             public void completed(final HttpResponse httpResponse) {
-                ForestResponse response = forestResponseFactory.createResponse(request, httpResponse, lifeCycleHandler, null, startDate);
-                if (response.isError()) {
-                    ForestNetworkException networkException =
-                            new ForestNetworkException("", response.getStatusCode(), response);
-                    ForestRetryException retryException = new ForestRetryException(
-                            networkException,  request, request.getRetryCount(), retryCount);
-                    try {
-                        request.getRetryer().canRetry(retryException);
-                    } catch (Throwable throwable) {
-                        responseHandler.handleError(response);
+                try {
+                    int statusCode = httpResponse.getStatusLine().getStatusCode();
+                    releasePermit(permit, statusCode, context);
+                    releaseEndpoint(lease, statusCode);
+                    if (hedge != null) {
+                        boolean success = statusCode >= HttpStatus.OK && statusCode < HttpStatus.MULTIPLE_CHOICES;
+                        if (!(success ? hedge.win(index) : hedge.fail(index))) {
+                            // 另一个请求还未返回或已经胜出
+                            return;
+                        }
+                        if (raceFuture != null) {
+                            raceFuture.complete(httpResponse);
+                        }
+                    }
+                    ThreadUtils.execute(request.getConfiguration().getCallbackExecutor(), () -> handleResponse(httpResponse));
+                } catch (Throwable th) {
+                    completeExceptionally(th);
+                    log.error("[Forest] An error occurred while handling the async response", th);
+                }
+            }
+
+            private void handleResponse(final HttpResponse httpResponse) {
+                try {
+                    ForestResponse response = forestResponseFactory.createResponse(request, httpResponse, lifeCycleHandler, null, startDate);
+                    if (response.isError()) {
+                        ForestNetworkException networkException =
+                                new ForestNetworkException("", response.getStatusCode(), response);
+                        ForestRetryException retryException = new ForestRetryException(
+                                networkException,  request, request.getRetryCount(), retryCount);
+                        retry(retryException, () -> {
+                            completeExceptionally(networkException);
+                            responseHandler.handleError(response);
+                        });
                         return;
                     }
-                    sendRequest(request, responseHandler, httpRequest, lifeCycleHandler, cookieStore, startDate, retryCount + 1);
-                    return;
+                    try {
+                        ForestCookies cookies = getCookiesFromHttpCookieStore(cookieStore);
+                        lifeCycleHandler.handleSaveCookie(request, cookies);
+                        // 只解码一次，先完成异步结果再执行回调，回调中可以直接取得结果
+                        Object resultData = lifeCycleHandler.handleResultType(request, response);
+                        if (responseFuture != null) {
+                            responseFuture.complete(resultData);
+                        }
+                        responseHandler.handleSuccess(response, resultData);
+                    } finally {
+                        response.releaseContent();
+                    }
+                } catch (Throwable th) {
+                    completeExceptionally(th);
+                    log.error("[Forest] An error occurred while handling the async response", th);
                 }
-                ForestCookies cookies = getCookiesFromHttpCookieStore(cookieStore);
-                lifeCycleHandler.handleSaveCookie(request, cookies);
-                responseHandler.handleSuccess(response);
             }
 
             @Override
             public void failed(final Exception ex) {
-//                synchronized (client) {
-//                    try {
-//                        client.close();
-//                    } catch (IOException e) {
-//                    }
-//                }
-                ForestResponse response = forestResponseFactory.createResponse(request, null, lifeCycleHandler, ex, startDate);
-                ForestRetryException retryException = new ForestRetryException(
-                        ex,  request, request.getRetryCount(), retryCount);
                 try {
-                    request.getRetryer().canRetry(retryException);
-                } catch (Throwable throwable) {
-                    responseHandler.handleError(response, ex);
-                    return;
+                    releasePermit(permit, -1);
+                    releaseEndpoint(lease, -1);
+                    if (hedge != null) {
+                        if (!hedge.fail(index)) {
+                            return;
+                        }
+                        if (raceFuture != null) {
+                            raceFuture.completeExceptionally(ex);
+                        }
+                    }
+                    ThreadUtils.execute(request.getConfiguration().getCallbackExecutor(), () -> handleFailure(ex));
+                } catch (Throwable th) {
+                    completeExceptionally(th);
+                    log.error("[Forest] An error occurred while handling the async response", th);
+                }
+            }
+
+            private void handleFailure(final Exception ex) {
+                try {
+                    ForestResponse response = forestResponseFactory.createResponse(request, null, lifeCycleHandler, ex, startDate);
+                    ForestRetryException retryException = new ForestRetryException(
+                            ex,  request, request.getRetryCount(), retryCount);
+                    retry(retryException, () -> {
+                        completeExceptionally(ex);
+                        responseHandler.handleError(response, ex);
+                    });
+                } catch (Throwable th) {
+                    completeExceptionally(th);
+                    log.error("[Forest] An error occurred while handling the async response", th);
                 }
-                sendRequest(request, responseHandler, httpRequest, lifeCycleHandler, cookieStore, startDate, retryCount + 1);
             }
 
             @Override
             public void cancelled() {
-//                synchronized (client) {
-//                    try {
-//                        client.close();
-//                    } catch (IOException e) {
-//                    }
-//                }
+                try {
+                    if (permit != null) {
+                        permit.ignore();
+                    }
+                    if (lease != null) {
+                        lease.ignore();
+                    }
+                    if (hedge != null && !hedge.fail(index)) {
+                        // 因另一个请求胜出而被取消
+                        return;
+                    }
+                } catch (Throwable th) {
+                    log.error("[Forest] An error occurred while cancelling the async request", th);
+                }
+                if (responseFuture != null) {
+                    responseFuture.cancel(false);
+                }
+                if (raceFuture != null) {
+                    raceFuture.cancel(false);
+                }
             }
-        });
-        responseHandler.handleFuture(future, startDate, forestResponseFactory);
+        };
+        final Future<HttpResponse> future;
+        if (limitException != null) {
+            // 超出并发上限时与连接失败一样处理
+            CompletableFuture<HttpResponse> failedFuture = new CompletableFuture<>();
+            failedFuture.completeExceptionally(limitException);
+            future = failedFuture;
+            if (pendingFuture != null) {
+                pendingFuture.completeExceptionally(limitException);
+            }
+            callback.failed(limitException);
+        } else {
+            future = client.execute(attemptRequest, context,
+                    pendingFuture != null ? pendingFuture.bind(callback) : callback);
+        }
+        return future;
+    }
+
+    /**
+     * 排队等待并发许可的请求的 {@link Future}
+     * <p>获得许可后由实际发送的请求的结果完成，取消时一并取消排队或正在执行的请求</p>
+     */
+    private static class PendingResponseFuture extends CompletableFuture<HttpResponse> {
+
+        private final CompletableFuture<ForestConcurrencyLimiter.Permit> permitFuture;
+
+        private volatile Future<HttpResponse> httpResponseFuture;
+
+        PendingResponseFuture(CompletableFuture<ForestConcurrencyLimiter.Permit> permitFuture) {
+            this.permitFuture = permitFuture;
+        }
+
+        void setHttpResponseFuture(Future<HttpResponse> httpResponseFuture) {
+            this.httpResponseFuture = httpResponseFuture;
+            // 在设置前已被取消的情况
+            if (isCancelled()) {
+                httpResponseFuture.cancel(true);
+            }
+        }
+
+        /**
+         * 包装请求的回调，先完成该 {@link Future} 再执行原回调
+         *
+         * @param callback 原回调
+         * @return 包装后的回调
+         */
+        FutureCallback<HttpResponse> bind(final FutureCallback<HttpResponse> callback) {
+            return new FutureCallback<HttpResponse>() {
+                @Override
+                public void completed(HttpResponse result) {
+                    complete(result);
+                    callback.completed(result);
+                }
+
+                @Override
+                public void failed(Exception ex) {
+                    completeExceptionally(ex);
+                    callback.failed(ex);
+                }
+
+                @Override
+                public void cancelled() {
+                    PendingResponseFuture.super.cancel(false);
+                    callback.cancelled();
+                }
+            };
+        }
+
+        @Override
+        public boolean cancel(boolean mayInterruptIfRunning) {
+            boolean cancelled = super.cancel(mayInterruptIfRunning);
+            if (cancelled) {
+                permitFuture.cancel(false);
+                Future<HttpResponse> currentFuture = this.httpResponseFuture;
+                if (currentFuture != null) {
+                    currentFuture.cancel(mayInterruptIfRunning);
+                }
+            }
+            return cancelled;
+        }
     }
 }
@@ -3,6 +3,7 @@ package com.dtflys.forest.backend.httpclient.request;
 import com.dtflys.forest.backend.httpclient.conn.HttpclientConnectionManager;
 import com.dtflys.forest.backend.httpclient.response.HttpclientForestResponseFactory;
 import com.dtflys.forest.backend.httpclient.response.HttpclientResponseHandler;
+import com.dtflys.forest.balancer.ForestEndpoint;
 import com.dtflys.forest.exceptions.ForestNetworkException;
 import com.dtflys.forest.exceptions.ForestRetryException;
 import com.dtflys.forest.exceptions.ForestRuntimeException;
@@ -10,17 +11,21 @@ import com.dtflys.forest.handler.LifeCycleHandler;
 import com.dtflys.forest.http.ForestRequest;
 import com.dtflys.forest.http.ForestResponse;
 import com.dtflys.forest.http.ForestResponseFactory;
+import com.dtflys.forest.limiter.ForestConcurrencyLimiter;
 import com.dtflys.forest.logging.LogConfiguration;
 import com.dtflys.forest.logging.ForestLogHandler;
 import com.dtflys.forest.logging.ResponseLogMessage;
+import com.dtflys.forest.retryer.RetryScheduler;
 import org.apache.http.HttpResponse;
 import org.apache.http.client.CookieStore;
 import org.apache.http.client.HttpClient;
 import org.apache.http.client.methods.HttpRequestBase;
 import org.apache.http.client.methods.HttpUriRequest;
+import org.apache.http.client.protocol.HttpClientContext;
 import org.apache.http.cookie.*;
 import org.apache.http.impl.cookie.BrowserCompatSpec;
 import org.apache.http.params.HttpParams;
+import org.apache.http.util.EntityUtils;
 
 import java.io.IOException;
 import java.util.Date;
@@ -37,8 +42,8 @@ public class SyncHttpclientRequestSender extends AbstractHttpclientRequestSender
         super(connectionManager, request);
     }
 
-    protected HttpClient getHttpClient(CookieStore cookieStore) {
-        HttpClient client = connectionManager.getHttpClient(request, cookieStore);
+    protected HttpClient getHttpClient() {
+        HttpClient client = connectionManager.getHttpClient(request);
         setupHttpClient(client);
         return client;
     }
@@ -89,30 +94,72 @@ public class SyncHttpclientRequestSender extends AbstractHttpclientRequestSender
             HttpUriRequest httpRequest, LifeCycleHandler lifeCycleHandler,
             CookieStore cookieStore, Date startDate, int retryCount)
             throws IOException {
+        int currentRetryCount = retryCount;
+        while (sendRequestOnce(request, responseHandler, httpRequest, lifeCycleHandler,
+                cookieStore, startDate, currentRetryCount)) {
+            currentRetryCount++;
+        }
+    }
+
+    /**
+     * 发送一次同步请求
+     *
+     * @return 需要重试时返回 {@code true}，否则返回 {@code false}
+     */
+    protected boolean sendRequestOnce(
+            ForestRequest request, HttpclientResponseHandler responseHandler,
+            HttpUriRequest httpRequest, LifeCycleHandler lifeCycleHandler,
+            CookieStore cookieStore, Date startDate, int retryCount)
+            throws IOException {
         HttpResponse httpResponse = null;
         ForestResponse response = null;
-        client = getHttpClient(cookieStore);
+        client = getHttpClient();
+        HttpClientContext context = connectionManager.createHttpContext(request, cookieStore);
         ForestResponseFactory forestResponseFactory = new HttpclientForestResponseFactory();
+        ForestConcurrencyLimiter.Permit permit = null;
+        ForestEndpoint.Lease lease = null;
+        if (retryCount > 0) {
+            switchEndpoint(httpRequest);
+        }
         try {
             logRequest(retryCount, (HttpRequestBase) httpRequest);
-            httpResponse = client.execute(httpRequest);
+            permit = acquirePermit(httpRequest);
+            lease = leaseEndpoint();
+            httpResponse = client.execute(httpRequest, context);
+            int statusCode = httpResponse.getStatusLine().getStatusCode();
+            releasePermit(permit, statusCode);
+            releaseEndpoint(lease, statusCode);
             response = forestResponseFactory.createResponse(request, httpResponse, lifeCycleHandler, null, startDate);
         } catch (IOException e) {
+            releasePermit(permit, -1);
+            releaseEndpoint(lease, -1);
             httpRequest.abort();
             ForestRetryException retryException = new ForestRetryException(
                     e,  request, request.getRetryCount(), retryCount);
+            long interval;
             try {
-                request.getRetryer().canRetry(retryException);
+                interval = request.nextRetryInterval(retryException);
             } catch (Throwable throwable) {
                 response = forestResponseFactory.createResponse(request, httpResponse, lifeCycleHandler, throwable, startDate);
                 lifeCycleHandler.handleSyncWithException(request, response, e);
-                return;
+                return false;
             }
             response = forestResponseFactory.createResponse(request, httpResponse, lifeCycleHandler, null, startDate);
             logResponse(response);
-            sendRequest(request, responseHandler, httpRequest, lifeCycleHandler, cookieStore, startDate, retryCount + 1);
-            return;
+            if (!RetryScheduler.await(interval)) {
+                lifeCycleHandler.handleSyncWithException(request, response, e);
+                return false;
+            }
+            // 清除中止状态，以便同一个请求对象可以再次发送
+            ((HttpRequestBase) httpRequest).reset();
+            return true;
         } finally {
+            if (permit != null) {
+                permit.ignore();
+            }
+            if (lease != null) {
+                lease.ignore();
+            }
             connectionManager.afterConnect();
             if (response == null) {
                 response = forestResponseFactory.createResponse(request, httpResponse, lifeCycleHandler, null, startDate);
@@ -124,14 +171,20 @@ public class SyncHttpclientRequestSender extends AbstractHttpclientRequestSender
                     new ForestNetworkException("", response.getStatusCode(), response);
             ForestRetryException retryException = new ForestRetryException(
                     networkException,  request, request.getRetryCount(), retryCount);
+            long interval;
             try {
-                request.getRetryer().canRetry(retryException);
+                interval = request.nextRetryInterval(retryException);
             } catch (Throwable throwable) {
                 responseHandler.handleSync(httpResponse, response);
-                return;
+                return false;
             }
-            sendRequest(request, responseHandler, httpRequest, lifeCycleHandler, cookieStore, startDate, retryCount + 1);
-            return;
+            if (!RetryScheduler.await(interval)) {
+                responseHandler.handleSync(httpResponse, response);
+                return false;
+            }
+            // 释放连接回连接池后再重试
+            EntityUtils.consumeQuietly(httpResponse.getEntity());
+            return true;
         }
 
         try {
@@ -144,7 +197,10 @@ public class SyncHttpclientRequestSender extends AbstractHttpclientRequestSender
             else {
                 throw new ForestRuntimeException(ex);
             }
+        } finally {
+            response.releaseContent();
         }
+        return false;
     }
 
 }
@@ -15,6 +15,7 @@ import org.apache.http.HttpResponse;
 import org.apache.http.client.entity.GzipDecompressingEntity;
 import org.apache.http.util.EntityUtils;
 
+import java.io.ByteArrayInputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.nio.charset.Charset;
@@ -64,7 +65,12 @@ public class HttpclientForestResponse extends ForestResponse {
                         }
                     }
                 }
-                this.content = buildContent();
+                if (canDecodeAsStream() || canDownloadAsStream()) {
+                    // 响应内容留给转换器或下载文件时直接从网络读取
+                    this.streamingContent = true;
+                } else {
+                    this.content = buildContent();
+                }
             }
         } else {
             this.statusCode = -1;
@@ -122,6 +128,7 @@ public class HttpclientForestResponse extends ForestResponse {
                 return null;
             }
             bytes = IOUtils.toByteArray(inputStream);
+            streamingContent = false;
             return byteToString(bytes);
         } catch (IOException e) {
             throw new ForestRuntimeException(e);
@@ -129,12 +136,29 @@ public class HttpclientForestResponse extends ForestResponse {
     }
 
     @Override
-    public byte[] getByteArray() throws IOException {
+    protected InputStream openContentStream() throws IOException {
+        if (bytes != null) {
+            return new ByteArrayInputStream(bytes);
+        }
+        return entity.getContent();
+    }
+
+    @Override
+    public void releaseContent() {
+        if (streamingContent) {
+            streamingContent = false;
+            EntityUtils.consumeQuietly(entity);
+        }
+    }
+
+    @Override
+    public synchronized byte[] getByteArray() throws IOException {
         if (bytes == null) {
-            if (entity == null) {
+            if (entity == null || contentStreamed) {
                 return null;
             } else {
                 bytes = EntityUtils.toByteArray(entity);
+                streamingContent = false;
             }
         }
         return bytes;
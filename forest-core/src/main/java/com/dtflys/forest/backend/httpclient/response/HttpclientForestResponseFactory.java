@@ -54,7 +54,7 @@ public class HttpclientForestResponseFactory implements ForestResponseFactory<Ht
                 entity = new HttpclientEntity(request, entity, lifeCycleHandler);
             }
         }
-        HttpclientForestResponse response = new HttpclientForestResponse(request, httpResponse, entity, requestTime, new Date());
+        ForestResponse response = new HttpclientForestResponse(request, httpResponse, entity, requestTime, new Date());
 //        int statusCode = httpResponse.getStatusLine().getStatusCode();
 //        response.setStatusCode(statusCode);
 //        httpResponse.getAllHeaders();
@@ -67,8 +67,11 @@ public class HttpclientForestResponseFactory implements ForestResponseFactory<Ht
 //                throw new ForestRuntimeException(e);
 //            }
 //        }
-        this.resultResponse = response;
         response.setException(exception);
+        if (request.isResponseCacheEnabled()) {
+            response = request.getConfiguration().getResponseCache().handleResponse(request, response);
+        }
+        this.resultResponse = response;
         return response;
     }
 
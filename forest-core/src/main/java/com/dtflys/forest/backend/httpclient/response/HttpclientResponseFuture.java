@@ -0,0 +1,57 @@
+package com.dtflys.forest.backend.httpclient.response;
+
+import org.apache.http.HttpResponse;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Future;
+
+/**
+ * httpclient后端异步请求的结果
+ * <p>用于 {@link CompletableFuture} 或 {@link java.util.concurrent.CompletionStage} 类型的方法返回值，
+ * 直接由 httpclient 的回调完成，取消时会一并取消正在执行的请求</p>
+ *
+ * @author gongjun[dt_flys@hotmail.com]
+ * @since 1.5.2
+ */
+public class HttpclientResponseFuture extends CompletableFuture<Object> {
+
+    /**
+     * 当前正在执行的请求，重试时会被替换
+     */
+    private volatile Future<HttpResponse> httpResponseFuture;
+
+    /**
+     * 当前正在执行的对冲请求，没有对冲请求时为空
+     */
+    private volatile Future<HttpResponse> hedgeResponseFuture;
+
+    public void setHttpResponseFuture(Future<HttpResponse> httpResponseFuture) {
+        this.httpResponseFuture = httpResponseFuture;
+        this.hedgeResponseFuture = null;
+        // 在设置前已被取消的情况
+        if (isCancelled()) {
+            httpResponseFuture.cancel(true);
+        }
+    }
+
+    public void setHedgeResponseFuture(Future<HttpResponse> hedgeResponseFuture) {
+        this.hedgeResponseFuture = hedgeResponseFuture;
+        if (isCancelled()) {
+            hedgeResponseFuture.cancel(true);
+        }
+    }
+
+    @Override
+    public boolean cancel(boolean mayInterruptIfRunning) {
+        boolean cancelled = super.cancel(mayInterruptIfRunning);
+        Future<HttpResponse> currentFuture = this.httpResponseFuture;
+        if (cancelled && currentFuture != null) {
+            currentFuture.cancel(mayInterruptIfRunning);
+        }
+        Future<HttpResponse> currentHedgeFuture = this.hedgeResponseFuture;
+        if (cancelled && currentHedgeFuture != null) {
+            currentHedgeFuture.cancel(mayInterruptIfRunning);
+        }
+        return cancelled;
+    }
+}
@@ -9,15 +9,19 @@ import com.dtflys.forest.http.ForestRequest;
 import com.dtflys.forest.http.ForestRequestBody;
 import com.dtflys.forest.http.body.SupportFormUrlEncoded;
 import com.dtflys.forest.mapping.MappingTemplate;
+import com.dtflys.forest.multipart.ByteArrayMultipart;
 import com.dtflys.forest.multipart.ForestMultipart;
 import com.dtflys.forest.utils.RequestNameValue;
 import com.dtflys.forest.utils.StringUtils;
 import okhttp3.*;
 
+import java.io.InputStream;
 import java.net.URLConnection;
 import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
 import java.util.LinkedList;
 import java.util.List;
+import java.util.function.Supplier;
 
 /**
  * @author gongjun[jun.gong@thebeastshop.com]
@@ -52,9 +56,13 @@ public abstract class AbstractOkHttp3BodyBuilder extends AbstractBodyBuilder<Req
                 }
             }
         }
-        byte[] bytes = text.getBytes(cs);
-
-        RequestBody body = RequestBody.create(mediaType, bytes);
+        RequestBody body;
+        if (StandardCharsets.UTF_8.equals(cs)) {
+            // UTF-8 文本在发送时直接编码写入连接，不生成中间的字节数组
+            body = new OkHttpUtf8StringBody(mediaType, text);
+        } else {
+            body = RequestBody.create(mediaType, text.getBytes(cs));
+        }
         setBody(builder, body);
     }
 
@@ -155,8 +163,11 @@ public abstract class AbstractOkHttp3BodyBuilder extends AbstractBodyBuilder<Req
         }
         if (multipart.isFile()) {
             requestBody = RequestBody.create(fileMediaType, multipart.getFile());
-        } else {
+        } else if (multipart instanceof ByteArrayMultipart) {
             requestBody = RequestBody.create(fileMediaType, multipart.getBytes());
+        } else {
+            requestBody = new OkHttpInputStreamBody(
+                    fileMediaType, multipart::getInputStream, multipart.getSize(), multipart.isRepeatable());
         }
 
         wrappedBody = new OkHttpMultipartBody(request, requestBody, lifeCycleHandler);
@@ -179,4 +190,23 @@ public abstract class AbstractOkHttp3BodyBuilder extends AbstractBodyBuilder<Req
         RequestBody body = RequestBody.create(mediaType, bytes);
         setBody(builder, body);
     }
+
+    @Override
+    protected void setBinaryBody(
+            Request.Builder builder,
+            ForestRequest request,
+            String charset,
+            String contentType,
+            List<RequestNameValue> nameValueList,
+            Supplier<InputStream> contentSupplier,
+            long contentLength,
+            boolean repeatable,
+            LifeCycleHandler lifeCycleHandler) {
+        if (StringUtils.isBlank(contentType)) {
+            contentType = ContentType.APPLICATION_OCTET_STREAM;
+        }
+        MediaType mediaType = MediaType.parse(contentType);
+        RequestBody body = new OkHttpInputStreamBody(mediaType, contentSupplier, contentLength, repeatable);
+        setBody(builder, body);
+    }
 }
@@ -0,0 +1,59 @@
+package com.dtflys.forest.backend.okhttp3.body;
+
+import okhttp3.MediaType;
+import okhttp3.RequestBody;
+import okio.BufferedSink;
+import okio.Okio;
+import okio.Source;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.function.Supplier;
+
+/**
+ * OkHttp后端以输入流为内容的请求体
+ * <p>发送时从输入流中分块读取并直接写入连接，不在内存中缓存完整的内容，
+ * 长度未知时使用分块传输编码。内容来自只能读取一次的输入流时，请求体不能被重复发送</p>
+ *
+ * @author gongjun[dt_flys@hotmail.com]
+ * @since 1.5.2
+ */
+public class OkHttpInputStreamBody extends RequestBody {
+
+    private final MediaType mediaType;
+
+    private final Supplier<InputStream> contentSupplier;
+
+    private final long contentLength;
+
+    private final boolean repeatable;
+
+    public OkHttpInputStreamBody(MediaType mediaType, Supplier<InputStream> contentSupplier, long contentLength, boolean repeatable) {
+        this.mediaType = mediaType;
+        this.contentSupplier = contentSupplier;
+        this.contentLength = contentLength;
+        this.repeatable = repeatable;
+    }
+
+    @Override
+    public MediaType contentType() {
+        return mediaType;
+    }
+
+    @Override
+    public long contentLength() {
+        return contentLength;
+    }
+
+    @Override
+    public boolean isOneShot() {
+        return !repeatable;
+    }
+
+    @Override
+    public void writeTo(BufferedSink sink) throws IOException {
+        try (Source source = Okio.source(contentSupplier.get())) {
+            sink.writeAll(source);
+        }
+    }
+}
@@ -0,0 +1,45 @@
+package com.dtflys.forest.backend.okhttp3.body;
+
+import okhttp3.MediaType;
+import okhttp3.RequestBody;
+import okio.BufferedSink;
+import okio.Utf8;
+
+import java.io.IOException;
+
+/**
+ * OkHttp后端以UTF-8编码的文本请求体
+ * <p>内容长度根据文本直接计算，发送时将文本编码后直接写入连接，不生成完整的字节数组</p>
+ *
+ * @author gongjun[dt_flys@hotmail.com]
+ * @since 1.5.2
+ */
+public class OkHttpUtf8StringBody extends RequestBody {
+
+    private final MediaType mediaType;
+
+    private final String text;
+
+    private final long contentLength;
+
+    public OkHttpUtf8StringBody(MediaType mediaType, String text) {
+        this.mediaType = mediaType;
+        this.text = text;
+        this.contentLength = Utf8.size(text);
+    }
+
+    @Override
+    public MediaType contentType() {
+        return mediaType;
+    }
+
+    @Override
+    public long contentLength() {
+        return contentLength;
+    }
+
+    @Override
+    public void writeTo(BufferedSink sink) throws IOException {
+        sink.writeUtf8(text);
+    }
+}
@@ -1,7 +1,9 @@
 package com.dtflys.forest.backend.okhttp3.conn;
 
 import com.dtflys.forest.backend.ForestConnectionManager;
+import com.dtflys.forest.backend.HttpConnectionConstants;
 import com.dtflys.forest.backend.okhttp3.response.OkHttpResponseBody;
+import com.dtflys.forest.balancer.ForestEndpoint;
 import com.dtflys.forest.config.ForestConfiguration;
 import com.dtflys.forest.exceptions.ForestRuntimeException;
 import com.dtflys.forest.handler.LifeCycleHandler;
@@ -9,6 +11,9 @@ import com.dtflys.forest.http.ForestCookie;
 import com.dtflys.forest.http.ForestCookies;
 import com.dtflys.forest.http.ForestProxy;
 import com.dtflys.forest.http.ForestRequest;
+import com.dtflys.forest.limiter.ForestConcurrencyLimiter;
+import com.dtflys.forest.metrics.ForestConnectionPool;
+import com.dtflys.forest.metrics.ForestMetrics;
 import com.dtflys.forest.ssl.ForestX509TrustManager;
 import com.dtflys.forest.ssl.SSLKeyStore;
 import com.dtflys.forest.ssl.SSLUtils;
@@ -16,12 +21,15 @@ import com.dtflys.forest.ssl.TrustAllHostnameVerifier;
 import com.dtflys.forest.ssl.TrustAllManager;
 import com.dtflys.forest.utils.StringUtils;
 import okhttp3.Authenticator;
+import okhttp3.Call;
 import okhttp3.ConnectionPool;
 import okhttp3.Cookie;
-import okhttp3.CookieJar;
-import okhttp3.Credentials;
+import okhttp3.Dispatcher;
 import okhttp3.HttpUrl;
+import okhttp3.Credentials;
+import okhttp3.Interceptor;
 import okhttp3.OkHttpClient;
+import okhttp3.Protocol;
 import okhttp3.Request;
 import okhttp3.Response;
 import okhttp3.Route;
@@ -30,13 +38,23 @@ import javax.annotation.Nullable;
 import javax.net.ssl.SSLSocketFactory;
 import javax.net.ssl.TrustManagerFactory;
 import javax.net.ssl.X509TrustManager;
+import java.io.IOException;
+import java.io.InterruptedIOException;
 import java.net.InetSocketAddress;
 import java.net.Proxy;
 import java.security.KeyStore;
 import java.time.Duration;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.Date;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Semaphore;
 import java.util.concurrent.TimeUnit;
 
 /**
@@ -50,6 +68,26 @@ public class OkHttp3ConnectionManager implements ForestConnectionManager {
      */
     private ConnectionPool pool;
 
+    /**
+     * 根客户端，所有派生客户端共享其连接池、调度器和拦截器
+     */
+    private OkHttpClient rootClient;
+
+    /**
+     * 单独设置了最大连接数的主机的调度器，Key 为小写的主机名
+     */
+    private volatile Map<String, Dispatcher> hostDispatchers = Collections.emptyMap();
+
+    /**
+     * 同步请求的并发数限制
+     */
+    private volatile SyncRequestLimits syncRequestLimits;
+
+    /**
+     * 派生客户端缓存
+     */
+    private final Map<ClientKey, OkHttpClient> clientCache = new ConcurrentHashMap<>();
+
 
     public OkHttp3ConnectionManager() {
     }
@@ -78,60 +116,62 @@ public class OkHttp3ConnectionManager implements ForestConnectionManager {
         return null;
     }
 
+    /**
+     * 获取请求对应的OkHttpClient
+     * <p>相同超时时间、代理、SSL KeyStore和SSL协议的请求共享同一个由根客户端派生出的OkHttpClient，
+     * 派生客户端与根客户端共享连接池、调度器和拦截器，单独设置了最大连接数的主机使用各自的调度器</p>
+     *
+     * @param request Forest请求对象，{@link ForestRequest}类实例
+     * @param lifeCycleHandler 生命周期处理器，{@link LifeCycleHandler}接口实例
+     * @return {@link OkHttpClient}类实例
+     */
     public OkHttpClient getClient(ForestRequest request, LifeCycleHandler lifeCycleHandler) {
-
-        Integer timeout = request.getTimeout();
-        if (timeout == null) {
-            timeout = request.getConfiguration().getTimeout();
+        ClientKey key = new ClientKey(request, dispatcherHost(request));
+        OkHttpClient client = clientCache.get(key);
+        if (client != null) {
+            return client;
         }
+        return clientCache.computeIfAbsent(key, k -> createClient(request, k));
+    }
 
-        OkHttpClient.Builder builder = new OkHttpClient.Builder()
-                .connectionPool(pool)
-                .connectTimeout(timeout, TimeUnit.MILLISECONDS)
-                .readTimeout(timeout, TimeUnit.MILLISECONDS)
-                .cookieJar(new CookieJar() {
-                    @Override
-                    public void saveFromResponse(HttpUrl url, List<Cookie> okCookies) {
-                        ForestCookies cookies = new ForestCookies();
-                        for (Cookie okCookie: okCookies) {
-                            ForestCookie cookie = ForestCookie.createFromOkHttpCookie(okCookie);
-                            cookies.addCookie(cookie);
-                        }
-                        lifeCycleHandler.handleSaveCookie(request, cookies);
-                    }
+    /**
+     * 获取请求的主机名，只有单独设置了最大连接数的主机返回主机名
+     *
+     * @param request Forest请求对象，{@link ForestRequest}类实例
+     * @return 小写的主机名，使用全局调度器时返回 {@code null}
+     */
+    private String dispatcherHost(ForestRequest request) {
+        Map<String, Dispatcher> dispatchers = hostDispatchers;
+        if (dispatchers.isEmpty()) {
+            return null;
+        }
+        String host;
+        try {
+            host = request.getURI().getHost();
+        } catch (ForestRuntimeException e) {
+            return null;
+        }
+        if (host == null) {
+            return null;
+        }
+        host = host.toLowerCase();
+        return dispatchers.containsKey(host) ? host : null;
+    }
 
-                    @Override
-                    public List<Cookie> loadForRequest(HttpUrl url) {
-                        ForestCookies cookies = new ForestCookies();
-                        lifeCycleHandler.handleLoadCookie(request, cookies);
-                        List<ForestCookie> forestCookies = cookies.allCookies();
-                        List<Cookie> okCookies = new ArrayList<>(forestCookies.size());
-                        for (ForestCookie cookie : forestCookies) {
-                            Duration maxAge = cookie.getMaxAge();
-                            Date createTime = cookie.getCreateTime();
-                            long expiresAt = createTime.getTime() + maxAge.toMillis();
-                            Cookie.Builder cookieBuilder = new Cookie.Builder();
-                            cookieBuilder.name(cookie.getName())
-                                .value(cookie.getValue())
-                                .expiresAt(expiresAt)
-                                .path(cookie.getPath());
-                            if (cookie.isHostOnly()) {
-                                cookieBuilder.hostOnlyDomain(cookie.getDomain());
-                            } else {
-                                cookieBuilder.domain(cookie.getDomain());
-                            }
-                            if (cookie.isHttpOnly()) {
-                                cookieBuilder.httpOnly();
-                            }
-                            if (cookie.isSecure()) {
-                                cookieBuilder.secure();
-                            }
-                            Cookie okCookie = cookieBuilder.build();
-                            okCookies.add(okCookie);
-                        }
-                        return okCookies;
-                    }
-                });
+    /**
+     * 根据请求创建派生的OkHttpClient
+     *
+     * @param request Forest请求对象，{@link ForestRequest}类实例
+     * @param key 客户端缓存Key
+     * @return {@link OkHttpClient}类实例
+     */
+    protected OkHttpClient createClient(ForestRequest request, ClientKey key) {
+        OkHttpClient.Builder builder = rootClient.newBuilder()
+                .connectTimeout(key.timeout, TimeUnit.MILLISECONDS)
+                .readTimeout(key.timeout, TimeUnit.MILLISECONDS);
+        if (key.dispatcherHost != null) {
+            builder.dispatcher(hostDispatchers.get(key.dispatcherHost));
+        }
 
         // set proxy
         ForestProxy proxy = request.getProxy();
@@ -154,33 +194,537 @@ public class OkHttp3ConnectionManager implements ForestConnectionManager {
             }
         }
 
-        if ("https".equals(request.getProtocol())) {
-            String protocol = request.getSslProtocol();
-            if (StringUtils.isNotBlank(protocol)) {
-                if (protocol.startsWith("SSL") || protocol.startsWith("ssl")) {
-                    protocol = "SSL";
-                } else if (protocol.startsWith("TLS") || protocol.startsWith("tls")) {
-                    protocol = "TLS";
-                }
-            }
-            SSLSocketFactory sslSocketFactory = SSLUtils.getSSLSocketFactory(request, protocol);
+        if (key.https) {
+            SSLSocketFactory sslSocketFactory = SSLUtils.getSSLSocketFactory(request, key.sslProtocol);
             builder
                     .sslSocketFactory(sslSocketFactory, getX509TrustManager(request))
                     .hostnameVerifier(TrustAllHostnameVerifier.DEFAULT);
         }
-        // add default interceptor
-        builder.addNetworkInterceptor(chain -> {
-            Response response = chain.proceed(chain.request());
-            return response.newBuilder()
-                    .body(new OkHttpResponseBody(request, response.body(), lifeCycleHandler))
+        return builder.build();
+    }
+
+    /**
+     * 为OkHttp请求绑定Forest请求对象和生命周期处理器
+     * <p>共享的OkHttpClient通过请求标签找到当前请求对应的Cookie回调和进度回调</p>
+     *
+     * @param builder OkHttp请求构造器
+     * @param request Forest请求对象，{@link ForestRequest}类实例
+     * @param lifeCycleHandler 生命周期处理器，{@link LifeCycleHandler}接口实例
+     */
+    public void bindRequest(Request.Builder builder, ForestRequest request, LifeCycleHandler lifeCycleHandler) {
+        builder.tag(ForestRequest.class, request)
+                .tag(LifeCycleHandler.class, lifeCycleHandler)
+                .tag(PermitTag.class, new PermitTag());
+    }
+
+    /**
+     * 异步请求放入调度队列前获取并发许可
+     * <p>超出上限时排队等待其它请求归还许可，不阻塞当前线程，也不占用 OkHttp 的调度线程。
+     * 获得的许可由 {@link #limitConcurrency(Interceptor.Chain)} 拦截器在发送请求时取用</p>
+     *
+     * @param call OkHttp请求
+     * @return 获得许可后完成的 {@link CompletableFuture}，超出并发上限且无法排队时以
+     *         {@link com.dtflys.forest.limiter.ConcurrencyLimitExceededException} 异常完成
+     */
+    public CompletableFuture<Void> acquirePermitAsync(Call call) {
+        Request okRequest = call.request();
+        ForestRequest request = okRequest.tag(ForestRequest.class);
+        PermitTag tag = okRequest.tag(PermitTag.class);
+        ForestConcurrencyLimiter limiter = request != null ? request.getConfiguration().getConcurrencyLimiter() : null;
+        if (limiter == null || tag == null) {
+            return CompletableFuture.completedFuture(null);
+        }
+        HttpUrl url = okRequest.url();
+        return limiter.acquireAsync(ForestConcurrencyLimiter.hostOf(url.scheme(), url.host(), url.port()),
+                        request.getConfiguration().getRetryScheduler())
+                .thenAccept(permit -> tag.permit = permit);
+    }
+
+    /**
+     * 请求没有经过拦截器就失败时，归还预先获取的并发许可
+     *
+     * @param call OkHttp请求
+     */
+    public void ignorePermit(Call call) {
+        PermitTag tag = call.request().tag(PermitTag.class);
+        ForestConcurrencyLimiter.Permit permit = tag != null ? tag.take() : null;
+        if (permit != null) {
+            permit.ignore();
+        }
+    }
+
+    /**
+     * 发送同步请求
+     * <p>OkHttp的调度器不限制同步请求，这里按相同的最大请求数和每个主机最大请求数限制同时发送的同步请求，
+     * 超出上限时在当前线程中等待，请求被取消或超过超时时间仍未轮到时抛出 {@link IOException}</p>
+     *
+     * @param call OkHttp请求
+     * @param timeout 等待的超时时间，单位为毫秒，小于等于0时一直等待
+     * @return OkHttp响应
+     * @throws IOException 请求失败、被取消或等待超时时抛出
+     */
+    public Response execute(Call call, long timeout) throws IOException {
+        SyncRequestLimits limits = syncRequestLimits;
+        if (limits == null) {
+            return call.execute();
+        }
+        return limits.execute(call, timeout);
+    }
+
+    private static Response intercept(Interceptor.Chain chain) throws IOException {
+        Request okRequest = chain.request();
+        ForestRequest request = okRequest.tag(ForestRequest.class);
+        LifeCycleHandler lifeCycleHandler = okRequest.tag(LifeCycleHandler.class);
+        if (request == null || lifeCycleHandler == null) {
+            return chain.proceed(okRequest);
+        }
+        List<Cookie> cookiesToSend = loadCookies(request, lifeCycleHandler);
+        if (!cookiesToSend.isEmpty()) {
+            okRequest = okRequest.newBuilder()
+                    .header("Cookie", cookieHeader(cookiesToSend))
                     .build();
-        });
+        }
+        Response response = chain.proceed(okRequest);
+        List<Cookie> okCookies = Cookie.parseAll(okRequest.url(), response.headers());
+        if (!okCookies.isEmpty()) {
+            ForestCookies cookies = new ForestCookies();
+            for (Cookie okCookie: okCookies) {
+                ForestCookie cookie = ForestCookie.createFromOkHttpCookie(okCookie);
+                cookies.addCookie(cookie);
+            }
+            lifeCycleHandler.handleSaveCookie(request, cookies);
+        }
+        return response.newBuilder()
+                .body(new OkHttpResponseBody(request, response.body(), lifeCycleHandler))
+                .build();
+    }
 
-        return builder.build();
+    /**
+     * 按主机限制并发请求数
+     * <p>作为应用拦截器对同步和异步请求都生效，超出上限时抛出的异常与连接失败一样交给重试器处理。
+     * 异步请求在放入调度队列前已经通过 {@link #acquirePermitAsync(Call)} 获得许可，这里直接取用</p>
+     */
+    private static Response limitConcurrency(Interceptor.Chain chain) throws IOException {
+        Request okRequest = chain.request();
+        ForestRequest request = okRequest.tag(ForestRequest.class);
+        ForestConcurrencyLimiter limiter = request != null ? request.getConfiguration().getConcurrencyLimiter() : null;
+        if (limiter == null) {
+            return chain.proceed(okRequest);
+        }
+        PermitTag tag = okRequest.tag(PermitTag.class);
+        ForestConcurrencyLimiter.Permit permit = tag != null ? tag.take() : null;
+        if (permit == null) {
+            // 同步请求在当前线程中排队
+            HttpUrl url = okRequest.url();
+            permit = limiter.acquire(ForestConcurrencyLimiter.hostOf(url.scheme(), url.host(), url.port()));
+        }
+        try {
+            Response response = chain.proceed(okRequest);
+            permit.release(limiter.isDropped(response.code()));
+            return response;
+        } catch (IOException e) {
+            if (chain.call().isCanceled()) {
+                permit.ignore();
+            } else {
+                permit.release(true);
+            }
+            throw e;
+        } finally {
+            permit.ignore();
+        }
+    }
+
+    /**
+     * 记录请求当前使用的节点的并发数、往返时间和失败次数
+     * <p>对冲请求发送到的节点由 {@link ForestEndpoint} 类型的标签指定，其它请求使用请求当前的节点</p>
+     */
+    private static Response leaseEndpoint(Interceptor.Chain chain) throws IOException {
+        Request okRequest = chain.request();
+        ForestRequest request = okRequest.tag(ForestRequest.class);
+        ForestEndpoint endpoint = okRequest.tag(ForestEndpoint.class);
+        if (endpoint == null && request != null) {
+            endpoint = request.getEndpoint();
+        }
+        if (endpoint == null) {
+            return chain.proceed(okRequest);
+        }
+        ForestEndpoint.Lease lease = endpoint.lease();
+        try {
+            Response response = chain.proceed(okRequest);
+            lease.release(ForestEndpoint.isFailure(response.code()));
+            return response;
+        } catch (IOException e) {
+            if (chain.call().isCanceled()) {
+                lease.ignore();
+            } else {
+                lease.release(true);
+            }
+            throw e;
+        } finally {
+            lease.ignore();
+        }
+    }
+
+    private static List<Cookie> loadCookies(ForestRequest request, LifeCycleHandler lifeCycleHandler) {
+        ForestCookies cookies = new ForestCookies();
+        lifeCycleHandler.handleLoadCookie(request, cookies);
+        List<ForestCookie> forestCookies = cookies.allCookies();
+        List<Cookie> okCookies = new ArrayList<>(forestCookies.size());
+        for (ForestCookie cookie : forestCookies) {
+            Duration maxAge = cookie.getMaxAge();
+            Date createTime = cookie.getCreateTime();
+            long expiresAt = createTime.getTime() + maxAge.toMillis();
+            Cookie.Builder cookieBuilder = new Cookie.Builder();
+            cookieBuilder.name(cookie.getName())
+                .value(cookie.getValue())
+                .expiresAt(expiresAt)
+                .path(cookie.getPath());
+            if (cookie.isHostOnly()) {
+                cookieBuilder.hostOnlyDomain(cookie.getDomain());
+            } else {
+                cookieBuilder.domain(cookie.getDomain());
+            }
+            if (cookie.isHttpOnly()) {
+                cookieBuilder.httpOnly();
+            }
+            if (cookie.isSecure()) {
+                cookieBuilder.secure();
+            }
+            Cookie okCookie = cookieBuilder.build();
+            okCookies.add(okCookie);
+        }
+        return okCookies;
+    }
+
+    private static String cookieHeader(List<Cookie> cookies) {
+        StringBuilder cookieHeader = new StringBuilder();
+        for (int i = 0, size = cookies.size(); i < size; i++) {
+            if (i > 0) {
+                cookieHeader.append("; ");
+            }
+            Cookie cookie = cookies.get(i);
+            cookieHeader.append(cookie.name()).append('=').append(cookie.value());
+        }
+        return cookieHeader.toString();
     }
 
     @Override
     public void init(ForestConfiguration configuration) {
-        pool = new ConnectionPool();
+        int maxConnections = configuration.getMaxConnections() != null ?
+                configuration.getMaxConnections() : HttpConnectionConstants.DEFAULT_MAX_TOTAL_CONNECTIONS;
+        int maxRouteConnections = configuration.getMaxRouteConnections() != null ?
+                configuration.getMaxRouteConnections() : HttpConnectionConstants.DEFAULT_MAX_TOTAL_CONNECTIONS;
+        int maxIdleConnections = configuration.getMaxIdleConnections() != null ?
+                configuration.getMaxIdleConnections() : maxConnections;
+        long keepAliveTime = configuration.getKeepAliveTime() != null ?
+                configuration.getKeepAliveTime() : HttpConnectionConstants.DEFAULT_MAX_IDLE_TIME;
+        pool = new ConnectionPool(maxIdleConnections, keepAliveTime, TimeUnit.MILLISECONDS);
+
+        ExecutorService dispatchExecutor = configuration.getDispatchExecutor();
+        Dispatcher dispatcher = dispatchExecutor != null ? new Dispatcher(dispatchExecutor) : new Dispatcher();
+        dispatcher.setMaxRequests(maxConnections);
+        dispatcher.setMaxRequestsPerHost(maxRouteConnections);
+        hostDispatchers = createHostDispatchers(configuration.getHostMaxConnections(), dispatcher);
+        syncRequestLimits = new SyncRequestLimits(maxConnections, maxRouteConnections, hostDispatchers);
+
+        Integer timeout = configuration.getTimeout();
+        OkHttpClient.Builder builder = new OkHttpClient.Builder()
+                .connectionPool(pool)
+                .dispatcher(dispatcher)
+                .addInterceptor(OkHttp3ConnectionManager::limitConcurrency)
+                .addInterceptor(OkHttp3ConnectionManager::leaseEndpoint)
+                .addNetworkInterceptor(OkHttp3ConnectionManager::intercept);
+        if (timeout != null) {
+            builder.connectTimeout(timeout, TimeUnit.MILLISECONDS)
+                    .readTimeout(timeout, TimeUnit.MILLISECONDS);
+        }
+        List<String> httpProtocols = configuration.getHttpProtocols();
+        if (httpProtocols != null && !httpProtocols.isEmpty()) {
+            try {
+                builder.protocols(toProtocols(httpProtocols));
+            } catch (IllegalArgumentException e) {
+                throw new ForestRuntimeException(e);
+            }
+        }
+        Integer pingInterval = configuration.getPingInterval();
+        if (pingInterval != null) {
+            builder.pingInterval(pingInterval, TimeUnit.MILLISECONDS);
+        }
+        rootClient = builder.build();
+        clientCache.clear();
+        ForestMetrics metrics = configuration.getMetrics();
+        if (metrics != null) {
+            bindMetrics(metrics);
+        }
+    }
+
+    @Override
+    public void bindMetrics(ForestMetrics metrics) {
+        OkHttpClient client = rootClient;
+        if (client != null) {
+            metrics.bindConnectionPool("okhttp3", new PoolState(pool, client.dispatcher()));
+        }
+    }
+
+    /**
+     * 为单独设置了最大连接数的主机创建调度器
+     * <p>OkHttp的调度器只能统一设置每个主机的最大请求数，所以这些主机的请求使用各自的调度器，
+     * 与全局调度器共用同一个线程池</p>
+     *
+     * @param hostMaxConnections 按主机名设置的最大连接数
+     * @param dispatcher 全局调度器
+     * @return 调度器表，Key 为小写的主机名
+     */
+    private static Map<String, Dispatcher> createHostDispatchers(Map<String, Integer> hostMaxConnections, Dispatcher dispatcher) {
+        if (hostMaxConnections == null || hostMaxConnections.isEmpty()) {
+            return Collections.emptyMap();
+        }
+        Map<String, Dispatcher> dispatchers = new HashMap<>();
+        for (Map.Entry<String, Integer> entry : hostMaxConnections.entrySet()) {
+            Dispatcher hostDispatcher = new Dispatcher(dispatcher.executorService());
+            hostDispatcher.setMaxRequests(entry.getValue());
+            hostDispatcher.setMaxRequestsPerHost(entry.getValue());
+            dispatchers.put(entry.getKey().toLowerCase(), hostDispatcher);
+        }
+        return dispatchers;
+    }
+
+    @Override
+    public void evictIdleConnections() {
+        ConnectionPool connectionPool = pool;
+        if (connectionPool != null) {
+            connectionPool.evictAll();
+        }
+    }
+
+    private static List<Protocol> toProtocols(List<String> names) {
+        List<Protocol> protocols = new ArrayList<>(names.size());
+        for (String name : names) {
+            try {
+                protocols.add(Protocol.get(name.trim().toLowerCase()));
+            } catch (IOException e) {
+                throw new ForestRuntimeException(e);
+            }
+        }
+        return protocols;
+    }
+
+    /**
+     * 连接池状态
+     * <p>OkHttp的连接池不限制连接数，等待数和最大值取自调度器：排队中的异步请求数和最大并发请求数</p>
+     */
+    private static class PoolState implements ForestConnectionPool {
+
+        private final ConnectionPool pool;
+
+        private final Dispatcher dispatcher;
+
+        PoolState(ConnectionPool pool, Dispatcher dispatcher) {
+            this.pool = pool;
+            this.dispatcher = dispatcher;
+        }
+
+        @Override
+        public int getLeased() {
+            return Math.max(pool.connectionCount() - pool.idleConnectionCount(), 0);
+        }
+
+        @Override
+        public int getIdle() {
+            return pool.idleConnectionCount();
+        }
+
+        @Override
+        public int getPending() {
+            return dispatcher.queuedCallsCount();
+        }
+
+        @Override
+        public int getMax() {
+            return dispatcher.getMaxRequests();
+        }
+    }
+
+    /**
+     * 同步请求的并发数限制
+     * <p>OkHttp的调度器只限制通过 {@code enqueue} 发送的异步请求，同步请求按调度器相同的上限单独计数：
+     * 每个主机的最大请求数和全局的最大请求数。单独设置了最大连接数的主机与其调度器一样不计入全局的最大请求数</p>
+     * <p>等待许可时每隔 {@link #CANCEL_CHECK_INTERVAL} 毫秒检查一次请求是否已取消，超过请求超时时间仍未获得许可时失败</p>
+     */
+    private static class SyncRequestLimits {
+
+        /**
+         * 等待许可时检查请求是否已取消的时间间隔，单位为毫秒
+         */
+        private final static long CANCEL_CHECK_INTERVAL = 50;
+
+        private final Semaphore requests;
+
+        private final int maxRequestsPerHost;
+
+        /**
+         * 单独设置了最大连接数的主机的调度器，Key 为小写的主机名
+         */
+        private final Map<String, Dispatcher> hostDispatchers;
+
+        /**
+         * 各主机的许可，Key 为小写的主机名
+         */
+        private final Map<String, Semaphore> hostRequests = new ConcurrentHashMap<>();
+
+        SyncRequestLimits(int maxRequests, int maxRequestsPerHost, Map<String, Dispatcher> hostDispatchers) {
+            this.requests = new Semaphore(maxRequests);
+            this.maxRequestsPerHost = maxRequestsPerHost;
+            this.hostDispatchers = hostDispatchers;
+        }
+
+        Response execute(Call call, long timeout) throws IOException {
+            String host = call.request().url().host().toLowerCase();
+            Dispatcher hostDispatcher = hostDispatchers.get(host);
+            Semaphore hostSemaphore = hostRequests.computeIfAbsent(host, k -> new Semaphore(
+                    hostDispatcher != null ? hostDispatcher.getMaxRequestsPerHost() : maxRequestsPerHost));
+            long deadline = timeout > 0 ? System.currentTimeMillis() + timeout : Long.MAX_VALUE;
+            acquire(call, hostSemaphore, host, deadline);
+            boolean global = hostDispatcher == null;
+            try {
+                if (global) {
+                    acquire(call, requests, host, deadline);
+                }
+            } catch (IOException e) {
+                hostSemaphore.release();
+                throw e;
+            }
+            try {
+                return call.execute();
+            } finally {
+                if (global) {
+                    requests.release();
+                }
+                hostSemaphore.release();
+            }
+        }
+
+        private static void acquire(Call call, Semaphore semaphore, String host, long deadline) throws IOException {
+            try {
+                while (!semaphore.tryAcquire(
+                        Math.min(CANCEL_CHECK_INTERVAL, deadline - System.currentTimeMillis()), TimeUnit.MILLISECONDS)) {
+                    if (call.isCanceled()) {
+                        throw new IOException("Canceled");
+                    }
+                    if (System.currentTimeMillis() >= deadline) {
+                        throw new InterruptedIOException("Timed out waiting for a request slot of host '" + host + "'");
+                    }
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new InterruptedIOException("Interrupted while waiting for a request slot of host '" + host + "'");
+            }
+        }
+    }
+
+    /**
+     * OkHttpClient缓存Key
+     * <p>只包含会导致客户端配置不同的请求属性：超时时间、代理、SSL KeyStore、SSL协议和单独设置了最大连接数的主机</p>
+     */
+    protected static class ClientKey {
+
+        private final int timeout;
+
+        private final boolean https;
+
+        private final String sslProtocol;
+
+        private final String keyStoreId;
+
+        private final String proxyHost;
+
+        private final int proxyPort;
+
+        private final String proxyUsername;
+
+        private final String proxyPassword;
+
+        private final String dispatcherHost;
+
+        ClientKey(ForestRequest request) {
+            this(request, null);
+        }
+
+        ClientKey(ForestRequest request, String dispatcherHost) {
+            this.dispatcherHost = dispatcherHost;
+            this.timeout = request.getTimeout();
+            this.https = "https".equals(request.getProtocol());
+            if (https) {
+                SSLKeyStore keyStore = request.getKeyStore();
+                this.sslProtocol = normalizeSslProtocol(request.getSslProtocol());
+                this.keyStoreId = keyStore != null ? keyStore.getId() : null;
+            } else {
+                this.sslProtocol = null;
+                this.keyStoreId = null;
+            }
+            ForestProxy proxy = request.getProxy();
+            if (proxy != null) {
+                this.proxyHost = proxy.getHost();
+                this.proxyPort = proxy.getPort();
+                this.proxyUsername = proxy.getUsername();
+                this.proxyPassword = proxy.getPassword();
+            } else {
+                this.proxyHost = null;
+                this.proxyPort = -1;
+                this.proxyUsername = null;
+                this.proxyPassword = null;
+            }
+        }
+
+        private static String normalizeSslProtocol(String protocol) {
+            if (StringUtils.isNotBlank(protocol)) {
+                if (protocol.startsWith("SSL") || protocol.startsWith("ssl")) {
+                    return "SSL";
+                } else if (protocol.startsWith("TLS") || protocol.startsWith("tls")) {
+                    return "TLS";
+                }
+            }
+            return protocol;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof ClientKey)) {
+                return false;
+            }
+            ClientKey that = (ClientKey) o;
+            return timeout == that.timeout
+                    && https == that.https
+                    && proxyPort == that.proxyPort
+                    && Objects.equals(sslProtocol, that.sslProtocol)
+                    && Objects.equals(keyStoreId, that.keyStoreId)
+                    && Objects.equals(proxyHost, that.proxyHost)
+                    && Objects.equals(proxyUsername, that.proxyUsername)
+                    && Objects.equals(proxyPassword, that.proxyPassword)
+                    && Objects.equals(dispatcherHost, that.dispatcherHost);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(timeout, https, sslProtocol, keyStoreId,
+                    proxyHost, proxyPort, proxyUsername, proxyPassword, dispatcherHost);
+        }
+    }
+
+    /**
+     * 请求标签，保存异步请求预先获取的并发许可
+     */
+    private static class PermitTag {
+
+        private volatile ForestConcurrencyLimiter.Permit permit;
+
+        synchronized ForestConcurrencyLimiter.Permit take() {
+            ForestConcurrencyLimiter.Permit current = this.permit;
+            this.permit = null;
+            return current;
+        }
     }
 }
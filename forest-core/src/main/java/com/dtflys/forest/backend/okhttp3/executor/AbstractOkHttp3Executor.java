@@ -4,6 +4,9 @@ import com.dtflys.forest.backend.BodyBuilder;
 import com.dtflys.forest.backend.HttpExecutor;
 import com.dtflys.forest.backend.okhttp3.logging.OkHttp3LogBodyMessage;
 import com.dtflys.forest.backend.url.URLBuilder;
+import com.dtflys.forest.balancer.ForestEndpoint;
+import com.dtflys.forest.config.ForestConfiguration;
+import com.dtflys.forest.hedge.ForestHedge;
 import com.dtflys.forest.exceptions.ForestRetryException;
 import com.dtflys.forest.http.ForestRequest;
 import com.dtflys.forest.http.ForestResponse;
@@ -16,14 +19,18 @@ import com.dtflys.forest.logging.RequestProxyLogMessage;
 import com.dtflys.forest.logging.ResponseLogMessage;
 import com.dtflys.forest.utils.RequestNameValue;
 import com.dtflys.forest.utils.StringUtils;
+import com.dtflys.forest.utils.ThreadUtils;
 import com.dtflys.forest.backend.okhttp3.conn.OkHttp3ConnectionManager;
+import com.dtflys.forest.backend.okhttp3.response.OkHttp3ForestResponse;
 import com.dtflys.forest.backend.okhttp3.response.OkHttp3ForestResponseFactory;
 import com.dtflys.forest.backend.okhttp3.response.OkHttp3ResponseFuture;
 import com.dtflys.forest.backend.okhttp3.response.OkHttp3ResponseHandler;
 import com.dtflys.forest.converter.json.ForestJsonConverter;
 import com.dtflys.forest.exceptions.ForestNetworkException;
+import com.dtflys.forest.exceptions.ForestRuntimeException;
 import com.dtflys.forest.handler.LifeCycleHandler;
 import com.dtflys.forest.mapping.MappingTemplate;
+import com.dtflys.forest.retryer.RetryScheduler;
 import okhttp3.Call;
 import okhttp3.Callback;
 import okhttp3.Headers;
@@ -41,6 +48,9 @@ import java.net.Proxy;
 import java.net.SocketAddress;
 import java.util.Date;
 import java.util.List;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.function.Consumer;
 
 
 /**
@@ -172,115 +182,378 @@ public abstract class AbstractOkHttp3Executor implements HttpExecutor {
     }
 
     public void execute(final LifeCycleHandler lifeCycleHandler, int retryCount) {
+        if (request.isAsync()) {
+            executeAsync(lifeCycleHandler, retryCount);
+            return;
+        }
+        int currentRetryCount = retryCount;
+        while (executeSync(lifeCycleHandler, currentRetryCount)) {
+            currentRetryCount++;
+        }
+    }
+
+    protected Call newCall(final LifeCycleHandler lifeCycleHandler, int retryCount) {
+        if (retryCount > 0) {
+            // 重试时优先选择另一个节点
+            request.switchEndpoint();
+        }
+        return newCall(lifeCycleHandler, retryCount, null);
+    }
+
+    /**
+     * 创建请求
+     *
+     * @param lifeCycleHandler 生命周期处理器
+     * @param retryCount 当前重试次数
+     * @param endpoint 发送到的节点，为 {@code null} 时使用请求当前的节点
+     * @return OkHttp请求
+     */
+    protected Call newCall(final LifeCycleHandler lifeCycleHandler, int retryCount, ForestEndpoint endpoint) {
         OkHttpClient okHttpClient = getClient(request, lifeCycleHandler);
         URLBuilder urlBuilder = getURLBuilder();
         String url = urlBuilder.buildUrl(request);
-        Request.Builder builder = new Request.Builder().url(url);
+        ForestEndpoint current = request.getEndpoint();
+        Request.Builder builder;
+        if (endpoint != null && current != null) {
+            builder = new Request.Builder()
+                    .url(current.rewrite(url, endpoint))
+                    .tag(ForestEndpoint.class, endpoint);
+        } else {
+            builder = new Request.Builder().url(url);
+        }
+        connectionManager.bindRequest(builder, request, lifeCycleHandler);
         prepareMethod(builder);
         prepareHeaders(builder);
         prepareBody(builder, lifeCycleHandler);
 
-
         final Request okRequest = builder.build();
         Call call = okHttpClient.newCall(okRequest);
-        final OkHttp3ForestResponseFactory factory = new OkHttp3ForestResponseFactory();
         logRequest(retryCount, okRequest, okHttpClient);
+        return call;
+    }
+
+    /**
+     * 执行一次同步请求
+     *
+     * @param lifeCycleHandler 生命周期处理器
+     * @param retryCount 当前重试次数
+     * @return 需要重试时返回 {@code true}，否则返回 {@code false}
+     */
+    protected boolean executeSync(final LifeCycleHandler lifeCycleHandler, int retryCount) {
+        Call call = newCall(lifeCycleHandler, retryCount);
+        final OkHttp3ForestResponseFactory factory = new OkHttp3ForestResponseFactory();
         Date startDate = new Date();
-        long startTime = startDate.getTime();
-        if (request.isAsync()) {
-            final OkHttp3ResponseFuture future = new OkHttp3ResponseFuture();
-            call.enqueue(new Callback() {
-                @Override
-                public void onFailure(Call call, IOException e) {
-                    ForestRetryException retryException = new ForestRetryException(
-                            e, request, request.getRetryCount(), retryCount);
-                    try {
-                        request.getRetryer().canRetry(retryException);
-                    } catch (Throwable throwable) {
-                        future.failed(e);
-                        ForestResponse response = factory.createResponse(request, null, lifeCycleHandler, throwable, startDate);
-                        logResponse(response);
-                        lifeCycleHandler.handleError(request, response, e);
-                        return;
-                    }
-                    execute(lifeCycleHandler, retryCount + 1);
+        Response okResponse = null;
+        ForestResponse response = null;
+        try {
+            okResponse = connectionManager.execute(call, request.getTimeout());
+        } catch (IOException e) {
+            ForestRetryException retryException = new ForestRetryException(
+                    e, request, request.getRetryCount(), retryCount);
+            long interval;
+            try {
+                interval = request.nextRetryInterval(retryException);
+            } catch (Throwable throwable) {
+                response = factory.createResponse(request, null, lifeCycleHandler, e, startDate);
+                logResponse(response);
+                lifeCycleHandler.handleSyncWithException(request, response, e);
+                return false;
+            }
+            response = factory.createResponse(request, null, lifeCycleHandler, e, startDate);
+            logResponse(response);
+            if (!RetryScheduler.await(interval)) {
+                lifeCycleHandler.handleSyncWithException(request, response, e);
+                return false;
+            }
+            return true;
+        } finally {
+            if (response == null) {
+                response = factory.createResponse(request, okResponse, lifeCycleHandler, null, startDate);
+            }
+            logResponse(response);
+        }
+
+        if (response.isError()) {
+            Long interval = nextRetryInterval(response, okResponse, retryCount);
+            if (interval == null) {
+                return false;
+            }
+            if (!RetryScheduler.await(interval)) {
+                okHttp3ResponseHandler.handleSync(okResponse, response);
+                return false;
+            }
+            return true;
+        }
+        try {
+            okHttp3ResponseHandler.handleSync(okResponse, response);
+        } finally {
+            response.releaseContent();
+        }
+        return false;
+    }
+
+    /**
+     * 发送异步请求
+     * <p>需要重试时，由重试调度器在等待时间结束后重新发送，不会阻塞 OkHttp 的调度线程</p>
+     *
+     * @param lifeCycleHandler 生命周期处理器
+     * @param retryCount 当前重试次数
+     */
+    protected void executeAsync(final LifeCycleHandler lifeCycleHandler, int retryCount) {
+        final OkHttp3ResponseFuture future = new OkHttp3ResponseFuture();
+        final OkHttp3ForestResponseFactory factory = new OkHttp3ForestResponseFactory();
+        okHttp3ResponseHandler.handleFuture(future, new Date(), factory);
+        executeAsync(lifeCycleHandler, retryCount, future);
+    }
+
+    /**
+     * 发送异步请求
+     * <p>所有重试共用同一个结果对象，请求结束后由回调直接完成</p>
+     * <p>请求设置了对冲等待时间时，等待时间结束后仍未返回则再发送一个对冲请求，先成功返回的请求胜出</p>
+     *
+     * @param lifeCycleHandler 生命周期处理器
+     * @param retryCount 当前重试次数
+     * @param future 异步请求结果
+     */
+    protected void executeAsync(final LifeCycleHandler lifeCycleHandler, int retryCount, final OkHttp3ResponseFuture future) {
+        if (future.isDone()) {
+            return;
+        }
+        Call call = newCall(lifeCycleHandler, retryCount);
+        future.setCall(call);
+        ForestHedge hedge = null;
+        if (request.isHedged()) {
+            hedge = new ForestHedge(request.getConfiguration().getHedgeBudget());
+            hedge.setCanceller(ForestHedge.PRIMARY, call::cancel);
+        }
+        enqueue(call, lifeCycleHandler, retryCount, future, hedge, ForestHedge.PRIMARY);
+        if (hedge != null) {
+            scheduleHedge(lifeCycleHandler, retryCount, future, hedge);
+        }
+    }
+
+    /**
+     * 等待时间结束后发出对冲请求
+     * <p>URL引用节点组时，对冲请求优先发送到另一个节点</p>
+     */
+    private void scheduleHedge(final LifeCycleHandler lifeCycleHandler, int retryCount,
+                               final OkHttp3ResponseFuture future, final ForestHedge hedge) {
+        request.getConfiguration().getRetryScheduler().schedule(() -> {
+            if (future.isDone() || !hedge.tryHedge()) {
+                return;
+            }
+            Call hedgeCall;
+            try {
+                ForestEndpoint endpoint = request.getEndpoint();
+                hedgeCall = newCall(lifeCycleHandler, retryCount,
+                        endpoint != null ? endpoint.getGroup().choose(endpoint) : null);
+            } catch (RuntimeException e) {
+                log.error("[Forest] Failed to send the hedged request", e);
+                if (hedge.fail(ForestHedge.HEDGE)) {
+                    future.failed(e);
+                    ForestResponse response = new OkHttp3ForestResponseFactory()
+                            .createResponse(request, null, lifeCycleHandler, e, new Date());
+                    lifeCycleHandler.handleError(request, response, e);
+                }
+                return;
+            }
+            future.setHedgeCall(hedgeCall);
+            hedge.setCanceller(ForestHedge.HEDGE, hedgeCall::cancel);
+            enqueue(hedgeCall, lifeCycleHandler, retryCount, future, hedge, ForestHedge.HEDGE);
+        }, request.getHedgeDelay());
+    }
+
+    /**
+     * 获得并发许可后将请求放入OkHttp的调度队列
+     * <p>对冲请求的胜负判定和响应内容的读取在调度线程中进行，之后的解码和回调在配置的回调线程池中执行</p>
+     *
+     * @param call OkHttp请求
+     * @param lifeCycleHandler 生命周期处理器
+     * @param retryCount 当前重试次数
+     * @param future 异步请求结果
+     * @param hedge 原始请求和对冲请求之间的竞争，不发送对冲请求时为 {@code null}
+     * @param index 请求在竞争中的序号
+     */
+    private void enqueue(Call call, final LifeCycleHandler lifeCycleHandler, int retryCount,
+                         final OkHttp3ResponseFuture future, final ForestHedge hedge, final int index) {
+        final OkHttp3ForestResponseFactory factory = new OkHttp3ForestResponseFactory();
+        Date startDate = new Date();
+        final Callback callback = new Callback() {
+            @Override
+            public void onFailure(Call call, IOException e) {
+                connectionManager.ignorePermit(call);
+                if (future.isCancelled()) {
+                    return;
+                }
+                if (hedge != null && !hedge.fail(index)) {
+                    // 另一个请求还未返回或已经胜出
+                    return;
                 }
+                ThreadUtils.execute(getCallbackExecutor(), () -> handleFailure(
+                        e, lifeCycleHandler, retryCount, future, factory, startDate));
+            }
 
-                @Override
-                public void onResponse(Call call, Response okResponse) throws IOException {
-                    ForestResponse response = factory.createResponse(request, okResponse, lifeCycleHandler, null, startDate);
-                    logResponse(response);
-                    Object result = null;
-                    if (response.isSuccess()) {
-                        if (request.getOnSuccess() != null) {
-                            result = okHttp3ResponseHandler.handleSuccess(response);
-                        }
-                        else {
-                            result = okHttp3ResponseHandler.handleSync(okResponse, response);
-                        }
-                        future.completed(result);
-                    } else {
-                        retryOrDoError(response, okResponse, future, lifeCycleHandler, retryCount, startTime);
+            @Override
+            public void onResponse(Call call, Response okResponse) {
+                if (hedge != null) {
+                    boolean decided = okResponse.isSuccessful() ? hedge.win(index) : hedge.fail(index);
+                    if (!decided) {
+                        okResponse.close();
+                        return;
                     }
                 }
-            });
-            okHttp3ResponseHandler.handleFuture(future, startDate, factory);
-        }
-        else {
-            Response okResponse = null;
-            ForestResponse response = null;
-            try {
-                okResponse = call.execute();
-            } catch (IOException e) {
-                ForestRetryException retryException = new ForestRetryException(
-                        e, request, request.getRetryCount(), retryCount);
+                ForestResponse response;
                 try {
-                    request.getRetryer().canRetry(retryException);
-                } catch (Throwable throwable) {
-                    response = factory.createResponse(request, null, lifeCycleHandler, e, startDate);
-                    logResponse(response);
-                    lifeCycleHandler.handleSyncWithException(request, response, e);
+                    response = readResponse(okResponse, lifeCycleHandler, factory, startDate);
+                } catch (IOException | RuntimeException e) {
+                    okResponse.close();
+                    IOException ex = e instanceof IOException ? (IOException) e : new IOException(e);
+                    ThreadUtils.execute(getCallbackExecutor(), () -> handleFailure(
+                            ex, lifeCycleHandler, retryCount, future, factory, startDate));
                     return;
                 }
-                response = factory.createResponse(request, null, lifeCycleHandler, e, startDate);
-                logResponse(response);
-                execute(lifeCycleHandler, retryCount + 1);
+                ThreadUtils.execute(getCallbackExecutor(), () -> handleResponse(
+                        okResponse, response, lifeCycleHandler, retryCount, future));
+            }
+        };
+        // 超出并发上限时排队，获得许可后再放入调度队列，排队期间不占用调度线程
+        connectionManager.acquirePermitAsync(call).whenComplete((v, th) -> {
+            if (th == null) {
+                call.enqueue(callback);
                 return;
-            } finally {
-                if (response == null) {
-                    response = factory.createResponse(request, okResponse, lifeCycleHandler, null, startDate);
-                }
-                logResponse(response);
             }
+            Throwable cause = th instanceof CompletionException && th.getCause() != null ? th.getCause() : th;
+            callback.onFailure(call, cause instanceof IOException ? (IOException) cause : new IOException(cause));
+        });
+    }
+
+    /**
+     * 获取异步请求的回调线程池
+     *
+     * @return 回调线程池，在当前线程中处理时返回 {@code null}
+     */
+    private Executor getCallbackExecutor() {
+        ForestConfiguration configuration = request.getConfiguration();
+        Executor executor = configuration.getCallbackExecutor();
+        // 回调线程池就是调度线程池时已经在其中执行，不需要再切换线程
+        return executor == configuration.getDispatchExecutor() ? null : executor;
+    }
+
+    private void handleFailure(IOException e, LifeCycleHandler lifeCycleHandler, int retryCount,
+                               OkHttp3ResponseFuture future, OkHttp3ForestResponseFactory factory, Date startDate) {
+        ForestRetryException retryException = new ForestRetryException(
+                e, request, request.getRetryCount(), retryCount);
+        retry(lifeCycleHandler, retryCount, retryException, future, throwable -> {
+            future.failed(e);
+            ForestResponse response = factory.createResponse(request, null, lifeCycleHandler, throwable, startDate);
+            logResponse(response);
+            lifeCycleHandler.handleError(request, response, e);
+        });
+    }
+
+    /**
+     * 在调度线程中读取响应内容
+     * <p>OkHttp在回调返回后才认为请求已经结束，在调度线程中读完响应内容，
+     * 调度器的最大并发请求数才能覆盖读取响应内容的过程，之后的解码和回调在回调线程池中执行。
+     * 以流的形式反序列化或下载文件的响应内容仍在回调线程池中读取，这部分读取不受调度器的并发数限制</p>
+     *
+     * @return Forest响应对象
+     * @throws IOException 读取响应内容失败时抛出
+     */
+    private ForestResponse readResponse(Response okResponse, LifeCycleHandler lifeCycleHandler,
+                                        OkHttp3ForestResponseFactory factory, Date startDate) throws IOException {
+        ForestResponse response;
+        try {
+            response = factory.createResponse(request, okResponse, lifeCycleHandler, null, startDate);
+        } catch (ForestRuntimeException e) {
+            if (e.getCause() instanceof IOException) {
+                throw (IOException) e.getCause();
+            }
+            throw e;
+        }
+        if (response instanceof OkHttp3ForestResponse) {
+            // 二进制的响应内容在解码时才读取，先读入缓冲区
+            ((OkHttp3ForestResponse) response).bufferContent();
+        }
+        return response;
+    }
 
-            if (response.isError()) {
-                retryOrDoError(response, okResponse, null, lifeCycleHandler, retryCount, startTime);
-                return;
+    private void handleResponse(Response okResponse, ForestResponse response, LifeCycleHandler lifeCycleHandler,
+                                int retryCount, OkHttp3ResponseFuture future) {
+        logResponse(response);
+        if (response.isSuccess()) {
+            try {
+                if (request.getOnSuccess() != null) {
+                    // 只解码一次，先完成异步结果再执行回调，回调中可以直接取得结果
+                    Object resultData = lifeCycleHandler.handleResultType(request, response);
+                    future.completed(resultData);
+                    okHttp3ResponseHandler.handleSuccess(response, resultData);
+                }
+                else {
+                    future.completed(okHttp3ResponseHandler.handleSync(okResponse, response));
+                }
+            } catch (RuntimeException e) {
+                future.failed(e);
+                throw e;
+            } finally {
+                response.releaseContent();
             }
-            okHttp3ResponseHandler.handleSync(okResponse, response);
+        } else {
+            ForestNetworkException networkException =
+                    new ForestNetworkException(okResponse.message(), okResponse.code(), response);
+            ForestRetryException retryException = new ForestRetryException(
+                    networkException, request, request.getRetryCount(), retryCount);
+            retry(lifeCycleHandler, retryCount, retryException, future, throwable -> {
+                future.failed(networkException);
+                okHttp3ResponseHandler.handleSync(okResponse, response);
+            });
         }
     }
 
+    /**
+     * 由重试调度器在等待结束后重新发送请求，不占用 OkHttp 的调度线程
+     *
+     * @param lifeCycleHandler 生命周期处理器
+     * @param retryCount 当前重试次数
+     * @param retryException 重试异常
+     * @param future 异步请求结果
+     * @param onGiveUp 不能重试时的处理，参数为重试器抛出的异常
+     */
+    private void retry(final LifeCycleHandler lifeCycleHandler, int retryCount, ForestRetryException retryException,
+                       final OkHttp3ResponseFuture future, Consumer<Throwable> onGiveUp) {
+        request.getConfiguration().getRetryScheduler().retry(request, retryException,
+                () -> executeAsync(lifeCycleHandler, retryCount + 1, future),
+                onGiveUp,
+                th -> {
+                    // 重新发送请求时出错，以异常结束方法返回的结果
+                    future.failed(th instanceof Exception ? (Exception) th : new ForestRuntimeException(th));
+                    try {
+                        ForestResponse response = new OkHttp3ForestResponseFactory()
+                                .createResponse(request, null, lifeCycleHandler, th, new Date());
+                        lifeCycleHandler.handleError(request, response, th);
+                    } catch (Throwable handleError) {
+                        log.error("[Forest] An error occurred while handling the async response", handleError);
+                    }
+                });
+    }
 
-    private void retryOrDoError(
-            ForestResponse response, Response okResponse,
-            OkHttp3ResponseFuture future, LifeCycleHandler lifeCycleHandler,
-            int retryCount, long startTime) {
+    /**
+     * 同步请求响应出错时判断是否重试
+     *
+     * @return 需要重试时返回等待时间，否则处理错误并返回 {@code null}
+     */
+    private Long nextRetryInterval(ForestResponse response, Response okResponse, int retryCount) {
         ForestNetworkException networkException =
                 new ForestNetworkException(okResponse.message(), okResponse.code(), response);
         ForestRetryException retryException = new ForestRetryException(
                 networkException, request, request.getRetryCount(), retryCount);
         try {
-            request.getRetryer().canRetry(retryException);
+            return request.nextRetryInterval(retryException);
         } catch (Throwable throwable) {
-            if (future != null) {
-                future.failed(new ForestNetworkException(okResponse.message(), okResponse.code(), response));
-            }
             logResponse(response);
             okHttp3ResponseHandler.handleSync(okResponse, response);
-            return;
+            return null;
         }
-        execute(lifeCycleHandler, retryCount + 1);
     }
 
     @Override
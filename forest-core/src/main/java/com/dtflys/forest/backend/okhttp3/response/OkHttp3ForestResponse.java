@@ -11,7 +11,10 @@ import okhttp3.MediaType;
 import okhttp3.Response;
 import okhttp3.ResponseBody;
 
+import java.io.ByteArrayInputStream;
 import java.io.IOException;
+import java.io.InputStream;
+import java.nio.channels.ReadableByteChannel;
 import java.nio.charset.Charset;
 import java.util.Date;
 
@@ -49,7 +52,10 @@ public class OkHttp3ForestResponse extends ForestResponse {
             return;
         }
         setupContentTypeAndEncoding();
-        if (contentType == null || contentType.isEmpty()) {
+        if (canDecodeAsStream() || canDownloadAsStream()) {
+            // 响应内容留给转换器或下载文件时直接从网络读取
+            this.streamingContent = true;
+        } else if (contentType == null || contentType.isEmpty()) {
             this.content = readContentAsString();
         } else if (!request.isDownloadFile() && contentType.canReadAsString()) {
             this.content = readContentAsString();
@@ -71,6 +77,7 @@ public class OkHttp3ForestResponse extends ForestResponse {
     private String readContentAsString() {
         try {
             bytes = body.bytes();
+            streamingContent = false;
             if (bytes == null) {
                 return null;
             }
@@ -111,12 +118,48 @@ public class OkHttp3ForestResponse extends ForestResponse {
     }
 
     @Override
-    public byte[] getByteArray() throws Exception {
+    protected InputStream openContentStream() throws IOException {
+        if (bytes != null) {
+            return new ByteArrayInputStream(bytes);
+        }
+        return body.byteStream();
+    }
+
+    @Override
+    protected ReadableByteChannel openContentChannel() throws IOException {
+        if (bytes != null) {
+            return super.openContentChannel();
+        }
+        return body.source();
+    }
+
+    @Override
+    public void releaseContent() {
+        if (streamingContent) {
+            streamingContent = false;
+            body.close();
+        }
+    }
+
+    /**
+     * 将尚未读取的响应内容读入缓冲区，以流的形式读取的响应内容除外
+     *
+     * @throws IOException 读取响应内容失败时抛出
+     */
+    public synchronized void bufferContent() throws IOException {
+        if (body != null && bytes == null && !streamingContent && !contentStreamed) {
+            body.source().request(Long.MAX_VALUE);
+        }
+    }
+
+    @Override
+    public synchronized byte[] getByteArray() throws Exception {
         if (bytes == null) {
-            if (body == null) {
+            if (body == null || contentStreamed) {
                 return null;
             } else {
                 bytes = body.bytes();
+                streamingContent = false;
             }
         }
         return bytes;
@@ -18,6 +18,9 @@ public class OkHttp3ForestResponseFactory implements ForestResponseFactory<Respo
     public ForestResponse createResponse(ForestRequest request, Response res, LifeCycleHandler lifeCycleHandler, Throwable exception, Date requestTime) {
         ForestResponse response = new OkHttp3ForestResponse(request, res, requestTime, new Date());
         response.setException(exception);
+        if (request.isResponseCacheEnabled()) {
+            response = request.getConfiguration().getResponseCache().handleResponse(request, response);
+        }
         return response;
     }
 }
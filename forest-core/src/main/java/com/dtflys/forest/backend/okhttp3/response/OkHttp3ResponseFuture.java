@@ -1,110 +1,66 @@
 package com.dtflys.forest.backend.okhttp3.response;
 
-import java.util.concurrent.ExecutionException;
-import java.util.concurrent.Future;
-import java.util.concurrent.TimeUnit;
-import java.util.concurrent.TimeoutException;
+import okhttp3.Call;
+
+import java.util.concurrent.CompletableFuture;
 
 /**
+ * OkHttp3后端异步请求的结果
+ * <p>直接由 OkHttp 的回调完成，可作为 {@link java.util.concurrent.Future}、
+ * {@link CompletableFuture} 或 {@link java.util.concurrent.CompletionStage} 类型的方法返回值，
+ * 取消时会一并取消正在执行的 {@link Call}</p>
+ *
  * @author gongjun[jun.gong@thebeastshop.com]
  * @since 2018-02-28 18:10
  */
-public class OkHttp3ResponseFuture implements Future<Object> {
-
-    private volatile boolean cancelled;
-    private volatile boolean completed;
-    private volatile Object result;
-    private volatile Exception ex;
-
-
-    @Override
-    public boolean isCancelled() {
-        return cancelled;
-    }
-
-    @Override
-    public boolean isDone() {
-        return completed;
-    }
-
-    private Object getResult() throws ExecutionException {
-        if (this.ex != null) {
-            throw new ExecutionException(this.ex);
+public class OkHttp3ResponseFuture extends CompletableFuture<Object> {
+
+    /**
+     * 当前正在执行的请求，重试时会被替换
+     */
+    private volatile Call call;
+
+    /**
+     * 当前正在执行的对冲请求，没有对冲请求时为空
+     */
+    private volatile Call hedgeCall;
+
+    public void setCall(Call call) {
+        this.call = call;
+        this.hedgeCall = null;
+        // 在设置前已被取消的情况
+        if (isCancelled()) {
+            call.cancel();
         }
-        return this.result;
     }
 
-
-    @Override
-    public synchronized Object get() throws InterruptedException, ExecutionException {
-        while (!this.completed) {
-            wait();
+    public void setHedgeCall(Call hedgeCall) {
+        this.hedgeCall = hedgeCall;
+        if (isCancelled()) {
+            hedgeCall.cancel();
         }
-        return getResult();
-    }
-
-    @Override
-    public Object get(long timeout, TimeUnit unit) throws InterruptedException, ExecutionException, TimeoutException {
-        final long msecs = unit.toMillis(timeout);
-        final long startTime = (msecs <= 0) ? 0 : System.currentTimeMillis();
-        long waitTime = msecs;
-        if (this.completed) {
-            return getResult();
-        } else if (waitTime <= 0) {
-            throw new TimeoutException();
-        } else {
-            for (;;) {
-                synchronized (this) {
-                    wait(waitTime);
-                    if (this.completed) {
-                        return getResult();
-                    } else {
-                        waitTime = msecs - (System.currentTimeMillis() - startTime);
-                        if (waitTime <= 0) {
-                            throw new TimeoutException();
-                        }
-                    }
-                }
-            }
-        }
-
     }
 
     public boolean completed(final Object response) {
-        synchronized(this) {
-            if (this.completed) {
-                return false;
-            }
-            this.completed = true;
-            this.result = response;
-            notifyAll();
-        }
-        return true;
+        return complete(response);
     }
 
     public boolean failed(final Exception exception) {
-        synchronized(this) {
-            if (this.completed) {
-                return false;
-            }
-            this.completed = true;
-            this.ex = exception;
-            notifyAll();
-        }
-        return true;
+        return completeExceptionally(exception);
     }
 
     @Override
     public boolean cancel(final boolean mayInterruptIfRunning) {
-        synchronized(this) {
-            if (this.completed) {
-                return false;
-            }
-            this.completed = true;
-            this.cancelled = true;
-            notifyAll();
+        boolean cancelled = super.cancel(mayInterruptIfRunning);
+        Call currentCall = this.call;
+        if (cancelled && currentCall != null) {
+            currentCall.cancel();
         }
-        return true;
+        Call currentHedgeCall = this.hedgeCall;
+        if (cancelled && currentHedgeCall != null) {
+            currentHedgeCall.cancel();
+        }
+        return cancelled;
     }
 
     public boolean cancel() {
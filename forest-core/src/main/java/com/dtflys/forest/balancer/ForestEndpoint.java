@@ -0,0 +1,232 @@
+package com.dtflys.forest.balancer;
+
+import com.dtflys.forest.exceptions.ForestRuntimeException;
+import com.dtflys.forest.http.HttpStatus;
+import com.dtflys.forest.utils.StringUtils;
+
+import java.net.MalformedURLException;
+import java.net.URL;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 节点组中的一个节点
+ * <p>记录该节点正在处理的请求数、往返时间的指数加权移动平均值（EWMA）以及连续失败次数，
+ * 连续失败次数达到节点组的阈值时，该节点被暂时移出节点组，冷却时间结束后自动恢复</p>
+ *
+ * @author gongjun[dt_flys@hotmail.com]
+ * @since 1.5.2
+ */
+public class ForestEndpoint {
+
+    private final ForestEndpointGroup group;
+
+    /**
+     * 节点的根地址，不以 {@code /} 结尾
+     */
+    private final String url;
+
+    private final AtomicInteger inFlight = new AtomicInteger(0);
+
+    /**
+     * 往返时间的EWMA（纳秒），以 {@link Double#doubleToLongBits(double)} 的形式保存，为 0 时表示还没有样本
+     */
+    private final AtomicLong latency = new AtomicLong(Double.doubleToLongBits(0));
+
+    private final AtomicInteger consecutiveFailures = new AtomicInteger(0);
+
+    private volatile boolean ejected = false;
+
+    /**
+     * 冷却结束的时刻（{@link System#nanoTime()}）
+     */
+    private volatile long ejectedUntil;
+
+    ForestEndpoint(ForestEndpointGroup group, String url) {
+        this.group = group;
+        this.url = normalize(url);
+    }
+
+    /**
+     * 规范化节点地址，和 {@link com.dtflys.forest.http.ForestRequest#setUrl(String)} 的结果保持一致，
+     * 以便在请求的URL中找到节点地址的前缀
+     */
+    private static String normalize(String url) {
+        if (StringUtils.isBlank(url)) {
+            throw new ForestRuntimeException("[Forest] Endpoint url cannot be empty!");
+        }
+        URL u;
+        try {
+            u = new URL(url.trim());
+        } catch (MalformedURLException e) {
+            throw new ForestRuntimeException(e);
+        }
+        String protocol = u.getProtocol();
+        int port = u.getPort();
+        StringBuilder builder = new StringBuilder();
+        builder.append(protocol).append("://").append(u.getHost());
+        if (port != 80 && port != 443 && port > -1 ||
+                port == 80 && !protocol.equals("http") ||
+                port == 443 && !protocol.equals("https")) {
+            builder.append(':').append(port);
+        }
+        String path = u.getPath();
+        while (path.endsWith("/")) {
+            path = path.substring(0, path.length() - 1);
+        }
+        return builder.append(path).toString();
+    }
+
+    /**
+     * 开始向该节点发送一次请求
+     *
+     * @return 请求租约，请求结束后必须调用 {@link Lease#release(boolean)} 或 {@link Lease#ignore()}
+     */
+    public Lease lease() {
+        inFlight.incrementAndGet();
+        return new Lease(System.nanoTime());
+    }
+
+    private void onSample(long rtt, boolean failure) {
+        double alpha = group.getLatencySmoothing();
+        long prev;
+        long next;
+        do {
+            prev = latency.get();
+            double value = Double.longBitsToDouble(prev);
+            double updated = value == 0 ? rtt : value + alpha * (rtt - value);
+            next = Double.doubleToLongBits(updated);
+        } while (!latency.compareAndSet(prev, next));
+        if (!failure) {
+            consecutiveFailures.set(0);
+            return;
+        }
+        if (consecutiveFailures.incrementAndGet() >= group.getMaxFailures()) {
+            consecutiveFailures.set(0);
+            ejectedUntil = System.nanoTime() + group.getEjectDuration(TimeUnit.NANOSECONDS);
+            ejected = true;
+        }
+    }
+
+    /**
+     * 该节点当前是否可用
+     *
+     * @return {@code true}: 可用, {@code false}: 已被移出且仍在冷却中
+     */
+    public boolean isAvailable() {
+        if (!ejected) {
+            return true;
+        }
+        if (System.nanoTime() - ejectedUntil >= 0) {
+            ejected = false;
+            return true;
+        }
+        return false;
+    }
+
+    /**
+     * 选择节点时的负载分数，越小越优先
+     * <p>以 (正在处理的请求数 + 1) × 往返时间EWMA 估计新请求的等待时间，还没有往返时间样本的节点只比较请求数</p>
+     *
+     * @return 负载分数
+     */
+    double getScore() {
+        double rtt = Double.longBitsToDouble(latency.get());
+        return (inFlight.get() + 1) * Math.max(rtt, 1);
+    }
+
+    /**
+     * 将请求URL中的节点地址替换为另一个节点的地址
+     *
+     * @param url 请求URL
+     * @param target 目标节点
+     * @return 替换后的URL，URL不以本节点的地址开头时原样返回
+     */
+    public String rewrite(String url, ForestEndpoint target) {
+        if (target == this || url == null || !url.startsWith(this.url)) {
+            return url;
+        }
+        return target.url + url.substring(this.url.length());
+    }
+
+    /**
+     * 请求状态码是否视为该节点失败
+     *
+     * @param statusCode 状态码，请求未得到响应时为 -1
+     * @return {@code true}: 失败, {@code false}: 成功
+     */
+    public static boolean isFailure(int statusCode) {
+        return statusCode < 0 || statusCode >= HttpStatus.INTERNAL_SERVER_ERROR;
+    }
+
+    public ForestEndpointGroup getGroup() {
+        return group;
+    }
+
+    public String getUrl() {
+        return url;
+    }
+
+    public int getInFlight() {
+        return inFlight.get();
+    }
+
+    /**
+     * 获取往返时间的EWMA
+     *
+     * @param unit 时间单位
+     * @return 往返时间，还没有样本时为 0
+     */
+    public long getLatency(TimeUnit unit) {
+        return unit.convert((long) Double.longBitsToDouble(latency.get()), TimeUnit.NANOSECONDS);
+    }
+
+    @Override
+    public String toString() {
+        return url;
+    }
+
+    /**
+     * 一次请求对节点的占用
+     */
+    public class Lease {
+
+        private final long startTime;
+
+        private boolean released = false;
+
+        private Lease(long startTime) {
+            this.startTime = startTime;
+        }
+
+        /**
+         * 请求结束，记录往返时间和是否失败
+         *
+         * @param failure 请求是否失败
+         */
+        public void release(boolean failure) {
+            if (released) {
+                return;
+            }
+            released = true;
+            inFlight.decrementAndGet();
+            onSample(System.nanoTime() - startTime, failure);
+        }
+
+        /**
+         * 请求结束，但不记录结果，用于请求被取消等情况，已释放时不做任何事
+         */
+        public void ignore() {
+            if (released) {
+                return;
+            }
+            released = true;
+            inFlight.decrementAndGet();
+        }
+
+        public ForestEndpoint getEndpoint() {
+            return ForestEndpoint.this;
+        }
+    }
+}
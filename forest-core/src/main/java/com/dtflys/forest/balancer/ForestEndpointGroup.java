@@ -0,0 +1,173 @@
+package com.dtflys.forest.balancer;
+
+import com.dtflys.forest.exceptions.ForestRuntimeException;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 节点组
+ * <p>同一个服务的多个节点，在 {@link com.dtflys.forest.config.ForestConfiguration} 中按名称注册后，
+ * 可以在 {@code baseURL} 或 {@code url} 中以 {@code lb://节点组名称} 的形式代替具体的节点地址，
+ * 每次请求时按负载从中选择一个节点</p>
+ * <p>选择节点使用双随机选择（power of two choices）：随机取两个可用节点，选择负载分数较低的一个。
+ * 连续失败的节点会被暂时移出，冷却时间结束后自动恢复；重试时优先选择与上一次不同的节点</p>
+ *
+ * @author gongjun[dt_flys@hotmail.com]
+ * @since 1.5.2
+ */
+public class ForestEndpointGroup {
+
+    /**
+     * 引用节点组的URL协议前缀
+     */
+    public final static String URL_PREFIX = "lb://";
+
+    private final String name;
+
+    private final List<ForestEndpoint> endpoints;
+
+    /**
+     * 移出节点所需的连续失败次数
+     */
+    private int maxFailures = 3;
+
+    /**
+     * 节点被移出后的冷却时间（纳秒）
+     */
+    private long ejectDuration = TimeUnit.SECONDS.toNanos(30);
+
+    /**
+     * 往返时间EWMA的平滑系数，越大越侧重最近的样本
+     */
+    private double latencySmoothing = 0.3;
+
+    public ForestEndpointGroup(String name, List<String> urls) {
+        if (urls == null || urls.isEmpty()) {
+            throw new ForestRuntimeException("[Forest] Endpoint group \"" + name + "\" must have at least one endpoint!");
+        }
+        this.name = name;
+        List<ForestEndpoint> list = new ArrayList<>(urls.size());
+        for (String url : urls) {
+            list.add(new ForestEndpoint(this, url));
+        }
+        this.endpoints = Collections.unmodifiableList(list);
+    }
+
+    /**
+     * URL是否引用了节点组
+     *
+     * @param url URL字符串
+     * @return {@code true}: 以 {@code lb://} 开头, {@code false}: 普通URL
+     */
+    public static boolean isGroupUrl(String url) {
+        return url != null && url.regionMatches(true, 0, URL_PREFIX, 0, URL_PREFIX.length());
+    }
+
+    /**
+     * 从引用节点组的URL中获取节点组名称
+     *
+     * @param url 以 {@code lb://} 开头的URL
+     * @return 节点组名称
+     */
+    public static String getGroupName(String url) {
+        int end = URL_PREFIX.length();
+        while (end < url.length() && "/?#".indexOf(url.charAt(end)) < 0) {
+            end++;
+        }
+        return url.substring(URL_PREFIX.length(), end);
+    }
+
+    /**
+     * 将引用节点组的URL解析为指定节点的URL
+     *
+     * @param url 以 {@code lb://节点组名称} 开头的URL
+     * @param endpoint 节点
+     * @return 节点的URL
+     */
+    public String resolveUrl(String url, ForestEndpoint endpoint) {
+        return endpoint.getUrl() + url.substring(URL_PREFIX.length() + getGroupName(url).length());
+    }
+
+    /**
+     * 选择一个节点
+     *
+     * @return 节点，{@link ForestEndpoint}类实例
+     */
+    public ForestEndpoint choose() {
+        return choose(null);
+    }
+
+    /**
+     * 选择一个节点，尽量避开指定的节点
+     * <p>没有其它可用节点时仍可能返回被避开的节点；所有节点都被移出时从全部节点中选择</p>
+     *
+     * @param excluded 要避开的节点，通常是上一次失败的节点，可以为 {@code null}
+     * @return 节点，{@link ForestEndpoint}类实例
+     */
+    public ForestEndpoint choose(ForestEndpoint excluded) {
+        List<ForestEndpoint> candidates = new ArrayList<>(endpoints.size());
+        for (ForestEndpoint endpoint : endpoints) {
+            if (endpoint != excluded && endpoint.isAvailable()) {
+                candidates.add(endpoint);
+            }
+        }
+        if (candidates.isEmpty()) {
+            if (excluded != null && excluded.isAvailable()) {
+                return excluded;
+            }
+            candidates = endpoints;
+        }
+        int size = candidates.size();
+        if (size == 1) {
+            return candidates.get(0);
+        }
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        int i = random.nextInt(size);
+        int j = random.nextInt(size - 1);
+        if (j >= i) {
+            j++;
+        }
+        ForestEndpoint a = candidates.get(i);
+        ForestEndpoint b = candidates.get(j);
+        return a.getScore() <= b.getScore() ? a : b;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public List<ForestEndpoint> getEndpoints() {
+        return endpoints;
+    }
+
+    public int getMaxFailures() {
+        return maxFailures;
+    }
+
+    public ForestEndpointGroup setMaxFailures(int maxFailures) {
+        this.maxFailures = Math.max(maxFailures, 1);
+        return this;
+    }
+
+    public long getEjectDuration(TimeUnit unit) {
+        return unit.convert(ejectDuration, TimeUnit.NANOSECONDS);
+    }
+
+    public ForestEndpointGroup setEjectDuration(long ejectDuration, TimeUnit unit) {
+        this.ejectDuration = unit.toNanos(ejectDuration);
+        return this;
+    }
+
+    public double getLatencySmoothing() {
+        return latencySmoothing;
+    }
+
+    public ForestEndpointGroup setLatencySmoothing(double latencySmoothing) {
+        this.latencySmoothing = latencySmoothing;
+        return this;
+    }
+}
@@ -0,0 +1,381 @@
+package com.dtflys.forest.breaker;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 熔断器
+ * <p>以固定大小的滑动窗口记录最近若干次调用的结果，失败率或慢调用率达到阈值时打开熔断器，
+ * 打开期间的请求直接失败，不再发送到服务端</p>
+ * <p>打开超过等待时间后进入半开状态，只放行少量的探测请求：探测请求的失败率和慢调用率都低于阈值时关闭熔断器，
+ * 否则重新打开</p>
+ * <p>记录调用结果的环形缓冲区是无锁的，只有状态切换时才需要加锁</p>
+ *
+ * @author gongjun[dt_flys@hotmail.com]
+ * @since 1.5.2
+ */
+public class ForestCircuitBreaker {
+
+    /**
+     * 熔断器状态
+     */
+    public enum State {
+        /**
+         * 关闭：正常放行所有请求
+         */
+        CLOSED,
+        /**
+         * 打开：所有请求直接失败
+         */
+        OPEN,
+        /**
+         * 半开：只放行有限个探测请求
+         */
+        HALF_OPEN
+    }
+
+    private final String name;
+
+    /**
+     * 失败率阈值（百分比）
+     */
+    private float failureRateThreshold = 50;
+
+    /**
+     * 慢调用率阈值（百分比）
+     */
+    private float slowCallRateThreshold = 100;
+
+    /**
+     * 慢调用的耗时阈值（纳秒）
+     */
+    private long slowCallDuration = TimeUnit.SECONDS.toNanos(60);
+
+    /**
+     * 滑动窗口大小
+     */
+    private int windowSize = 100;
+
+    /**
+     * 计算失败率所需的最少调用次数
+     */
+    private int minimumCalls = 10;
+
+    /**
+     * 打开状态的持续时间（纳秒）
+     */
+    private long waitDurationInOpenState = TimeUnit.SECONDS.toNanos(60);
+
+    /**
+     * 半开状态下允许的探测请求数
+     */
+    private int permittedCallsInHalfOpen = 10;
+
+    private volatile State state = State.CLOSED;
+
+    private volatile Window window = new Window(windowSize);
+
+    /**
+     * 熔断器打开的时刻（{@link System#nanoTime()}）
+     */
+    private volatile long openedAt;
+
+    /**
+     * 半开状态下剩余的探测请求数
+     */
+    private final AtomicInteger halfOpenPermits = new AtomicInteger(0);
+
+    public ForestCircuitBreaker(String name) {
+        this.name = name;
+    }
+
+    /**
+     * 尝试获取发送请求的许可
+     *
+     * @return {@code true}: 可以发送请求, {@code false}: 熔断器已打开，请求应直接失败
+     */
+    public boolean tryAcquirePermission() {
+        State current = state;
+        if (current == State.CLOSED) {
+            return true;
+        }
+        if (current == State.OPEN) {
+            if (getRemainingOpenTime(TimeUnit.NANOSECONDS) > 0) {
+                return false;
+            }
+            transition(State.OPEN, State.HALF_OPEN);
+        }
+        for (;;) {
+            int permits = halfOpenPermits.get();
+            if (permits <= 0) {
+                return false;
+            }
+            if (halfOpenPermits.compareAndSet(permits, permits - 1)) {
+                return true;
+            }
+        }
+    }
+
+    /**
+     * 归还获得了许可但最终没有发送的请求的许可
+     * <p>只在半开状态下归还探测请求的名额，其它状态下不需要归还</p>
+     */
+    public void releasePermission() {
+        if (state != State.HALF_OPEN) {
+            return;
+        }
+        for (;;) {
+            int permits = halfOpenPermits.get();
+            if (permits >= permittedCallsInHalfOpen) {
+                return;
+            }
+            if (halfOpenPermits.compareAndSet(permits, permits + 1)) {
+                return;
+            }
+        }
+    }
+
+    /**
+     * 记录一次调用的结果
+     *
+     * @param duration 调用耗时（纳秒）
+     * @param failure 调用是否失败
+     */
+    public void onResult(long duration, boolean failure) {
+        State current = state;
+        if (current == State.OPEN) {
+            return;
+        }
+        Window currentWindow = window;
+        currentWindow.record(failure, duration >= slowCallDuration);
+        int total = currentWindow.total.get();
+        if (current == State.CLOSED) {
+            if (total >= Math.min(minimumCalls, currentWindow.size) && isThresholdExceeded(currentWindow)) {
+                transition(State.CLOSED, State.OPEN);
+            }
+        } else if (total >= currentWindow.size) {
+            transition(State.HALF_OPEN, isThresholdExceeded(currentWindow) ? State.OPEN : State.CLOSED);
+        }
+    }
+
+    /**
+     * 将熔断器重置为关闭状态，并清空所有的调用记录
+     */
+    public synchronized void reset() {
+        window = new Window(windowSize);
+        halfOpenPermits.set(0);
+        state = State.CLOSED;
+    }
+
+    private boolean isThresholdExceeded(Window window) {
+        return window.getFailureRate() >= failureRateThreshold
+                || window.getSlowCallRate() >= slowCallRateThreshold;
+    }
+
+    private synchronized void transition(State from, State to) {
+        if (state != from) {
+            return;
+        }
+        if (to == State.OPEN) {
+            openedAt = System.nanoTime();
+        } else if (to == State.HALF_OPEN) {
+            window = new Window(permittedCallsInHalfOpen);
+            halfOpenPermits.set(permittedCallsInHalfOpen);
+        } else {
+            window = new Window(windowSize);
+        }
+        state = to;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public State getState() {
+        return state;
+    }
+
+    /**
+     * 获取当前窗口内的失败率
+     *
+     * @return 失败率（百分比）
+     */
+    public float getFailureRate() {
+        return window.getFailureRate();
+    }
+
+    /**
+     * 获取当前窗口内的慢调用率
+     *
+     * @return 慢调用率（百分比）
+     */
+    public float getSlowCallRate() {
+        return window.getSlowCallRate();
+    }
+
+    /**
+     * 获取当前窗口内记录的调用次数
+     *
+     * @return 调用次数
+     */
+    public int getNumberOfCalls() {
+        return window.total.get();
+    }
+
+    /**
+     * 获取熔断器距离进入半开状态的剩余时间
+     *
+     * @param unit 时间单位
+     * @return 剩余时间，熔断器不处于打开状态时为 0
+     */
+    public long getRemainingOpenTime(TimeUnit unit) {
+        if (state != State.OPEN) {
+            return 0;
+        }
+        long remaining = waitDurationInOpenState - (System.nanoTime() - openedAt);
+        return unit.convert(Math.max(remaining, 0), TimeUnit.NANOSECONDS);
+    }
+
+    public float getFailureRateThreshold() {
+        return failureRateThreshold;
+    }
+
+    public ForestCircuitBreaker setFailureRateThreshold(float failureRateThreshold) {
+        this.failureRateThreshold = failureRateThreshold;
+        return this;
+    }
+
+    public float getSlowCallRateThreshold() {
+        return slowCallRateThreshold;
+    }
+
+    public ForestCircuitBreaker setSlowCallRateThreshold(float slowCallRateThreshold) {
+        this.slowCallRateThreshold = slowCallRateThreshold;
+        return this;
+    }
+
+    public long getSlowCallDuration(TimeUnit unit) {
+        return unit.convert(slowCallDuration, TimeUnit.NANOSECONDS);
+    }
+
+    public ForestCircuitBreaker setSlowCallDuration(long slowCallDuration, TimeUnit unit) {
+        this.slowCallDuration = unit.toNanos(slowCallDuration);
+        return this;
+    }
+
+    public int getWindowSize() {
+        return windowSize;
+    }
+
+    /**
+     * 设置滑动窗口大小
+     * <p>处于关闭状态时会清空当前窗口中的调用记录</p>
+     *
+     * @param windowSize 滑动窗口大小
+     * @return {@link ForestCircuitBreaker}类实例
+     */
+    public synchronized ForestCircuitBreaker setWindowSize(int windowSize) {
+        this.windowSize = Math.max(windowSize, 1);
+        if (state == State.CLOSED) {
+            window = new Window(this.windowSize);
+        }
+        return this;
+    }
+
+    public int getMinimumCalls() {
+        return minimumCalls;
+    }
+
+    public ForestCircuitBreaker setMinimumCalls(int minimumCalls) {
+        this.minimumCalls = Math.max(minimumCalls, 1);
+        return this;
+    }
+
+    public long getWaitDurationInOpenState(TimeUnit unit) {
+        return unit.convert(waitDurationInOpenState, TimeUnit.NANOSECONDS);
+    }
+
+    public ForestCircuitBreaker setWaitDurationInOpenState(long waitDurationInOpenState, TimeUnit unit) {
+        this.waitDurationInOpenState = unit.toNanos(waitDurationInOpenState);
+        return this;
+    }
+
+    public int getPermittedCallsInHalfOpen() {
+        return permittedCallsInHalfOpen;
+    }
+
+    public ForestCircuitBreaker setPermittedCallsInHalfOpen(int permittedCallsInHalfOpen) {
+        this.permittedCallsInHalfOpen = Math.max(permittedCallsInHalfOpen, 1);
+        return this;
+    }
+
+    /**
+     * 记录调用结果的环形缓冲区
+     * <p>每个槽位保存一次调用的结果，写满后覆盖最早的结果，
+     * 覆盖时按新旧结果的差值更新计数，因此统计值不需要遍历整个窗口</p>
+     */
+    private static class Window {
+
+        private final static int RECORDED = 1;
+
+        private final static int FAILURE = 2;
+
+        private final static int SLOW = 4;
+
+        private final int size;
+
+        private final AtomicIntegerArray slots;
+
+        private final AtomicLong cursor = new AtomicLong(0);
+
+        private final AtomicInteger total = new AtomicInteger(0);
+
+        private final AtomicInteger failures = new AtomicInteger(0);
+
+        private final AtomicInteger slowCalls = new AtomicInteger(0);
+
+        Window(int size) {
+            this.size = size;
+            this.slots = new AtomicIntegerArray(size);
+        }
+
+        void record(boolean failure, boolean slow) {
+            int outcome = RECORDED | (failure ? FAILURE : 0) | (slow ? SLOW : 0);
+            int index = (int) (cursor.getAndIncrement() % size);
+            int old = slots.getAndSet(index, outcome);
+            if ((old & RECORDED) == 0) {
+                total.incrementAndGet();
+            }
+            int failureDelta = bit(outcome, FAILURE) - bit(old, FAILURE);
+            if (failureDelta != 0) {
+                failures.addAndGet(failureDelta);
+            }
+            int slowDelta = bit(outcome, SLOW) - bit(old, SLOW);
+            if (slowDelta != 0) {
+                slowCalls.addAndGet(slowDelta);
+            }
+        }
+
+        float getFailureRate() {
+            return rate(failures.get());
+        }
+
+        float getSlowCallRate() {
+            return rate(slowCalls.get());
+        }
+
+        private float rate(int count) {
+            int n = total.get();
+            if (n == 0) {
+                return 0;
+            }
+            return count * 100.0f / n;
+        }
+
+        private static int bit(int outcome, int flag) {
+            return (outcome & flag) != 0 ? 1 : 0;
+        }
+    }
+}
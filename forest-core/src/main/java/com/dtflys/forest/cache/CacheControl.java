@@ -0,0 +1,89 @@
+package com.dtflys.forest.cache;
+
+import com.dtflys.forest.utils.StringUtils;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Cache-Control 头的解析工具
+ *
+ * @author gongjun[dt_flys@hotmail.com]
+ * @since 1.5.2
+ */
+final class CacheControl {
+
+    private CacheControl() {
+    }
+
+    /**
+     * 解析 Cache-Control 头中的指令
+     *
+     * @param values 所有 Cache-Control 头的值
+     * @return 指令表，指令名称为小写，没有参数的指令值为空字符串
+     */
+    static Map<String, String> parse(List<String> values) {
+        Map<String, String> directives = new HashMap<>();
+        for (String directive : splitValues(values)) {
+            int index = directive.indexOf('=');
+            if (index < 0) {
+                directives.put(directive.toLowerCase(Locale.ROOT), "");
+            } else {
+                String name = directive.substring(0, index).trim().toLowerCase(Locale.ROOT);
+                String value = directive.substring(index + 1).trim();
+                if (value.length() > 1 && value.startsWith("\"") && value.endsWith("\"")) {
+                    value = value.substring(1, value.length() - 1);
+                }
+                directives.put(name, value);
+            }
+        }
+        return directives;
+    }
+
+    /**
+     * 获取以秒为单位的指令参数
+     *
+     * @param directives 指令表
+     * @param name 指令名称
+     * @return 秒数，不存在或无法解析时返回 -1
+     */
+    static long getSeconds(Map<String, String> directives, String name) {
+        String value = directives.get(name);
+        if (StringUtils.isBlank(value)) {
+            return -1;
+        }
+        try {
+            return Math.max(0, Long.parseLong(value));
+        } catch (NumberFormatException e) {
+            return -1;
+        }
+    }
+
+    /**
+     * 将以逗号分隔的多个头的值拆分成单独的项
+     *
+     * @param values 头的值列表
+     * @return 拆分后的项
+     */
+    static List<String> splitValues(List<String> values) {
+        List<String> items = new ArrayList<>();
+        if (values == null) {
+            return items;
+        }
+        for (String value : values) {
+            if (value == null) {
+                continue;
+            }
+            for (String item : value.split(",")) {
+                String trimmed = item.trim();
+                if (!trimmed.isEmpty()) {
+                    items.add(trimmed);
+                }
+            }
+        }
+        return items;
+    }
+}
@@ -0,0 +1,77 @@
+package com.dtflys.forest.cache;
+
+import com.dtflys.forest.backend.ContentType;
+import com.dtflys.forest.exceptions.ForestRuntimeException;
+import com.dtflys.forest.http.ForestRequest;
+import com.dtflys.forest.http.ForestResponse;
+import com.dtflys.forest.utils.StringUtils;
+
+import java.io.IOException;
+import java.util.Date;
+
+/**
+ * 由缓存条目构造的响应对象
+ * <p>命中缓存或服务端返回 304 时代替网络响应交给生命周期处理，
+ * 反序列化、{@code OnSuccess} 回调和拦截器与正常响应一样执行</p>
+ *
+ * @author gongjun[dt_flys@hotmail.com]
+ * @since 1.5.2
+ */
+public class CachedForestResponse extends ForestResponse {
+
+    private final ForestCacheEntry entry;
+
+    private final byte[] bytes;
+
+    public CachedForestResponse(ForestRequest request, ForestCacheEntry entry, Date requestTime, Date responseTime) {
+        super(request, requestTime, responseTime);
+        this.entry = entry;
+        this.bytes = entry.getBody();
+        this.statusCode = entry.getStatusCode();
+        this.contentLength = bytes.length;
+        for (String[] header : entry.getHeaders()) {
+            headers.addHeader(header[0], header[1]);
+        }
+        String contentTypeValue = entry.getHeaderValue("Content-Type");
+        if (StringUtils.isNotBlank(contentTypeValue)) {
+            this.contentType = new ContentType(contentTypeValue);
+            this.contentEncoding = contentType.getCharset();
+        }
+        isGzip = request.isDecompressResponseGzipEnabled();
+        if (contentType == null || contentType.isEmpty()
+                || (!request.isDownloadFile() && contentType.canReadAsString())) {
+            this.content = readContentAsString();
+        } else if (contentType.canReadAsBinaryStream()) {
+            this.content = "[content-type: " + contentType
+                    + (contentEncoding != null ? "; encoding: " + contentEncoding : "")
+                    + "; length: " + contentLength + "]";
+        }
+    }
+
+    private String readContentAsString() {
+        try {
+            return byteToString(bytes);
+        } catch (IOException e) {
+            throw new ForestRuntimeException(e);
+        }
+    }
+
+    /**
+     * 获取该响应对应的缓存条目
+     *
+     * @return 缓存条目，{@link ForestCacheEntry}类实例
+     */
+    public ForestCacheEntry getCacheEntry() {
+        return entry;
+    }
+
+    @Override
+    public boolean isReceivedResponseData() {
+        return true;
+    }
+
+    @Override
+    public byte[] getByteArray() {
+        return bytes;
+    }
+}
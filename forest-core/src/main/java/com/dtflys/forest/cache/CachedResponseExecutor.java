@@ -0,0 +1,72 @@
+package com.dtflys.forest.cache;
+
+import com.dtflys.forest.backend.AbstractBackendResponseHandler;
+import com.dtflys.forest.backend.HttpExecutor;
+import com.dtflys.forest.handler.LifeCycleHandler;
+import com.dtflys.forest.http.ForestRequest;
+import com.dtflys.forest.http.ForestResponse;
+import com.dtflys.forest.http.ForestResponseFactory;
+
+import java.util.Date;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Future;
+
+/**
+ * 命中缓存时使用的执行器
+ * <p>不发送网络请求，直接将缓存的响应交给生命周期处理，
+ * 异步请求的结果在当前线程中完成</p>
+ *
+ * @author gongjun[dt_flys@hotmail.com]
+ * @since 1.5.2
+ */
+public class CachedResponseExecutor implements HttpExecutor {
+
+    private final ForestRequest request;
+
+    private final ForestResponse response;
+
+    public CachedResponseExecutor(ForestRequest request, ForestResponse response) {
+        this.request = request;
+        this.response = response;
+    }
+
+    @Override
+    public void execute(LifeCycleHandler lifeCycleHandler) {
+        CachedResponseHandler responseHandler = new CachedResponseHandler(request, lifeCycleHandler);
+        if (!request.isAsync()) {
+            responseHandler.handleSync(response, response.getStatusCode(), "");
+            return;
+        }
+        CompletableFuture<Object> future = new CompletableFuture<>();
+        responseHandler.handleFuture(future, response.getRequestTime(), null);
+        try {
+            if (request.getOnSuccess() != null) {
+                // 只解码一次，先完成异步结果再执行回调，回调中可以直接取得结果
+                Object resultData = lifeCycleHandler.handleResultType(request, response);
+                future.complete(resultData);
+                responseHandler.handleSuccess(response, resultData);
+            } else {
+                future.complete(responseHandler.handleSync(response, response.getStatusCode(), ""));
+            }
+        } catch (RuntimeException e) {
+            future.completeExceptionally(e);
+            throw e;
+        }
+    }
+
+    @Override
+    public void close() {
+    }
+
+    private static class CachedResponseHandler extends AbstractBackendResponseHandler<Object> {
+
+        CachedResponseHandler(ForestRequest request, LifeCycleHandler lifeCycleHandler) {
+            super(request, lifeCycleHandler);
+        }
+
+        @Override
+        public void handleFuture(Future<Object> httpResponseFuture, Date requestTime, ForestResponseFactory forestResponseFactory) {
+            lifeCycleHandler.handleResult(httpResponseFuture);
+        }
+    }
+}
@@ -0,0 +1,201 @@
+package com.dtflys.forest.cache;
+
+import com.dtflys.forest.exceptions.ForestRuntimeException;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 基于磁盘文件的HTTP响应缓存存储
+ * <p>每个缓存条目保存为缓存目录中的一个文件，文件名为缓存键的 SHA-256 摘要，
+ * 写入时先写临时文件再替换，读取到损坏的文件时当作不存在并删除</p>
+ * <p>文件依次保存格式版本、缓存键、状态码、请求和响应时间、响应头、Vary 请求头和响应内容，
+ * 字符串以 UTF-8 编码并带有长度前缀，读取时不会反序列化任何 Java 对象</p>
+ *
+ * @author gongjun[dt_flys@hotmail.com]
+ * @since 1.5.2
+ */
+public class FileCacheStorage implements ForestCacheStorage {
+
+    private final static String SUFFIX = ".cache";
+
+    /**
+     * 文件头，包含格式版本
+     */
+    private final static int MAGIC = 0x46435631;
+
+    private final File directory;
+
+    public FileCacheStorage(File directory) {
+        this.directory = directory;
+        if (!directory.exists() && !directory.mkdirs() && !directory.isDirectory()) {
+            throw new ForestRuntimeException("[Forest] Can not create cache directory: " + directory.getAbsolutePath());
+        }
+    }
+
+    public FileCacheStorage(String directory) {
+        this(new File(directory));
+    }
+
+    public File getDirectory() {
+        return directory;
+    }
+
+    @Override
+    public ForestCacheEntry get(String key) {
+        Path path = getPath(key);
+        if (!Files.exists(path)) {
+            return null;
+        }
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(path)))) {
+            ForestCacheEntry entry = read(in);
+            return key.equals(entry.getKey()) ? entry : null;
+        } catch (IOException e) {
+            remove(key);
+            return null;
+        }
+    }
+
+    @Override
+    public void put(String key, ForestCacheEntry entry) {
+        Path path = getPath(key);
+        Path tempPath = null;
+        try {
+            tempPath = Files.createTempFile(directory.toPath(), "forest-", ".tmp");
+            try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(tempPath)))) {
+                write(out, entry);
+            }
+            try {
+                Files.move(tempPath, path, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+            } catch (AtomicMoveNotSupportedException e) {
+                Files.move(tempPath, path, StandardCopyOption.REPLACE_EXISTING);
+            }
+        } catch (IOException e) {
+            throw new ForestRuntimeException(e);
+        } finally {
+            if (tempPath != null) {
+                try {
+                    Files.deleteIfExists(tempPath);
+                } catch (IOException ignored) {
+                }
+            }
+        }
+    }
+
+    @Override
+    public void remove(String key) {
+        try {
+            Files.deleteIfExists(getPath(key));
+        } catch (IOException e) {
+            throw new ForestRuntimeException(e);
+        }
+    }
+
+    @Override
+    public void clear() {
+        File[] files = directory.listFiles((dir, name) -> name.endsWith(SUFFIX));
+        if (files == null) {
+            return;
+        }
+        for (File file : files) {
+            file.delete();
+        }
+    }
+
+    private Path getPath(String key) {
+        return new File(directory, ForestResponseCache.sha256Hex(key) + SUFFIX).toPath();
+    }
+
+    private static void write(DataOutputStream out, ForestCacheEntry entry) throws IOException {
+        out.writeInt(MAGIC);
+        writeString(out, entry.getKey());
+        out.writeInt(entry.getStatusCode());
+        out.writeLong(entry.getRequestTime());
+        out.writeLong(entry.getResponseTime());
+        List<String[]> headers = entry.getHeaders();
+        out.writeInt(headers.size());
+        for (String[] header : headers) {
+            writeString(out, header[0]);
+            writeString(out, header[1]);
+        }
+        Map<String, String> varyHeaders = entry.getVaryHeaders();
+        out.writeInt(varyHeaders.size());
+        for (Map.Entry<String, String> varyHeader : varyHeaders.entrySet()) {
+            writeString(out, varyHeader.getKey());
+            writeString(out, varyHeader.getValue());
+        }
+        byte[] body = entry.getBody();
+        out.writeInt(body.length);
+        out.write(body);
+    }
+
+    private static ForestCacheEntry read(DataInputStream in) throws IOException {
+        if (in.readInt() != MAGIC) {
+            throw new IOException("Unknown cache file format");
+        }
+        String key = readString(in);
+        int statusCode = in.readInt();
+        long requestTime = in.readLong();
+        long responseTime = in.readLong();
+        int headerCount = readCount(in);
+        List<String[]> headers = new ArrayList<>(headerCount);
+        for (int i = 0; i < headerCount; i++) {
+            headers.add(new String[] {readString(in), readString(in)});
+        }
+        int varyCount = readCount(in);
+        Map<String, String> varyHeaders = new HashMap<>();
+        for (int i = 0; i < varyCount; i++) {
+            varyHeaders.put(readString(in), readString(in));
+        }
+        byte[] body = new byte[readCount(in)];
+        in.readFully(body);
+        return new ForestCacheEntry(key, statusCode, headers, body, requestTime, responseTime, varyHeaders);
+    }
+
+    /**
+     * 写入带长度前缀的 UTF-8 字符串，{@code null} 的长度为 -1
+     */
+    private static void writeString(DataOutputStream out, String value) throws IOException {
+        if (value == null) {
+            out.writeInt(-1);
+            return;
+        }
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+
+    private static String readString(DataInputStream in) throws IOException {
+        int length = in.readInt();
+        if (length == -1) {
+            return null;
+        }
+        if (length < 0 || length > in.available()) {
+            throw new IOException("Invalid string length: " + length);
+        }
+        byte[] bytes = new byte[length];
+        in.readFully(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private static int readCount(DataInputStream in) throws IOException {
+        int count = in.readInt();
+        if (count < 0 || count > in.available()) {
+            throw new IOException("Invalid count: " + count);
+        }
+        return count;
+    }
+}
@@ -0,0 +1,305 @@
+package com.dtflys.forest.cache;
+
+import com.dtflys.forest.http.ForestHeader;
+import com.dtflys.forest.http.ForestRequest;
+import com.dtflys.forest.http.ForestResponse;
+import com.dtflys.forest.utils.StringUtils;
+
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * HTTP响应缓存条目
+ * <p>保存响应的状态码、响应头和响应内容，以及计算新鲜度所需的请求和响应时间，
+ * 新鲜度按 RFC 7234 中私有缓存的规则计算</p>
+ *
+ * @author gongjun[dt_flys@hotmail.com]
+ * @since 1.5.2
+ */
+public class ForestCacheEntry {
+
+    /**
+     * 缓存键
+     */
+    private final String key;
+
+    /**
+     * 响应状态码
+     */
+    private final int statusCode;
+
+    /**
+     * 响应头，每一项为 [名称, 值]
+     */
+    private final ArrayList<String[]> headers;
+
+    /**
+     * 响应内容
+     */
+    private final byte[] body;
+
+    /**
+     * 发送请求的时间（毫秒）
+     */
+    private final long requestTime;
+
+    /**
+     * 接收响应的时间（毫秒）
+     */
+    private final long responseTime;
+
+    /**
+     * Vary 响应头中列出的请求头在原始请求中的值
+     */
+    private final HashMap<String, String> varyHeaders;
+
+    public ForestCacheEntry(String key, int statusCode, List<String[]> headers, byte[] body,
+                            long requestTime, long responseTime, Map<String, String> varyHeaders) {
+        this.key = key;
+        this.statusCode = statusCode;
+        this.headers = new ArrayList<>(headers);
+        this.body = body != null ? body : new byte[0];
+        this.requestTime = requestTime;
+        this.responseTime = responseTime;
+        this.varyHeaders = new HashMap<>(varyHeaders);
+    }
+
+    /**
+     * 根据请求和响应创建缓存条目
+     *
+     * @param key 缓存键
+     * @param request Forest请求对象
+     * @param response Forest响应对象
+     * @param body 响应内容
+     * @return 缓存条目，{@link ForestCacheEntry}类实例
+     */
+    public static ForestCacheEntry of(String key, ForestRequest request, ForestResponse response, byte[] body) {
+        List<String[]> headers = new ArrayList<>();
+        for (Iterator<ForestHeader> iterator = response.getHeaders().headerIterator(); iterator.hasNext(); ) {
+            ForestHeader header = iterator.next();
+            headers.add(new String[] {header.getName(), header.getValue()});
+        }
+        Map<String, String> varyHeaders = new HashMap<>();
+        List<String> vary = response.getHeaderValues("Vary");
+        for (String name : CacheControl.splitValues(vary)) {
+            varyHeaders.put(name.toLowerCase(Locale.ROOT), request.getHeaderValue(name));
+        }
+        return new ForestCacheEntry(key, response.getStatusCode(), headers, body,
+                response.getRequestTime().getTime(), response.getResponseTime().getTime(), varyHeaders);
+    }
+
+    /**
+     * 根据 304 响应更新缓存条目
+     * <p>用 304 响应中的响应头替换已保存的同名响应头，并更新请求和响应时间</p>
+     *
+     * @param response 304 响应
+     * @return 更新后的缓存条目，{@link ForestCacheEntry}类实例
+     */
+    public ForestCacheEntry update(ForestResponse response) {
+        Map<String, List<String>> updated = new LinkedHashMap<>();
+        for (Iterator<ForestHeader> iterator = response.getHeaders().headerIterator(); iterator.hasNext(); ) {
+            ForestHeader header = iterator.next();
+            String name = header.getName().toLowerCase(Locale.ROOT);
+            if (name.equals("content-length") || name.equals("content-type") || name.equals("content-encoding")) {
+                continue;
+            }
+            updated.computeIfAbsent(name, k -> new ArrayList<>()).add(header.getValue());
+        }
+        List<String[]> newHeaders = new ArrayList<>(headers.size());
+        for (String[] header : headers) {
+            if (!updated.containsKey(header[0].toLowerCase(Locale.ROOT))) {
+                newHeaders.add(header);
+            }
+        }
+        for (Iterator<ForestHeader> iterator = response.getHeaders().headerIterator(); iterator.hasNext(); ) {
+            ForestHeader header = iterator.next();
+            if (updated.containsKey(header.getName().toLowerCase(Locale.ROOT))) {
+                newHeaders.add(new String[] {header.getName(), header.getValue()});
+            }
+        }
+        return new ForestCacheEntry(key, statusCode, newHeaders, body,
+                response.getRequestTime().getTime(), response.getResponseTime().getTime(), varyHeaders);
+    }
+
+    public String getKey() {
+        return key;
+    }
+
+    public int getStatusCode() {
+        return statusCode;
+    }
+
+    public List<String[]> getHeaders() {
+        return Collections.unmodifiableList(headers);
+    }
+
+    public byte[] getBody() {
+        return body;
+    }
+
+    public long getRequestTime() {
+        return requestTime;
+    }
+
+    public long getResponseTime() {
+        return responseTime;
+    }
+
+    /**
+     * 获取 Vary 响应头中列出的请求头在原始请求中的值
+     *
+     * @return 请求头的值，Key 为小写的请求头名称
+     */
+    public Map<String, String> getVaryHeaders() {
+        return Collections.unmodifiableMap(varyHeaders);
+    }
+
+    /**
+     * 根据名称获取第一个响应头的值
+     *
+     * @param name 响应头名称
+     * @return 响应头的值，不存在时返回 {@code null}
+     */
+    public String getHeaderValue(String name) {
+        for (String[] header : headers) {
+            if (header[0].equalsIgnoreCase(name)) {
+                return header[1];
+            }
+        }
+        return null;
+    }
+
+    /**
+     * 根据名称获取所有响应头的值
+     *
+     * @param name 响应头名称
+     * @return 响应头的值列表
+     */
+    public List<String> getHeaderValues(String name) {
+        List<String> values = new ArrayList<>();
+        for (String[] header : headers) {
+            if (header[0].equalsIgnoreCase(name)) {
+                values.add(header[1]);
+            }
+        }
+        return values;
+    }
+
+    /**
+     * 缓存条目是否可以用于该请求
+     * <p>Vary 响应头中列出的请求头的值必须与原始请求一致</p>
+     *
+     * @param request Forest请求对象
+     * @return {@code true}: 可以，{@code false}: 不可以
+     */
+    public boolean matches(ForestRequest request) {
+        for (Map.Entry<String, String> entry : varyHeaders.entrySet()) {
+            if (!Objects.equals(entry.getValue(), request.getHeaderValue(entry.getKey()))) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * 计算新鲜期（毫秒）
+     * <p>依次根据 {@code max-age}、{@code Expires} 和 {@code Last-Modified} 启发式计算</p>
+     *
+     * @return 新鲜期
+     */
+    public long getFreshnessLifetime() {
+        Map<String, String> cacheControl = CacheControl.parse(getHeaderValues("Cache-Control"));
+        long maxAge = CacheControl.getSeconds(cacheControl, "max-age");
+        if (maxAge >= 0) {
+            return maxAge * 1000;
+        }
+        long date = getDate();
+        String expiresValue = getHeaderValue("Expires");
+        if (expiresValue != null) {
+            long expires = parseHttpDate(expiresValue);
+            return Math.max(0, expires - date);
+        }
+        long lastModified = parseHttpDate(getHeaderValue("Last-Modified"));
+        if (lastModified > 0 && lastModified < date) {
+            // 启发式新鲜期，取最后修改时间至今的十分之一
+            return (date - lastModified) / 10;
+        }
+        return 0;
+    }
+
+    /**
+     * 计算缓存条目的当前年龄（毫秒）
+     *
+     * @param now 当前时间（毫秒）
+     * @return 当前年龄
+     */
+    public long getCurrentAge(long now) {
+        long apparentAge = Math.max(0, responseTime - getDate());
+        long ageValue = 0;
+        String age = getHeaderValue("Age");
+        if (StringUtils.isNotBlank(age)) {
+            try {
+                ageValue = Long.parseLong(age.trim()) * 1000;
+            } catch (NumberFormatException ignored) {
+            }
+        }
+        long correctedAgeValue = ageValue + (responseTime - requestTime);
+        long correctedInitialAge = Math.max(apparentAge, correctedAgeValue);
+        return correctedInitialAge + (now - responseTime);
+    }
+
+    /**
+     * 缓存条目是否新鲜，新鲜的条目可以不经过服务端验证直接使用
+     *
+     * @param now 当前时间（毫秒）
+     * @param requestMaxAge 请求中 {@code Cache-Control: max-age} 限制的最大年龄（毫秒），没有限制时为 -1
+     * @return {@code true}: 新鲜，{@code false}: 已过期
+     */
+    public boolean isFresh(long now, long requestMaxAge) {
+        Map<String, String> cacheControl = CacheControl.parse(getHeaderValues("Cache-Control"));
+        if (cacheControl.containsKey("no-cache")) {
+            return false;
+        }
+        long currentAge = getCurrentAge(now);
+        if (requestMaxAge >= 0 && currentAge > requestMaxAge) {
+            return false;
+        }
+        return getFreshnessLifetime() > currentAge;
+    }
+
+    /**
+     * 是否有可以用于条件请求的验证器
+     *
+     * @return {@code true}: 有，{@code false}: 没有
+     */
+    public boolean hasValidator() {
+        return getHeaderValue("ETag") != null || getHeaderValue("Last-Modified") != null;
+    }
+
+    private long getDate() {
+        long date = parseHttpDate(getHeaderValue("Date"));
+        return date > 0 ? date : responseTime;
+    }
+
+    static long parseHttpDate(String value) {
+        if (StringUtils.isBlank(value)) {
+            return -1;
+        }
+        try {
+            return ZonedDateTime.parse(value.trim(), DateTimeFormatter.RFC_1123_DATE_TIME).toInstant().toEpochMilli();
+        } catch (DateTimeParseException e) {
+            // 无法解析的日期视为已过期
+            return 0;
+        }
+    }
+}
@@ -0,0 +1,41 @@
+package com.dtflys.forest.cache;
+
+/**
+ * HTTP响应缓存的存储接口
+ * <p>默认实现有内存存储 {@link MemoryCacheStorage} 和磁盘存储 {@link FileCacheStorage}，
+ * 可以通过 {@link com.dtflys.forest.config.ForestConfiguration#setResponseCacheStorage(ForestCacheStorage)} 替换</p>
+ * <p>实现类必须是线程安全的</p>
+ *
+ * @author gongjun[dt_flys@hotmail.com]
+ * @since 1.5.2
+ */
+public interface ForestCacheStorage {
+
+    /**
+     * 根据缓存键获取缓存条目
+     *
+     * @param key 缓存键
+     * @return 缓存条目，{@link ForestCacheEntry}类实例，不存在时返回 {@code null}
+     */
+    ForestCacheEntry get(String key);
+
+    /**
+     * 保存缓存条目，已存在的条目会被替换
+     *
+     * @param key 缓存键
+     * @param entry 缓存条目，{@link ForestCacheEntry}类实例
+     */
+    void put(String key, ForestCacheEntry entry);
+
+    /**
+     * 删除缓存条目
+     *
+     * @param key 缓存键
+     */
+    void remove(String key);
+
+    /**
+     * 清空所有缓存条目
+     */
+    void clear();
+}
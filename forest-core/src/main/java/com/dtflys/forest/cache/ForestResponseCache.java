@@ -0,0 +1,229 @@
+package com.dtflys.forest.cache;
+
+import com.dtflys.forest.exceptions.ForestRuntimeException;
+import com.dtflys.forest.http.ForestRequest;
+import com.dtflys.forest.http.ForestRequestType;
+import com.dtflys.forest.http.ForestResponse;
+import com.dtflys.forest.http.HttpStatus;
+import com.dtflys.forest.utils.StringUtils;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Date;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * HTTP响应缓存
+ * <p>按 RFC 7234 中私有缓存的规则保存和使用 GET 请求的响应：</p>
+ * <ul>
+ *     <li>新鲜的缓存条目直接作为响应，不发送网络请求</li>
+ *     <li>过期但带有 {@code ETag} 或 {@code Last-Modified} 的缓存条目，
+ *     通过 {@code If-None-Match} 和 {@code If-Modified-Since} 向服务端验证，
+ *     服务端返回 304 时使用缓存的内容</li>
+ *     <li>对同一URL发送的非安全方法请求（POST、PUT、DELETE等）成功后使缓存失效</li>
+ * </ul>
+ *
+ * @author gongjun[dt_flys@hotmail.com]
+ * @since 1.5.2
+ */
+public class ForestResponseCache {
+
+    /**
+     * 默认可以缓存的状态码
+     */
+    private final static Set<Integer> CACHEABLE_STATUS_CODES = Collections.unmodifiableSet(new HashSet<>(Arrays.asList(
+            200, 203, 204, 300, 301, 404, 405, 410, 414, 501)));
+
+    /**
+     * 携带用户凭据的请求头，参与缓存键的计算
+     */
+    private final static String[] CREDENTIAL_HEADERS = {"Authorization", "Cookie"};
+
+    private final ForestCacheStorage storage;
+
+    public ForestResponseCache(ForestCacheStorage storage) {
+        this.storage = storage;
+    }
+
+    public ForestCacheStorage getStorage() {
+        return storage;
+    }
+
+    /**
+     * 获取请求的缓存键
+     * <p>请求携带 {@code Authorization} 或 {@code Cookie} 请求头时，缓存键中包含这些请求头的值的摘要，
+     * 不同凭据的请求不会共用缓存条目；非安全方法的请求也只使携带相同凭据的缓存条目失效</p>
+     *
+     * @param request Forest请求对象
+     * @return 缓存键
+     */
+    public String getKey(ForestRequest request) {
+        String queryString = request.getQueryString();
+        String key = request.getUrl();
+        if (StringUtils.isNotEmpty(queryString)) {
+            key = key + (key.contains("?") ? "&" : "?") + queryString;
+        }
+        StringBuilder credentials = null;
+        for (String name : CREDENTIAL_HEADERS) {
+            List<String> values = request.getHeaders().getValues(name);
+            if (values.isEmpty()) {
+                continue;
+            }
+            if (credentials == null) {
+                credentials = new StringBuilder();
+            }
+            credentials.append(name).append(':').append(String.join(",", values)).append('\n');
+        }
+        if (credentials == null) {
+            return key;
+        }
+        // 只保存摘要，凭据本身不会出现在缓存键和缓存文件名中
+        return key + "#" + sha256Hex(credentials.toString());
+    }
+
+    /**
+     * 计算字符串的 SHA-256 摘要
+     *
+     * @param value 字符串
+     * @return 十六进制表示的摘要
+     */
+    static String sha256Hex(String value) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            byte[] hash = digest.digest(value.getBytes(StandardCharsets.UTF_8));
+            StringBuilder builder = new StringBuilder(hash.length * 2);
+            for (byte b : hash) {
+                builder.append(Character.forDigit((b >> 4) & 0xf, 16))
+                        .append(Character.forDigit(b & 0xf, 16));
+            }
+            return builder.toString();
+        } catch (NoSuchAlgorithmException e) {
+            throw new ForestRuntimeException(e);
+        }
+    }
+
+    /**
+     * 发送请求前查找缓存
+     * <p>缓存条目新鲜时返回由缓存构造的响应；已过期但可以验证时，在请求中添加条件请求头并返回 {@code null}</p>
+     *
+     * @param request Forest请求对象
+     * @return 新鲜的缓存响应，需要发送网络请求时返回 {@code null}
+     */
+    public ForestResponse lookup(ForestRequest request) {
+        if (request.getType() != ForestRequestType.GET) {
+            return null;
+        }
+        Map<String, String> cacheControl = getRequestCacheControl(request);
+        if (cacheControl.containsKey("no-store")) {
+            return null;
+        }
+        ForestCacheEntry entry = storage.get(getKey(request));
+        if (entry == null || !entry.matches(request)) {
+            return null;
+        }
+        long now = System.currentTimeMillis();
+        long maxAge = CacheControl.getSeconds(cacheControl, "max-age");
+        if (!cacheControl.containsKey("no-cache") && entry.isFresh(now, maxAge >= 0 ? maxAge * 1000 : -1)) {
+            Date date = new Date(now);
+            return new CachedForestResponse(request, entry, date, date);
+        }
+        if (!entry.hasValidator() || hasConditionalHeaders(request)) {
+            return null;
+        }
+        String etag = entry.getHeaderValue("ETag");
+        if (StringUtils.isNotBlank(etag)) {
+            request.addHeader("If-None-Match", etag);
+        }
+        String lastModified = entry.getHeaderValue("Last-Modified");
+        if (StringUtils.isNotBlank(lastModified)) {
+            request.addHeader("If-Modified-Since", lastModified);
+        }
+        request.setRevalidatingCacheEntry(entry);
+        return null;
+    }
+
+    /**
+     * 接收到响应后更新缓存
+     * <p>服务端返回 304 时返回由更新后的缓存条目构造的响应，其它情况返回原响应</p>
+     *
+     * @param request Forest请求对象
+     * @param response 网络响应
+     * @return 交给生命周期处理的响应
+     */
+    public ForestResponse handleResponse(ForestRequest request, ForestResponse response) {
+        if (response.getException() != null || response.getStatusCode() < 0) {
+            return response;
+        }
+        String key = getKey(request);
+        ForestRequestType type = request.getType();
+        if (type != ForestRequestType.GET) {
+            if (type != ForestRequestType.HEAD && type != ForestRequestType.OPTIONS
+                    && type != ForestRequestType.TRACE && response.getStatusCode() < 400) {
+                storage.remove(key);
+            }
+            return response;
+        }
+        ForestCacheEntry revalidating = request.getRevalidatingCacheEntry();
+        if (response.getStatusCode() == HttpStatus.NOT_MODIFIED && revalidating != null) {
+            ForestCacheEntry updated = revalidating.update(response);
+            storage.put(key, updated);
+            return new CachedForestResponse(request, updated, response.getRequestTime(), response.getResponseTime());
+        }
+        if (!isStorable(request, response)) {
+            return response;
+        }
+        byte[] body;
+        try {
+            body = response.getByteArray();
+        } catch (Exception e) {
+            return response;
+        }
+        if (body == null && response.getStatusCode() != HttpStatus.NO_CONTENT) {
+            // 响应内容已经以流的形式读取
+            return response;
+        }
+        storage.put(key, ForestCacheEntry.of(key, request, response, body));
+        return response;
+    }
+
+    private boolean isStorable(ForestRequest request, ForestResponse response) {
+        if (getRequestCacheControl(request).containsKey("no-store")) {
+            return false;
+        }
+        List<String> cacheControlValues = response.getHeaderValues("Cache-Control");
+        Map<String, String> cacheControl = CacheControl.parse(cacheControlValues);
+        if (cacheControl.containsKey("no-store")) {
+            return false;
+        }
+        List<String> vary = response.getHeaderValues("Vary");
+        if (CacheControl.splitValues(vary).contains("*")) {
+            return false;
+        }
+        if (!CACHEABLE_STATUS_CODES.contains(response.getStatusCode())) {
+            return false;
+        }
+        return cacheControl.containsKey("max-age") || response.getHeaderValue("Expires") != null
+                || response.getHeaderValue("ETag") != null || response.getHeaderValue("Last-Modified") != null;
+    }
+
+    private Map<String, String> getRequestCacheControl(ForestRequest request) {
+        Map<String, String> cacheControl = CacheControl.parse(
+                Collections.singletonList(request.getHeaderValue("Cache-Control")));
+        String pragma = request.getHeaderValue("Pragma");
+        if (pragma != null && pragma.toLowerCase().contains("no-cache")) {
+            cacheControl.put("no-cache", "");
+        }
+        return cacheControl;
+    }
+
+    private boolean hasConditionalHeaders(ForestRequest request) {
+        return request.getHeaderValue("If-None-Match") != null
+                || request.getHeaderValue("If-Modified-Since") != null;
+    }
+}
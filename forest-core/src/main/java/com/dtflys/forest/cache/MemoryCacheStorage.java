@@ -0,0 +1,88 @@
+package com.dtflys.forest.cache;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * 基于内存的HTTP响应缓存存储
+ * <p>按最近最少使用的顺序淘汰缓存条目，条目数和响应内容总字节数都不会超过设定的上限</p>
+ *
+ * @author gongjun[dt_flys@hotmail.com]
+ * @since 1.5.2
+ */
+public class MemoryCacheStorage implements ForestCacheStorage {
+
+    /**
+     * 默认最大条目数
+     */
+    public final static int DEFAULT_MAX_ENTRIES = 1000;
+
+    /**
+     * 默认响应内容最大总字节数
+     */
+    public final static long DEFAULT_MAX_BYTES = 32 * 1024 * 1024;
+
+    private final int maxEntries;
+
+    private final long maxBytes;
+
+    private final LinkedHashMap<String, ForestCacheEntry> entries = new LinkedHashMap<>(16, 0.75f, true);
+
+    private long totalBytes = 0;
+
+    public MemoryCacheStorage() {
+        this(DEFAULT_MAX_ENTRIES, DEFAULT_MAX_BYTES);
+    }
+
+    public MemoryCacheStorage(int maxEntries, long maxBytes) {
+        this.maxEntries = maxEntries;
+        this.maxBytes = maxBytes;
+    }
+
+    @Override
+    public synchronized ForestCacheEntry get(String key) {
+        return entries.get(key);
+    }
+
+    @Override
+    public synchronized void put(String key, ForestCacheEntry entry) {
+        if (entry.getBody().length > maxBytes) {
+            remove(key);
+            return;
+        }
+        ForestCacheEntry old = entries.put(key, entry);
+        if (old != null) {
+            totalBytes -= old.getBody().length;
+        }
+        totalBytes += entry.getBody().length;
+        Iterator<Map.Entry<String, ForestCacheEntry>> iterator = entries.entrySet().iterator();
+        while ((entries.size() > maxEntries || totalBytes > maxBytes) && iterator.hasNext()) {
+            totalBytes -= iterator.next().getValue().getBody().length;
+            iterator.remove();
+        }
+    }
+
+    @Override
+    public synchronized void remove(String key) {
+        ForestCacheEntry old = entries.remove(key);
+        if (old != null) {
+            totalBytes -= old.getBody().length;
+        }
+    }
+
+    @Override
+    public synchronized void clear() {
+        entries.clear();
+        totalBytes = 0;
+    }
+
+    /**
+     * 获取当前的缓存条目数
+     *
+     * @return 条目数
+     */
+    public synchronized int size() {
+        return entries.size();
+    }
+}
@@ -25,20 +25,32 @@
 package com.dtflys.forest.config;
 
 
+import com.dtflys.forest.balancer.ForestEndpointGroup;
+import com.dtflys.forest.cache.ForestCacheStorage;
+import com.dtflys.forest.cache.ForestResponseCache;
+import com.dtflys.forest.cache.MemoryCacheStorage;
 import com.dtflys.forest.converter.auto.DefaultAutoConverter;
 import com.dtflys.forest.converter.binary.DefaultBinaryConverter;
 import com.dtflys.forest.converter.text.DefaultTextConverter;
+import com.dtflys.forest.http.ForestSingleFlight;
 import com.dtflys.forest.http.body.RequestBodyBuilder;
 import com.dtflys.forest.interceptor.DefaultInterceptorFactory;
+import com.dtflys.forest.hedge.ForestHedgeBudget;
+import com.dtflys.forest.limiter.ForestConcurrencyLimiter;
 import com.dtflys.forest.interceptor.InterceptorFactory;
+import com.dtflys.forest.logging.AsyncLogHandler;
 import com.dtflys.forest.logging.DefaultLogHandler;
 import com.dtflys.forest.logging.ForestLogHandler;
+import com.dtflys.forest.metrics.ForestMetrics;
 import com.dtflys.forest.proxy.ProxyFactory;
 import com.dtflys.forest.retryer.BackOffRetryer;
+import com.dtflys.forest.retryer.RetryScheduler;
+import com.dtflys.forest.ssl.SSLContextRegistry;
 import com.dtflys.forest.ssl.SSLKeyStore;
 import com.dtflys.forest.ssl.SSLUtils;
 import com.dtflys.forest.utils.ForestDataType;
 import com.dtflys.forest.utils.RequestNameValue;
+import com.dtflys.forest.utils.ThreadUtils;
 import com.dtflys.forest.backend.HttpBackendSelector;
 import com.dtflys.forest.converter.ForestConverter;
 import com.dtflys.forest.converter.json.JSONConverterSelector;
@@ -57,6 +69,9 @@ import java.io.File;
 import java.io.InputStream;
 import java.io.Serializable;
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
 
 /**
  * global configuration
@@ -91,6 +106,51 @@ public class ForestConfiguration implements Serializable {
      */
     private Integer maxRouteConnections;
 
+    /**
+     * 按主机名单独设置的最大连接数，Key 为主机名
+     */
+    private Map<String, Integer> hostMaxConnections = new HashMap<>();
+
+    /**
+     * 连接池中保留的最大空闲连接数，为空时与最大连接数相同
+     */
+    private Integer maxIdleConnections;
+
+    /**
+     * 空闲连接的保持时间，单位为毫秒，为空时为 60 秒
+     */
+    private Integer keepAliveTime;
+
+    /**
+     * OkHttp后端使用的HTTP协议，为空时使用OkHttp的默认值
+     */
+    private List<String> httpProtocols;
+
+    /**
+     * HTTP/2连接的ping间隔时间，单位为毫秒
+     */
+    private Integer pingInterval;
+
+    /**
+     * 异步请求I/O反应器的线程数，为空时使用CPU核数
+     */
+    private Integer ioThreadCount;
+
+    /**
+     * 异步请求I/O反应器的select间隔时间，单位为毫秒
+     */
+    private Integer ioSelectInterval;
+
+    /**
+     * 异步请求I/O反应器的连接是否开启TCP_NODELAY
+     */
+    private Boolean ioTcpNoDelay;
+
+    /**
+     * 异步请求I/O反应器的连接是否开启SO_KEEPALIVE
+     */
+    private Boolean ioSoKeepAlive;
+
     /**
      * 全局的请求超时时间，单位为毫秒
      */
@@ -126,6 +186,16 @@ public class ForestConfiguration implements Serializable {
      */
     private String sslProtocol;
 
+    /**
+     * 全局的TLS会话缓存大小，为空时使用JDK默认值
+     */
+    private Integer sslSessionCacheSize;
+
+    /**
+     * 全局的TLS会话超时时间，单位为秒，为空时使用JDK默认值
+     */
+    private Integer sslSessionTimeout;
+
     /**
      * 是否允许打印请求/响应日志
      */
@@ -157,6 +227,41 @@ public class ForestConfiguration implements Serializable {
      */
     private boolean cacheEnabled = true;
 
+    /**
+     * 是否以流的形式反序列化响应内容
+     */
+    private boolean streamingDecodeEnabled = false;
+
+    /**
+     * HTTP响应缓存
+     */
+    private volatile ForestResponseCache responseCache;
+
+    /**
+     * 相同并发请求的合并器
+     */
+    private final ForestSingleFlight singleFlight = new ForestSingleFlight();
+
+    /**
+     * 按主机划分的自适应并发限制器，为空时不限制
+     */
+    private ForestConcurrencyLimiter concurrencyLimiter;
+
+    /**
+     * 节点组表，Key 为节点组名称
+     */
+    private final Map<String, ForestEndpointGroup> endpointGroups = new ConcurrentHashMap<>();
+
+    /**
+     * 全局对冲请求预算
+     */
+    private ForestHedgeBudget hedgeBudget = new ForestHedgeBudget();
+
+    /**
+     * 指标收集器，为空时不收集指标
+     */
+    private ForestMetrics metrics;
+
     /**
      * HTTP后端
      */
@@ -223,6 +328,36 @@ public class ForestConfiguration implements Serializable {
      */
     private Map<String, SSLKeyStore> sslKeyStores = new HashMap<>();
 
+    /**
+     * SSL上下文注册表
+     */
+    private volatile SSLContextRegistry sslContextRegistry;
+
+    /**
+     * 异步请求重试调度器
+     */
+    private volatile RetryScheduler retryScheduler;
+
+    /**
+     * 异步请求调度线程池
+     */
+    private volatile ExecutorService dispatchExecutor;
+
+    /**
+     * 异步请求回调线程池
+     */
+    private volatile Executor callbackExecutor;
+
+    /**
+     * 是否为每个异步请求使用一个虚拟线程
+     */
+    private boolean virtualThreadEnabled = false;
+
+    /**
+     * 开启虚拟线程时创建的线程池，由当前配置负责关闭
+     */
+    private volatile ExecutorService virtualThreadExecutor;
+
     private ForestConfiguration() {
     }
 
@@ -295,6 +430,149 @@ public class ForestConfiguration implements Serializable {
         return this;
     }
 
+    /**
+     * 关闭当前HTTP后端，释放其持有的连接池和I/O线程
+     * <p>全局日志处理器为 {@link AsyncLogHandler} 时，同时输出剩余日志并结束其后台线程</p>
+     */
+    public void close() {
+        HttpBackend currentBackend = this.backend;
+        if (currentBackend != null) {
+            currentBackend.close();
+        }
+        RetryScheduler currentRetryScheduler = this.retryScheduler;
+        if (currentRetryScheduler != null) {
+            this.retryScheduler = null;
+            currentRetryScheduler.shutdown();
+        }
+        if (logHandler instanceof AsyncLogHandler) {
+            ((AsyncLogHandler) logHandler).close();
+        }
+        ExecutorService currentVirtualThreadExecutor = this.virtualThreadExecutor;
+        if (currentVirtualThreadExecutor != null) {
+            this.virtualThreadExecutor = null;
+            currentVirtualThreadExecutor.shutdown();
+        }
+    }
+
+    /**
+     * 获取异步请求调度线程池
+     * <p>OkHttp后端在该线程池中发送异步请求，httpclient后端的异步请求由I/O线程发送，不使用该线程池</p>
+     * <p>没有设置时，开启虚拟线程则使用虚拟线程，否则返回 {@code null}，由后端使用其默认的线程池</p>
+     * @return {@link ExecutorService} 实例
+     */
+    public ExecutorService getDispatchExecutor() {
+        ExecutorService executor = this.dispatchExecutor;
+        if (executor == null && virtualThreadEnabled) {
+            return getVirtualThreadExecutor();
+        }
+        return executor;
+    }
+
+    /**
+     * 设置异步请求调度线程池
+     * <p>需要在HTTP后端初始化之前设置，线程池由调用方负责关闭</p>
+     * @param dispatchExecutor {@link ExecutorService} 实例
+     * @return 当前ForestConfiguration实例
+     */
+    public ForestConfiguration setDispatchExecutor(ExecutorService dispatchExecutor) {
+        this.dispatchExecutor = dispatchExecutor;
+        return this;
+    }
+
+    /**
+     * 获取异步请求回调线程池
+     * <p>异步请求的响应反序列化以及 {@code OnSuccess}、{@code OnError} 等回调在该线程池中执行，
+     * 慢回调不会占用后端的网络线程</p>
+     * <p>没有设置时，开启虚拟线程则使用虚拟线程，否则返回 {@code null}，回调在后端的网络线程中执行</p>
+     * @return {@link Executor} 实例
+     */
+    public Executor getCallbackExecutor() {
+        Executor executor = this.callbackExecutor;
+        if (executor == null && virtualThreadEnabled) {
+            return getVirtualThreadExecutor();
+        }
+        return executor;
+    }
+
+    /**
+     * 设置异步请求回调线程池
+     * <p>线程池由调用方负责关闭，线程池拒绝执行时回调在网络线程中执行</p>
+     * @param callbackExecutor {@link Executor} 实例
+     * @return 当前ForestConfiguration实例
+     */
+    public ForestConfiguration setCallbackExecutor(Executor callbackExecutor) {
+        this.callbackExecutor = callbackExecutor;
+        return this;
+    }
+
+    /**
+     * 是否为每个异步请求使用一个虚拟线程
+     * @return 开启为 {@code true}, 否则为 {@code false}
+     */
+    public boolean isVirtualThreadEnabled() {
+        return virtualThreadEnabled;
+    }
+
+    /**
+     * 设置是否为每个异步请求使用一个虚拟线程
+     * <p>开启后，没有单独设置的调度线程池和回调线程池都使用虚拟线程，
+     * 回调中可以直接发送同步请求或执行其他阻塞操作。运行环境低于 Java 21 时打印警告并忽略该设置</p>
+     * @param virtualThreadEnabled 开启为 {@code true}, 否则为 {@code false}
+     * @return 当前ForestConfiguration实例
+     */
+    public ForestConfiguration setVirtualThreadEnabled(boolean virtualThreadEnabled) {
+        if (virtualThreadEnabled && !ThreadUtils.isVirtualThreadSupported()) {
+            log.warn("[Forest] Virtual threads are not supported by Java " +
+                    System.getProperty("java.version") + ", virtualThreadEnabled is ignored");
+            virtualThreadEnabled = false;
+        }
+        this.virtualThreadEnabled = virtualThreadEnabled;
+        return this;
+    }
+
+    private ExecutorService getVirtualThreadExecutor() {
+        ExecutorService executor = this.virtualThreadExecutor;
+        if (executor == null) {
+            synchronized (this) {
+                executor = this.virtualThreadExecutor;
+                if (executor == null) {
+                    executor = ThreadUtils.newVirtualThreadPerTaskExecutor();
+                    this.virtualThreadExecutor = executor;
+                }
+            }
+        }
+        return executor;
+    }
+
+    /**
+     * 获取异步请求重试调度器
+     * <p>所有异步请求的重试都在该调度器中等待，不占用后端的I/O线程</p>
+     * @return {@link RetryScheduler} 实例
+     */
+    public RetryScheduler getRetryScheduler() {
+        RetryScheduler scheduler = this.retryScheduler;
+        if (scheduler == null) {
+            synchronized (this) {
+                scheduler = this.retryScheduler;
+                if (scheduler == null) {
+                    scheduler = new RetryScheduler();
+                    this.retryScheduler = scheduler;
+                }
+            }
+        }
+        return scheduler;
+    }
+
+    /**
+     * 设置异步请求重试调度器
+     * @param retryScheduler {@link RetryScheduler} 实例
+     * @return 当前ForestConfiguration实例
+     */
+    public ForestConfiguration setRetryScheduler(RetryScheduler retryScheduler) {
+        this.retryScheduler = retryScheduler;
+        return this;
+    }
+
     /**
      * 设置HTTP后端名称
      * @param backendName HTTP后端名称
@@ -422,6 +700,7 @@ public class ForestConfiguration implements Serializable {
 
     /**
      * 设置全局的最大连接数
+     * <p>OkHttp后端的同步请求和异步请求分别按该值限制最大并发请求数</p>
      * @param maxConnections 全局的最大连接数
      * @return 当前ForestConfiguration实例
      */
@@ -440,6 +719,7 @@ public class ForestConfiguration implements Serializable {
 
     /**
      * 设置全局的最大请求路径连接数
+     * <p>OkHttp后端的同步请求和异步请求分别按该值限制每个主机的最大并发请求数</p>
      * @param maxRouteConnections 最大请求路径连接数
      * @return 当前ForestConfiguration实例
      */
@@ -448,6 +728,186 @@ public class ForestConfiguration implements Serializable {
         return this;
     }
 
+    /**
+     * 获取按主机名单独设置的最大连接数
+     * @return 最大连接数表，Key 为主机名
+     */
+    public Map<String, Integer> getHostMaxConnections() {
+        return hostMaxConnections;
+    }
+
+    /**
+     * 设置按主机名单独设置的最大连接数
+     * <p>OkHttp后端为这些主机使用单独的调度器，同步请求和异步请求的最大并发请求数分别为设置的值；
+     * httpclient后端将其作为该主机的最大请求路径连接数。需要在HTTP后端初始化之前设置</p>
+     * @param hostMaxConnections 最大连接数表，Key 为主机名
+     * @return 当前ForestConfiguration实例
+     */
+    public ForestConfiguration setHostMaxConnections(Map<String, Integer> hostMaxConnections) {
+        this.hostMaxConnections = hostMaxConnections != null ? hostMaxConnections : new HashMap<>();
+        return this;
+    }
+
+    /**
+     * 单独设置一个主机的最大连接数
+     * @param host 主机名
+     * @param maxConnections 最大连接数
+     * @return 当前ForestConfiguration实例
+     */
+    public ForestConfiguration setHostMaxConnections(String host, int maxConnections) {
+        this.hostMaxConnections.put(host, maxConnections);
+        return this;
+    }
+
+    /**
+     * 获取连接池中保留的最大空闲连接数
+     * @return 最大空闲连接数
+     */
+    public Integer getMaxIdleConnections() {
+        return maxIdleConnections;
+    }
+
+    /**
+     * 设置连接池中保留的最大空闲连接数
+     * <p>只对OkHttp后端生效，为空时与最大连接数相同</p>
+     * @param maxIdleConnections 最大空闲连接数
+     * @return 当前ForestConfiguration实例
+     */
+    public ForestConfiguration setMaxIdleConnections(Integer maxIdleConnections) {
+        this.maxIdleConnections = maxIdleConnections;
+        return this;
+    }
+
+    /**
+     * 获取空闲连接的保持时间
+     * @return 保持时间，单位为毫秒
+     */
+    public Integer getKeepAliveTime() {
+        return keepAliveTime;
+    }
+
+    /**
+     * 设置空闲连接的保持时间，空闲超过该时间的连接会被关闭
+     * @param keepAliveTime 保持时间，单位为毫秒
+     * @return 当前ForestConfiguration实例
+     */
+    public ForestConfiguration setKeepAliveTime(Integer keepAliveTime) {
+        this.keepAliveTime = keepAliveTime;
+        return this;
+    }
+
+    /**
+     * 获取OkHttp后端使用的HTTP协议
+     * @return 协议名称列表
+     */
+    public List<String> getHttpProtocols() {
+        return httpProtocols;
+    }
+
+    /**
+     * 设置OkHttp后端使用的HTTP协议
+     * <p>协议名称为 {@code http/1.1}、{@code h2} 和 {@code h2_prior_knowledge}，
+     * 如只使用HTTP/1.1时设置为 {@code http/1.1}，不经过TLS直接使用HTTP/2时设置为 {@code h2_prior_knowledge}。
+     * httpclient后端只支持HTTP/1.1，不使用该配置</p>
+     * @param httpProtocols 协议名称列表
+     * @return 当前ForestConfiguration实例
+     */
+    public ForestConfiguration setHttpProtocols(List<String> httpProtocols) {
+        this.httpProtocols = httpProtocols;
+        return this;
+    }
+
+    /**
+     * 获取HTTP/2连接的ping间隔时间
+     * @return ping间隔时间，单位为毫秒
+     */
+    public Integer getPingInterval() {
+        return pingInterval;
+    }
+
+    /**
+     * 设置HTTP/2连接的ping间隔时间
+     * <p>只对OkHttp后端生效，为空或为 0 时不发送ping</p>
+     * @param pingInterval ping间隔时间，单位为毫秒
+     * @return 当前ForestConfiguration实例
+     */
+    public ForestConfiguration setPingInterval(Integer pingInterval) {
+        this.pingInterval = pingInterval;
+        return this;
+    }
+
+    /**
+     * 获取异步请求I/O反应器的线程数
+     * @return I/O线程数，为空时使用CPU核数
+     */
+    public Integer getIoThreadCount() {
+        return ioThreadCount;
+    }
+
+    /**
+     * 设置异步请求I/O反应器的线程数
+     * @param ioThreadCount I/O线程数
+     * @return 当前ForestConfiguration实例
+     */
+    public ForestConfiguration setIoThreadCount(Integer ioThreadCount) {
+        this.ioThreadCount = ioThreadCount;
+        return this;
+    }
+
+    /**
+     * 获取异步请求I/O反应器的select间隔时间，单位为毫秒
+     * @return select间隔时间，单位为毫秒
+     */
+    public Integer getIoSelectInterval() {
+        return ioSelectInterval;
+    }
+
+    /**
+     * 设置异步请求I/O反应器的select间隔时间，单位为毫秒
+     * @param ioSelectInterval select间隔时间，单位为毫秒
+     * @return 当前ForestConfiguration实例
+     */
+    public ForestConfiguration setIoSelectInterval(Integer ioSelectInterval) {
+        this.ioSelectInterval = ioSelectInterval;
+        return this;
+    }
+
+    /**
+     * 异步请求I/O反应器的连接是否开启TCP_NODELAY
+     * @return 开启为 {@code true}, 否则为 {@code false}
+     */
+    public Boolean getIoTcpNoDelay() {
+        return ioTcpNoDelay;
+    }
+
+    /**
+     * 设置异步请求I/O反应器的连接是否开启TCP_NODELAY
+     * @param ioTcpNoDelay 开启为 {@code true}, 否则为 {@code false}
+     * @return 当前ForestConfiguration实例
+     */
+    public ForestConfiguration setIoTcpNoDelay(Boolean ioTcpNoDelay) {
+        this.ioTcpNoDelay = ioTcpNoDelay;
+        return this;
+    }
+
+    /**
+     * 异步请求I/O反应器的连接是否开启SO_KEEPALIVE
+     * @return 开启为 {@code true}, 否则为 {@code false}
+     */
+    public Boolean getIoSoKeepAlive() {
+        return ioSoKeepAlive;
+    }
+
+    /**
+     * 设置异步请求I/O反应器的连接是否开启SO_KEEPALIVE
+     * @param ioSoKeepAlive 开启为 {@code true}, 否则为 {@code false}
+     * @return 当前ForestConfiguration实例
+     */
+    public ForestConfiguration setIoSoKeepAlive(Boolean ioSoKeepAlive) {
+        this.ioSoKeepAlive = ioSoKeepAlive;
+        return this;
+    }
+
     /**
      * 获取全局的请求超时时间，单位为毫秒
      * @return 请求超时时间，单位为毫秒
@@ -566,6 +1026,63 @@ public class ForestConfiguration implements Serializable {
         this.sslProtocol = sslProtocol;
     }
 
+    /**
+     * 获取全局的TLS会话缓存大小
+     * @return TLS会话缓存大小
+     */
+    public Integer getSslSessionCacheSize() {
+        return sslSessionCacheSize;
+    }
+
+    /**
+     * 设置全局的TLS会话缓存大小
+     * @param sslSessionCacheSize TLS会话缓存大小
+     * @return 当前ForestConfiguration实例
+     */
+    public ForestConfiguration setSslSessionCacheSize(Integer sslSessionCacheSize) {
+        this.sslSessionCacheSize = sslSessionCacheSize;
+        this.sslContextRegistry = null;
+        return this;
+    }
+
+    /**
+     * 获取全局的TLS会话超时时间，单位为秒
+     * @return TLS会话超时时间
+     */
+    public Integer getSslSessionTimeout() {
+        return sslSessionTimeout;
+    }
+
+    /**
+     * 设置全局的TLS会话超时时间，单位为秒
+     * @param sslSessionTimeout TLS会话超时时间
+     * @return 当前ForestConfiguration实例
+     */
+    public ForestConfiguration setSslSessionTimeout(Integer sslSessionTimeout) {
+        this.sslSessionTimeout = sslSessionTimeout;
+        this.sslContextRegistry = null;
+        return this;
+    }
+
+    /**
+     * 获取SSL上下文注册表
+     * <p>同一个 Key Store 和 SSL 协议的组合只会构建一次 SSL 上下文，并被所有后端共享</p>
+     * @return {@link SSLContextRegistry} 实例
+     */
+    public SSLContextRegistry getSslContextRegistry() {
+        SSLContextRegistry registry = this.sslContextRegistry;
+        if (registry == null) {
+            synchronized (this) {
+                registry = this.sslContextRegistry;
+                if (registry == null) {
+                    registry = new SSLContextRegistry(sslSessionCacheSize, sslSessionTimeout);
+                    this.sslContextRegistry = registry;
+                }
+            }
+        }
+        return registry;
+    }
+
     /**
      * 是否允许打印请求日志
      * @return 允许为 {@code true} , 否则为 {@code false}
@@ -662,6 +1179,185 @@ public class ForestConfiguration implements Serializable {
         this.cacheEnabled = cacheEnabled;
     }
 
+    /**
+     * 是否以流的形式反序列化响应内容
+     * @return 允许为 {@code true}, 否则为 {@code false}
+     */
+    public boolean isStreamingDecodeEnabled() {
+        return streamingDecodeEnabled;
+    }
+
+    /**
+     * 设置是否以流的形式反序列化响应内容
+     * <p>开启后，请求成功且方法返回值需要由JSON或XML转换器反序列化时，
+     * 转换器直接从网络读取响应内容，不再先将整个响应读入内存并转换成字符串</p>
+     * <p>以流的形式反序列化的响应，{@link com.dtflys.forest.http.ForestResponse#getContent()} 将返回 {@code null}</p>
+     *
+     * @param streamingDecodeEnabled 允许为 {@code true}, 否则为 {@code false}
+     * @return 当前ForestConfiguration实例
+     */
+    public ForestConfiguration setStreamingDecodeEnabled(boolean streamingDecodeEnabled) {
+        this.streamingDecodeEnabled = streamingDecodeEnabled;
+        return this;
+    }
+
+    /**
+     * 获取HTTP响应缓存
+     * <p>未设置缓存存储时默认使用 {@link MemoryCacheStorage}</p>
+     *
+     * @return HTTP响应缓存，{@link ForestResponseCache}类实例
+     */
+    public ForestResponseCache getResponseCache() {
+        if (responseCache == null) {
+            synchronized (this) {
+                if (responseCache == null) {
+                    responseCache = new ForestResponseCache(new MemoryCacheStorage());
+                }
+            }
+        }
+        return responseCache;
+    }
+
+    /**
+     * 获取HTTP响应缓存的存储
+     *
+     * @return 缓存存储，{@link ForestCacheStorage}接口实例
+     */
+    public ForestCacheStorage getResponseCacheStorage() {
+        return getResponseCache().getStorage();
+    }
+
+    /**
+     * 设置HTTP响应缓存的存储
+     * <p>可以使用内存存储 {@link MemoryCacheStorage}、磁盘存储 {@link com.dtflys.forest.cache.FileCacheStorage}
+     * 或者自定义的 {@link ForestCacheStorage} 实现</p>
+     *
+     * @param responseCacheStorage 缓存存储，{@link ForestCacheStorage}接口实例
+     * @return 当前ForestConfiguration实例
+     */
+    public ForestConfiguration setResponseCacheStorage(ForestCacheStorage responseCacheStorage) {
+        this.responseCache = new ForestResponseCache(responseCacheStorage);
+        return this;
+    }
+
+    /**
+     * 获取相同并发请求的合并器
+     *
+     * @return 合并器，{@link ForestSingleFlight}类实例
+     */
+    public ForestSingleFlight getSingleFlight() {
+        return singleFlight;
+    }
+
+    /**
+     * 获取按主机划分的自适应并发限制器
+     *
+     * @return 并发限制器，{@link ForestConcurrencyLimiter}类实例，未设置时返回 {@code null}
+     */
+    public ForestConcurrencyLimiter getConcurrencyLimiter() {
+        return concurrencyLimiter;
+    }
+
+    /**
+     * 设置按主机划分的自适应并发限制器
+     * <p>对同步和异步请求、HttpClient和OkHttp后端都生效，为 {@code null} 时不限制</p>
+     *
+     * @param concurrencyLimiter 并发限制器，{@link ForestConcurrencyLimiter}类实例
+     * @return 当前ForestConfiguration实例
+     */
+    public ForestConfiguration setConcurrencyLimiter(ForestConcurrencyLimiter concurrencyLimiter) {
+        this.concurrencyLimiter = concurrencyLimiter;
+        return this;
+    }
+
+    /**
+     * 注册节点组
+     * <p>注册后可以在 {@code baseURL} 或 {@code url} 中以 {@code lb://节点组名称} 引用，同名的节点组会被替换</p>
+     *
+     * @param name 节点组名称
+     * @param urls 各节点的根地址
+     * @return 注册的节点组，{@link ForestEndpointGroup}类实例
+     */
+    public ForestEndpointGroup registerEndpointGroup(String name, String... urls) {
+        return registerEndpointGroup(new ForestEndpointGroup(name, Arrays.asList(urls)));
+    }
+
+    /**
+     * 注册节点组
+     *
+     * @param endpointGroup 节点组，{@link ForestEndpointGroup}类实例
+     * @return 注册的节点组
+     */
+    public ForestEndpointGroup registerEndpointGroup(ForestEndpointGroup endpointGroup) {
+        endpointGroups.put(endpointGroup.getName(), endpointGroup);
+        return endpointGroup;
+    }
+
+    /**
+     * 根据名称获取节点组
+     *
+     * @param name 节点组名称
+     * @return 节点组，{@link ForestEndpointGroup}类实例，不存在时返回 {@code null}
+     */
+    public ForestEndpointGroup getEndpointGroup(String name) {
+        return endpointGroups.get(name);
+    }
+
+    /**
+     * 获取所有节点组
+     *
+     * @return 节点组表，Key 为节点组名称
+     */
+    public Map<String, ForestEndpointGroup> getEndpointGroups() {
+        return Collections.unmodifiableMap(endpointGroups);
+    }
+
+    /**
+     * 获取全局对冲请求预算
+     * <p>可以从中获取已发送的对冲请求数和胜出的对冲请求数</p>
+     *
+     * @return 对冲请求预算，{@link ForestHedgeBudget}类实例
+     */
+    public ForestHedgeBudget getHedgeBudget() {
+        return hedgeBudget;
+    }
+
+    /**
+     * 设置全局对冲请求预算
+     *
+     * @param hedgeBudget 对冲请求预算，{@link ForestHedgeBudget}类实例
+     * @return 当前ForestConfiguration实例
+     */
+    public ForestConfiguration setHedgeBudget(ForestHedgeBudget hedgeBudget) {
+        this.hedgeBudget = hedgeBudget;
+        return this;
+    }
+
+    /**
+     * 获取指标收集器
+     *
+     * @return 指标收集器，{@link ForestMetrics}接口实例，未设置时返回 {@code null}
+     */
+    public ForestMetrics getMetrics() {
+        return metrics;
+    }
+
+    /**
+     * 设置指标收集器
+     * <p>HTTP后端已经初始化时立即绑定其连接池，否则在HTTP后端初始化时绑定</p>
+     *
+     * @param metrics 指标收集器，{@link ForestMetrics}接口实例，为 {@code null} 时不收集指标
+     * @return 当前ForestConfiguration实例
+     */
+    public ForestConfiguration setMetrics(ForestMetrics metrics) {
+        this.metrics = metrics;
+        HttpBackend currentBackend = this.backend;
+        if (metrics != null && currentBackend != null) {
+            currentBackend.bindMetrics(metrics);
+        }
+        return this;
+    }
+
     /**
      * 获取全局默认请求参数列表
      * @return {@link RequestNameValue} 对象列表
@@ -814,6 +1510,7 @@ public class ForestConfiguration implements Serializable {
      */
     public ForestConfiguration setSslKeyStores(Map<String, SSLKeyStore> sslKeyStores) {
         this.sslKeyStores = sslKeyStores;
+        this.sslContextRegistry = null;
         return this;
     }
 
@@ -824,6 +1521,9 @@ public class ForestConfiguration implements Serializable {
      */
     public ForestConfiguration registerKeyStore(SSLKeyStore keyStore) {
         sslKeyStores.put(keyStore.getId(), keyStore);
+        if (sslContextRegistry != null) {
+            sslContextRegistry.clear();
+        }
         return this;
     }
 
@@ -2,6 +2,8 @@ package com.dtflys.forest.converter.auto;
 
 import com.dtflys.forest.config.ForestConfiguration;
 import com.dtflys.forest.converter.ForestConverter;
+import com.dtflys.forest.converter.json.ForestJsonConverter;
+import com.dtflys.forest.converter.xml.ForestXmlConverter;
 import com.dtflys.forest.exceptions.ForestConvertException;
 import com.dtflys.forest.exceptions.ForestRuntimeException;
 import com.dtflys.forest.utils.ForestDataType;
@@ -13,6 +15,8 @@ import java.io.ByteArrayInputStream;
 import java.io.File;
 import java.io.IOException;
 import java.io.InputStream;
+import java.io.PushbackReader;
+import java.io.Reader;
 import java.lang.reflect.Type;
 
 public class DefaultAutoConverter implements ForestConverter<Object> {
@@ -140,6 +144,45 @@ public class DefaultAutoConverter implements ForestConverter<Object> {
     }
 
 
+    /**
+     * 将字符流形式的数据转换为目标类型（Type）的java对象
+     * <p>只读取第一个非空白字符来判断数据格式，JSON和XML格式的数据直接以流的形式交给对应的转换器</p>
+     *
+     * @param source       字符流形式的源数据
+     * @param targetType   目标类型 (Type对象)
+     * @param <T>          目标类型泛型
+     * @return 转换后的目标类型对象
+     */
+    public <T> T convertToJavaObject(Reader source, Type targetType) {
+        PushbackReader reader = new PushbackReader(source, 1);
+        int ch;
+        try {
+            do {
+                ch = reader.read();
+            } while (ch != -1 && Character.isWhitespace(ch));
+            if (ch == -1) {
+                return convertToJavaObject((Object) "", targetType);
+            }
+            reader.unread(ch);
+        } catch (IOException e) {
+            throw new ForestConvertException("auto", e);
+        }
+        if (ch == '{' || ch == '[') {
+            ForestJsonConverter jsonConverter = (ForestJsonConverter) configuration.getConverterMap().get(ForestDataType.JSON);
+            return jsonConverter.convertToJavaObject(reader, targetType);
+        }
+        if (ch == '<') {
+            ForestXmlConverter xmlConverter = (ForestXmlConverter) configuration.getConverterMap().get(ForestDataType.XML);
+            return xmlConverter.convertToJavaObject(reader, targetType);
+        }
+        try {
+            return convertToJavaObject((Object) IOUtils.toString(reader), targetType);
+        } catch (IOException e) {
+            throw new ForestConvertException("auto", e);
+        }
+    }
+
+
     private boolean canReadAsBinary(Class targetType) {
         if (byte[].class.isAssignableFrom(targetType)
             || InputStream.class.isAssignableFrom(targetType)
@@ -34,6 +34,7 @@ import com.dtflys.forest.exceptions.ForestRuntimeException;
 import com.dtflys.forest.utils.ForestDataType;
 import com.dtflys.forest.utils.StringUtils;
 
+import java.io.Reader;
 import java.lang.reflect.*;
 import java.util.Collection;
 import java.util.LinkedHashMap;
@@ -137,6 +138,18 @@ public class ForestFastjsonConverter implements ForestJsonConverter {
 
     }
 
+    @Override
+    public <T> T convertToJavaObject(Reader source, Type targetType) {
+        JSONReader reader = new JSONReader(source);
+        try {
+            return reader.readObject(targetType);
+        } catch (Throwable th) {
+            throw new ForestConvertException("json", th);
+        } finally {
+            reader.close();
+        }
+    }
+
     public <T> T convertToJavaObject(String source, TypeReference<T> typeReference) {
         try {
             return JSON.parseObject(source, typeReference);
@@ -26,9 +26,11 @@ package com.dtflys.forest.converter.json;
 
 import com.dtflys.forest.exceptions.ForestConvertException;
 import com.dtflys.forest.utils.ForestDataType;
+import com.dtflys.forest.utils.ReflectUtils;
 import com.dtflys.forest.utils.StringUtils;
 import com.google.gson.*;
 
+import java.io.Reader;
 import java.lang.reflect.ParameterizedType;
 import java.lang.reflect.Type;
 import java.math.BigDecimal;
@@ -89,6 +91,25 @@ public class ForestGsonConverter implements ForestJsonConverter {
         }
     }
 
+    @Override
+    public <T> T convertToJavaObject(Reader source, Type targetType) {
+        try {
+            Class clazz = ReflectUtils.getClassByType(targetType);
+            if (!(targetType instanceof ParameterizedType) && Map.class.isAssignableFrom(clazz)) {
+                JsonObject jsonObject = new JsonParser().parse(source).getAsJsonObject();
+                return (T) toMap(jsonObject, false);
+            }
+            if (!(targetType instanceof ParameterizedType) && List.class.isAssignableFrom(clazz)) {
+                JsonArray jsonArray = new JsonParser().parse(source).getAsJsonArray();
+                return (T) toList(jsonArray);
+            }
+            Gson gson = createGson();
+            return gson.fromJson(source, targetType);
+        } catch (Throwable th) {
+            throw new ForestConvertException("json", th);
+        }
+    }
+
     private static Map<String, Object> toMap(JsonObject json, boolean singleLevel){
         Map<String, Object> map = new HashMap<String, Object>();
         Set<Map.Entry<String, JsonElement>> entrySet = json.entrySet();
@@ -32,6 +32,7 @@ import com.fasterxml.jackson.databind.JavaType;
 import com.fasterxml.jackson.databind.ObjectMapper;
 
 import java.io.IOException;
+import java.io.Reader;
 import java.lang.reflect.Type;
 import java.text.DateFormat;
 import java.text.SimpleDateFormat;
@@ -96,6 +97,15 @@ public class ForestJacksonConverter implements ForestJsonConverter {
 
     }
 
+    @Override
+    public <T> T convertToJavaObject(Reader source, Type targetType) {
+        try {
+            return mapper.readValue(source, mapper.getTypeFactory().constructType(targetType));
+        } catch (IOException e) {
+            throw new ForestConvertException("json", e);
+        }
+    }
+
     public <T> T convertToJavaObject(String source, Class<?> parametrized, Class<?> ...parameterClasses) {
         try {
             JavaType javaType = mapper.getTypeFactory().constructParametricType(parametrized, parameterClasses);
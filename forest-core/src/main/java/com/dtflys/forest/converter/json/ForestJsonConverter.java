@@ -26,7 +26,12 @@ package com.dtflys.forest.converter.json;
 
 import com.dtflys.forest.converter.ForestConverter;
 import com.dtflys.forest.converter.ForestEncoder;
+import com.dtflys.forest.exceptions.ForestConvertException;
+import org.apache.commons.io.IOUtils;
 
+import java.io.IOException;
+import java.io.Reader;
+import java.lang.reflect.Type;
 import java.util.Map;
 
 /**
@@ -45,6 +50,23 @@ public interface ForestJsonConverter extends ForestConverter<String>, ForestEnco
      */
     Map<String, Object> convertObjectToMap(Object obj);
 
+    /**
+     * 将字符流形式的JSON数据转换为目标类型（Type）的java对象
+     * <p>默认先读取为字符串再转换，支持流式解析的实现应覆盖此方法</p>
+     *
+     * @param source       字符流形式的源数据
+     * @param targetType   目标类型 (Type对象)
+     * @param <T>          目标类型泛型
+     * @return 转换后的目标类型对象
+     */
+    default <T> T convertToJavaObject(Reader source, Type targetType) {
+        try {
+            return convertToJavaObject(IOUtils.toString(source), targetType);
+        } catch (IOException e) {
+            throw new ForestConvertException("json", e);
+        }
+    }
+
     /**
      * 设置日期格式
      * @param format 日期格式化模板字符
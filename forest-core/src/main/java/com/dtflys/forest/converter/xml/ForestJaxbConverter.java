@@ -10,6 +10,7 @@ import javax.xml.bind.JAXBContext;
 import javax.xml.bind.JAXBException;
 import javax.xml.bind.Marshaller;
 import javax.xml.bind.Unmarshaller;
+import java.io.Reader;
 import java.io.StringReader;
 import java.io.StringWriter;
 import java.lang.reflect.Type;
@@ -66,6 +67,18 @@ public class ForestJaxbConverter implements ForestXmlConverter {
     }
 
 
+    @Override
+    public <T> T convertToJavaObject(Reader source, Type targetType) {
+        Class clazz = ReflectUtils.getClassByType(targetType);
+        try {
+            JAXBContext jaxbContext = JAXBContext.newInstance(clazz);
+            return (T) createUnmarshaller(jaxbContext).unmarshal(source);
+        } catch (JAXBException e) {
+            throw new ForestConvertException("xml", e);
+        }
+    }
+
+
     public Marshaller createMarshaller(JAXBContext jaxbContext, String encoding) {
         try {
             Marshaller marshaller = jaxbContext.createMarshaller();
@@ -2,6 +2,12 @@ package com.dtflys.forest.converter.xml;
 
 import com.dtflys.forest.converter.ForestConverter;
 import com.dtflys.forest.converter.ForestEncoder;
+import com.dtflys.forest.exceptions.ForestConvertException;
+import org.apache.commons.io.IOUtils;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.lang.reflect.Type;
 
 /**
  * Xml消息转化接口
@@ -10,5 +16,21 @@ import com.dtflys.forest.converter.ForestEncoder;
  */
 public interface ForestXmlConverter extends ForestConverter<String>, ForestEncoder {
 
+    /**
+     * 将字符流形式的XML数据转换为目标类型（Type）的java对象
+     * <p>默认先读取为字符串再转换，支持流式解析的实现应覆盖此方法</p>
+     *
+     * @param source       字符流形式的源数据
+     * @param targetType   目标类型 (Type对象)
+     * @param <T>          目标类型泛型
+     * @return 转换后的目标类型对象
+     */
+    default <T> T convertToJavaObject(Reader source, Type targetType) {
+        try {
+            return convertToJavaObject(IOUtils.toString(source), targetType);
+        } catch (IOException e) {
+            throw new ForestConvertException("xml", e);
+        }
+    }
 
 }
@@ -0,0 +1,24 @@
+package com.dtflys.forest.exceptions;
+
+/**
+ * 熔断器打开时请求被直接拒绝的异常
+ *
+ * @author gongjun[dt_flys@hotmail.com]
+ * @since 1.5.2
+ */
+public class ForestCircuitBreakerOpenException extends ForestRuntimeException {
+
+    /**
+     * 熔断器名称
+     */
+    private final String circuitBreakerName;
+
+    public ForestCircuitBreakerOpenException(String circuitBreakerName) {
+        super("[Forest] Circuit breaker \"" + circuitBreakerName + "\" is open, request is rejected");
+        this.circuitBreakerName = circuitBreakerName;
+    }
+
+    public String getCircuitBreakerName() {
+        return circuitBreakerName;
+    }
+}
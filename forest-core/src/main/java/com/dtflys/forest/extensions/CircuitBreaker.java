@@ -0,0 +1,114 @@
+package com.dtflys.forest.extensions;
+
+import com.dtflys.forest.annotation.MethodLifeCycle;
+import com.dtflys.forest.annotation.RequestAttributes;
+import com.dtflys.forest.callback.OnError;
+import com.dtflys.forest.lifecycles.breaker.CircuitBreakerLifeCycle;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * 熔断器注解
+ * <p>该注解可以修饰接口类和方法，按方法或按主机统计最近若干次调用的失败率和慢调用率，
+ * 达到阈值时打开熔断器。熔断器打开期间请求不会发送到服务端，也不会重试，
+ * 而是直接以 {@link com.dtflys.forest.exceptions.ForestCircuitBreakerOpenException} 异常失败，
+ * 该异常和其它请求异常一样交给 {@code OnError} 回调处理</p>
+ * <p>状态切换的规则见 {@link com.dtflys.forest.breaker.ForestCircuitBreaker}</p>
+ * <p>该注解的生命周期类为 {@link CircuitBreakerLifeCycle}</p>
+ *
+ * @author gongjun[dt_flys@hotmail.com]
+ * @since 1.5.2
+ * @see CircuitBreakerLifeCycle
+ */
+@Documented
+@MethodLifeCycle(CircuitBreakerLifeCycle.class)
+@RequestAttributes
+@Retention(RetentionPolicy.RUNTIME)
+@Target({ElementType.TYPE, ElementType.METHOD})
+public @interface CircuitBreaker {
+
+    /**
+     * 熔断器的统计范围
+     *
+     * @return 统计范围
+     */
+    Scope scope() default Scope.METHOD;
+
+    /**
+     * 失败率阈值（百分比），失败率大于等于该值时打开熔断器
+     * <p>请求发生异常或响应状态码大于等于 500 时视为失败</p>
+     *
+     * @return 失败率阈值
+     */
+    float failureRateThreshold() default 50;
+
+    /**
+     * 慢调用率阈值（百分比），慢调用率大于等于该值时打开熔断器
+     *
+     * @return 慢调用率阈值
+     */
+    float slowCallRateThreshold() default 100;
+
+    /**
+     * 慢调用的耗时阈值（毫秒），耗时大于等于该值的调用视为慢调用
+     *
+     * @return 慢调用的耗时阈值
+     */
+    long slowCallDuration() default 60000;
+
+    /**
+     * 滑动窗口大小，即参与统计的最近调用次数
+     *
+     * @return 滑动窗口大小
+     */
+    int windowSize() default 100;
+
+    /**
+     * 计算失败率所需的最少调用次数
+     *
+     * @return 最少调用次数
+     */
+    int minimumCalls() default 10;
+
+    /**
+     * 熔断器打开状态的持续时间（毫秒），超过该时间后进入半开状态
+     *
+     * @return 打开状态的持续时间
+     */
+    long waitDurationInOpenState() default 60000;
+
+    /**
+     * 半开状态下允许发送的探测请求数
+     *
+     * @return 探测请求数
+     */
+    int permittedCallsInHalfOpen() default 10;
+
+    /**
+     * 熔断器打开时的降级回调
+     * <p>请求没有设置 {@code OnError} 回调时，请求被拒绝后调用该类的实例，
+     * 可以在回调中通过 {@code response.setResult()} 设置降级的返回值</p>
+     *
+     * @return 降级回调类，默认没有降级回调
+     */
+    Class<? extends OnError> fallback() default OnError.class;
+
+    /**
+     * 熔断器的统计范围
+     */
+    enum Scope {
+        /**
+         * 每个接口方法一个熔断器
+         */
+        METHOD,
+        /**
+         * 每个主机一个熔断器，访问同一主机的所有方法共享熔断器
+         * <p>共享熔断器的方法的熔断器属性必须相同，否则请求时抛出 {@link com.dtflys.forest.exceptions.ForestRuntimeException}</p>
+         */
+        HOST
+    }
+}
@@ -33,4 +33,29 @@ public @interface DownloadFile {
      * @return 文件名
      */
     String filename() default "";
+
+    /**
+     * 是否以流的形式下载，即在接收响应内容的同时直接写入文件，不在内存中缓存完整的文件内容
+     *
+     * @return {@code true}: 流式下载，{@code false}: 非流式下载
+     */
+    boolean streaming() default false;
+
+    /**
+     * 是否断点续传，即文件已存在时通过 {@code Range} 和 {@code If-Range} 请求头只下载剩余的部分
+     * <p>需要同时开启 {@link #streaming()} 并指定 {@link #filename()}，
+     * 服务端不支持或文件已发生变化时会重新下载完整的文件</p>
+     *
+     * @return {@code true}: 断点续传，{@code false}: 不断点续传
+     */
+    boolean resume() default false;
+
+    /**
+     * 分段数，大于1时先以只请求第一个字节的 {@code Range} 请求获取文件大小，再以多个并发的 {@code Range} 请求分段下载
+     * <p>每一段直接写入文件中对应的位置，下载失败的分段会单独重试；
+     * 服务端不支持 Range 请求时直接使用第一次请求返回的完整内容，分段下载时不支持断点续传</p>
+     *
+     * @return 分段数
+     */
+    int segments() default 1;
 }
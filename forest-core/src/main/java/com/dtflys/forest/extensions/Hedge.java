@@ -0,0 +1,60 @@
+package com.dtflys.forest.extensions;
+
+import com.dtflys.forest.annotation.MethodLifeCycle;
+import com.dtflys.forest.annotation.RequestAttributes;
+import com.dtflys.forest.lifecycles.hedge.HedgeLifeCycle;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * 对冲请求注解
+ * <p>该注解可以修饰接口类和方法，被修饰的方法发送异步的 {@code GET}、{@code HEAD} 或 {@code OPTIONS} 请求后，
+ * 超过一定时间仍未返回时，向同一节点（URL引用节点组时为组内的另一个节点）再发送一次相同的请求，
+ * 先成功返回的请求胜出，另一个请求被取消，以此降低尾部延迟</p>
+ * <p>等待时间可以是固定值，也可以按该方法最近请求耗时的百分位数计算。
+ * 所有对冲请求受全局的 {@link com.dtflys.forest.hedge.ForestHedgeBudget} 限制，对冲最多使请求量翻倍</p>
+ * <p>该注解的生命周期类为 {@link HedgeLifeCycle}</p>
+ *
+ * @author gongjun[dt_flys@hotmail.com]
+ * @since 1.5.2
+ * @see HedgeLifeCycle
+ */
+@Documented
+@MethodLifeCycle(HedgeLifeCycle.class)
+@RequestAttributes
+@Retention(RetentionPolicy.RUNTIME)
+@Target({ElementType.TYPE, ElementType.METHOD})
+public @interface Hedge {
+
+    /**
+     * 发出对冲请求前的固定等待时间（毫秒），小于 0 时按 {@link #percentile()} 计算
+     *
+     * @return 等待时间
+     */
+    long delay() default -1;
+
+    /**
+     * 按该方法最近请求耗时的百分位数计算等待时间，如 95 表示 P95
+     *
+     * @return 百分位
+     */
+    double percentile() default 95;
+
+    /**
+     * 统计耗时的滑动窗口大小，即参与统计的最近成功请求数
+     *
+     * @return 滑动窗口大小
+     */
+    int windowSize() default 100;
+
+    /**
+     * 按百分位数计算等待时间所需的最少样本数，样本不足时不发送对冲请求
+     *
+     * @return 最少样本数
+     */
+    int minimumSamples() default 20;
+}
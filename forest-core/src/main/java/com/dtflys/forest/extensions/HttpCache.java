@@ -0,0 +1,39 @@
+package com.dtflys.forest.extensions;
+
+import com.dtflys.forest.annotation.MethodLifeCycle;
+import com.dtflys.forest.annotation.RequestAttributes;
+import com.dtflys.forest.lifecycles.cache.HttpCacheLifeCycle;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * HTTP响应缓存注解
+ * <p>该注解可以修饰接口类和方法，被修饰的 GET 请求的响应按 {@code Cache-Control}、{@code ETag} 和
+ * {@code Last-Modified} 响应头保存到缓存中，新鲜的缓存直接作为响应使用，不发送网络请求；
+ * 过期的缓存通过 {@code If-None-Match} 和 {@code If-Modified-Since} 请求头向服务端验证</p>
+ * <p>命中缓存时 {@code OnSuccess} 回调和拦截器仍然会执行</p>
+ * <p>缓存存储由 {@link com.dtflys.forest.config.ForestConfiguration#setResponseCacheStorage} 设置，默认保存在内存中</p>
+ * <p>该注解的生命周期类为 {@link HttpCacheLifeCycle}</p>
+ *
+ * @author gongjun[dt_flys@hotmail.com]
+ * @since 1.5.2
+ * @see HttpCacheLifeCycle
+ */
+@Documented
+@MethodLifeCycle(HttpCacheLifeCycle.class)
+@RequestAttributes
+@Retention(RetentionPolicy.RUNTIME)
+@Target({ElementType.TYPE, ElementType.METHOD})
+public @interface HttpCache {
+
+    /**
+     * 是否使用HTTP响应缓存
+     *
+     * @return {@code true}: 使用，{@code false}: 不使用
+     */
+    boolean value() default true;
+}
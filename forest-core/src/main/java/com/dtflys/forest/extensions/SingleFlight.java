@@ -0,0 +1,37 @@
+package com.dtflys.forest.extensions;
+
+import com.dtflys.forest.annotation.MethodLifeCycle;
+import com.dtflys.forest.annotation.RequestAttributes;
+import com.dtflys.forest.lifecycles.flight.SingleFlightLifeCycle;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * 合并相同并发请求的注解
+ * <p>该注解可以修饰接口类和方法，被修饰的方法以相同的参数同时被多个线程调用时，
+ * 只有第一个请求会发送到服务端，其它调用等待它结束并共享它的返回值或异常</p>
+ * <p>合并的规则见 {@link com.dtflys.forest.http.ForestSingleFlight}</p>
+ * <p>该注解的生命周期类为 {@link SingleFlightLifeCycle}</p>
+ *
+ * @author gongjun[dt_flys@hotmail.com]
+ * @since 1.5.2
+ * @see SingleFlightLifeCycle
+ */
+@Documented
+@MethodLifeCycle(SingleFlightLifeCycle.class)
+@RequestAttributes
+@Retention(RetentionPolicy.RUNTIME)
+@Target({ElementType.TYPE, ElementType.METHOD})
+public @interface SingleFlight {
+
+    /**
+     * 是否合并相同的并发请求
+     *
+     * @return {@code true}: 合并，{@code false}: 不合并
+     */
+    boolean value() default true;
+}
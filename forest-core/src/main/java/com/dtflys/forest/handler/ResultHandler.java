@@ -2,17 +2,23 @@ package com.dtflys.forest.handler;
 
 import com.dtflys.forest.backend.ContentType;
 import com.dtflys.forest.converter.ForestConverter;
+import com.dtflys.forest.converter.auto.DefaultAutoConverter;
+import com.dtflys.forest.converter.json.ForestJsonConverter;
+import com.dtflys.forest.converter.xml.ForestXmlConverter;
 import com.dtflys.forest.exceptions.ForestHandlerException;
 import com.dtflys.forest.http.ForestRequest;
 import com.dtflys.forest.http.ForestResponse;
+import com.dtflys.forest.metrics.ForestMetrics;
 import com.dtflys.forest.utils.ForestDataType;
 import com.dtflys.forest.utils.ReflectUtils;
 
 import java.io.File;
+import java.io.IOException;
 import java.io.InputStream;
+import java.io.Reader;
 import java.lang.reflect.ParameterizedType;
 import java.lang.reflect.Type;
-import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
 
 /**
  * @author gongjun[jun.gong@thebeastshop.com]
@@ -57,17 +63,20 @@ public class ResultHandler {
                     }
                     return response;
                 }
-                if (Future.class.isAssignableFrom(resultClass)) {
+                if (ReflectUtils.isFutureType(resultClass)) {
                     if (resultType instanceof ParameterizedType) {
                         ParameterizedType parameterizedType = (ParameterizedType) resultType;
                         Class rowClass = (Class) parameterizedType.getRawType();
-                        if (Future.class.isAssignableFrom(rowClass)) {
+                        if (ReflectUtils.isFutureType(rowClass)) {
                             Type realType = parameterizedType.getActualTypeArguments()[0];
                             Class realClass = ReflectUtils.getClassByType(parameterizedType.getActualTypeArguments()[0]);
                             return getResult(request, response, realType, realClass);
                         }
                     }
                 }
+                if (response.isStreamingContent() && canDecodeAsStream(resultClass)) {
+                    return decodeAsStream(request, response, resultType);
+                }
                 if (resultClass.isArray()) {
                     if (byte[].class.isAssignableFrom(resultClass)) {
                         return response.getByteArray();
@@ -96,20 +105,28 @@ public class ResultHandler {
                     return response.getInputStream();
                 }
                 ContentType contentType = response.getContentType();
-                if (request.getDecoder() != null) {
-                    if (contentType != null && contentType.canReadAsString()) {
-                        return request.getDecoder().convertToJavaObject(responseText, resultType);
-                    } else {
-                        return request.getDecoder().convertToJavaObject(response.getByteArray(), resultType);
+                ForestDataType dataType = request.getDataType();
+                ForestMetrics metrics = request.getConfiguration().getMetrics();
+                long startTime = metrics != null ? System.nanoTime() : 0;
+                try {
+                    if (request.getDecoder() != null) {
+                        if (contentType != null && contentType.canReadAsString()) {
+                            return request.getDecoder().convertToJavaObject(responseText, resultType);
+                        } else {
+                            return request.getDecoder().convertToJavaObject(response.getByteArray(), resultType);
+                        }
                     }
-                }
 
-                ForestDataType dataType = request.getDataType();
-                ForestConverter converter = request.getConfiguration().getConverter(dataType);
-                if (contentType != null && contentType.canReadAsString()) {
-                    return converter.convertToJavaObject(responseText, resultType);
+                    ForestConverter converter = request.getConfiguration().getConverter(dataType);
+                    if (contentType != null && contentType.canReadAsString()) {
+                        return converter.convertToJavaObject(responseText, resultType);
+                    }
+                    return converter.convertToJavaObject(response.getByteArray(), resultType);
+                } finally {
+                    if (metrics != null) {
+                        metrics.recordDecode(dataType, System.nanoTime() - startTime, TimeUnit.NANOSECONDS);
+                    }
                 }
-                return converter.convertToJavaObject(response.getByteArray(), resultType);
             } catch (Exception e) {
                 throw new ForestHandlerException(e, request, response);
             }
@@ -120,4 +137,72 @@ public class ResultHandler {
         return null;
     }
 
+
+    /**
+     * 以流的形式反序列化响应内容
+     */
+    protected Object decodeAsStream(ForestRequest request, ForestResponse response, Type resultType) throws IOException {
+        ForestConverter converter = request.getConfiguration().getConverter(request.getDataType());
+        ForestMetrics metrics = request.getConfiguration().getMetrics();
+        long startTime = metrics != null ? System.nanoTime() : 0;
+        try (Reader reader = response.openContentReader()) {
+            if (converter instanceof ForestJsonConverter) {
+                return ((ForestJsonConverter) converter).convertToJavaObject(reader, resultType);
+            }
+            if (converter instanceof ForestXmlConverter) {
+                return ((ForestXmlConverter) converter).convertToJavaObject(reader, resultType);
+            }
+            return ((DefaultAutoConverter) converter).convertToJavaObject(reader, resultType);
+        } finally {
+            if (metrics != null) {
+                metrics.recordDecode(request.getDataType(), System.nanoTime() - startTime, TimeUnit.NANOSECONDS);
+            }
+        }
+    }
+
+    /**
+     * 转换器是否支持以流的形式反序列化
+     *
+     * @param converter 数据转换器，{@link ForestConverter}接口实例
+     * @return {@code true}: 支持， {@code false}: 不支持
+     */
+    public static boolean isStreamConverter(ForestConverter converter) {
+        return converter instanceof ForestJsonConverter
+                || converter instanceof ForestXmlConverter
+                || converter instanceof DefaultAutoConverter;
+    }
+
+    /**
+     * 结果类型是否可以以流的形式反序列化
+     * <p>{@link ForestResponse}、{@link java.util.concurrent.Future} 等类型取其泛型参数判断，
+     * 字符串、字节数组、输入流等需要完整响应内容的类型不可以</p>
+     *
+     * @param resultType 结果类型
+     * @return {@code true}: 可以， {@code false}: 不可以
+     */
+    public static boolean canDecodeAsStream(Type resultType) {
+        Class resultClass = ReflectUtils.getClassByType(resultType);
+        if (resultClass == null) {
+            return false;
+        }
+        if (ForestResponse.class.isAssignableFrom(resultClass) || ReflectUtils.isFutureType(resultClass)) {
+            if (!(resultType instanceof ParameterizedType)) {
+                return false;
+            }
+            return canDecodeAsStream(((ParameterizedType) resultType).getActualTypeArguments()[0]);
+        }
+        return canDecodeAsStream(resultClass);
+    }
+
+    private static boolean canDecodeAsStream(Class resultClass) {
+        return !void.class.isAssignableFrom(resultClass)
+                && !Void.class.isAssignableFrom(resultClass)
+                && !Object.class.equals(resultClass)
+                && !CharSequence.class.isAssignableFrom(resultClass)
+                && !byte[].class.isAssignableFrom(resultClass)
+                && !InputStream.class.isAssignableFrom(resultClass)
+                && !File.class.isAssignableFrom(resultClass)
+                && !ForestResponse.class.isAssignableFrom(resultClass);
+    }
+
 }
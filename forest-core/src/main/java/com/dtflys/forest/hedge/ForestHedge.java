@@ -0,0 +1,134 @@
+package com.dtflys.forest.hedge;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * 一次发送中原始请求和对冲请求之间的竞争
+ * <p>原始请求发出后等待一段时间仍未返回时，在预算允许的情况下发出一个对冲请求。
+ * 最先成功的请求胜出，其余请求被取消；失败的请求在还有其它请求未返回时被忽略，
+ * 所有请求都失败时，由最后一个失败的请求按原来的流程处理错误或重试</p>
+ * <p>每次重试都重新开始一次竞争</p>
+ *
+ * @author gongjun[dt_flys@hotmail.com]
+ * @since 1.5.2
+ */
+public class ForestHedge {
+
+    /**
+     * 原始请求的序号
+     */
+    public final static int PRIMARY = 0;
+
+    /**
+     * 对冲请求的序号
+     */
+    public final static int HEDGE = 1;
+
+    private final static int UNDECIDED = -1;
+
+    private final ForestHedgeBudget budget;
+
+    /**
+     * 尚未返回的请求数，减到 0 后不能再发出对冲请求
+     */
+    private final AtomicInteger pending = new AtomicInteger(1);
+
+    /**
+     * 决定结果的请求序号
+     */
+    private final AtomicInteger decided = new AtomicInteger(UNDECIDED);
+
+    private final AtomicReferenceArray<Runnable> cancellers = new AtomicReferenceArray<>(2);
+
+    public ForestHedge(ForestHedgeBudget budget) {
+        this.budget = budget;
+    }
+
+    /**
+     * 申请发出对冲请求
+     * <p>原始请求已经返回或预算不足时申请失败</p>
+     *
+     * @return {@code true}: 可以发出对冲请求, {@code false}: 不发出
+     */
+    public boolean tryHedge() {
+        if (isDone() || !budget.tryAcquire()) {
+            return false;
+        }
+        int prev;
+        do {
+            prev = pending.get();
+            if (prev == 0 || prev > HEDGE || isDone()) {
+                budget.refund();
+                return false;
+            }
+        } while (!pending.compareAndSet(prev, prev + 1));
+        budget.onHedgeSent();
+        return true;
+    }
+
+    /**
+     * 设置取消请求的操作
+     * <p>结果已经由其它请求决定时立即取消</p>
+     *
+     * @param index 请求序号
+     * @param canceller 取消请求的操作
+     */
+    public void setCanceller(int index, Runnable canceller) {
+        cancellers.set(index, canceller);
+        int winner = decided.get();
+        if (winner != UNDECIDED && winner != index) {
+            cancel(index);
+        }
+    }
+
+    /**
+     * 请求成功返回
+     *
+     * @param index 请求序号
+     * @return {@code true}: 该请求胜出，继续处理响应, {@code false}: 结果已由其它请求决定，应丢弃该响应
+     */
+    public boolean win(int index) {
+        if (!decided.compareAndSet(UNDECIDED, index)) {
+            return false;
+        }
+        for (int i = 0; i < cancellers.length(); i++) {
+            if (i != index) {
+                cancel(i);
+            }
+        }
+        if (index == HEDGE) {
+            budget.onHedgeWon();
+        }
+        return true;
+    }
+
+    /**
+     * 请求失败
+     *
+     * @param index 请求序号
+     * @return {@code true}: 所有请求都已失败，由该请求处理错误或重试, {@code false}: 忽略该请求的结果
+     */
+    public boolean fail(int index) {
+        if (pending.decrementAndGet() > 0) {
+            return false;
+        }
+        return decided.compareAndSet(UNDECIDED, index);
+    }
+
+    /**
+     * 结果是否已经决定
+     *
+     * @return {@code true}: 已决定, {@code false}: 未决定
+     */
+    public boolean isDone() {
+        return decided.get() != UNDECIDED;
+    }
+
+    private void cancel(int index) {
+        Runnable canceller = cancellers.getAndSet(index, null);
+        if (canceller != null) {
+            canceller.run();
+        }
+    }
+}
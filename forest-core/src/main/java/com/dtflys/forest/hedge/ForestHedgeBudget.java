@@ -0,0 +1,161 @@
+package com.dtflys.forest.hedge;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 全局对冲请求预算
+ * <p>每个允许对冲的请求向预算中存入 {@code ratio} 个令牌，每发送一个对冲请求消耗一个令牌，
+ * 令牌不足时不发送对冲请求，所以对冲请求数不会超过原始请求数的 {@code ratio} 倍。
+ * {@code ratio} 最大为 1，即对冲最多使请求量翻倍</p>
+ * <p>同时统计已发送的对冲请求数和其中先于原始请求成功返回的次数</p>
+ *
+ * @author gongjun[dt_flys@hotmail.com]
+ * @since 1.5.2
+ */
+public class ForestHedgeBudget {
+
+    /**
+     * 一个令牌的计数单位，令牌以千分之一为单位保存
+     */
+    private final static long TOKEN = 1000;
+
+    /**
+     * 每个请求存入的令牌数
+     */
+    private volatile double ratio = 0.1;
+
+    /**
+     * 最多积攒的令牌数
+     */
+    private volatile int maxTokens = 10;
+
+    private final AtomicLong tokens = new AtomicLong(0);
+
+    private final AtomicLong requests = new AtomicLong(0);
+
+    private final AtomicLong hedgesSent = new AtomicLong(0);
+
+    private final AtomicLong hedgesWon = new AtomicLong(0);
+
+    /**
+     * 记录一个允许对冲的请求，并向预算中存入令牌
+     */
+    public void onRequest() {
+        requests.incrementAndGet();
+        long deposit = (long) (ratio * TOKEN);
+        long max = maxTokens * TOKEN;
+        long prev;
+        long next;
+        do {
+            prev = tokens.get();
+            next = Math.min(prev + deposit, max);
+        } while (prev != next && !tokens.compareAndSet(prev, next));
+    }
+
+    /**
+     * 申请发送一个对冲请求
+     *
+     * @return {@code true}: 申请成功, {@code false}: 预算不足
+     */
+    boolean tryAcquire() {
+        long prev;
+        do {
+            prev = tokens.get();
+            if (prev < TOKEN) {
+                return false;
+            }
+        } while (!tokens.compareAndSet(prev, prev - TOKEN));
+        return true;
+    }
+
+    /**
+     * 归还申请后未发送的对冲请求的令牌
+     */
+    void refund() {
+        tokens.addAndGet(TOKEN);
+    }
+
+    void onHedgeSent() {
+        hedgesSent.incrementAndGet();
+    }
+
+    void onHedgeWon() {
+        hedgesWon.incrementAndGet();
+    }
+
+    /**
+     * 清空令牌和统计数据
+     */
+    public void reset() {
+        tokens.set(0);
+        requests.set(0);
+        hedgesSent.set(0);
+        hedgesWon.set(0);
+    }
+
+    public double getRatio() {
+        return ratio;
+    }
+
+    /**
+     * 设置每个请求存入的令牌数
+     *
+     * @param ratio 对冲请求数与原始请求数之比的上限，取值范围为 [0, 1]
+     * @return 当前预算实例
+     */
+    public ForestHedgeBudget setRatio(double ratio) {
+        this.ratio = Math.min(Math.max(ratio, 0), 1);
+        return this;
+    }
+
+    public int getMaxTokens() {
+        return maxTokens;
+    }
+
+    /**
+     * 设置最多积攒的令牌数，即空闲一段时间后最多能连续发送的对冲请求数
+     *
+     * @param maxTokens 最多积攒的令牌数
+     * @return 当前预算实例
+     */
+    public ForestHedgeBudget setMaxTokens(int maxTokens) {
+        this.maxTokens = Math.max(maxTokens, 1);
+        return this;
+    }
+
+    /**
+     * 获取当前可用的令牌数
+     *
+     * @return 令牌数
+     */
+    public double getTokens() {
+        return (double) tokens.get() / TOKEN;
+    }
+
+    /**
+     * 获取允许对冲的请求数
+     *
+     * @return 请求数
+     */
+    public long getRequests() {
+        return requests.get();
+    }
+
+    /**
+     * 获取已发送的对冲请求数
+     *
+     * @return 对冲请求数
+     */
+    public long getHedgesSent() {
+        return hedgesSent.get();
+    }
+
+    /**
+     * 获取先于原始请求成功返回的对冲请求数
+     *
+     * @return 对冲请求数
+     */
+    public long getHedgesWon() {
+        return hedgesWon.get();
+    }
+}
@@ -0,0 +1,118 @@
+package com.dtflys.forest.hedge;
+
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * 最近若干次请求耗时的滑动窗口
+ * <p>用于按百分位数计算发出对冲请求前的等待时间，新样本覆盖最旧的样本</p>
+ * <p>计算百分位数时使用排好序的样本快照，新增的样本数达到快照样本数的 1/{@value #REFRESH_DIVISOR} 后才重新排序，
+ * 每次请求不需要复制和排序整个窗口</p>
+ *
+ * @author gongjun[dt_flys@hotmail.com]
+ * @since 1.5.2
+ */
+public class ForestLatencyWindow {
+
+    private final AtomicLongArray samples;
+
+    /**
+     * 新增样本数达到快照样本数的几分之一时重新生成快照
+     */
+    private final static int REFRESH_DIVISOR = 10;
+
+    private final AtomicLong count = new AtomicLong(0);
+
+    /**
+     * 排好序的样本快照
+     */
+    private volatile Snapshot snapshot;
+
+    public ForestLatencyWindow(int size) {
+        this.samples = new AtomicLongArray(Math.max(size, 1));
+    }
+
+    /**
+     * 记录一次请求耗时
+     *
+     * @param duration 耗时
+     * @param unit 时间单位
+     */
+    public void record(long duration, TimeUnit unit) {
+        long index = count.getAndIncrement();
+        samples.set((int) (index % samples.length()), unit.toNanos(duration));
+    }
+
+    /**
+     * 计算窗口内耗时的百分位数
+     *
+     * @param percentile 百分位，取值范围为 (0, 100]
+     * @param unit 时间单位
+     * @return 耗时，窗口内还没有样本时返回 -1
+     */
+    public long getPercentile(double percentile, TimeUnit unit) {
+        Snapshot current = getSnapshot();
+        if (current == null) {
+            return -1;
+        }
+        long[] values = current.values;
+        int size = values.length;
+        int rank = (int) Math.ceil(percentile / 100 * size) - 1;
+        rank = Math.min(Math.max(rank, 0), size - 1);
+        return unit.convert(values[rank], TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * 获取排好序的样本快照，快照生成后新增的样本足够多时重新生成
+     *
+     * @return 样本快照，窗口内还没有样本时返回 {@code null}
+     */
+    private Snapshot getSnapshot() {
+        long currentCount = count.get();
+        Snapshot current = snapshot;
+        if (current != null && currentCount - current.count < Math.max(current.values.length / REFRESH_DIVISOR, 1)) {
+            return current;
+        }
+        int size = (int) Math.min(currentCount, samples.length());
+        if (size == 0) {
+            return null;
+        }
+        long[] values = new long[size];
+        for (int i = 0; i < size; i++) {
+            values[i] = samples.get(i);
+        }
+        Arrays.sort(values);
+        current = new Snapshot(currentCount, values);
+        snapshot = current;
+        return current;
+    }
+
+    /**
+     * 获取窗口内的样本数
+     *
+     * @return 样本数
+     */
+    public int getSize() {
+        return (int) Math.min(count.get(), samples.length());
+    }
+
+    /**
+     * 排好序的样本快照
+     */
+    private static class Snapshot {
+
+        /**
+         * 生成快照时记录过的样本总数
+         */
+        private final long count;
+
+        private final long[] values;
+
+        Snapshot(long count, long[] values) {
+            this.count = count;
+            this.values = values;
+        }
+    }
+}
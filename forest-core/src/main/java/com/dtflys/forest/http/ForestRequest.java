@@ -25,6 +25,9 @@
 package com.dtflys.forest.http;
 
 import com.dtflys.forest.backend.ContentType;
+import com.dtflys.forest.balancer.ForestEndpoint;
+import com.dtflys.forest.cache.CachedResponseExecutor;
+import com.dtflys.forest.cache.ForestCacheEntry;
 import com.dtflys.forest.callback.OnLoadCookie;
 import com.dtflys.forest.callback.OnProgress;
 import com.dtflys.forest.callback.OnSaveCookie;
@@ -38,6 +41,7 @@ import com.dtflys.forest.interceptor.InterceptorAttributes;
 import com.dtflys.forest.logging.LogConfiguration;
 import com.dtflys.forest.logging.RequestLogMessage;
 import com.dtflys.forest.mapping.MappingParameter;
+import com.dtflys.forest.metrics.ForestMetrics;
 import com.dtflys.forest.multipart.ForestMultipart;
 import com.dtflys.forest.reflection.ForestMethod;
 import com.dtflys.forest.reflection.MethodLifeCycleHandler;
@@ -46,6 +50,7 @@ import com.dtflys.forest.ssl.SSLKeyStore;
 import com.dtflys.forest.callback.OnError;
 import com.dtflys.forest.callback.OnSuccess;
 import com.dtflys.forest.config.ForestConfiguration;
+import com.dtflys.forest.exceptions.ForestRetryException;
 import com.dtflys.forest.exceptions.ForestRuntimeException;
 import com.dtflys.forest.backend.HttpBackend;
 import com.dtflys.forest.backend.HttpExecutor;
@@ -258,6 +263,36 @@ public class ForestRequest<T> {
      */
     private boolean isDownloadFile = false;
 
+    /**
+     * 是否以流的形式将下载内容直接写入文件
+     */
+    private boolean downloadStreaming = false;
+
+    /**
+     * 是否使用HTTP响应缓存
+     */
+    private boolean responseCacheEnabled = false;
+
+    /**
+     * 正在向服务端验证的缓存条目
+     */
+    private ForestCacheEntry revalidatingCacheEntry;
+
+    /**
+     * 是否与正在执行的相同请求合并
+     */
+    private boolean singleFlight = false;
+
+    /**
+     * 请求当前使用的节点，URL没有引用节点组时为空
+     */
+    private volatile ForestEndpoint endpoint;
+
+    /**
+     * 发出对冲请求前的等待时间（毫秒），小于 0 时不发送对冲请求
+     */
+    private long hedgeDelay = -1;
+
     /**
      * 上传/下载进度监听的步长
      * 每上传/下载一定的比特数，执行一次监听回调函数
@@ -267,7 +302,7 @@ public class ForestRequest<T> {
     /**
      * 拦截器链对象
      */
-    private InterceptorChain interceptorChain = new InterceptorChain();
+    private InterceptorChain interceptorChain = InterceptorChain.EMPTY;
 
     /**
      * 拦截器属性
@@ -1373,6 +1408,163 @@ public class ForestRequest<T> {
         return this;
     }
 
+    /**
+     * 是否以流的形式将下载内容直接写入文件
+     * <p>开启后响应内容不会被缓存在内存中，而是在接收的同时写入文件</p>
+     *
+     * @return {@code true}: 流式下载，{@code false}: 非流式下载
+     */
+    public boolean isDownloadStreaming() {
+        return downloadStreaming;
+    }
+
+    /**
+     * 设置是否以流的形式将下载内容直接写入文件
+     *
+     * @param downloadStreaming {@code true}: 流式下载，{@code false}: 非流式下载
+     * @return {@link ForestRequest}类实例
+     */
+    public ForestRequest setDownloadStreaming(boolean downloadStreaming) {
+        this.downloadStreaming = downloadStreaming;
+        return this;
+    }
+
+    /**
+     * 是否使用HTTP响应缓存
+     *
+     * @return {@code true}: 使用，{@code false}: 不使用
+     */
+    public boolean isResponseCacheEnabled() {
+        return responseCacheEnabled;
+    }
+
+    /**
+     * 设置是否使用HTTP响应缓存
+     * <p>开启后按 {@link ForestConfiguration#getResponseCache()} 的规则读取和保存响应</p>
+     *
+     * @param responseCacheEnabled {@code true}: 使用，{@code false}: 不使用
+     * @return {@link ForestRequest}类实例
+     */
+    public ForestRequest setResponseCacheEnabled(boolean responseCacheEnabled) {
+        this.responseCacheEnabled = responseCacheEnabled;
+        return this;
+    }
+
+    /**
+     * 获取正在向服务端验证的缓存条目
+     *
+     * @return 缓存条目，{@link ForestCacheEntry}类实例，没有时返回 {@code null}
+     */
+    public ForestCacheEntry getRevalidatingCacheEntry() {
+        return revalidatingCacheEntry;
+    }
+
+    /**
+     * 设置正在向服务端验证的缓存条目，服务端返回 304 时使用该条目的内容
+     *
+     * @param revalidatingCacheEntry 缓存条目，{@link ForestCacheEntry}类实例
+     * @return {@link ForestRequest}类实例
+     */
+    public ForestRequest setRevalidatingCacheEntry(ForestCacheEntry revalidatingCacheEntry) {
+        this.revalidatingCacheEntry = revalidatingCacheEntry;
+        return this;
+    }
+
+    /**
+     * 是否与正在执行的相同请求合并
+     *
+     * @return {@code true}: 合并，{@code false}: 不合并
+     * @see ForestSingleFlight
+     */
+    public boolean isSingleFlight() {
+        return singleFlight;
+    }
+
+    /**
+     * 设置是否与正在执行的相同请求合并
+     * <p>开启后，相同的请求同时执行时只有第一个请求会发送到服务端，其它请求共享它的结果</p>
+     *
+     * @param singleFlight {@code true}: 合并，{@code false}: 不合并
+     * @return {@link ForestRequest}类实例
+     * @see ForestSingleFlight
+     */
+    public ForestRequest setSingleFlight(boolean singleFlight) {
+        this.singleFlight = singleFlight;
+        return this;
+    }
+
+    /**
+     * 获取请求当前使用的节点
+     *
+     * @return 节点，{@link ForestEndpoint}类实例，URL没有引用节点组时为 {@code null}
+     */
+    public ForestEndpoint getEndpoint() {
+        return endpoint;
+    }
+
+    /**
+     * 设置请求当前使用的节点
+     * <p>请求URL应当已经以该节点的地址开头</p>
+     *
+     * @param endpoint 节点，{@link ForestEndpoint}类实例
+     * @return {@link ForestRequest}类实例
+     */
+    public ForestRequest setEndpoint(ForestEndpoint endpoint) {
+        this.endpoint = endpoint;
+        return this;
+    }
+
+    /**
+     * 获取发出对冲请求前的等待时间
+     *
+     * @return 等待时间（毫秒），小于 0 时不发送对冲请求
+     */
+    public long getHedgeDelay() {
+        return hedgeDelay;
+    }
+
+    /**
+     * 设置发出对冲请求前的等待时间
+     * <p>只对异步请求生效：请求发出后超过该时间仍未返回时，向同一节点或节点组中的另一个节点再发送一次相同的请求，
+     * 先成功返回的请求胜出，另一个被取消。发送的对冲请求数受 {@link com.dtflys.forest.hedge.ForestHedgeBudget} 的限制</p>
+     *
+     * @param hedgeDelay 等待时间（毫秒），小于 0 时不发送对冲请求
+     * @return {@link ForestRequest}类实例
+     */
+    public ForestRequest setHedgeDelay(long hedgeDelay) {
+        this.hedgeDelay = hedgeDelay;
+        return this;
+    }
+
+    /**
+     * 是否发送对冲请求
+     *
+     * @return {@code true}: 异步请求且设置了等待时间, {@code false}: 不发送
+     */
+    public boolean isHedged() {
+        return async && hedgeDelay >= 0;
+    }
+
+    /**
+     * 切换到节点组中的另一个节点，并将请求URL中的节点地址替换为新节点的地址
+     * <p>重试时调用，以避开上一次请求的节点；节点组中没有其它可用节点时不切换</p>
+     *
+     * @return 切换前的节点，URL没有引用节点组时为 {@code null}
+     */
+    public ForestEndpoint switchEndpoint() {
+        ForestEndpoint previous = this.endpoint;
+        if (previous == null) {
+            return null;
+        }
+        if (url == null || !url.startsWith(previous.getUrl())) {
+            return previous;
+        }
+        ForestEndpoint next = previous.getGroup().choose(previous);
+        this.url = previous.rewrite(url, next);
+        this.endpoint = next;
+        return previous;
+    }
+
     /**
      * 获取上传/下载进度监听的步长
      * <p>每上传/下载一定的比特数，执行一次监听回调函数</p>
@@ -1465,16 +1657,46 @@ public class ForestRequest<T> {
      * @return {@link ForestRequest}类实例
      */
     public ForestRequest<T> addInterceptor(Interceptor interceptor) {
+        if (interceptorChain.isShared()) {
+            // 共享的拦截器链只在请求需要添加自己的拦截器时才复制
+            interceptorChain = interceptorChain.copy();
+        }
         interceptorChain.addInterceptor(interceptor);
         return this;
     }
 
+    /**
+     * 设置拦截器链
+     * <p>拦截器链可以是多个请求共享的不可修改的拦截器链，之后通过 {@link #addInterceptor(Interceptor)} 添加拦截器时再复制</p>
+     *
+     * @param interceptorChain 拦截器链对象，{@link InterceptorChain}类实例
+     * @return {@link ForestRequest}类实例
+     */
+    public ForestRequest<T> setInterceptorChain(InterceptorChain interceptorChain) {
+        this.interceptorChain = interceptorChain;
+        return this;
+    }
+
     /**
      * 获取拦截器链对象
+     * <p>返回的拦截器链可以修改，当前的拦截器链是多个请求共享的拦截器链时先复制出该请求自己的拦截器链</p>
      *
      * @return 拦截器链对象，{@link InterceptorChain}类实例
      */
     public InterceptorChain getInterceptorChain() {
+        if (interceptorChain.isShared()) {
+            interceptorChain = interceptorChain.copy();
+        }
+        return interceptorChain;
+    }
+
+    /**
+     * 获取当前的拦截器链对象，只用于调用拦截器
+     * <p>返回的可能是多个请求共享的不可修改的拦截器链，需要添加拦截器时请使用 {@link #addInterceptor(Interceptor)}</p>
+     *
+     * @return 拦截器链对象，{@link InterceptorChain}类实例
+     */
+    public InterceptorChain getCurrentInterceptorChain() {
         return interceptorChain;
     }
 
@@ -1606,6 +1828,23 @@ public class ForestRequest<T> {
         return this;
     }
 
+    /**
+     * 计算下次重试前需要等待的时间
+     * <p>由重试器决定是否可以重试，可以重试时记录重试指标</p>
+     *
+     * @param ex 重试异常，{@link ForestRetryException}类实例
+     * @return 下次重试前需要等待的时间，单位为毫秒
+     * @throws Throwable 不能重试时抛出
+     */
+    public long nextRetryInterval(ForestRetryException ex) throws Throwable {
+        long interval = retryer.nextRetryInterval(ex);
+        ForestMetrics metrics = configuration.getMetrics();
+        if (metrics != null) {
+            metrics.recordRetry(this, ex.getCurrentRetryCount() + 1);
+        }
+        return interval;
+    }
+
     /**
      * 添加附件到请求中
      * <p>Attachment 是和请求绑定的附件属性值，这些值不能通过网络请求传递到远端服务器。</p>
@@ -1753,15 +1992,40 @@ public class ForestRequest<T> {
      */
     public Object execute(HttpBackend backend, LifeCycleHandler lifeCycleHandler) {
         if (interceptorChain.beforeExecute(this)) {
-            HttpExecutor executor  = backend.createExecutor(this, lifeCycleHandler);
-            if (executor != null) {
-                try {
-                    executor.execute(lifeCycleHandler);
-                } catch (ForestRuntimeException e) {
-                    throw e;
-                } finally {
-                    executor.close();
-                }
+            if (singleFlight) {
+                return configuration.getSingleFlight().execute(this, () -> send(backend, lifeCycleHandler));
+            }
+            return send(backend, lifeCycleHandler);
+        }
+        return getMethodReturnValue();
+    }
+
+    /**
+     * 发送请求，命中响应缓存时不发送网络请求
+     *
+     * @param backend HTTP后端，{@link HttpBackend}接口实例
+     * @param lifeCycleHandler 生命周期处理器，{@link LifeCycleHandler}接口实例
+     * @return 接受到请求响应后，其响应内容反序列化成对象的结果
+     */
+    private Object send(HttpBackend backend, LifeCycleHandler lifeCycleHandler) {
+        HttpExecutor executor = null;
+        if (responseCacheEnabled) {
+            ForestResponse cachedResponse = configuration.getResponseCache().lookup(this);
+            if (cachedResponse != null) {
+                // 命中缓存时不发送网络请求
+                executor = new CachedResponseExecutor(this, cachedResponse);
+            }
+        }
+        if (executor == null) {
+            executor = backend.createExecutor(this, lifeCycleHandler);
+        }
+        if (executor != null) {
+            try {
+                executor.execute(lifeCycleHandler);
+            } catch (ForestRuntimeException e) {
+                throw e;
+            } finally {
+                executor.close();
             }
         }
         return getMethodReturnValue();
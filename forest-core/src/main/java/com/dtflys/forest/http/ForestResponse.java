@@ -26,15 +26,27 @@ package com.dtflys.forest.http;
 
 
 import com.dtflys.forest.backend.ContentType;
+import com.dtflys.forest.config.ForestConfiguration;
 import com.dtflys.forest.exceptions.ForestRuntimeException;
+import com.dtflys.forest.handler.LifeCycleHandler;
+import com.dtflys.forest.handler.ResultHandler;
+import com.dtflys.forest.logging.LogConfiguration;
 import com.dtflys.forest.utils.ByteEncodeUtils;
 import com.dtflys.forest.utils.GzipUtils;
 import com.dtflys.forest.utils.StringUtils;
 import org.apache.commons.io.IOUtils;
 
+import java.io.BufferedInputStream;
 import java.io.ByteArrayInputStream;
 import java.io.IOException;
 import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
 import java.util.Date;
 import java.util.List;
 import java.util.zip.GZIPInputStream;
@@ -112,6 +124,21 @@ public abstract class ForestResponse<T> {
      */
     protected volatile T result;
 
+    /**
+     * 流式下载时每次写入文件的最大字节数
+     */
+    private static final long TRANSFER_CHUNK_SIZE = 1024 * 1024;
+
+    /**
+     * 响应内容是否尚未读取，等待以流的形式反序列化或写入文件
+     */
+    protected volatile boolean streamingContent = false;
+
+    /**
+     * 响应内容是否已经以流的形式读取
+     */
+    protected volatile boolean contentStreamed = false;
+
 
     public ForestResponse(ForestRequest request, Date requestTime, Date responseTime) {
         this.request = request;
@@ -373,6 +400,166 @@ public abstract class ForestResponse<T> {
         return new ByteArrayInputStream(getByteArray());
     }
 
+    /**
+     * 响应内容是否可以以流的形式反序列化
+     * <p>需要开启 {@link ForestConfiguration#isStreamingDecodeEnabled()}，
+     * 且请求成功、响应内容为文本、方法返回值需要由JSON或XML转换器反序列化</p>
+     *
+     * @return {@code true}: 可以， {@code false}: 不可以
+     */
+    protected boolean canDecodeAsStream() {
+        ForestConfiguration configuration = request.getConfiguration();
+        if (configuration == null || !configuration.isStreamingDecodeEnabled()) {
+            return false;
+        }
+        if (!isSuccess() || contentType == null || !contentType.canReadAsString()) {
+            return false;
+        }
+        if (request.isDownloadFile() || request.getDecoder() != null || request.getOnSuccess() != null
+                || request.isResponseCacheEnabled()) {
+            return false;
+        }
+        LogConfiguration logConfiguration = request.getLogConfiguration();
+        if (logConfiguration != null && logConfiguration.isLogEnabled() && logConfiguration.isLogResponseContent()) {
+            return false;
+        }
+        if (!ResultHandler.isStreamConverter(configuration.getConverter(request.getDataType()))) {
+            return false;
+        }
+        LifeCycleHandler lifeCycleHandler = request.getLifeCycleHandler();
+        if (lifeCycleHandler == null || lifeCycleHandler.getReturnType() == null) {
+            return false;
+        }
+        return ResultHandler.canDecodeAsStream(lifeCycleHandler.getReturnType());
+    }
+
+    /**
+     * 响应内容是否尚未读取，等待以流的形式反序列化
+     *
+     * @return {@code true}: 是， {@code false}: 否
+     */
+    public boolean isStreamingContent() {
+        return streamingContent;
+    }
+
+    /**
+     * 打开响应内容的原始输入流
+     *
+     * @return 输入流形式的响应内容, {@link InputStream}实例
+     * @throws IOException
+     */
+    protected InputStream openContentStream() throws IOException {
+        try {
+            return getInputStream();
+        } catch (IOException e) {
+            throw e;
+        } catch (Exception e) {
+            throw new IOException(e);
+        }
+    }
+
+    /**
+     * 下载内容是否可以以流的形式直接写入文件
+     * <p>需要开启 {@link ForestRequest#isDownloadStreaming()}，请求成功，且请求没有使用响应缓存</p>
+     *
+     * @return {@code true}: 可以， {@code false}: 不可以
+     */
+    protected boolean canDownloadAsStream() {
+        return request.isDownloadFile() && request.isDownloadStreaming() && isSuccess()
+                && !request.isResponseCacheEnabled();
+    }
+
+    /**
+     * 打开响应内容的原始字节通道
+     *
+     * @return 字节通道形式的响应内容, {@link ReadableByteChannel}实例
+     * @throws IOException
+     */
+    protected ReadableByteChannel openContentChannel() throws IOException {
+        return Channels.newChannel(openContentStream());
+    }
+
+    /**
+     * 将响应内容从网络直接写入文件通道
+     * <p>内容在接收的同时写入文件，不会在内存中缓存完整的响应内容，
+     * 响应内容只能以流的形式读取一次，读取后 {@link ForestResponse#getByteArray()} 将返回 {@code null}</p>
+     *
+     * @param channel 目标文件通道
+     * @param position 开始写入的位置
+     * @return 写入的字节数
+     * @throws IOException
+     */
+    public synchronized long transferContentTo(FileChannel channel, long position) throws IOException {
+        ReadableByteChannel source = openContentChannel();
+        streamingContent = false;
+        contentStreamed = true;
+        long total = 0;
+        try {
+            long count;
+            while ((count = channel.transferFrom(source, position + total, TRANSFER_CHUNK_SIZE)) > 0) {
+                total += count;
+            }
+        } finally {
+            source.close();
+        }
+        return total;
+    }
+
+    /**
+     * 以字符流的形式读取响应内容
+     * <p>GZIP压缩的内容会被自动解压，响应内容只能以流的形式读取一次，
+     * 读取后 {@link ForestResponse#getContent()} 将返回 {@code null}</p>
+     *
+     * @return 字符流形式的响应内容, {@link Reader}实例
+     * @throws IOException
+     */
+    public synchronized Reader openContentReader() throws IOException {
+        InputStream inputStream = openContentStream();
+        streamingContent = false;
+        contentStreamed = true;
+        if (isGzip) {
+            // 只判断前两个字节是否为GZIP魔数，不是GZIP格式时按原始内容读取
+            BufferedInputStream bufferedInputStream = new BufferedInputStream(inputStream);
+            bufferedInputStream.mark(2);
+            int b1 = bufferedInputStream.read();
+            int b2 = bufferedInputStream.read();
+            bufferedInputStream.reset();
+            if (b1 == (GZIPInputStream.GZIP_MAGIC & 0xff) && b2 == (GZIPInputStream.GZIP_MAGIC >> 8)) {
+                inputStream = new GZIPInputStream(bufferedInputStream);
+            } else {
+                inputStream = bufferedInputStream;
+            }
+        }
+        return new InputStreamReader(inputStream, getContentCharset());
+    }
+
+    /**
+     * 获取以流的形式读取响应内容时所用的字符集
+     * <p>未声明字符集时默认为UTF-8，不会扫描响应内容来判断字符编码</p>
+     *
+     * @return 字符集, {@link Charset}类实例
+     */
+    protected Charset getContentCharset() {
+        String encode = contentEncoding;
+        if ("GB".equalsIgnoreCase(encode)) {
+            encode = "GBK";
+        }
+        if (StringUtils.isNotEmpty(encode)) {
+            try {
+                return Charset.forName(encode);
+            } catch (IllegalArgumentException ignored) {
+            }
+        }
+        return StandardCharsets.UTF_8;
+    }
+
+    /**
+     * 释放尚未读取的流式响应内容
+     * <p>响应处理结束后调用，以便连接可以被回收</p>
+     */
+    public void releaseContent() {
+    }
+
     /**
      * 根据响应头名称获取单个请求响应头
      *
@@ -0,0 +1,197 @@
+package com.dtflys.forest.http;
+
+import com.dtflys.forest.exceptions.ForestRuntimeException;
+import com.dtflys.forest.http.body.FileRequestBody;
+import com.dtflys.forest.http.body.InputStreamRequestBody;
+import com.dtflys.forest.reflection.ForestMethod;
+
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.function.Supplier;
+
+/**
+ * 合并相同的并发请求
+ * <p>同一接口方法发出的多个完全相同的请求（请求方法、URL、Query参数、请求头和请求体都相同）同时执行时，
+ * 只有第一个请求会发送到服务端，其它请求等待它结束，并共享它的返回值或异常</p>
+ * <p>只合并 GET、HEAD 和 OPTIONS 这些安全的同步请求，异步请求、带有
+ * {@code OnSuccess}、{@code OnError}、{@code OnProgress} 回调的请求，
+ * 以及请求体为文件或输入流的请求不会被合并</p>
+ * <p>共享的返回值是同一个对象，调用方不应修改它</p>
+ *
+ * @author gongjun[dt_flys@hotmail.com]
+ * @since 1.5.2
+ */
+public class ForestSingleFlight {
+
+    /**
+     * 正在执行的请求
+     */
+    private final ConcurrentHashMap<Key, Call> calls = new ConcurrentHashMap<>();
+
+    /**
+     * 执行请求，有相同的请求正在执行时等待并共享它的结果
+     * <p>在拦截器和生命周期的 {@code beforeExecute} 之后调用，指纹包含它们添加或修改的请求头、Query参数等；
+     * 与正在执行的请求合并的请求不会被发送，其拦截器的 {@code onCancel} 会被调用</p>
+     *
+     * @param request Forest请求对象
+     * @param action 请求的执行过程
+     * @return 请求的返回值
+     */
+    public Object execute(ForestRequest request, Supplier<Object> action) {
+        ForestMethod method = request.getMethod();
+        String fingerprint = method != null ? fingerprint(request) : null;
+        if (fingerprint == null) {
+            return action.get();
+        }
+        Key key = new Key(method, fingerprint);
+        Call call = new Call();
+        Call inFlight = calls.putIfAbsent(key, call);
+        if (inFlight != null) {
+            request.getCurrentInterceptorChain().onCancel(request);
+            return inFlight.await();
+        }
+        Object result = null;
+        Throwable error = null;
+        try {
+            result = action.get();
+            return result;
+        } catch (RuntimeException | Error e) {
+            error = e;
+            throw e;
+        } finally {
+            // 先移除再唤醒等待的请求，之后到达的相同请求会重新发送
+            calls.remove(key, call);
+            call.complete(result, error);
+        }
+    }
+
+    /**
+     * 获取正在执行的请求数
+     *
+     * @return 请求数
+     */
+    public int getInFlightCount() {
+        return calls.size();
+    }
+
+    /**
+     * 计算请求的指纹
+     *
+     * @param request Forest请求对象
+     * @return 请求指纹，请求不能被合并时返回 {@code null}
+     */
+    protected String fingerprint(ForestRequest request) {
+        ForestRequestType type = request.getType();
+        if (type != ForestRequestType.GET && type != ForestRequestType.HEAD && type != ForestRequestType.OPTIONS) {
+            return null;
+        }
+        if (request.isAsync() || request.getOnSuccess() != null || request.getOnError() != null
+                || request.getOnProgress() != null) {
+            return null;
+        }
+        List multiparts = request.getMultiparts();
+        if (multiparts != null && !multiparts.isEmpty()) {
+            return null;
+        }
+        StringBuilder builder = new StringBuilder(128)
+                .append(type.getName()).append(' ')
+                .append(request.getUrl()).append('?')
+                .append(request.getQueryString()).append('\n');
+        for (Iterator<ForestHeader> iterator = request.getHeaders().headerIterator(); iterator.hasNext(); ) {
+            ForestHeader header = iterator.next();
+            builder.append(header.getName()).append(": ").append(header.getValue()).append('\n');
+        }
+        List<ForestRequestBody> body = request.getBody();
+        if (body != null && !body.isEmpty()) {
+            MessageDigest digest = newDigest();
+            for (ForestRequestBody item : body) {
+                if (item instanceof InputStreamRequestBody || item instanceof FileRequestBody) {
+                    return null;
+                }
+                byte[] bytes = item.getByteArray();
+                if (bytes != null) {
+                    digest.update(bytes);
+                }
+                digest.update((byte) 0);
+            }
+            for (byte b : digest.digest()) {
+                builder.append(Character.forDigit((b >> 4) & 0xf, 16))
+                        .append(Character.forDigit(b & 0xf, 16));
+            }
+        }
+        return builder.toString();
+    }
+
+    private static MessageDigest newDigest() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new ForestRuntimeException(e);
+        }
+    }
+
+    private static class Key {
+
+        private final ForestMethod method;
+
+        private final String fingerprint;
+
+        Key(ForestMethod method, String fingerprint) {
+            this.method = method;
+            this.fingerprint = fingerprint;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof Key)) {
+                return false;
+            }
+            Key key = (Key) o;
+            return method == key.method && fingerprint.equals(key.fingerprint);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(System.identityHashCode(method), fingerprint);
+        }
+    }
+
+    private static class Call {
+
+        private final CountDownLatch latch = new CountDownLatch(1);
+
+        private volatile Object result;
+
+        private volatile Throwable error;
+
+        void complete(Object result, Throwable error) {
+            this.result = result;
+            this.error = error;
+            latch.countDown();
+        }
+
+        Object await() {
+            try {
+                latch.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new ForestRuntimeException(e);
+            }
+            if (error instanceof RuntimeException) {
+                throw (RuntimeException) error;
+            }
+            if (error instanceof Error) {
+                throw (Error) error;
+            }
+            return result;
+        }
+    }
+}
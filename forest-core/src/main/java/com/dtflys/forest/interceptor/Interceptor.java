@@ -32,6 +32,16 @@ public interface Interceptor<T> extends OnSuccess<T>, OnError, OnProgress, OnLoa
     default void afterExecute(ForestRequest request, ForestResponse response) {
     }
 
+    /**
+     * 请求通过了本拦截器的 {@code beforeExecute}，但最终没有被发送时调用
+     * <p>如之后的拦截器拒绝了请求，或请求与正在执行的相同请求合并，
+     * 用于释放在 {@code beforeExecute} 中获取的资源，之后不会再调用 {@code onSuccess}、{@code onError} 和 {@code afterExecute}</p>
+     *
+     * @param request Forest请求对象
+     */
+    default void onCancel(ForestRequest request) {
+    }
+
     @Override
     default void onSuccess(T data, ForestRequest request, ForestResponse response) {
     }
@@ -1,5 +1,10 @@
 package com.dtflys.forest.interceptor;
 
+import com.dtflys.forest.callback.OnError;
+import com.dtflys.forest.callback.OnLoadCookie;
+import com.dtflys.forest.callback.OnProgress;
+import com.dtflys.forest.callback.OnSaveCookie;
+import com.dtflys.forest.callback.OnSuccess;
 import com.dtflys.forest.exceptions.ForestRuntimeException;
 import com.dtflys.forest.http.ForestCookies;
 import com.dtflys.forest.http.ForestRequest;
@@ -8,46 +13,155 @@ import com.dtflys.forest.reflection.ForestMethod;
 import com.dtflys.forest.utils.ForestProgress;
 
 import java.lang.reflect.Method;
-import java.util.Iterator;
-import java.util.LinkedList;
 
 /**
  * 拦截器调用链
+ * <p>拦截器按添加顺序保存在数组中，添加时复制数组，调用时按下标遍历。
+ * 每个拦截器类覆盖了哪些生命周期方法会预先计算为位掩码，未覆盖的方法不会被调用</p>
+ * <p>通过 {@link #share()} 得到的拦截器链不可修改，可以在多个请求之间共享</p>
  *
  * @author gongjun[jun.gong@thebeastshop.com]
  * @since 2017-05-12 18:30
  */
 public class InterceptorChain implements Interceptor {
 
-    private LinkedList<Interceptor> interceptors = new LinkedList<>();
+    private final static int ON_INVOKE_METHOD = 1;
+
+    private final static int BEFORE_EXECUTE = 1 << 1;
+
+    private final static int AFTER_EXECUTE = 1 << 2;
+
+    private final static int ON_SUCCESS = 1 << 3;
+
+    private final static int ON_ERROR = 1 << 4;
+
+    private final static int ON_PROGRESS = 1 << 5;
+
+    private final static int ON_LOAD_COOKIE = 1 << 6;
+
+    private final static int ON_SAVE_COOKIE = 1 << 7;
+
+    private final static int ON_CANCEL = 1 << 8;
+
+    private final static int ALL_PHASES = (1 << 9) - 1;
+
+    /**
+     * 各生命周期方法的方法名和参数类型，下标和掩码的位数对应
+     */
+    private final static Object[][] PHASE_METHODS = {
+            {"onInvokeMethod", new Class[] {ForestRequest.class, ForestMethod.class, Object[].class}},
+            {"beforeExecute", new Class[] {ForestRequest.class}},
+            {"afterExecute", new Class[] {ForestRequest.class, ForestResponse.class}},
+            {"onSuccess", new Class[] {Object.class, ForestRequest.class, ForestResponse.class}},
+            {"onError", new Class[] {ForestRuntimeException.class, ForestRequest.class, ForestResponse.class}},
+            {"onProgress", new Class[] {ForestProgress.class}},
+            {"onLoadCookie", new Class[] {ForestRequest.class, ForestCookies.class}},
+            {"onSaveCookie", new Class[] {ForestRequest.class, ForestCookies.class}},
+            {"onCancel", new Class[] {ForestRequest.class}},
+    };
+
+    /**
+     * 拦截器类覆盖的生命周期方法掩码缓存
+     */
+    private final static ClassValue<Integer> PHASE_MASKS = new ClassValue<Integer>() {
+        @Override
+        protected Integer computeValue(Class<?> type) {
+            return phaseMask(type);
+        }
+    };
+
+    private final static Entry[] EMPTY_ENTRIES = new Entry[0];
+
+    /**
+     * 空的共享拦截器链
+     */
+    public final static InterceptorChain EMPTY = new InterceptorChain(EMPTY_ENTRIES, true);
+
+    private volatile Entry[] entries;
+
+    /**
+     * 是否为共享的拦截器链，共享的拦截器链不可修改
+     */
+    private final boolean shared;
+
+    public InterceptorChain() {
+        this(EMPTY_ENTRIES, false);
+    }
+
+    private InterceptorChain(Entry[] entries, boolean shared) {
+        this.entries = entries;
+        this.shared = shared;
+    }
 
     public synchronized InterceptorChain addInterceptor(Interceptor interceptor) {
-        interceptors.add(interceptor);
+        if (shared) {
+            throw new ForestRuntimeException("Shared interceptor chain can not be modified, " +
+                    "please add interceptors through ForestRequest.addInterceptor");
+        }
+        Entry[] oldEntries = entries;
+        Entry[] newEntries = new Entry[oldEntries.length + 1];
+        System.arraycopy(oldEntries, 0, newEntries, 0, oldEntries.length);
+        newEntries[oldEntries.length] = new Entry(interceptor, PHASE_MASKS.get(interceptor.getClass()));
+        entries = newEntries;
         return this;
     }
 
     public int getInterceptorSize() {
-        return interceptors.size();
+        return entries.length;
+    }
+
+    /**
+     * 是否为共享的拦截器链
+     * @return 共享的拦截器链为 {@code true}, 否则为 {@code false}
+     */
+    public boolean isShared() {
+        return shared;
+    }
+
+    /**
+     * 获取包含当前所有拦截器的共享拦截器链，之后对当前拦截器链的修改不影响返回的拦截器链
+     * @return 不可修改的 {@link InterceptorChain} 实例
+     */
+    public InterceptorChain share() {
+        if (shared) {
+            return this;
+        }
+        Entry[] currentEntries = entries;
+        return currentEntries.length == 0 ? EMPTY : new InterceptorChain(currentEntries, true);
+    }
+
+    /**
+     * 复制出一个可修改的拦截器链
+     * @return 新的 {@link InterceptorChain} 实例
+     */
+    public InterceptorChain copy() {
+        return new InterceptorChain(entries, false);
     }
 
     @Override
     public void onInvokeMethod(ForestRequest request, ForestMethod method, Object[] args) {
-        Iterator<Interceptor> iter = interceptors.iterator();
-        for ( ; iter.hasNext(); ) {
-            Interceptor item = iter.next();
-            item.onInvokeMethod(request, method, args);
+        Entry[] currentEntries = entries;
+        for (int i = 0; i < currentEntries.length; i++) {
+            Entry entry = currentEntries[i];
+            if ((entry.phases & ON_INVOKE_METHOD) != 0) {
+                entry.interceptor.onInvokeMethod(request, method, args);
+            }
         }
     }
 
 
     @Override
     public boolean beforeExecute(ForestRequest request) {
-        Iterator<Interceptor> iter = interceptors.iterator();
-        for ( ; iter.hasNext(); ) {
-            Interceptor item = iter.next();
-            boolean result = item.beforeExecute(request);
-            if (!result) {
-                return false;
+        Entry[] currentEntries = entries;
+        for (int i = 0; i < currentEntries.length; i++) {
+            Entry entry = currentEntries[i];
+            if ((entry.phases & BEFORE_EXECUTE) != 0) {
+                boolean result = entry.interceptor.beforeExecute(request);
+                if (!result) {
+                    // 之前的拦截器已经放行了请求，由它们释放在 beforeExecute 中获取的资源
+                    cancel(currentEntries, i, request);
+                    return false;
+                }
             }
         }
         return true;
@@ -55,58 +169,145 @@ public class InterceptorChain implements Interceptor {
 
     @Override
     public void onSuccess(Object data, ForestRequest request, ForestResponse response) {
-        Iterator<Interceptor> iter = interceptors.iterator();
-        for ( ; iter.hasNext(); ) {
-            Interceptor item = iter.next();
-            if (response != null) {
-                data = response.getResult();
+        Entry[] currentEntries = entries;
+        for (int i = 0; i < currentEntries.length; i++) {
+            Entry entry = currentEntries[i];
+            if ((entry.phases & ON_SUCCESS) != 0) {
+                if (response != null) {
+                    data = response.getResult();
+                }
+                entry.interceptor.onSuccess(data, request, response);
             }
-            item.onSuccess(data, request, response);
         }
     }
 
     @Override
     public void onError(ForestRuntimeException ex, ForestRequest request, ForestResponse response) {
-        Iterator<Interceptor> iter = interceptors.iterator();
-        for ( ; iter.hasNext(); ) {
-            Interceptor item = iter.next();
-            item.onError(ex, request, response);
+        Entry[] currentEntries = entries;
+        for (int i = 0; i < currentEntries.length; i++) {
+            Entry entry = currentEntries[i];
+            if ((entry.phases & ON_ERROR) != 0) {
+                entry.interceptor.onError(ex, request, response);
+            }
         }
     }
 
     @Override
     public void onProgress(ForestProgress progress) {
-        Iterator<Interceptor> iter = interceptors.iterator();
-        for (; iter.hasNext(); ) {
-            Interceptor item = iter.next();
-            item.onProgress(progress);
+        Entry[] currentEntries = entries;
+        for (int i = 0; i < currentEntries.length; i++) {
+            Entry entry = currentEntries[i];
+            if ((entry.phases & ON_PROGRESS) != 0) {
+                entry.interceptor.onProgress(progress);
+            }
         }
     }
 
     @Override
     public void onLoadCookie(ForestRequest request, ForestCookies cookies) {
-        Iterator<Interceptor> iter = interceptors.iterator();
-        for (; iter.hasNext(); ) {
-            Interceptor item = iter.next();
-            item.onLoadCookie(request, cookies);
+        Entry[] currentEntries = entries;
+        for (int i = 0; i < currentEntries.length; i++) {
+            Entry entry = currentEntries[i];
+            if ((entry.phases & ON_LOAD_COOKIE) != 0) {
+                entry.interceptor.onLoadCookie(request, cookies);
+            }
         }
     }
 
     @Override
     public void onSaveCookie(ForestRequest request, ForestCookies cookies) {
-        Iterator<Interceptor> iter = interceptors.iterator();
-        for (; iter.hasNext(); ) {
-            Interceptor item = iter.next();
-            item.onSaveCookie(request, cookies);
+        Entry[] currentEntries = entries;
+        for (int i = 0; i < currentEntries.length; i++) {
+            Entry entry = currentEntries[i];
+            if ((entry.phases & ON_SAVE_COOKIE) != 0) {
+                entry.interceptor.onSaveCookie(request, cookies);
+            }
         }
     }
 
     @Override
     public void afterExecute(ForestRequest request, ForestResponse response) {
-        Iterator<Interceptor> iter = interceptors.iterator();
-        for ( ; iter.hasNext(); ) {
-            Interceptor item = iter.next();
-            item.afterExecute(request, response);
+        Entry[] currentEntries = entries;
+        for (int i = 0; i < currentEntries.length; i++) {
+            Entry entry = currentEntries[i];
+            if ((entry.phases & AFTER_EXECUTE) != 0) {
+                entry.interceptor.afterExecute(request, response);
+            }
+        }
+    }
+
+    @Override
+    public void onCancel(ForestRequest request) {
+        Entry[] currentEntries = entries;
+        for (int i = 0; i < currentEntries.length; i++) {
+            Entry entry = currentEntries[i];
+            if ((entry.phases & ON_CANCEL) != 0) {
+                entry.interceptor.onCancel(request);
+            }
+        }
+    }
+
+    /**
+     * 按相反的顺序调用拒绝请求的拦截器之前的拦截器的 {@code onCancel}
+     *
+     * @param currentEntries 拦截器列表
+     * @param end 拒绝请求的拦截器的位置
+     * @param request Forest请求对象
+     */
+    private static void cancel(Entry[] currentEntries, int end, ForestRequest request) {
+        for (int i = end - 1; i >= 0; i--) {
+            Entry entry = currentEntries[i];
+            if ((entry.phases & ON_CANCEL) != 0) {
+                entry.interceptor.onCancel(request);
+            }
+        }
+    }
+
+    /**
+     * 计算拦截器类覆盖了哪些生命周期方法
+     * <p>方法仍为 {@link Interceptor} 或其父接口中的默认实现时视为未覆盖，无法判断时视为已覆盖</p>
+     *
+     * @param interceptorClass 拦截器类
+     * @return 生命周期方法掩码
+     */
+    private static int phaseMask(Class<?> interceptorClass) {
+        int mask = 0;
+        for (int i = 0; i < PHASE_METHODS.length; i++) {
+            String name = (String) PHASE_METHODS[i][0];
+            Class[] parameterTypes = (Class[]) PHASE_METHODS[i][1];
+            try {
+                Method method = interceptorClass.getMethod(name, parameterTypes);
+                if (!isDefaultHook(method.getDeclaringClass())) {
+                    mask |= 1 << i;
+                }
+            } catch (NoSuchMethodException | SecurityException e) {
+                return ALL_PHASES;
+            }
+        }
+        return mask;
+    }
+
+    private static boolean isDefaultHook(Class<?> declaringClass) {
+        return declaringClass == Interceptor.class
+                || declaringClass == OnSuccess.class
+                || declaringClass == OnError.class
+                || declaringClass == OnProgress.class
+                || declaringClass == OnLoadCookie.class
+                || declaringClass == OnSaveCookie.class;
+    }
+
+    /**
+     * 拦截器及其覆盖的生命周期方法掩码
+     */
+    private final static class Entry {
+
+        private final Interceptor interceptor;
+
+        private final int phases;
+
+        private Entry(Interceptor interceptor, int phases) {
+            this.interceptor = interceptor;
+            this.phases = phases;
         }
     }
 }
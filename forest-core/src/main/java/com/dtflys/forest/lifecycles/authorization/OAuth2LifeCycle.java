@@ -3,6 +3,7 @@ package com.dtflys.forest.lifecycles.authorization;
 import com.dtflys.forest.exceptions.ForestRuntimeException;
 import com.dtflys.forest.extensions.OAuth2;
 import com.dtflys.forest.http.ForestRequest;
+import com.dtflys.forest.interceptor.InterceptorAttributes;
 import com.dtflys.forest.lifecycles.MethodAnnotationLifeCycle;
 import com.dtflys.forest.reflection.ForestMethod;
 import com.dtflys.forest.utils.StringUtils;
@@ -13,6 +14,7 @@ import java.time.LocalDateTime;
 import java.util.HashMap;
 import java.util.LinkedHashMap;
 import java.util.Map;
+import java.util.function.Function;
 
 /**
  * OAuth2 注解的生命周期.
@@ -21,16 +23,28 @@ import java.util.Map;
  * @since 1.5.0-BETA9
  */
 public class OAuth2LifeCycle implements MethodAnnotationLifeCycle<OAuth2, Object> {
-    private final byte[] lock = new byte[0];
     /**
-     * Token 缓存
+     * Token 管理器
      */
-    private final Map<String, TokenCache> cache = new LinkedHashMap<>();
+    private final OAuth2TokenManager tokenManager = new OAuth2TokenManager();
     private OAuth2Client oAuth2Client;
 
     @Override
     public void onMethodInitialized(ForestMethod method, OAuth2 annotation) {
         oAuth2Client = method.getConfiguration().createInstance(OAuth2Client.class);
+        if (StringUtils.isBlank(annotation.cacheId())) {
+            // tokenUri/clientId/grantType/scope/username 任何一个变动都可能是不同的帐号权限
+            // 预先拼接为缓存ID模板，都是常量时不需要每次请求都重新拼接
+            InterceptorAttributes attributes = method.getInterceptorAttributes(getClass());
+            if (attributes != null) {
+                attributes.addAttributeTemplate("cacheId", method.makeTemplate(
+                        annotation.tokenUri() + ":"
+                                + annotation.clientId() + ":"
+                                + annotation.grantType() + ":"
+                                + annotation.scope() + ":"
+                                + annotation.username()));
+            }
+        }
     }
 
     @Override
@@ -56,6 +70,15 @@ public class OAuth2LifeCycle implements MethodAnnotationLifeCycle<OAuth2, Object
         return true;
     }
 
+    /**
+     * 获取 Token 管理器
+     *
+     * @return {@link OAuth2TokenManager} 实例
+     */
+    public OAuth2TokenManager getTokenManager() {
+        return tokenManager;
+    }
+
     /**
      * 获得缓存ID。确保相同的配置能够获取到唯一的ID
      *
@@ -67,7 +90,6 @@ public class OAuth2LifeCycle implements MethodAnnotationLifeCycle<OAuth2, Object
         if (StringUtils.isNotBlank(cacheId)) {
             return cacheId;
         }
-        // tokenUri/clientId/grantType/scope/username 任何一个变动都可能是不同的帐号权限
         String tokenUri = getAttributeAsString(request, "tokenUri");
         String clientId = getAttributeAsString(request, "clientId");
         Object grantType = getAttribute(request, "grantType");
@@ -83,171 +105,136 @@ public class OAuth2LifeCycle implements MethodAnnotationLifeCycle<OAuth2, Object
 
     /**
      * 获取一个 Token 缓存对象信息
+     * <p>只有没有 Token 或 Token 已过期时才会等待 Token 请求，Token 即将过期时在后台刷新</p>
      *
      * @param request 当前请求对象
      * @return Token 信息
      */
+    @Nonnull
     private TokenCache getTokenCache(ForestRequest request) {
         String cacheId = getCacheId(request);
-        TokenCache tokenCache = this.cache.get(cacheId);
-        if (tokenCache == null) {
-            return obtainTokenCache(request, cacheId, null);
-        }
-        // 缓存中存在 TokenCache ，需要判断该 TokenCache 是否处于过期状态，假如已经过期则重新请求 Token，否则返回原来的对象
-        tokenCache = obtainTokenCache(request, cacheId, tokenCache);
-        // 缓存中存在 TokenCache ，需要判断该 TokenCache 是否处于即将过期状态，假如在即将过期的时间内则刷新 Token，否则返回原来的对象
-        tokenCache = obtainRefreshTokenCache(request, cacheId, tokenCache);
-        return tokenCache;
+        int refreshAtExpiresBefore = getAttributeAsInteger(request, "refreshAtExpiresBefore");
+        return tokenManager.getToken(cacheId, refreshAtExpiresBefore, new TokenRequest(request));
     }
 
     /**
-     * 获得 Token 信息，假如 Token 失效将重新请求 Token。处理并发环境下请求Token操作
+     * Key-Value 转换成 Map 对象
      *
-     * @param request    当前请求
-     * @param cacheId    缓存ID
-     * @param tokenCache 当前 Token
-     * @return Token 信息
+     * @param values Key-Value 对象
+     * @return Map 对象
      */
-    @Nonnull
-    private TokenCache obtainTokenCache(ForestRequest request, String cacheId, TokenCache tokenCache) {
-        if (tokenCache != null && tokenCache.getExpiresIn() > 0) {
-            // Token还未过期，还能继续使用
-            return tokenCache;
-        }
-        // Token过期，防止并发场景重复获取Token
-        synchronized (lock) {
-            tokenCache = this.cache.get(cacheId);
-            if (tokenCache != null && tokenCache.getExpiresIn() > 0) {
-                // 可能在并发场景下已经获取过一次Token
-                return tokenCache;
-            }
-            tokenCache = requestToken(request);
-            this.cache.put(cacheId, tokenCache);
-            return tokenCache;
+    private static Map<String, Object> kv2map(String[] values) {
+        Map<String, Object> map = new HashMap<>();
+        for (String value : values) {
+            int indexOf = value.indexOf(":");
+            map.put(value.substring(0, indexOf), StringUtils.trimBegin(value.substring(indexOf + 1)));
         }
+        return map;
     }
 
     /**
-     * 获得刷新 Token 信息，假如 Token 即将失效，将刷新 Token 或者重新请求 Token。处理并发环境下刷新Token操作
-     *
-     * @param request    当前请求
-     * @param cacheId    缓存ID
-     * @param tokenCache 当前 Token
-     * @return Token 信息
+     * 获取 Token 的请求参数
+     * <p>创建时从当前请求中取出所有参数，不持有当前请求对象。
+     * Token 管理器会保存最近一次的获取函数用于后台刷新，持有请求对象会使其请求体、附件和响应一直无法回收</p>
      */
-    @Nonnull
-    private TokenCache obtainRefreshTokenCache(ForestRequest request, String cacheId, @Nonnull TokenCache tokenCache) {
-        int refreshAtExpiresBefore = getAttributeAsInteger(request, "refreshAtExpiresBefore");
-        if (tokenCache.getExpiresIn() > refreshAtExpiresBefore) {
-            // Token还未到刷新Token的时间，还能继续使用
-            return tokenCache;
-        }
-        // Token 即将过期，防止并发场景重复刷新Token
-        synchronized (lock) {
-            tokenCache = this.cache.get(cacheId);
-            if (tokenCache.getExpiresIn() > refreshAtExpiresBefore) {
-                // 可能在并发场景下已经执行过一次刷新Token操作
-                return tokenCache;
-            }
-            if (StringUtils.isBlank(tokenCache.getRefreshToken())) {
-                // 不存在刷新Token令牌（未开启 refresh_token），因此不能直接刷新Token，需要重新获取Token
-                tokenCache = requestToken(request);
-            } else {
-                tokenCache = requestRefreshToken(request, tokenCache);
-            }
-            this.cache.put(cacheId, tokenCache);
-            return tokenCache;
-        }
-    }
+    private class TokenRequest implements Function<TokenCache, TokenCache> {
 
-    /**
-     * 从远程服务器请求 Token
-     *
-     * @param request 当前请求对象
-     * @return 返回新的 Token 信息
-     */
-    @Nonnull
-    private TokenCache requestToken(ForestRequest request) {
-        String clientId = getAttributeAsString(request, "clientId");
-        Map<String, Object> body = createRequestBody(clientId, request, true);
+        private final String tokenUri;
 
-        return executeRequestToken(request, clientId, body);
-    }
+        private final String clientId;
 
-    /**
-     * 从远程服务器刷新 Token
-     *
-     * @param request    当前请求对象
-     * @param tokenCache 缓存的 Token 信息
-     * @return 返回新的 Token 信息
-     */
-    private TokenCache requestRefreshToken(ForestRequest request, TokenCache tokenCache) {
-        String clientId = getAttributeAsString(request, "clientId");
-        Map<String, Object> body = createRequestBody(clientId, request, false);
+        private final String clientSecret;
 
-        body.put("grant_type", "refresh_token");
-        body.put("refresh_token", tokenCache.getRefreshToken());
+        private final String scope;
 
-        return executeRequestToken(request, clientId, body);
-    }
+        private final OAuth2.GrantType grantType;
 
-    /**
-     * 执行实际的网络请求
-     *
-     * @param request  当前请求
-     * @param clientId 客户端ID
-     * @param body     请求内容
-     * @return 返回新的 Token 信息
-     */
-    private TokenCache executeRequestToken(ForestRequest request, String clientId, Map<String, Object> body) {
-        // 加入扩展参数
-        String[] bodyItems = (String[]) getAttribute(request, "body");
-        body.putAll(kv2map(bodyItems));
+        private final String grantTypeValue;
 
-        Map<String, Object> queryItems = kv2map((String[]) getAttribute(request, "query"));
+        private final String username;
 
-        OAuth2Token token = oAuth2Client.token(getAttributeAsString(request, "tokenUri"), queryItems, body);
-        return new TokenCache(clientId, token);
-    }
+        private final String password;
 
-    /**
-     * Key-Value 转换成 Map 对象
-     *
-     * @param values Key-Value 对象
-     * @return Map 对象
-     */
-    private Map<String, Object> kv2map(String[] values) {
-        Map<String, Object> map = new HashMap<>();
-        for (String value : values) {
-            int indexOf = value.indexOf(":");
-            map.put(value.substring(0, indexOf), StringUtils.trimBegin(value.substring(indexOf + 1)));
+        private final Map<String, Object> bodyItems;
+
+        private final Map<String, Object> queryItems;
+
+        TokenRequest(ForestRequest request) {
+            this.tokenUri = getAttributeAsString(request, "tokenUri");
+            this.clientId = getAttributeAsString(request, "clientId");
+            this.clientSecret = getAttributeAsString(request, "clientSecret");
+            this.scope = getAttributeAsString(request, "scope");
+            this.grantType = (OAuth2.GrantType) getAttribute(request, "grantType");
+            this.grantTypeValue = getAttributeAsString(request, "grantTypeValue");
+            this.username = getAttributeAsString(request, "username");
+            this.password = getAttributeAsString(request, "password");
+            this.bodyItems = kv2map((String[]) getAttribute(request, "body"));
+            this.queryItems = kv2map((String[]) getAttribute(request, "query"));
         }
-        return map;
-    }
 
-    /**
-     * 创建请求默认参数
-     *
-     * @param clientId    客户端ID
-     * @param request     请求对象
-     * @param fillAccount 是否填充帐号信息。该帐号信息在注解中设置
-     * @return 返回请求参数
-     */
-    private Map<String, Object> createRequestBody(String clientId, ForestRequest request, boolean fillAccount) {
-        Map<String, Object> body = new LinkedHashMap<>();
-        body.put("client_id", clientId);
-        body.put("client_secret", getAttributeAsString(request, "clientSecret"));
-        body.put("scope", getAttributeAsString(request, "scope"));
-
-        OAuth2.GrantType grantType = (OAuth2.GrantType) getAttribute(request, "grantType");
-        String grantTypeValue = grantType.getValue(getAttributeAsString(request, "grantTypeValue"));
-        body.put("grant_type", grantTypeValue);
-
-        if (fillAccount && grantType == OAuth2.GrantType.PASSWORD) {
-            body.put("username", getAttributeAsString(request, "username"));
-            body.put("password", getAttributeAsString(request, "password"));
+        @Override
+        public TokenCache apply(TokenCache tokenCache) {
+            if (tokenCache == null || tokenCache.getExpiresIn() <= 0 || StringUtils.isBlank(tokenCache.getRefreshToken())) {
+                // Token 已过期或不存在刷新Token令牌（未开启 refresh_token），需要重新获取Token
+                return requestToken();
+            }
+            return requestRefreshToken(tokenCache);
+        }
+
+        /**
+         * 从远程服务器请求 Token
+         *
+         * @return 返回新的 Token 信息
+         */
+        @Nonnull
+        private TokenCache requestToken() {
+            return executeRequestToken(createRequestBody(true));
+        }
+
+        /**
+         * 从远程服务器刷新 Token
+         *
+         * @param tokenCache 缓存的 Token 信息
+         * @return 返回新的 Token 信息
+         */
+        private TokenCache requestRefreshToken(TokenCache tokenCache) {
+            Map<String, Object> body = createRequestBody(false);
+            body.put("grant_type", "refresh_token");
+            body.put("refresh_token", tokenCache.getRefreshToken());
+            return executeRequestToken(body);
+        }
+
+        /**
+         * 执行实际的网络请求
+         *
+         * @param body 请求内容
+         * @return 返回新的 Token 信息
+         */
+        private TokenCache executeRequestToken(Map<String, Object> body) {
+            // 加入扩展参数
+            body.putAll(bodyItems);
+            OAuth2Token token = oAuth2Client.token(tokenUri, new HashMap<>(queryItems), body);
+            return new TokenCache(clientId, token);
+        }
+
+        /**
+         * 创建请求默认参数
+         *
+         * @param fillAccount 是否填充帐号信息。该帐号信息在注解中设置
+         * @return 返回请求参数
+         */
+        private Map<String, Object> createRequestBody(boolean fillAccount) {
+            Map<String, Object> body = new LinkedHashMap<>();
+            body.put("client_id", clientId);
+            body.put("client_secret", clientSecret);
+            body.put("scope", scope);
+            body.put("grant_type", grantType.getValue(grantTypeValue));
+            if (fillAccount && grantType == OAuth2.GrantType.PASSWORD) {
+                body.put("username", username);
+                body.put("password", password);
+            }
+            return body;
         }
-        return body;
     }
 
     /**
@@ -0,0 +1,213 @@
+package com.dtflys.forest.lifecycles.authorization;
+
+import com.dtflys.forest.exceptions.ForestRuntimeException;
+
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Function;
+
+/**
+ * OAuth2 Token 管理器
+ * <p>按缓存ID保存 Token，同一个缓存ID同时只会有一个获取 Token 的请求，其他线程等待该请求的结果。</p>
+ * <ul>
+ *     <li>没有 Token 或 Token 已过期: 当前线程获取 Token 并等待结果</li>
+ *     <li>Token 在刷新时间内: 直接返回当前 Token，同时在后台线程中刷新</li>
+ *     <li>Token 有效期比刷新时间长: 在进入刷新时间时由后台线程提前刷新，刷新前没有被使用过的 Token 不再刷新</li>
+ * </ul>
+ *
+ * @author gongjun[dt_flys@hotmail.com]
+ * @since 1.5.2
+ */
+public class OAuth2TokenManager {
+
+    private final static AtomicInteger MANAGER_COUNT = new AtomicInteger(0);
+
+    private final Map<String, TokenEntry> entries = new ConcurrentHashMap<>();
+
+    private volatile ScheduledThreadPoolExecutor scheduler;
+
+    /**
+     * 获取 Token
+     *
+     * @param cacheId 缓存ID
+     * @param refreshAtExpiresBefore Token 过期前多少秒开始刷新
+     * @param fetcher 获取 Token 的函数，参数为当前的 Token，没有 Token 时为 {@code null}。
+     *                该函数会被保存下来用于后台刷新，不应持有请求对象
+     * @return Token 信息
+     */
+    public OAuth2LifeCycle.TokenCache getToken(String cacheId, int refreshAtExpiresBefore,
+                                               Function<OAuth2LifeCycle.TokenCache, OAuth2LifeCycle.TokenCache> fetcher) {
+        TokenEntry entry = entries.get(cacheId);
+        if (entry == null) {
+            entry = entries.computeIfAbsent(cacheId, key -> new TokenEntry());
+        }
+        entry.fetcher = fetcher;
+        entry.refreshAtExpiresBefore = refreshAtExpiresBefore;
+        entry.accessed = true;
+        OAuth2LifeCycle.TokenCache token = entry.token;
+        if (token != null) {
+            long expiresIn = token.getExpiresIn();
+            if (expiresIn > 0) {
+                if (expiresIn <= refreshAtExpiresBefore) {
+                    fetch(entry, getScheduler());
+                }
+                return token;
+            }
+        }
+        return await(fetch(entry, null));
+    }
+
+    /**
+     * 获取缓存中的 Token，不会发送请求
+     *
+     * @param cacheId 缓存ID
+     * @return Token 信息，没有时返回 {@code null}
+     */
+    public OAuth2LifeCycle.TokenCache getCachedToken(String cacheId) {
+        TokenEntry entry = entries.get(cacheId);
+        return entry != null ? entry.token : null;
+    }
+
+    /**
+     * 清除所有 Token 并取消后台刷新任务
+     */
+    public void clear() {
+        for (TokenEntry entry : entries.values()) {
+            ScheduledFuture<?> refreshFuture = entry.refreshFuture;
+            if (refreshFuture != null) {
+                refreshFuture.cancel(false);
+            }
+        }
+        entries.clear();
+    }
+
+    /**
+     * 获取 Token，同一个缓存ID同时只执行一次
+     *
+     * @param entry Token 缓存项
+     * @param executor 执行获取请求的线程池，为 {@code null} 时在当前线程中执行
+     * @return 获取结果
+     */
+    private CompletableFuture<OAuth2LifeCycle.TokenCache> fetch(TokenEntry entry, Executor executor) {
+        for (;;) {
+            CompletableFuture<OAuth2LifeCycle.TokenCache> pending = entry.pending.get();
+            if (pending != null) {
+                return pending;
+            }
+            CompletableFuture<OAuth2LifeCycle.TokenCache> future = new CompletableFuture<>();
+            if (!entry.pending.compareAndSet(null, future)) {
+                continue;
+            }
+            Runnable task = () -> {
+                try {
+                    OAuth2LifeCycle.TokenCache token = entry.fetcher.apply(entry.token);
+                    entry.token = token;
+                    entry.accessed = false;
+                    scheduleRefresh(entry, token);
+                    entry.pending.set(null);
+                    future.complete(token);
+                } catch (Throwable th) {
+                    entry.pending.set(null);
+                    future.completeExceptionally(th);
+                }
+            };
+            if (executor != null) {
+                executor.execute(task);
+            } else {
+                task.run();
+            }
+            return future;
+        }
+    }
+
+    /**
+     * 在 Token 进入刷新时间时提前刷新
+     * <p>Token 有效期不长于刷新时间时不提前刷新，由使用 Token 的请求触发后台刷新</p>
+     */
+    private void scheduleRefresh(TokenEntry entry, OAuth2LifeCycle.TokenCache token) {
+        ScheduledFuture<?> oldFuture = entry.refreshFuture;
+        if (oldFuture != null) {
+            oldFuture.cancel(false);
+        }
+        long delay = token.getExpiresIn() - entry.refreshAtExpiresBefore;
+        if (delay <= 0) {
+            entry.refreshFuture = null;
+            return;
+        }
+        entry.refreshFuture = getScheduler().schedule(() -> {
+            // 上次获取后没有被使用过的 Token 不再刷新
+            if (entry.accessed && entry.token == token) {
+                fetch(entry, null);
+            }
+        }, delay, TimeUnit.SECONDS);
+    }
+
+    private ScheduledThreadPoolExecutor getScheduler() {
+        ScheduledThreadPoolExecutor currentScheduler = scheduler;
+        if (currentScheduler == null) {
+            synchronized (this) {
+                currentScheduler = scheduler;
+                if (currentScheduler == null) {
+                    final int managerIndex = MANAGER_COUNT.incrementAndGet();
+                    ThreadFactory threadFactory = r -> {
+                        Thread thread = new Thread(r, "forest-oauth2-" + managerIndex);
+                        thread.setDaemon(true);
+                        return thread;
+                    };
+                    currentScheduler = new ScheduledThreadPoolExecutor(1, threadFactory);
+                    currentScheduler.setRemoveOnCancelPolicy(true);
+                    scheduler = currentScheduler;
+                }
+            }
+        }
+        return currentScheduler;
+    }
+
+    private static OAuth2LifeCycle.TokenCache await(CompletableFuture<OAuth2LifeCycle.TokenCache> future) {
+        try {
+            return future.join();
+        } catch (CompletionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+            throw new ForestRuntimeException(cause);
+        }
+    }
+
+    /**
+     * Token 缓存项
+     */
+    private static class TokenEntry {
+
+        private volatile OAuth2LifeCycle.TokenCache token;
+
+        /**
+         * 正在进行的获取请求
+         */
+        private final AtomicReference<CompletableFuture<OAuth2LifeCycle.TokenCache>> pending = new AtomicReference<>();
+
+        /**
+         * 最近一次使用的获取函数，后台刷新时使用
+         */
+        private volatile Function<OAuth2LifeCycle.TokenCache, OAuth2LifeCycle.TokenCache> fetcher;
+
+        private volatile int refreshAtExpiresBefore;
+
+        /**
+         * 上次获取 Token 后是否被使用过
+         */
+        private volatile boolean accessed;
+
+        private volatile ScheduledFuture<?> refreshFuture;
+    }
+}
@@ -0,0 +1,266 @@
+package com.dtflys.forest.lifecycles.breaker;
+
+import com.dtflys.forest.breaker.ForestCircuitBreaker;
+import com.dtflys.forest.callback.OnError;
+import com.dtflys.forest.exceptions.ForestCircuitBreakerOpenException;
+import com.dtflys.forest.exceptions.ForestRuntimeException;
+import com.dtflys.forest.extensions.CircuitBreaker;
+import com.dtflys.forest.handler.LifeCycleHandler;
+import com.dtflys.forest.http.ForestRequest;
+import com.dtflys.forest.http.ForestResponse;
+import com.dtflys.forest.http.HttpStatus;
+import com.dtflys.forest.lifecycles.MethodAnnotationLifeCycle;
+import com.dtflys.forest.limiter.ForestConcurrencyLimiter;
+import com.dtflys.forest.reflection.ForestMethod;
+
+import java.net.URI;
+import java.util.Collections;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 熔断器注解的生命周期
+ * <p>发送请求前向熔断器申请许可，熔断器打开时不创建后端执行器，
+ * 直接将 {@link ForestCircuitBreakerOpenException} 异常交给请求的生命周期处理器，
+ * 所以既不会占用连接，也不会触发重试</p>
+ *
+ * @author gongjun[dt_flys@hotmail.com]
+ * @since 1.5.2
+ */
+public class CircuitBreakerLifeCycle implements MethodAnnotationLifeCycle<CircuitBreaker, Object> {
+
+    /**
+     * 请求附件名：获得许可的熔断器
+     * <p>注解属性是同一个方法的所有请求共享的，所以每个请求自己的状态保存在附件中</p>
+     */
+    private final static String ATTACHMENT_CIRCUIT_BREAKER = "__circuitBreaker";
+
+    /**
+     * 请求附件名：获得许可的时刻
+     */
+    private final static String ATTACHMENT_START_TIME = "__circuitBreakerStartTime";
+
+    /**
+     * 熔断器表，Key 为熔断器名称
+     */
+    private final Map<String, ForestCircuitBreaker> circuitBreakers = new ConcurrentHashMap<>();
+
+    /**
+     * 主机熔断器最初的属性，Key 为熔断器名称
+     * <p>与创建时的属性比较，通过 {@link #getCircuitBreaker(String)} 修改熔断器的属性不影响检查</p>
+     */
+    private final Map<String, ForestCircuitBreaker> hostSettings = new ConcurrentHashMap<>();
+
+    /**
+     * 已确认与主机熔断器属性一致的方法，元素格式为 {@code 方法签名@熔断器名称}
+     */
+    private final Set<String> verifiedHostMethods = ConcurrentHashMap.newKeySet();
+
+    /**
+     * 降级回调实例表
+     */
+    private final Map<Class, OnError> fallbacks = new ConcurrentHashMap<>();
+
+    @Override
+    public void onMethodInitialized(ForestMethod method, CircuitBreaker annotation) {
+    }
+
+    @Override
+    public boolean beforeExecute(ForestRequest request) {
+        ForestCircuitBreaker circuitBreaker = getCircuitBreaker(request);
+        if (circuitBreaker.tryAcquirePermission()) {
+            request.addAttachment(ATTACHMENT_CIRCUIT_BREAKER, circuitBreaker);
+            request.addAttachment(ATTACHMENT_START_TIME, System.nanoTime());
+            return true;
+        }
+        reject(request, circuitBreaker);
+        return false;
+    }
+
+    /**
+     * 获得许可的请求最终没有发送，如被之后的拦截器拒绝或与相同的请求合并，归还半开状态下探测请求的名额
+     *
+     * @param request 请求对象
+     */
+    @Override
+    public void onCancel(ForestRequest request) {
+        ForestCircuitBreaker circuitBreaker = (ForestCircuitBreaker) request.getAttachment(ATTACHMENT_CIRCUIT_BREAKER);
+        if (circuitBreaker == null) {
+            return;
+        }
+        request.addAttachment(ATTACHMENT_CIRCUIT_BREAKER, null);
+        circuitBreaker.releasePermission();
+    }
+
+    @Override
+    public void onSuccess(Object data, ForestRequest request, ForestResponse response) {
+        record(request, response);
+    }
+
+    @Override
+    public void onError(ForestRuntimeException ex, ForestRequest request, ForestResponse response) {
+        record(request, response);
+    }
+
+    @Override
+    public void afterExecute(ForestRequest request, ForestResponse response) {
+        record(request, response);
+    }
+
+    /**
+     * 将请求的结果记录到熔断器中
+     * <p>不同后端的同步、异步请求调用 {@code onSuccess}、{@code onError} 和 {@code afterExecute} 的组合不完全相同，
+     * 所以在三者中最先被调用的一个中记录，每个请求只记录一次</p>
+     *
+     * @param request 请求对象
+     * @param response 响应对象
+     */
+    private void record(ForestRequest request, ForestResponse response) {
+        ForestCircuitBreaker circuitBreaker = (ForestCircuitBreaker) request.getAttachment(ATTACHMENT_CIRCUIT_BREAKER);
+        Long startTime = (Long) request.getAttachment(ATTACHMENT_START_TIME);
+        if (circuitBreaker == null || startTime == null) {
+            // 被熔断器拒绝或已经记录过的请求
+            return;
+        }
+        request.addAttachment(ATTACHMENT_CIRCUIT_BREAKER, null);
+        circuitBreaker.onResult(System.nanoTime() - startTime, isFailure(response));
+    }
+
+    /**
+     * 获取请求对应的熔断器，不存在时按注解的属性创建
+     *
+     * @param request 请求对象
+     * @return 熔断器，{@link ForestCircuitBreaker}类实例
+     */
+    private ForestCircuitBreaker getCircuitBreaker(ForestRequest request) {
+        CircuitBreaker.Scope scope = (CircuitBreaker.Scope) getAttribute(request, "scope");
+        String methodName = request.getMethod().getMethod().toGenericString();
+        if (scope != CircuitBreaker.Scope.HOST) {
+            return circuitBreakers.computeIfAbsent(methodName, key -> createCircuitBreaker(key, request));
+        }
+        URI uri = request.getURI();
+        String name = ForestConcurrencyLimiter.hostOf(uri.getScheme(), uri.getHost(), uri.getPort());
+        String verifiedKey = methodName + "@" + name;
+        if (!verifiedHostMethods.contains(verifiedKey)) {
+            // 主机熔断器按第一个请求的方法的属性创建，其它方法的属性不同时无法确定以哪个为准
+            ForestCircuitBreaker settings = createCircuitBreaker(name, request);
+            ForestCircuitBreaker first = hostSettings.putIfAbsent(name, settings);
+            if (first != null && !hasSameSettings(first, settings)) {
+                throw new ForestRuntimeException("[Forest] Circuit breaker '" + name +
+                        "' is shared by methods with different settings, conflicting method: " + methodName);
+            }
+            verifiedHostMethods.add(verifiedKey);
+        }
+        return circuitBreakers.computeIfAbsent(name, key -> createCircuitBreaker(key, request));
+    }
+
+    /**
+     * 按请求所属方法的注解属性创建熔断器
+     *
+     * @param name 熔断器名称
+     * @param request 请求对象
+     * @return 熔断器，{@link ForestCircuitBreaker}类实例
+     */
+    private ForestCircuitBreaker createCircuitBreaker(String name, ForestRequest request) {
+        return new ForestCircuitBreaker(name)
+                .setFailureRateThreshold(getAttributeAsFloat(request, "failureRateThreshold"))
+                .setSlowCallRateThreshold(getAttributeAsFloat(request, "slowCallRateThreshold"))
+                .setSlowCallDuration(getAttribute(request, "slowCallDuration", Long.class), TimeUnit.MILLISECONDS)
+                .setWindowSize(getAttributeAsInteger(request, "windowSize"))
+                .setMinimumCalls(getAttributeAsInteger(request, "minimumCalls"))
+                .setWaitDurationInOpenState(getAttribute(request, "waitDurationInOpenState", Long.class), TimeUnit.MILLISECONDS)
+                .setPermittedCallsInHalfOpen(getAttributeAsInteger(request, "permittedCallsInHalfOpen"));
+    }
+
+    private static boolean hasSameSettings(ForestCircuitBreaker a, ForestCircuitBreaker b) {
+        return a.getFailureRateThreshold() == b.getFailureRateThreshold()
+                && a.getSlowCallRateThreshold() == b.getSlowCallRateThreshold()
+                && a.getSlowCallDuration(TimeUnit.NANOSECONDS) == b.getSlowCallDuration(TimeUnit.NANOSECONDS)
+                && a.getWindowSize() == b.getWindowSize()
+                && a.getMinimumCalls() == b.getMinimumCalls()
+                && a.getWaitDurationInOpenState(TimeUnit.NANOSECONDS) == b.getWaitDurationInOpenState(TimeUnit.NANOSECONDS)
+                && a.getPermittedCallsInHalfOpen() == b.getPermittedCallsInHalfOpen();
+    }
+
+    /**
+     * 拒绝请求
+     * <p>和网络请求失败一样执行拦截器的 {@code onError}、请求的 {@code OnError} 回调以及 {@code afterExecute}，
+     * 没有 {@code OnError} 回调时同步请求抛出异常，异步请求的 {@code Future} 以该异常结束</p>
+     *
+     * @param request 请求对象
+     * @param circuitBreaker 熔断器
+     */
+    private void reject(ForestRequest request, ForestCircuitBreaker circuitBreaker) {
+        ForestCircuitBreakerOpenException ex = new ForestCircuitBreakerOpenException(circuitBreaker.getName());
+        if (request.getOnError() == null) {
+            OnError fallback = getFallback(request);
+            if (fallback != null) {
+                request.setOnError(fallback);
+            }
+        }
+        ForestResponse response = new RejectedForestResponse(request, ex);
+        LifeCycleHandler lifeCycleHandler = request.getLifeCycleHandler();
+        if (!request.isAsync()) {
+            lifeCycleHandler.handleSyncWithException(request, response, ex);
+            return;
+        }
+        CompletableFuture<Object> future = new CompletableFuture<>();
+        lifeCycleHandler.handleResult(future);
+        try {
+            future.complete(lifeCycleHandler.handleSyncWithException(request, response, ex));
+        } catch (RuntimeException e) {
+            future.completeExceptionally(e);
+        }
+    }
+
+    private OnError getFallback(ForestRequest request) {
+        Class fallbackClass = getAttribute(request, "fallback", Class.class);
+        if (fallbackClass == null || fallbackClass == OnError.class) {
+            return null;
+        }
+        return fallbacks.computeIfAbsent(fallbackClass, clazz -> {
+            try {
+                return (OnError) clazz.newInstance();
+            } catch (InstantiationException | IllegalAccessException e) {
+                throw new ForestRuntimeException(e);
+            }
+        });
+    }
+
+    /**
+     * 请求结果是否计为失败
+     * <p>请求发生异常或响应状态码大于等于 500 时视为失败，4xx 属于调用方的错误，不计为失败</p>
+     *
+     * @param response 响应对象
+     * @return {@code true}: 失败, {@code false}: 成功
+     */
+    private static boolean isFailure(ForestResponse response) {
+        if (response == null || response.getException() != null) {
+            return true;
+        }
+        int statusCode = response.getStatusCode();
+        return statusCode < 0 || statusCode >= HttpStatus.INTERNAL_SERVER_ERROR;
+    }
+
+    /**
+     * 获取熔断器
+     *
+     * @param name 熔断器名称，按方法统计时为方法的签名，按主机统计时格式为 {@code 域名:端口}
+     * @return 熔断器，{@link ForestCircuitBreaker}类实例，不存在时返回 {@code null}
+     */
+    public ForestCircuitBreaker getCircuitBreaker(String name) {
+        return circuitBreakers.get(name);
+    }
+
+    /**
+     * 获取所有熔断器
+     *
+     * @return 熔断器表，Key 为熔断器名称
+     */
+    public Map<String, ForestCircuitBreaker> getCircuitBreakers() {
+        return Collections.unmodifiableMap(circuitBreakers);
+    }
+}
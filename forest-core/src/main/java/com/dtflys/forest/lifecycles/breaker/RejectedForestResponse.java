@@ -0,0 +1,32 @@
+package com.dtflys.forest.lifecycles.breaker;
+
+import com.dtflys.forest.http.ForestRequest;
+import com.dtflys.forest.http.ForestResponse;
+
+import java.util.Date;
+
+/**
+ * 被熔断器拒绝的请求的响应对象
+ * <p>没有发送网络请求，状态码为 -1，异常为熔断器打开的异常</p>
+ *
+ * @author gongjun[dt_flys@hotmail.com]
+ * @since 1.5.2
+ */
+class RejectedForestResponse extends ForestResponse {
+
+    RejectedForestResponse(ForestRequest request, Throwable exception) {
+        super(request, new Date(), new Date());
+        this.statusCode = -1;
+        setException(exception);
+    }
+
+    @Override
+    public boolean isReceivedResponseData() {
+        return false;
+    }
+
+    @Override
+    public byte[] getByteArray() {
+        return null;
+    }
+}
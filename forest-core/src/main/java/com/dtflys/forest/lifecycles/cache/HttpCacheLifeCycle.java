@@ -0,0 +1,25 @@
+package com.dtflys.forest.lifecycles.cache;
+
+import com.dtflys.forest.extensions.HttpCache;
+import com.dtflys.forest.http.ForestRequest;
+import com.dtflys.forest.lifecycles.MethodAnnotationLifeCycle;
+import com.dtflys.forest.reflection.ForestMethod;
+
+/**
+ * HTTP响应缓存注解的生命周期
+ *
+ * @author gongjun[dt_flys@hotmail.com]
+ * @since 1.5.2
+ */
+public class HttpCacheLifeCycle implements MethodAnnotationLifeCycle<HttpCache, Object> {
+
+    @Override
+    public void onMethodInitialized(ForestMethod method, HttpCache annotation) {
+    }
+
+    @Override
+    public void onInvokeMethod(ForestRequest request, ForestMethod method, Object[] args) {
+        Boolean enabled = (Boolean) getAttribute(request, "value");
+        request.setResponseCacheEnabled(enabled == null || enabled);
+    }
+}
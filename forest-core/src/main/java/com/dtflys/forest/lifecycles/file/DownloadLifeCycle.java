@@ -4,7 +4,9 @@ import com.dtflys.forest.converter.ForestConverter;
 import com.dtflys.forest.exceptions.ForestRuntimeException;
 import com.dtflys.forest.extensions.DownloadFile;
 import com.dtflys.forest.http.ForestRequest;
+import com.dtflys.forest.http.ForestRequestType;
 import com.dtflys.forest.http.ForestResponse;
+import com.dtflys.forest.http.HttpStatus;
 import com.dtflys.forest.reflection.ForestMethod;
 import com.dtflys.forest.lifecycles.MethodAnnotationLifeCycle;
 import com.dtflys.forest.utils.ForestDataType;
@@ -13,6 +15,13 @@ import org.apache.commons.io.FileUtils;
 
 import java.io.*;
 import java.lang.reflect.Type;
+import java.nio.channels.FileChannel;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
 
 /**
  * 文件下载生命周期
@@ -31,6 +40,34 @@ public class DownloadLifeCycle implements MethodAnnotationLifeCycle<DownloadFile
         Type resultType = method.getResultType();
         addAttribute(request, "resultType", resultType);
         request.setDownloadFile(true);
+        request.setDownloadStreaming(Boolean.TRUE.equals(getAttribute(request, "streaming")) || getSegments(request) > 1);
+    }
+
+    @Override
+    public boolean beforeExecute(ForestRequest request) {
+        if (getSegments(request) > 1 && request.getType() == ForestRequestType.GET) {
+            // 先只请求第一个字节，从 Content-Range 中获取文件大小，文件内容在 onSuccess 中分段下载
+            // 服务端不支持 Range 请求时会直接返回完整的文件，按一次普通的 GET 请求写入文件
+            request.addHeader("Range", "bytes=0-0");
+            addAttribute(request, "segmented", true);
+            return true;
+        }
+        if (!request.isDownloadStreaming() || !Boolean.TRUE.equals(getAttribute(request, "resume"))) {
+            return true;
+        }
+        String filename = getAttributeAsString(request, "filename");
+        if (StringUtils.isBlank(filename)) {
+            return true;
+        }
+        File file = new File(getAttributeAsString(request, "dir") + File.separator + filename);
+        if (file.isFile() && file.length() > 0) {
+            // 从已下载的最后一个字节开始请求，文件已经完整时服务端同样可以满足该范围而不会返回 416
+            // 文件修改时间在下载成功后被设置为服务端的 Last-Modified，文件变化后服务端会返回完整的内容
+            request.addHeader("Range", "bytes=" + (file.length() - 1) + "-");
+            request.addHeader("If-Range", DateTimeFormatter.RFC_1123_DATE_TIME.format(
+                    ZonedDateTime.ofInstant(Instant.ofEpochMilli(file.lastModified()), ZoneOffset.UTC)));
+        }
+        return true;
     }
 
     @Override
@@ -47,20 +84,18 @@ public class DownloadLifeCycle implements MethodAnnotationLifeCycle<DownloadFile
         if (!dir.exists()) {
             dir.mkdirs();
         }
-        InputStream in = null;
-        if (data != null && data instanceof byte[]) {
-            in = new ByteArrayInputStream((byte[]) data);
-        } else {
-            try {
-                in = response.getInputStream();
-            } catch (Exception e) {
-                throw new ForestRuntimeException(e);
-            }
-        }
         String path = dir.getPath() + File.separator + filename;
         File file = new File(path);
         try {
-            FileUtils.copyInputStreamToFile(in, file);
+            if (Boolean.TRUE.equals(getAttribute(request, "segmented"))
+                    && response.getStatusCode() == HttpStatus.PARTIAL_CONTENT) {
+                response.releaseContent();
+                SegmentedDownloader.fromResponse(request, response, file, getSegments(request)).download();
+            } else if (response.isStreamingContent()) {
+                transferToFile(response, file);
+            } else {
+                FileUtils.copyInputStreamToFile(getInputStream(data, response), file);
+            }
             request.addAttachment("file", file);
             if (resultType != null) {
                 ForestConverter converter = request.getConfiguration().getConverterMap().get(ForestDataType.AUTO);
@@ -72,4 +107,81 @@ public class DownloadLifeCycle implements MethodAnnotationLifeCycle<DownloadFile
         }
 
     }
+
+    private int getSegments(ForestRequest request) {
+        Integer segments = getAttributeAsInteger(request, "segments");
+        return segments != null ? segments : 1;
+    }
+
+    private InputStream getInputStream(Object data, ForestResponse response) {
+        if (data != null && data instanceof byte[]) {
+            return new ByteArrayInputStream((byte[]) data);
+        }
+        try {
+            return response.getInputStream();
+        } catch (Exception e) {
+            throw new ForestRuntimeException(e);
+        }
+    }
+
+    /**
+     * 将响应内容在接收的同时写入文件
+     * <p>断点续传时从服务端返回的 {@code Content-Range} 起始位置继续写入，否则覆盖原有文件</p>
+     *
+     * @param response Forest响应对象
+     * @param file 目标文件
+     * @throws IOException
+     */
+    private void transferToFile(ForestResponse response, File file) throws IOException {
+        long position = 0;
+        if (response.getStatusCode() == HttpStatus.PARTIAL_CONTENT) {
+            position = parseContentRangeStart(response.getHeaderValue("Content-Range"));
+            if (position < 0 || position > file.length()) {
+                throw new ForestRuntimeException("[Forest] Cannot resume download of file '" + file.getPath() +
+                        "' with Content-Range: " + response.getHeaderValue("Content-Range"));
+            }
+        }
+        long lastModified = parseHttpDate(response.getHeaderValue("Last-Modified"));
+        try (FileChannel channel = FileChannel.open(file.toPath(),
+                StandardOpenOption.CREATE, StandardOpenOption.WRITE)) {
+            channel.truncate(position);
+            response.transferContentTo(channel, position);
+        }
+        // 下载成功后才记录服务端的修改时间，作为下次断点续传的 If-Range 条件，
+        // 中断的文件保留本地的修改时间，续传时服务端会返回完整的内容
+        if (lastModified > 0) {
+            file.setLastModified(lastModified);
+        }
+    }
+
+    private static long parseContentRangeStart(String contentRange) {
+        if (contentRange == null) {
+            return -1;
+        }
+        // 格式为 bytes start-end/length
+        String range = contentRange.trim();
+        if (range.startsWith("bytes")) {
+            range = range.substring(5).trim();
+        }
+        int index = range.indexOf('-');
+        if (index <= 0) {
+            return -1;
+        }
+        try {
+            return Long.parseLong(range.substring(0, index).trim());
+        } catch (NumberFormatException e) {
+            return -1;
+        }
+    }
+
+    private static long parseHttpDate(String date) {
+        if (StringUtils.isBlank(date)) {
+            return -1;
+        }
+        try {
+            return ZonedDateTime.parse(date.trim(), DateTimeFormatter.RFC_1123_DATE_TIME).toInstant().toEpochMilli();
+        } catch (DateTimeParseException e) {
+            return -1;
+        }
+    }
 }
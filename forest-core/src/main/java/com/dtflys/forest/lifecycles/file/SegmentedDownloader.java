@@ -0,0 +1,428 @@
+package com.dtflys.forest.lifecycles.file;
+
+import com.dtflys.forest.config.ForestConfiguration;
+import com.dtflys.forest.exceptions.ForestNetworkException;
+import com.dtflys.forest.exceptions.ForestRetryException;
+import com.dtflys.forest.exceptions.ForestRuntimeException;
+import com.dtflys.forest.http.ForestCookies;
+import com.dtflys.forest.http.ForestHeader;
+import com.dtflys.forest.http.ForestRequest;
+import com.dtflys.forest.http.ForestRequestType;
+import com.dtflys.forest.http.ForestResponse;
+import com.dtflys.forest.http.HttpStatus;
+import com.dtflys.forest.reflection.NoneLifeCycleHandler;
+import com.dtflys.forest.retryer.RetryScheduler;
+import com.dtflys.forest.retryer.Retryer;
+import com.dtflys.forest.utils.ForestProgress;
+import com.dtflys.forest.utils.StringUtils;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.channels.FileChannel;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 分段下载器
+ * <p>将文件按字节范围分成若干段，通过并发的 {@code Range} 请求下载，
+ * 每一段在接收的同时直接写入预先分配好大小的文件中对应的位置</p>
+ * <p>下载失败的分段会根据请求的重试器单独重新下载，不影响其它分段</p>
+ * <p>分段在配置的异步请求调度线程池中下载，没有设置时使用共享的线程池；
+ * 当前线程会下载线程池尚未开始的分段，线程池繁忙时不会因为等待分段而阻塞</p>
+ *
+ * @author gongjun[dt_flys@hotmail.com]
+ * @since 1.5.2
+ */
+public class SegmentedDownloader {
+
+    private final static AtomicInteger THREAD_COUNT = new AtomicInteger(0);
+
+    /**
+     * 没有设置异步请求调度线程池时下载分段使用的共享线程池，空闲的线程会被回收
+     */
+    private static volatile ExecutorService defaultExecutor;
+
+    /**
+     * 原始下载请求
+     */
+    private final ForestRequest request;
+
+    /**
+     * 目标文件
+     */
+    private final File file;
+
+    /**
+     * 文件总字节数，未知时为 -1
+     */
+    private final long contentLength;
+
+    /**
+     * 分段数，服务端不支持 Range 请求或文件大小未知时只有一段
+     */
+    private final int segmentCount;
+
+    /**
+     * 文件的 ETag 或 Last-Modified，作为每段请求的 If-Range 条件，防止下载过程中文件变化
+     */
+    private final String validator;
+
+    /**
+     * 所有分段合计的下载进度
+     */
+    private final ForestProgress progress;
+
+    private long downloadedBytes = 0;
+
+    private long currentStep = 0;
+
+    private boolean begin = true;
+
+    /**
+     * 是否已中止下载，中止后不再开始或重试分段
+     */
+    private volatile boolean aborted = false;
+
+    public SegmentedDownloader(ForestRequest request, File file, long contentLength, int segmentCount, String validator) {
+        this.request = request;
+        this.file = file;
+        this.contentLength = contentLength;
+        this.segmentCount = contentLength > 0 ? (int) Math.max(1, Math.min(segmentCount, contentLength)) : 1;
+        this.validator = validator;
+        this.progress = new ForestProgress(request, contentLength);
+    }
+
+    /**
+     * 根据探测请求的响应创建分段下载器
+     * <p>探测请求为 {@code Range} 请求并返回 {@code 206} 时，从 {@code Content-Range} 中获取文件大小；
+     * 否则响应头中必须同时包含 {@code Content-Length} 和 {@code Accept-Ranges: bytes} 才会分段下载</p>
+     *
+     * @param request 原始下载请求
+     * @param response 探测请求的响应
+     * @param file 目标文件
+     * @param segmentCount 分段数
+     * @return 分段下载器
+     */
+    public static SegmentedDownloader fromResponse(ForestRequest request, ForestResponse response, File file, int segmentCount) {
+        long contentLength;
+        if (response.getStatusCode() == HttpStatus.PARTIAL_CONTENT) {
+            contentLength = parseContentRangeLength(response.getHeaderValue("Content-Range"));
+        } else {
+            contentLength = parseLong(response.getHeaderValue("Content-Length"));
+            if (!"bytes".equalsIgnoreCase(response.getHeaderValue("Accept-Ranges"))) {
+                segmentCount = 1;
+            }
+        }
+        String validator = response.getHeaderValue("ETag");
+        if (StringUtils.isBlank(validator) || validator.startsWith("W/")) {
+            validator = response.getHeaderValue("Last-Modified");
+        }
+        return new SegmentedDownloader(request, file, contentLength, segmentCount, validator);
+    }
+
+    private static long parseContentRangeLength(String contentRange) {
+        if (contentRange == null) {
+            return -1;
+        }
+        // 格式为 bytes start-end/length，文件大小未知时 length 为 *
+        int index = contentRange.lastIndexOf('/');
+        return index < 0 ? -1 : parseLong(contentRange.substring(index + 1));
+    }
+
+    private static long parseLong(String value) {
+        if (StringUtils.isBlank(value)) {
+            return -1;
+        }
+        try {
+            return Long.parseLong(value.trim());
+        } catch (NumberFormatException e) {
+            return -1;
+        }
+    }
+
+    private static Executor getExecutor(ForestConfiguration configuration) {
+        Executor executor = configuration.getDispatchExecutor();
+        if (executor != null) {
+            return executor;
+        }
+        if (defaultExecutor == null) {
+            synchronized (SegmentedDownloader.class) {
+                if (defaultExecutor == null) {
+                    defaultExecutor = Executors.newCachedThreadPool(r -> {
+                        Thread thread = new Thread(r, "forest-download-" + THREAD_COUNT.incrementAndGet());
+                        thread.setDaemon(true);
+                        return thread;
+                    });
+                }
+            }
+        }
+        return defaultExecutor;
+    }
+
+    /**
+     * 下载文件
+     *
+     * @throws IOException
+     */
+    public void download() throws IOException {
+        List<Segment> segments = split();
+        try (RandomAccessFile randomAccessFile = new RandomAccessFile(file, "rw")) {
+            randomAccessFile.setLength(Math.max(contentLength, 0));
+            FileChannel channel = randomAccessFile.getChannel();
+            if (segments.size() == 1) {
+                segments.get(0).download(channel);
+                return;
+            }
+            Executor executor = getExecutor(request.getConfiguration());
+            List<CompletableFuture<Void>> futures = new ArrayList<>(segments.size() - 1);
+            try {
+                for (int i = 1; i < segments.size(); i++) {
+                    Segment segment = segments.get(i);
+                    try {
+                        futures.add(CompletableFuture.runAsync(() -> {
+                            if (segment.claim()) {
+                                segment.download(channel);
+                            }
+                        }, executor));
+                    } catch (RejectedExecutionException ignored) {
+                        // 线程池拒绝的分段由当前线程下载
+                    }
+                }
+                // 第一段以及线程池尚未开始的分段在当前线程中下载
+                for (Segment segment : segments) {
+                    if (segment.claim()) {
+                        segment.download(channel);
+                    }
+                }
+                for (CompletableFuture<Void> future : futures) {
+                    try {
+                        future.join();
+                    } catch (CompletionException e) {
+                        throw toRuntimeException(e.getCause());
+                    }
+                }
+            } finally {
+                // 出错时其余的分段不再开始，正在下载的分段在文件关闭后结束且不再重试
+                aborted = true;
+            }
+        }
+    }
+
+    private List<Segment> split() {
+        List<Segment> segments = new ArrayList<>(segmentCount);
+        if (segmentCount == 1) {
+            segments.add(new Segment(0, contentLength > 0 ? contentLength - 1 : -1, false));
+            return segments;
+        }
+        long segmentSize = (contentLength + segmentCount - 1) / segmentCount;
+        for (long start = 0; start < contentLength; start += segmentSize) {
+            long end = Math.min(start + segmentSize, contentLength) - 1;
+            segments.add(new Segment(start, end, true));
+        }
+        return segments;
+    }
+
+    private synchronized void reportProgress(long bytes) {
+        downloadedBytes += bytes;
+        progress.setCurrentBytes(downloadedBytes);
+        if (contentLength < 0 || bytes <= 0) {
+            return;
+        }
+        progress.setBegin(begin);
+        begin = false;
+        currentStep += bytes;
+        if (downloadedBytes == contentLength) {
+            // progress is done
+            progress.setDone(true);
+            request.getLifeCycleHandler().handleProgress(request, progress);
+        } else {
+            long progressStep = request.getProgressStep();
+            while (currentStep >= progressStep) {
+                currentStep = currentStep - progressStep;
+                progress.setDone(false);
+                // invoke progress listener
+                request.getLifeCycleHandler().handleProgress(request, progress);
+            }
+        }
+    }
+
+    /**
+     * 文件中的一段字节范围
+     */
+    private class Segment extends NoneLifeCycleHandler {
+
+        private final long start;
+
+        /**
+         * 结束位置（包含），文件大小未知时为 -1
+         */
+        private final long end;
+
+        /**
+         * 是否以 Range 请求下载
+         */
+        private final boolean ranged;
+
+        /**
+         * 本次尝试中已汇报的字节数，重试时从总进度中扣除
+         */
+        private long reportedBytes = 0;
+
+        private FileChannel channel;
+
+        private Throwable error;
+
+        /**
+         * 是否已被某个线程认领下载
+         */
+        private final AtomicBoolean claimed = new AtomicBoolean(false);
+
+        Segment(long start, long end, boolean ranged) {
+            this.start = start;
+            this.end = end;
+            this.ranged = ranged;
+        }
+
+        /**
+         * 认领该分段，每个分段只能被一个线程认领，下载已中止时不能认领
+         *
+         * @return 认领成功为 {@code true}, 否则为 {@code false}
+         */
+        boolean claim() {
+            return !aborted && claimed.compareAndSet(false, true);
+        }
+
+        void download(FileChannel channel) {
+            this.channel = channel;
+            Retryer retryer = request.getRetryer();
+            for (int retryCount = 0; ; retryCount++) {
+                error = null;
+                try {
+                    createRequest().execute(request.getBackend(), this);
+                } catch (Throwable th) {
+                    error = th;
+                }
+                if (error == null) {
+                    return;
+                }
+                reportProgress(-reportedBytes);
+                reportedBytes = 0;
+                if (retryer == null || aborted) {
+                    throw toRuntimeException(error);
+                }
+                long interval;
+                try {
+                    interval = retryer.nextRetryInterval(
+                            new ForestRetryException(error, request, request.getRetryCount(), retryCount));
+                } catch (Throwable th) {
+                    throw toRuntimeException(error);
+                }
+                if (!RetryScheduler.await(interval)) {
+                    throw toRuntimeException(error);
+                }
+            }
+        }
+
+        private ForestRequest createRequest() {
+            ForestRequest segmentRequest = new ForestRequest(request.getConfiguration(), request.getMethod(), request.getArguments());
+            segmentRequest.setType(ForestRequestType.GET)
+                    .setUrl(request.getUrl())
+                    .addQuery(request.getQuery().queryValues())
+                    .setBackend(request.getBackend())
+                    .setLifeCycleHandler(this)
+                    .setTimeout(request.getTimeout())
+                    .setSslProtocol(request.getSslProtocol())
+                    .setKeyStore(request.getKeyStore())
+                    .setProxy(request.getProxy())
+                    .setLogConfiguration(request.getLogConfiguration())
+                    .setRetryer(request.getRetryer())
+                    // 重试由分段自己处理，以便从该段的起始位置重新下载
+                    .setRetryCount(0)
+                    .setProgressStep(request.getProgressStep())
+                    .setDownloadFile(true)
+                    .setDownloadStreaming(true);
+            for (Iterator<ForestHeader> iterator = request.getHeaders().headerIterator(); iterator.hasNext(); ) {
+                ForestHeader header = iterator.next();
+                // 探测请求的 Range 请求头由每一段自己的字节范围代替
+                if ("Range".equalsIgnoreCase(header.getName()) || "If-Range".equalsIgnoreCase(header.getName())) {
+                    continue;
+                }
+                segmentRequest.getHeaders().addHeader(header.getName(), header.getValue());
+            }
+            if (ranged) {
+                segmentRequest.addHeader("Range", "bytes=" + start + "-" + end);
+                if (StringUtils.isNotBlank(validator)) {
+                    segmentRequest.addHeader("If-Range", validator);
+                }
+            }
+            return segmentRequest;
+        }
+
+        @Override
+        public Object handleSync(ForestRequest request, ForestResponse response) {
+            return handleSyncWithException(request, response, null);
+        }
+
+        @Override
+        public Object handleSyncWithException(ForestRequest request, ForestResponse response, Exception ex) {
+            if (ex != null) {
+                error = ex;
+                return null;
+            }
+            if (!response.isSuccess()) {
+                error = new ForestNetworkException("", response.getStatusCode(), response);
+                return null;
+            }
+            if (ranged && response.getStatusCode() != HttpStatus.PARTIAL_CONTENT) {
+                // 服务端忽略了 Range 请求，或者文件在下载过程中发生了变化
+                error = new ForestRuntimeException("[Forest] Server did not return the requested range bytes="
+                        + start + "-" + end + ", status code: " + response.getStatusCode());
+                return null;
+            }
+            try {
+                long written = response.transferContentTo(channel, start);
+                if (end >= 0 && written != end - start + 1) {
+                    error = new ForestRuntimeException("[Forest] Incomplete range bytes=" + start + "-" + end
+                            + ", received " + written + " bytes");
+                } else if (end < 0) {
+                    // 文件大小未知时以实际接收的字节数为准
+                    channel.truncate(written);
+                }
+            } catch (IOException e) {
+                error = e;
+            }
+            return null;
+        }
+
+        @Override
+        public void handleProgress(ForestRequest request, ForestProgress progress) {
+            long currentBytes = progress.getCurrentBytes();
+            long bytes = currentBytes - reportedBytes;
+            reportedBytes = currentBytes;
+            reportProgress(bytes);
+        }
+
+        @Override
+        public void handleLoadCookie(ForestRequest request, ForestCookies cookies) {
+            SegmentedDownloader.this.request.getLifeCycleHandler()
+                    .handleLoadCookie(SegmentedDownloader.this.request, cookies);
+        }
+    }
+
+    private static ForestRuntimeException toRuntimeException(Throwable th) {
+        if (th instanceof ForestRuntimeException) {
+            return (ForestRuntimeException) th;
+        }
+        return new ForestRuntimeException(th);
+    }
+}
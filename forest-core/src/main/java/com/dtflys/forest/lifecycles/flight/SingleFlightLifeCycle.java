@@ -0,0 +1,25 @@
+package com.dtflys.forest.lifecycles.flight;
+
+import com.dtflys.forest.extensions.SingleFlight;
+import com.dtflys.forest.http.ForestRequest;
+import com.dtflys.forest.lifecycles.MethodAnnotationLifeCycle;
+import com.dtflys.forest.reflection.ForestMethod;
+
+/**
+ * 合并相同并发请求注解的生命周期
+ *
+ * @author gongjun[dt_flys@hotmail.com]
+ * @since 1.5.2
+ */
+public class SingleFlightLifeCycle implements MethodAnnotationLifeCycle<SingleFlight, Object> {
+
+    @Override
+    public void onMethodInitialized(ForestMethod method, SingleFlight annotation) {
+    }
+
+    @Override
+    public void onInvokeMethod(ForestRequest request, ForestMethod method, Object[] args) {
+        Boolean enabled = (Boolean) getAttribute(request, "value");
+        request.setSingleFlight(enabled == null || enabled);
+    }
+}
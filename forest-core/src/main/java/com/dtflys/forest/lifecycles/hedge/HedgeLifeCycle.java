@@ -0,0 +1,130 @@
+package com.dtflys.forest.lifecycles.hedge;
+
+import com.dtflys.forest.exceptions.ForestRuntimeException;
+import com.dtflys.forest.extensions.Hedge;
+import com.dtflys.forest.hedge.ForestLatencyWindow;
+import com.dtflys.forest.http.ForestRequest;
+import com.dtflys.forest.http.ForestRequestType;
+import com.dtflys.forest.http.ForestResponse;
+import com.dtflys.forest.lifecycles.MethodAnnotationLifeCycle;
+import com.dtflys.forest.reflection.ForestMethod;
+
+import java.util.Collections;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 对冲请求注解的生命周期
+ * <p>发送请求前计算等待时间并设置到请求中，由后端在等待时间结束后发出对冲请求；
+ * 请求成功后记录耗时，用于按百分位数计算之后请求的等待时间</p>
+ *
+ * @author gongjun[dt_flys@hotmail.com]
+ * @since 1.5.2
+ */
+public class HedgeLifeCycle implements MethodAnnotationLifeCycle<Hedge, Object> {
+
+    /**
+     * 请求附件名：开始发送的时刻
+     * <p>注解属性是同一个方法的所有请求共享的，所以每个请求自己的状态保存在附件中</p>
+     */
+    private final static String ATTACHMENT_START_TIME = "__hedgeStartTime";
+
+    /**
+     * 耗时滑动窗口表，Key 为方法的签名
+     */
+    private final Map<String, ForestLatencyWindow> latencyWindows = new ConcurrentHashMap<>();
+
+    @Override
+    public void onMethodInitialized(ForestMethod method, Hedge annotation) {
+    }
+
+    @Override
+    public boolean beforeExecute(ForestRequest request) {
+        request.addAttachment(ATTACHMENT_START_TIME, System.nanoTime());
+        if (!request.isAsync() || !isIdempotent(request.getType())) {
+            return true;
+        }
+        long delay = getAttribute(request, "delay", Long.class);
+        if (delay < 0) {
+            ForestLatencyWindow window = getLatencyWindow(request);
+            if (window.getSize() >= getAttributeAsInteger(request, "minimumSamples")) {
+                delay = window.getPercentile(getAttributeAsDouble(request, "percentile"), TimeUnit.MILLISECONDS);
+            }
+        }
+        if (delay >= 0) {
+            request.setHedgeDelay(delay);
+            request.getConfiguration().getHedgeBudget().onRequest();
+        }
+        return true;
+    }
+
+    @Override
+    public void onSuccess(Object data, ForestRequest request, ForestResponse response) {
+        record(request, response);
+    }
+
+    @Override
+    public void onError(ForestRuntimeException ex, ForestRequest request, ForestResponse response) {
+        request.addAttachment(ATTACHMENT_START_TIME, null);
+    }
+
+    @Override
+    public void afterExecute(ForestRequest request, ForestResponse response) {
+        record(request, response);
+    }
+
+    /**
+     * 记录成功请求的耗时
+     * <p>不同后端的同步、异步请求调用 {@code onSuccess}、{@code onError} 和 {@code afterExecute} 的组合不完全相同，
+     * 所以在三者中最先被调用的一个中记录，每个请求只记录一次</p>
+     *
+     * @param request 请求对象
+     * @param response 响应对象
+     */
+    private void record(ForestRequest request, ForestResponse response) {
+        Long startTime = (Long) request.getAttachment(ATTACHMENT_START_TIME);
+        if (startTime == null) {
+            return;
+        }
+        request.addAttachment(ATTACHMENT_START_TIME, null);
+        if (response == null || !response.isSuccess()) {
+            return;
+        }
+        getLatencyWindow(request).record(System.nanoTime() - startTime, TimeUnit.NANOSECONDS);
+    }
+
+    private ForestLatencyWindow getLatencyWindow(ForestRequest request) {
+        return latencyWindows.computeIfAbsent(request.getMethod().getMethod().toGenericString(),
+                key -> new ForestLatencyWindow(getAttributeAsInteger(request, "windowSize")));
+    }
+
+    /**
+     * 请求类型是否可以安全地重复发送
+     *
+     * @param type 请求类型
+     * @return {@code true}: {@code GET}、{@code HEAD} 或 {@code OPTIONS} 请求, {@code false}: 其它请求
+     */
+    private static boolean isIdempotent(ForestRequestType type) {
+        return type == ForestRequestType.GET || type == ForestRequestType.HEAD || type == ForestRequestType.OPTIONS;
+    }
+
+    /**
+     * 获取方法的耗时滑动窗口
+     *
+     * @param name 方法的签名
+     * @return 滑动窗口，{@link ForestLatencyWindow}类实例，不存在时返回 {@code null}
+     */
+    public ForestLatencyWindow getLatencyWindow(String name) {
+        return latencyWindows.get(name);
+    }
+
+    /**
+     * 获取所有方法的耗时滑动窗口
+     *
+     * @return 滑动窗口表，Key 为方法的签名
+     */
+    public Map<String, ForestLatencyWindow> getLatencyWindows() {
+        return Collections.unmodifiableMap(latencyWindows);
+    }
+}
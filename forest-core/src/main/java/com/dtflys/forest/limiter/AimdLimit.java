@@ -0,0 +1,85 @@
+package com.dtflys.forest.limiter;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 加性增、乘性减（AIMD）的并发上限算法
+ * <p>请求成功且并发数接近上限时上限加一；请求失败或往返时间超过阈值时上限乘以回退系数</p>
+ *
+ * @author gongjun[dt_flys@hotmail.com]
+ * @since 1.5.2
+ */
+public class AimdLimit implements ConcurrencyLimit {
+
+    private int limit = 20;
+
+    private int minLimit = 1;
+
+    private int maxLimit = 200;
+
+    /**
+     * 回退系数
+     */
+    private double backoffRatio = 0.9;
+
+    /**
+     * 往返时间阈值（纳秒），超过时视为过载
+     */
+    private long timeout = TimeUnit.SECONDS.toNanos(5);
+
+    @Override
+    public int getLimit() {
+        return limit;
+    }
+
+    @Override
+    public void onSample(long rtt, int inFlight, boolean dropped) {
+        if (dropped || rtt > timeout) {
+            limit = Math.max(minLimit, (int) (limit * backoffRatio));
+        } else if (inFlight * 2 >= limit) {
+            // 并发数远小于上限时说明上限没有起作用，不再增加
+            limit = Math.min(maxLimit, limit + 1);
+        }
+    }
+
+    public AimdLimit setInitialLimit(int initialLimit) {
+        this.limit = initialLimit;
+        return this;
+    }
+
+    public int getMinLimit() {
+        return minLimit;
+    }
+
+    public AimdLimit setMinLimit(int minLimit) {
+        this.minLimit = minLimit;
+        return this;
+    }
+
+    public int getMaxLimit() {
+        return maxLimit;
+    }
+
+    public AimdLimit setMaxLimit(int maxLimit) {
+        this.maxLimit = maxLimit;
+        return this;
+    }
+
+    public double getBackoffRatio() {
+        return backoffRatio;
+    }
+
+    public AimdLimit setBackoffRatio(double backoffRatio) {
+        this.backoffRatio = backoffRatio;
+        return this;
+    }
+
+    public long getTimeout(TimeUnit unit) {
+        return unit.convert(timeout, TimeUnit.NANOSECONDS);
+    }
+
+    public AimdLimit setTimeout(long timeout, TimeUnit unit) {
+        this.timeout = unit.toNanos(timeout);
+        return this;
+    }
+}
@@ -0,0 +1,30 @@
+package com.dtflys.forest.limiter;
+
+/**
+ * 并发上限的调整算法
+ * <p>每个请求结束后根据请求的往返时间（RTT）和是否被服务端拒绝来调整并发上限，
+ * 实现类不需要考虑线程安全，调用方会保证同一时刻只有一个线程调用</p>
+ *
+ * @author gongjun[dt_flys@hotmail.com]
+ * @since 1.5.2
+ * @see AimdLimit
+ * @see GradientLimit
+ */
+public interface ConcurrencyLimit {
+
+    /**
+     * 获取当前的并发上限
+     *
+     * @return 并发上限
+     */
+    int getLimit();
+
+    /**
+     * 请求结束后更新并发上限
+     *
+     * @param rtt 请求的往返时间（纳秒）
+     * @param inFlight 请求开始时正在执行的请求数（包括该请求）
+     * @param dropped 请求是否超时、连接失败或者被服务端拒绝（429、503等）
+     */
+    void onSample(long rtt, int inFlight, boolean dropped);
+}
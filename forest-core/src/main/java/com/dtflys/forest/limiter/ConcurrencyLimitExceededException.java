@@ -0,0 +1,32 @@
+package com.dtflys.forest.limiter;
+
+import java.io.IOException;
+
+/**
+ * 请求超出并发上限时的异常
+ * <p>与连接失败一样作为网络异常处理，可以由重试器决定是否重试，
+ * 最终会被包装成 {@link com.dtflys.forest.exceptions.ForestRuntimeException} 交给 {@code OnError} 回调</p>
+ *
+ * @author gongjun[dt_flys@hotmail.com]
+ * @since 1.5.2
+ */
+public class ConcurrencyLimitExceededException extends IOException {
+
+    private final String host;
+
+    private final int limit;
+
+    public ConcurrencyLimitExceededException(String host, int limit) {
+        super("[Forest] Concurrency limit exceeded for host '" + host + "', current limit: " + limit);
+        this.host = host;
+        this.limit = limit;
+    }
+
+    public String getHost() {
+        return host;
+    }
+
+    public int getLimit() {
+        return limit;
+    }
+}
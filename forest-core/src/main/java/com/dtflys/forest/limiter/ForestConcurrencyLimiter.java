@@ -0,0 +1,395 @@
+package com.dtflys.forest.limiter;
+
+import com.dtflys.forest.http.HttpStatus;
+import com.dtflys.forest.retryer.RetryScheduler;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Supplier;
+
+/**
+ * 按主机划分的自适应并发限制器
+ * <p>每个主机（域名和端口）有独立的并发上限，上限由 {@link ConcurrencyLimit} 算法根据请求的往返时间和失败率调整。
+ * 超出上限的请求在队列中等待，队列已满或等待超时时立即失败，
+ * 抛出 {@link ConcurrencyLimitExceededException}</p>
+ * <p>同步请求在当前线程中等待，异步请求通过 {@link #acquireAsync(String, RetryScheduler)} 排队，
+ * 有许可归还时由归还许可的线程完成等待的请求，不占用任何线程</p>
+ * <p>限制器对每一次网络请求生效，重试的请求需要重新获取许可</p>
+ *
+ * @author gongjun[dt_flys@hotmail.com]
+ * @since 1.5.2
+ */
+public class ForestConcurrencyLimiter {
+
+    private final ConcurrentHashMap<String, HostLimiter> hostLimiters = new ConcurrentHashMap<>();
+
+    /**
+     * 为每个主机创建并发上限算法的工厂，默认为 {@link AimdLimit}
+     */
+    private Supplier<? extends ConcurrencyLimit> limitFactory = AimdLimit::new;
+
+    /**
+     * 每个主机的最大排队请求数，为 0 时超出上限的请求立即失败
+     */
+    private int maxQueueSize = 0;
+
+    /**
+     * 排队的最长等待时间（毫秒）
+     */
+    private long maxQueueWait = 1000;
+
+    /**
+     * 获取主机的请求许可
+     * <p>请求结束后必须调用 {@link Permit#release(boolean)} 或 {@link Permit#ignore()} 归还许可</p>
+     *
+     * @param host 主机，格式为 {@code 域名:端口}
+     * @return 请求许可，{@link Permit}类实例
+     * @throws ConcurrencyLimitExceededException 超出并发上限且无法排队时抛出
+     */
+    public Permit acquire(String host) throws ConcurrencyLimitExceededException {
+        return getHostLimiter(host).acquire();
+    }
+
+    /**
+     * 异步获取主机的请求许可
+     * <p>不阻塞当前线程，超出上限时排队，在其它请求归还许可时完成；
+     * 队列已满或等待超时时以 {@link ConcurrencyLimitExceededException} 异常完成。
+     * 排队中取消返回的 {@link CompletableFuture} 会将请求移出队列</p>
+     *
+     * @param host 主机，格式为 {@code 域名:端口}
+     * @param scheduler 排队超时的调度器
+     * @return 请求许可的 {@link CompletableFuture}
+     */
+    public CompletableFuture<Permit> acquireAsync(String host, RetryScheduler scheduler) {
+        return getHostLimiter(host).acquireAsync(scheduler);
+    }
+
+    private HostLimiter getHostLimiter(String host) {
+        return hostLimiters.computeIfAbsent(host, h -> new HostLimiter(h, limitFactory.get()));
+    }
+
+    /**
+     * 根据响应状态码判断请求是否被服务端因过载而拒绝
+     *
+     * @param statusCode 响应状态码
+     * @return {@code true}: 被拒绝，{@code false}: 未被拒绝
+     */
+    public boolean isDropped(int statusCode) {
+        return statusCode == 429
+                || statusCode == HttpStatus.SERVICE_UNAVAILABLE
+                || statusCode == HttpStatus.GATEWAY_TIMEOUT;
+    }
+
+    /**
+     * 获取已有请求的主机列表
+     *
+     * @return 主机列表
+     */
+    public Set<String> getHosts() {
+        return Collections.unmodifiableSet(hostLimiters.keySet());
+    }
+
+    /**
+     * 获取主机当前的并发上限
+     *
+     * @param host 主机，格式为 {@code 域名:端口}
+     * @return 并发上限，没有请求过该主机时返回 -1
+     */
+    public int getLimit(String host) {
+        HostLimiter limiter = hostLimiters.get(host);
+        return limiter != null ? limiter.getLimit() : -1;
+    }
+
+    /**
+     * 获取主机正在执行的请求数
+     *
+     * @param host 主机，格式为 {@code 域名:端口}
+     * @return 请求数
+     */
+    public int getInFlight(String host) {
+        HostLimiter limiter = hostLimiters.get(host);
+        return limiter != null ? limiter.getInFlight() : 0;
+    }
+
+    /**
+     * 获取主机正在排队的请求数
+     *
+     * @param host 主机，格式为 {@code 域名:端口}
+     * @return 请求数
+     */
+    public int getQueueDepth(String host) {
+        HostLimiter limiter = hostLimiters.get(host);
+        return limiter != null ? limiter.getQueueDepth() : 0;
+    }
+
+    public ForestConcurrencyLimiter setLimitFactory(Supplier<? extends ConcurrencyLimit> limitFactory) {
+        this.limitFactory = limitFactory;
+        return this;
+    }
+
+    public int getMaxQueueSize() {
+        return maxQueueSize;
+    }
+
+    public ForestConcurrencyLimiter setMaxQueueSize(int maxQueueSize) {
+        this.maxQueueSize = maxQueueSize;
+        return this;
+    }
+
+    public long getMaxQueueWait() {
+        return maxQueueWait;
+    }
+
+    public ForestConcurrencyLimiter setMaxQueueWait(long maxQueueWait) {
+        this.maxQueueWait = maxQueueWait;
+        return this;
+    }
+
+    /**
+     * 获取主机的名称
+     *
+     * @param scheme 协议
+     * @param host 域名
+     * @param port 端口，为 -1 时使用协议的默认端口
+     * @return 主机名称，格式为 {@code 域名:端口}
+     */
+    public static String hostOf(String scheme, String host, int port) {
+        if (port < 0) {
+            port = "https".equalsIgnoreCase(scheme) ? 443 : 80;
+        }
+        return host + ":" + port;
+    }
+
+    /**
+     * 单个主机的并发限制
+     */
+    private class HostLimiter {
+
+        private final String host;
+
+        private final ConcurrencyLimit limit;
+
+        private final ReentrantLock lock = new ReentrantLock();
+
+        private final Condition available = lock.newCondition();
+
+        private int inFlight = 0;
+
+        /**
+         * 同步请求的排队数
+         */
+        private int queueDepth = 0;
+
+        /**
+         * 排队的异步请求，按先后顺序获得许可
+         */
+        private final ArrayDeque<CompletableFuture<Permit>> waiters = new ArrayDeque<>();
+
+        HostLimiter(String host, ConcurrencyLimit limit) {
+            this.host = host;
+            this.limit = limit;
+        }
+
+        Permit acquire() throws ConcurrencyLimitExceededException {
+            lock.lock();
+            try {
+                if (inFlight < limit.getLimit()) {
+                    return newPermit();
+                }
+                if (queueDepth + waiters.size() >= maxQueueSize) {
+                    throw new ConcurrencyLimitExceededException(host, limit.getLimit());
+                }
+                queueDepth++;
+                try {
+                    long nanos = TimeUnit.MILLISECONDS.toNanos(maxQueueWait);
+                    while (inFlight >= limit.getLimit()) {
+                        if (nanos <= 0) {
+                            throw new ConcurrencyLimitExceededException(host, limit.getLimit());
+                        }
+                        nanos = available.awaitNanos(nanos);
+                    }
+                    return newPermit();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new ConcurrencyLimitExceededException(host, limit.getLimit());
+                } finally {
+                    queueDepth--;
+                }
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        CompletableFuture<Permit> acquireAsync(RetryScheduler scheduler) {
+            CompletableFuture<Permit> waiter = new CompletableFuture<>();
+            lock.lock();
+            try {
+                if (inFlight < limit.getLimit()) {
+                    waiter.complete(newPermit());
+                    return waiter;
+                }
+                if (queueDepth + waiters.size() >= maxQueueSize) {
+                    waiter.completeExceptionally(new ConcurrencyLimitExceededException(host, limit.getLimit()));
+                    return waiter;
+                }
+                waiters.add(waiter);
+            } finally {
+                lock.unlock();
+            }
+            waiter.whenComplete((permit, th) -> {
+                if (waiter.isCancelled()) {
+                    timeout(waiter, false);
+                }
+            });
+            scheduler.schedule(() -> timeout(waiter, true), maxQueueWait, th -> timeout(waiter, true));
+            return waiter;
+        }
+
+        /**
+         * 将等待超时或已取消的异步请求移出队列
+         *
+         * @param waiter 排队的异步请求
+         * @param expired 是否因等待超时而移出
+         */
+        private void timeout(CompletableFuture<Permit> waiter, boolean expired) {
+            int currentLimit;
+            lock.lock();
+            try {
+                if (!waiters.remove(waiter)) {
+                    // 已经获得许可
+                    return;
+                }
+                currentLimit = limit.getLimit();
+            } finally {
+                lock.unlock();
+            }
+            if (expired) {
+                waiter.completeExceptionally(new ConcurrencyLimitExceededException(host, currentLimit));
+            }
+        }
+
+        private Permit newPermit() {
+            inFlight++;
+            return new Permit(this, inFlight);
+        }
+
+        void release(long rtt, int startInFlight, boolean dropped, boolean sample) {
+            List<CompletableFuture<Permit>> granted = null;
+            List<Permit> permits = null;
+            lock.lock();
+            try {
+                inFlight--;
+                if (sample) {
+                    limit.onSample(rtt, startInFlight, dropped);
+                }
+                // 先满足排队的异步请求，在锁外完成，避免在持有锁时执行请求的后续操作
+                while (inFlight < limit.getLimit() && !waiters.isEmpty()) {
+                    if (granted == null) {
+                        granted = new ArrayList<>();
+                        permits = new ArrayList<>();
+                    }
+                    granted.add(waiters.poll());
+                    permits.add(newPermit());
+                }
+                available.signalAll();
+            } finally {
+                lock.unlock();
+            }
+            if (granted != null) {
+                for (int i = 0; i < granted.size(); i++) {
+                    if (!granted.get(i).complete(permits.get(i))) {
+                        // 排队的请求已被取消
+                        permits.get(i).ignore();
+                    }
+                }
+            }
+        }
+
+        int getLimit() {
+            lock.lock();
+            try {
+                return limit.getLimit();
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        int getInFlight() {
+            lock.lock();
+            try {
+                return inFlight;
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        int getQueueDepth() {
+            lock.lock();
+            try {
+                return queueDepth + waiters.size();
+            } finally {
+                lock.unlock();
+            }
+        }
+    }
+
+    /**
+     * 请求许可
+     * <p>每个许可只能归还一次，重复归还会被忽略</p>
+     */
+    public static class Permit {
+
+        private final HostLimiter hostLimiter;
+
+        private final int startInFlight;
+
+        private final long startTime = System.nanoTime();
+
+        private final AtomicBoolean released = new AtomicBoolean(false);
+
+        private Permit(HostLimiter hostLimiter, int startInFlight) {
+            this.hostLimiter = hostLimiter;
+            this.startInFlight = startInFlight;
+        }
+
+        /**
+         * 请求结束后归还许可，并根据往返时间调整并发上限
+         *
+         * @param dropped 请求是否超时、连接失败或者被服务端拒绝
+         */
+        public void release(boolean dropped) {
+            release(dropped, System.nanoTime());
+        }
+
+        /**
+         * 请求结束后归还许可，按接收到响应头的时间计算往返时间
+         * <p>各个后端都以接收到响应头的时间计算往返时间，不包括读取响应体的时间</p>
+         *
+         * @param dropped 请求是否超时、连接失败或者被服务端拒绝
+         * @param responseTime 接收到响应头的时间，为 {@link System#nanoTime()} 的返回值
+         */
+        public void release(boolean dropped, long responseTime) {
+            if (released.compareAndSet(false, true)) {
+                hostLimiter.release(Math.max(responseTime - startTime, 0L), startInFlight, dropped, true);
+            }
+        }
+
+        /**
+         * 请求被取消时归还许可，不调整并发上限
+         */
+        public void ignore() {
+            if (released.compareAndSet(false, true)) {
+                hostLimiter.release(0, startInFlight, false, false);
+            }
+        }
+    }
+}
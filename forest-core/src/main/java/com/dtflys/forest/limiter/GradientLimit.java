@@ -0,0 +1,118 @@
+package com.dtflys.forest.limiter;
+
+/**
+ * 基于往返时间梯度的并发上限算法
+ * <p>用长期往返时间的指数移动平均值作为无排队时的基准，与最新的往返时间相比得到梯度：
+ * 往返时间变长说明服务端开始排队，上限按梯度减小；往返时间稳定时上限按队列余量逐渐增大</p>
+ *
+ * @author gongjun[dt_flys@hotmail.com]
+ * @since 1.5.2
+ */
+public class GradientLimit implements ConcurrencyLimit {
+
+    private double limit = 20;
+
+    private int minLimit = 1;
+
+    private int maxLimit = 200;
+
+    /**
+     * 允许往返时间相对基准变长的倍数
+     */
+    private double rttTolerance = 1.5;
+
+    /**
+     * 新上限所占的权重
+     */
+    private double smoothing = 0.2;
+
+    /**
+     * 长期往返时间移动平均的窗口大小
+     */
+    private int longWindow = 600;
+
+    /**
+     * 长期往返时间（纳秒）
+     */
+    private double longRtt = 0;
+
+    @Override
+    public int getLimit() {
+        return (int) limit;
+    }
+
+    @Override
+    public void onSample(long rtt, int inFlight, boolean dropped) {
+        if (rtt <= 0) {
+            return;
+        }
+        if (longRtt == 0) {
+            longRtt = rtt;
+        } else {
+            longRtt = longRtt * (longWindow - 1) / longWindow + (double) rtt / longWindow;
+        }
+        if (longRtt / rtt > 2) {
+            // 往返时间已经明显下降，让基准更快地跟上
+            longRtt *= 0.95;
+        }
+        if (!dropped && inFlight < limit / 2) {
+            // 并发数远小于上限时说明上限没有起作用，不调整
+            return;
+        }
+        double gradient = dropped ? 0.5 : Math.max(0.5, Math.min(1.0, rttTolerance * longRtt / rtt));
+        double queueSize = Math.sqrt(limit);
+        double newLimit = limit * gradient + queueSize;
+        newLimit = limit * (1 - smoothing) + newLimit * smoothing;
+        limit = Math.max(minLimit, Math.min(maxLimit, newLimit));
+    }
+
+    public GradientLimit setInitialLimit(int initialLimit) {
+        this.limit = initialLimit;
+        return this;
+    }
+
+    public int getMinLimit() {
+        return minLimit;
+    }
+
+    public GradientLimit setMinLimit(int minLimit) {
+        this.minLimit = minLimit;
+        return this;
+    }
+
+    public int getMaxLimit() {
+        return maxLimit;
+    }
+
+    public GradientLimit setMaxLimit(int maxLimit) {
+        this.maxLimit = maxLimit;
+        return this;
+    }
+
+    public double getRttTolerance() {
+        return rttTolerance;
+    }
+
+    public GradientLimit setRttTolerance(double rttTolerance) {
+        this.rttTolerance = rttTolerance;
+        return this;
+    }
+
+    public double getSmoothing() {
+        return smoothing;
+    }
+
+    public GradientLimit setSmoothing(double smoothing) {
+        this.smoothing = smoothing;
+        return this;
+    }
+
+    public int getLongWindow() {
+        return longWindow;
+    }
+
+    public GradientLimit setLongWindow(int longWindow) {
+        this.longWindow = longWindow;
+        return this;
+    }
+}
@@ -0,0 +1,303 @@
+package com.dtflys.forest.logging;
+
+import com.dtflys.forest.http.ForestRequest;
+import com.dtflys.forest.http.ForestResponse;
+import com.dtflys.forest.metrics.DefaultForestMetrics;
+import com.dtflys.forest.utils.StringUtils;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * 异步日志处理器
+ * <p>请求线程只把日志消息放入有界无锁环形缓冲区，由后台线程取出后再拼接日志内容并输出，
+ * 日志级别未开启时不拼接任何内容。缓冲区满时丢弃日志并计数，不会阻塞请求线程</p>
+ * <ul>
+ *     <li>采样: 可按接口方法设置采样率，同一个请求的请求日志和响应日志一起采样</li>
+ *     <li>截断: 请求体和响应内容超过 {@link #getMaxBodySize()} 个字符时截断</li>
+ *     <li>响应内容: 在后台线程中读取，流式读取的响应内容不打印</li>
+ * </ul>
+ * <pre>
+ * configuration.setLogHandler(new AsyncLogHandler()
+ *         .setSampleRate(0.1)
+ *         .setSampleRate("MyClient.getUser", 1));
+ * </pre>
+ * <p>格式和 {@link DefaultLogHandler} 相同，子类可以覆盖其格式化方法，这些方法在后台线程中调用</p>
+ *
+ * @author gongjun[dt_flys@hotmail.com]
+ * @since 1.5.2
+ */
+public class AsyncLogHandler extends DefaultLogHandler {
+
+    public final static int DEFAULT_CAPACITY = 1024;
+
+    public final static int DEFAULT_MAX_BODY_SIZE = 4096;
+
+    private final static String SAMPLED_ATTACHMENT = "__forest_log_sampled";
+
+    private final static long IDLE_PARK_NANOS = TimeUnit.MILLISECONDS.toNanos(100);
+
+    private final static AtomicInteger WRITER_COUNT = new AtomicInteger(0);
+
+    private final LogRingBuffer<Runnable> buffer;
+
+    private final LongAdder droppedCount = new LongAdder();
+
+    /**
+     * 各接口方法的采样率，Key为 {@code 接口名.方法名}
+     */
+    private final Map<String, Double> methodSampleRates = new ConcurrentHashMap<>();
+
+    private volatile double sampleRate = 1;
+
+    private volatile int maxBodySize = DEFAULT_MAX_BODY_SIZE;
+
+    private volatile Thread writer;
+
+    /**
+     * 后台线程是否正在等待新的日志
+     */
+    private volatile boolean idle;
+
+    private volatile boolean closed;
+
+    public AsyncLogHandler() {
+        this(DEFAULT_CAPACITY);
+    }
+
+    /**
+     * @param capacity 缓冲区容量，会向上取整为2的幂
+     */
+    public AsyncLogHandler(int capacity) {
+        this.buffer = new LogRingBuffer<>(capacity);
+    }
+
+    /**
+     * 获取缓冲区容量
+     * @return 缓冲区容量
+     */
+    public int getCapacity() {
+        return buffer.capacity();
+    }
+
+    /**
+     * 获取因缓冲区已满或处理器已关闭而丢弃的日志数
+     * @return 丢弃的日志数
+     */
+    public long getDroppedCount() {
+        return droppedCount.sum();
+    }
+
+    /**
+     * 获取默认采样率
+     * @return 采样率，取值范围为 0 到 1
+     */
+    public double getSampleRate() {
+        return sampleRate;
+    }
+
+    /**
+     * 设置默认采样率，没有单独设置采样率的接口方法都使用该采样率
+     * @param sampleRate 采样率，取值范围为 0 到 1
+     * @return {@link AsyncLogHandler}类实例
+     */
+    public AsyncLogHandler setSampleRate(double sampleRate) {
+        this.sampleRate = sampleRate;
+        return this;
+    }
+
+    /**
+     * 获取接口方法的采样率
+     * @param methodName 方法名称，格式为 {@code 接口名.方法名}
+     * @return 采样率，没有单独设置时返回默认采样率
+     */
+    public double getSampleRate(String methodName) {
+        Double rate = methodSampleRates.get(methodName);
+        return rate != null ? rate : sampleRate;
+    }
+
+    /**
+     * 设置接口方法的采样率
+     * @param methodName 方法名称，格式为 {@code 接口名.方法名}，如 {@code MyClient.getUser}
+     * @param sampleRate 采样率，取值范围为 0 到 1
+     * @return {@link AsyncLogHandler}类实例
+     */
+    public AsyncLogHandler setSampleRate(String methodName, double sampleRate) {
+        methodSampleRates.put(methodName, sampleRate);
+        return this;
+    }
+
+    /**
+     * 获取请求体和响应内容的最大打印长度
+     * @return 最大字符数
+     */
+    public int getMaxBodySize() {
+        return maxBodySize;
+    }
+
+    /**
+     * 设置请求体和响应内容的最大打印长度
+     * @param maxBodySize 最大字符数，小于 0 时不截断
+     * @return {@link AsyncLogHandler}类实例
+     */
+    public AsyncLogHandler setMaxBodySize(int maxBodySize) {
+        this.maxBodySize = maxBodySize;
+        return this;
+    }
+
+    @Override
+    public void logRequest(RequestLogMessage requestLogMessage) {
+        if (isLoggable(requestLogMessage.getRequest())) {
+            enqueue(() -> super.logRequest(requestLogMessage));
+        }
+    }
+
+    @Override
+    public void logResponseStatus(ResponseLogMessage responseLogMessage) {
+        ForestResponse response = responseLogMessage.getResponse();
+        if (response != null && isLoggable(response.getRequest())) {
+            enqueue(() -> super.logResponseStatus(responseLogMessage));
+        }
+    }
+
+    @Override
+    public void logResponseContent(ResponseLogMessage responseLogMessage) {
+        ForestResponse response = responseLogMessage.getResponse();
+        // 流式读取的响应内容只能读一次，留给转换器
+        if (response == null || response.isStreamingContent() || !isLoggable(response.getRequest())) {
+            return;
+        }
+        enqueue(() -> {
+            String content = response.getContent();
+            if (StringUtils.isNotEmpty(content)) {
+                logContent("Response Content:\n\t" + truncate(content));
+            }
+        });
+    }
+
+    @Override
+    protected String requestLoggingBody(RequestLogMessage requestLogMessage) {
+        return truncate(super.requestLoggingBody(requestLogMessage));
+    }
+
+    /**
+     * 截断超过最大打印长度的内容
+     * @param content 日志内容
+     * @return 截断后的内容
+     */
+    protected String truncate(String content) {
+        int max = maxBodySize;
+        if (content == null || max < 0 || content.length() <= max) {
+            return content;
+        }
+        return content.substring(0, max) + "...(" + content.length() + " chars, truncated)";
+    }
+
+    /**
+     * 判断请求是否需要打印日志
+     * <p>采样结果记录在请求的附件中，同一个请求的请求日志、响应日志以及重试的日志采样结果一致</p>
+     * @param request Forest请求对象
+     * @return 需要打印为 {@code true}, 否则为 {@code false}
+     */
+    protected boolean isLoggable(ForestRequest request) {
+        if (!getLogger().isInfoEnabled()) {
+            return false;
+        }
+        if (request == null) {
+            return true;
+        }
+        Object sampled = request.getAttachment(SAMPLED_ATTACHMENT);
+        if (sampled instanceof Boolean) {
+            return (Boolean) sampled;
+        }
+        double rate = methodSampleRates.isEmpty() ?
+                sampleRate : getSampleRate(DefaultForestMetrics.getMethodName(request));
+        boolean result = rate >= 1 || (rate > 0 && ThreadLocalRandom.current().nextDouble() < rate);
+        request.addAttachment(SAMPLED_ATTACHMENT, result);
+        return result;
+    }
+
+    private void enqueue(Runnable task) {
+        if (closed || !buffer.offer(task)) {
+            droppedCount.increment();
+            return;
+        }
+        Thread currentWriter = writer;
+        if (currentWriter == null) {
+            startWriter();
+        } else if (idle) {
+            LockSupport.unpark(currentWriter);
+        }
+    }
+
+    private synchronized void startWriter() {
+        if (writer != null || closed) {
+            return;
+        }
+        Thread thread = new Thread(this::drain, "forest-log-" + WRITER_COUNT.incrementAndGet());
+        thread.setDaemon(true);
+        writer = thread;
+        thread.start();
+    }
+
+    private void drain() {
+        for (;;) {
+            Runnable task = buffer.poll();
+            if (task != null) {
+                write(task);
+                continue;
+            }
+            if (closed) {
+                return;
+            }
+            idle = true;
+            // 设置等待标志后再检查一次，避免错过等待前写入的日志
+            if (buffer.isEmpty() && !closed) {
+                LockSupport.parkNanos(this, IDLE_PARK_NANOS);
+            }
+            idle = false;
+        }
+    }
+
+    private void write(Runnable task) {
+        try {
+            // 日志级别可能在日志入队后被关闭
+            if (getLogger().isInfoEnabled()) {
+                task.run();
+            }
+        } catch (Throwable th) {
+            getLogger().error("[Forest] Failed to write log", th);
+        }
+    }
+
+    /**
+     * 关闭处理器，输出缓冲区中剩余的日志后结束后台线程
+     * <p>关闭后的日志都会被丢弃</p>
+     */
+    public void close() {
+        Thread currentWriter;
+        synchronized (this) {
+            if (closed) {
+                return;
+            }
+            closed = true;
+            currentWriter = writer;
+        }
+        if (currentWriter == null) {
+            return;
+        }
+        LockSupport.unpark(currentWriter);
+        if (currentWriter != Thread.currentThread()) {
+            try {
+                currentWriter.join(TimeUnit.SECONDS.toMillis(5));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+}
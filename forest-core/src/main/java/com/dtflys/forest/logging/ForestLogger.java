@@ -12,6 +12,14 @@ public class ForestLogger {
 
     private final static Logger logger = LoggerFactory.getLogger(DefaultLogHandler.class);
 
+    /**
+     * 是否允许输出INFO级别的日志
+     * @return 允许为 {@code true}, 否则为 {@code false}
+     */
+    public boolean isInfoEnabled() {
+        return logger.isInfoEnabled();
+    }
+
     /**
      * 输出INFO级别内容到日志
      * @param content 日志内容
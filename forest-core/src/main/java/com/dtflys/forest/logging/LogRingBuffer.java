@@ -0,0 +1,104 @@
+package com.dtflys.forest.logging;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * 有界无锁环形缓冲区
+ * <p>支持多个线程同时写入、单个线程读取。每个槽位带有序号，
+ * 写入线程通过CAS占用槽位，写满时直接返回 {@code false}，不会阻塞</p>
+ *
+ * @param <E> 元素类型
+ * @author gongjun[dt_flys@hotmail.com]
+ * @since 1.5.2
+ */
+final class LogRingBuffer<E> {
+
+    private final int mask;
+
+    private final AtomicReferenceArray<E> elements;
+
+    /**
+     * 槽位序号，等于写入位置时可写，等于写入位置加一时可读
+     */
+    private final AtomicLongArray sequences;
+
+    private final AtomicLong tail = new AtomicLong(0);
+
+    /**
+     * 读取位置，只由读取线程访问
+     */
+    private long head;
+
+    LogRingBuffer(int capacity) {
+        if (capacity < 2) {
+            capacity = 2;
+        }
+        int size = Integer.highestOneBit(capacity - 1) << 1;
+        this.mask = size - 1;
+        this.elements = new AtomicReferenceArray<>(size);
+        this.sequences = new AtomicLongArray(size);
+        for (int i = 0; i < size; i++) {
+            sequences.set(i, i);
+        }
+    }
+
+    /**
+     * 写入元素
+     *
+     * @param element 元素
+     * @return 写入成功返回 {@code true}，缓冲区已满返回 {@code false}
+     */
+    boolean offer(E element) {
+        for (;;) {
+            long position = tail.get();
+            int index = (int) (position & mask);
+            long diff = sequences.get(index) - position;
+            if (diff == 0) {
+                if (tail.compareAndSet(position, position + 1)) {
+                    elements.lazySet(index, element);
+                    sequences.set(index, position + 1);
+                    return true;
+                }
+            } else if (diff < 0) {
+                return false;
+            }
+        }
+    }
+
+    /**
+     * 读取元素，只能在读取线程中调用
+     *
+     * @return 元素，没有可读的元素时返回 {@code null}
+     */
+    E poll() {
+        int index = (int) (head & mask);
+        if (sequences.get(index) != head + 1) {
+            return null;
+        }
+        E element = elements.get(index);
+        elements.lazySet(index, null);
+        sequences.lazySet(index, head + mask + 1);
+        head++;
+        return element;
+    }
+
+    /**
+     * 是否没有可读的元素，只能在读取线程中调用
+     *
+     * @return 没有可读的元素为 {@code true}, 否则为 {@code false}
+     */
+    boolean isEmpty() {
+        return sequences.get((int) (head & mask)) != head + 1;
+    }
+
+    /**
+     * 获取缓冲区容量
+     *
+     * @return 容量，为2的幂
+     */
+    int capacity() {
+        return mask + 1;
+    }
+}
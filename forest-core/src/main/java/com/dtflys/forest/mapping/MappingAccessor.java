@@ -0,0 +1,141 @@
+package com.dtflys.forest.mapping;
+
+import com.dtflys.forest.exceptions.ForestRuntimeException;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Method;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+
+/**
+ * 模板表达式中属性和方法的访问器
+ * <p>每个类上的属性和方法只通过反射查找一次，并转换成 {@link MethodHandle} 全局缓存，
+ * 每个表达式节点再各自持有一个以对象类型为键的单态内联缓存，
+ * 同一节点连续访问同一类型的对象时不再有任何查找开销</p>
+ *
+ * @author gongjun[dt_flys@hotmail.com]
+ * @since 1.5.2
+ */
+public final class MappingAccessor {
+
+    private final static MethodType GETTER_TYPE = MethodType.methodType(Object.class, Object.class);
+
+    private final static MethodType INVOKER_TYPE = MethodType.methodType(Object.class, Object.class, Object[].class);
+
+    private final static ClassValue<ConcurrentHashMap<String, MethodHandle>> PROPERTY_HANDLES =
+            new ClassValue<ConcurrentHashMap<String, MethodHandle>>() {
+                @Override
+                protected ConcurrentHashMap<String, MethodHandle> computeValue(Class<?> type) {
+                    return new ConcurrentHashMap<>();
+                }
+            };
+
+    private final static ClassValue<ConcurrentHashMap<String, MethodHandle>> METHOD_HANDLES =
+            new ClassValue<ConcurrentHashMap<String, MethodHandle>>() {
+                @Override
+                protected ConcurrentHashMap<String, MethodHandle> computeValue(Class<?> type) {
+                    return new ConcurrentHashMap<>();
+                }
+            };
+
+    /**
+     * 访问的对象类型
+     */
+    private final Class<?> type;
+
+    /**
+     * 已适配为 (Object)Object 或 (Object, Object[])Object 的方法句柄
+     */
+    private final MethodHandle handle;
+
+    private MappingAccessor(Class<?> type, MethodHandle handle) {
+        this.type = type;
+        this.handle = handle;
+    }
+
+    /**
+     * 内联缓存是否命中
+     * @param obj 被访问的对象
+     * @return 命中为 {@code true}，否则为 {@code false}
+     */
+    public boolean accept(Object obj) {
+        return obj.getClass() == type;
+    }
+
+    /**
+     * 获取对象的属性值
+     * @param obj 被访问的对象
+     * @return 属性值
+     */
+    public Object get(Object obj) {
+        try {
+            return (Object) handle.invokeExact(obj);
+        } catch (Throwable th) {
+            throw new ForestRuntimeException(th);
+        }
+    }
+
+    /**
+     * 调用对象的方法
+     * @param obj 被访问的对象
+     * @param args 方法参数
+     * @return 方法返回值
+     */
+    public Object invoke(Object obj, Object[] args) {
+        try {
+            return (Object) handle.invokeExact(obj, args);
+        } catch (Throwable th) {
+            throw new ForestRuntimeException(th);
+        }
+    }
+
+    /**
+     * 获取属性访问器
+     * @param type 对象类型
+     * @param name 属性名
+     * @param methodFinder 根据类型查找属性读取方法，找不到时返回 {@code null}
+     * @return 属性访问器，{@link MappingAccessor}类实例
+     */
+    public static MappingAccessor forProperty(Class<?> type, String name, Function<Class<?>, Method> methodFinder) {
+        MethodHandle handle = PROPERTY_HANDLES.get(type).computeIfAbsent(name, key -> {
+            Method method = methodFinder.apply(type);
+            if (method == null) {
+                return null;
+            }
+            return unreflect(method).asType(GETTER_TYPE);
+        });
+        return handle == null ? null : new MappingAccessor(type, handle);
+    }
+
+    /**
+     * 获取方法访问器
+     * @param type 对象类型
+     * @param name 方法缓存键，由方法名和参数个数组成
+     * @param methodFinder 根据类型查找方法
+     * @return 方法访问器，{@link MappingAccessor}类实例
+     */
+    public static MappingAccessor forMethod(Class<?> type, String name, Function<Class<?>, Method> methodFinder) {
+        MethodHandle handle = METHOD_HANDLES.get(type).computeIfAbsent(name, key -> {
+            Method method = methodFinder.apply(type);
+            MethodHandle methodHandle = unreflect(method);
+            // 方法参数以数组形式传入，与 Method.invoke 的调用方式保持一致
+            return methodHandle.asSpreader(Object[].class, method.getParameterCount()).asType(INVOKER_TYPE);
+        });
+        return new MappingAccessor(type, handle);
+    }
+
+    private static MethodHandle unreflect(Method method) {
+        try {
+            return MethodHandles.publicLookup().unreflect(method);
+        } catch (IllegalAccessException e) {
+            try {
+                method.setAccessible(true);
+                return MethodHandles.lookup().unreflect(method);
+            } catch (RuntimeException | IllegalAccessException ex) {
+                throw new ForestRuntimeException(e);
+            }
+        }
+    }
+}
@@ -4,7 +4,6 @@ import com.dtflys.forest.config.VariableScope;
 import com.dtflys.forest.exceptions.ForestRuntimeException;
 import com.dtflys.forest.utils.StringUtils;
 
-import java.lang.reflect.InvocationTargetException;
 import java.lang.reflect.Method;
 import java.util.Map;
 
@@ -17,6 +16,11 @@ public class MappingDot extends MappingExpr {
     protected final MappingExpr left;
     protected final MappingIdentity right;
 
+    /**
+     * 属性访问或方法调用的单态内联缓存
+     */
+    protected volatile MappingAccessor accessor;
+
     public MappingDot(VariableScope variableScope, MappingExpr left, MappingIdentity right) {
         this(Token.DOT, variableScope, left, right);
     }
@@ -84,19 +88,17 @@ public class MappingDot extends MappingExpr {
         if (obj instanceof Map) {
             return ((Map) obj).get(right.getName());
         }
-        String getterName = StringUtils.toGetterName(right.getName());
-        Method method = getPropMethodFromClass(obj.getClass(), right);
-        if (method == null) {
-            throw new ForestRuntimeException(new NoSuchMethodException(getterName));
-        }
-        try {
-            Object result = method.invoke(obj);
-            return result;
-        } catch (InvocationTargetException e) {
-            throw new ForestRuntimeException(e);
-        } catch (IllegalAccessException e) {
-            throw new ForestRuntimeException(e);
+        MappingAccessor propAccessor = accessor;
+        if (propAccessor == null || !propAccessor.accept(obj)) {
+            propAccessor = MappingAccessor.forProperty(
+                    obj.getClass(), right.getName(), clazz -> getPropMethodFromClass(clazz, right));
+            if (propAccessor == null) {
+                String getterName = StringUtils.toGetterName(right.getName());
+                throw new ForestRuntimeException(new NoSuchMethodException(getterName));
+            }
+            accessor = propAccessor;
         }
+        return propAccessor.get(obj);
     }
 
 
@@ -3,7 +3,6 @@ package com.dtflys.forest.mapping;
 import com.dtflys.forest.config.VariableScope;
 import com.dtflys.forest.exceptions.ForestRuntimeException;
 
-import java.lang.reflect.InvocationTargetException;
 import java.lang.reflect.Method;
 import java.util.List;
 
@@ -13,6 +12,8 @@ import java.util.List;
  */
 public class MappingInvoke extends MappingDot {
 
+    private final static Object[] EMPTY_ARGS = new Object[0];
+
     private List<MappingExpr> argList;
 
     public MappingInvoke(VariableScope variableScope, MappingExpr left, MappingIdentity name, List<MappingExpr> argList) {
@@ -38,33 +39,45 @@ public class MappingInvoke extends MappingDot {
         }
     }
 
-    @Override
-    public Object render(Object[] args) {
-        Object obj = left.render(args);
-        String methodName = right.getName();
+    private Method findMethod(Class clazz, String methodName, int argCount) {
         try {
-            Method method = obj.getClass().getDeclaredMethod(methodName);
-            Object result = null;
-            if (argList == null || argList.isEmpty()) {
-                result = method.invoke(obj);
+            if (argCount == 0) {
+                return clazz.getDeclaredMethod(methodName);
             }
-            else {
-                Object[] renderArgs = new Object[argList.size()];
-                for (int i = 0, len = argList.size(); i < len; i++) {
-                    MappingExpr expr = argList.get(i);
-                    renderArgs[i] = expr.render(args);
+            for (Method method : clazz.getDeclaredMethods()) {
+                if (method.getName().equals(methodName) && method.getParameterCount() == argCount) {
+                    return method;
                 }
-                result = method.invoke(obj, renderArgs);
             }
-            return result;
+            throw new NoSuchMethodException(clazz.getName() + "." + methodName);
         } catch (NoSuchMethodException e) {
             throw new ForestRuntimeException(e);
-        } catch (InvocationTargetException e) {
-            throw new ForestRuntimeException(e);
-        } catch (IllegalAccessException e) {
-            throw new ForestRuntimeException(e);
         }
+    }
 
+    @Override
+    public Object render(Object[] args) {
+        Object obj = left.render(args);
+        if (obj == null) {
+            throw new ForestRuntimeException(new NullPointerException());
+        }
+        String methodName = right.getName();
+        int argCount = argList == null ? 0 : argList.size();
+        MappingAccessor methodAccessor = accessor;
+        if (methodAccessor == null || !methodAccessor.accept(obj)) {
+            methodAccessor = MappingAccessor.forMethod(
+                    obj.getClass(), methodName + "/" + argCount, clazz -> findMethod(clazz, methodName, argCount));
+            accessor = methodAccessor;
+        }
+        Object[] renderArgs = EMPTY_ARGS;
+        if (argCount > 0) {
+            renderArgs = new Object[argCount];
+            for (int i = 0; i < argCount; i++) {
+                MappingExpr expr = argList.get(i);
+                renderArgs[i] = expr.render(args);
+            }
+        }
+        return methodAccessor.invoke(obj, renderArgs);
     }
 
     @Override
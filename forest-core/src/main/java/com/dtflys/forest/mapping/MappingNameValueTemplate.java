@@ -0,0 +1,78 @@
+package com.dtflys.forest.mapping;
+
+/**
+ * 名值对模板
+ * <p>用于 {@code @Data}、{@code @Header} 等以字符串形式声明名值对的模板，如 "a=1&amp;b=2" 或 "Accept: text/plain"</p>
+ * <p>常量模板在方法初始化时就完成拆分，只有依赖调用参数的模板才在每次调用时渲染和拆分</p>
+ *
+ * @author gongjun[dt_flys@hotmail.com]
+ * @since 1.5.2
+ */
+public class MappingNameValueTemplate {
+
+    private final MappingTemplate template;
+
+    /**
+     * 名值对之间的分隔符，为 {@code null} 时整个模板只包含一个名值对
+     */
+    private final String pairSeparator;
+
+    /**
+     * 名称和值之间的分隔符
+     */
+    private final String nameValueSeparator;
+
+    /**
+     * 常量模板预先拆分好的名值对，非常量模板为 {@code null}
+     */
+    private final String[][] constantPairs;
+
+    public MappingNameValueTemplate(MappingTemplate template, String pairSeparator, String nameValueSeparator) {
+        this.template = template;
+        this.pairSeparator = pairSeparator;
+        this.nameValueSeparator = nameValueSeparator;
+        if (template.isConstant()) {
+            this.constantPairs = split(template.render(null));
+        } else {
+            this.constantPairs = null;
+        }
+    }
+
+    public MappingTemplate getTemplate() {
+        return template;
+    }
+
+    /**
+     * 渲染模板
+     *
+     * @param args 调用对应方法时传入的参数数组
+     * @return 渲染后的字符串
+     */
+    public String render(Object[] args) {
+        return template.render(args);
+    }
+
+    /**
+     * 渲染并拆分模板
+     * <p>返回的每个数组元素由 {@link String#split(String, int)} 拆分所得，长度为1时表示只有名称没有值，
+     * 调用方不可修改返回的数组</p>
+     *
+     * @param args 调用对应方法时传入的参数数组
+     * @return 名值对数组
+     */
+    public String[][] nameValues(Object[] args) {
+        if (constantPairs != null) {
+            return constantPairs;
+        }
+        return split(template.render(args));
+    }
+
+    private String[][] split(String text) {
+        String[] items = pairSeparator == null ? new String[] {text} : text.split(pairSeparator);
+        String[][] pairs = new String[items.length][];
+        for (int i = 0; i < items.length; i++) {
+            pairs[i] = items[i].split(nameValueSeparator, 2);
+        }
+        return pairs;
+    }
+}
@@ -25,6 +25,14 @@ public class MappingTemplate {
     private  String template;
     private List<MappingExpr> exprList;
     private VariableScope variableScope;
+    /**
+     * 不包含任何表达式的常量模板的文本，非常量模板为 {@code null}
+     */
+    private String constantText;
+    /**
+     * 编译后预先链接好的渲染节点，相邻的文本已合并，渲染时不需要再判断表达式的类型
+     */
+    private RenderNode[] nodes;
     int readIndex = -1;
 
     private boolean isEnd(int index) {
@@ -102,6 +110,7 @@ public class MappingTemplate {
 
     public void compile() {
         readIndex = -1;
+        constantText = null;
         exprList = new ArrayList<>();
         StringBuffer buffer = new StringBuffer();
 
@@ -181,6 +190,114 @@ public class MappingTemplate {
             MappingString str = new MappingString(buffer.toString());
             exprList.add(str);
         }
+        constantText = resolveConstantText();
+        nodes = link(exprList);
+    }
+
+    /**
+     * 模板的渲染节点
+     */
+    private interface RenderNode {
+
+        /**
+         * 将节点的渲染结果追加到字符串中
+         *
+         * @param builder 渲染结果
+         * @param jsonConverter JSON转换器，用于将集合等对象转换为字符串
+         * @param args 调用方法时传入的参数值
+         * @throws UnsupportedEncodingException 参数需要URL编码且字符集不支持时抛出
+         */
+        void render(StringBuilder builder, ForestJsonConverter jsonConverter, Object[] args) throws UnsupportedEncodingException;
+    }
+
+    /**
+     * 将表达式列表链接为渲染节点
+     * <p>文本直接追加，参数序号预先绑定到对应的参数定义，其它表达式调用自己的渲染方法</p>
+     *
+     * @param exprList 表达式列表
+     * @return 渲染节点数组
+     */
+    private RenderNode[] link(List<MappingExpr> exprList) {
+        List<RenderNode> nodeList = new ArrayList<>(exprList.size());
+        StringBuilder text = null;
+        for (MappingExpr expr : exprList) {
+            if (expr instanceof MappingString) {
+                if (text == null) {
+                    text = new StringBuilder();
+                }
+                text.append(((MappingString) expr).getText());
+                continue;
+            }
+            if (text != null) {
+                nodeList.add(textNode(text.toString()));
+                text = null;
+            }
+            if (expr instanceof MappingIndex) {
+                nodeList.add(indexNode(((MappingIndex) expr).getIndex()));
+            } else {
+                nodeList.add(exprNode(expr));
+            }
+        }
+        if (text != null) {
+            nodeList.add(textNode(text.toString()));
+        }
+        return nodeList.toArray(new RenderNode[0]);
+    }
+
+    private static RenderNode textNode(final String text) {
+        return (builder, jsonConverter, args) -> builder.append(text);
+    }
+
+    private RenderNode indexNode(final int index) {
+        if (parameters == null || index < 0 || index >= parameters.length) {
+            // 没有对应的参数定义
+            return (builder, jsonConverter, args) -> {};
+        }
+        final MappingParameter param = parameters[index];
+        final boolean urlEncode = param != null && param.isUrlEncode();
+        return (builder, jsonConverter, args) -> {
+            if (args == null || index >= args.length) {
+                return;
+            }
+            Object val = args[index];
+            if (val != null) {
+                String str = getParameterValue(jsonConverter, val);
+                if (urlEncode) {
+                    str = URLUtils.forceEncode(str, param.getCharset());
+                }
+                builder.append(str);
+            }
+        };
+    }
+
+    private static RenderNode exprNode(final MappingExpr expr) {
+        return (builder, jsonConverter, args) -> {
+            Object val = expr.render(args);
+            if (val != null) {
+                builder.append(getParameterValue(jsonConverter, val));
+            }
+        };
+    }
+
+    private String resolveConstantText() {
+        StringBuilder builder = new StringBuilder();
+        for (MappingExpr expr : exprList) {
+            if (!(expr instanceof MappingString)) {
+                return null;
+            }
+            builder.append(((MappingString) expr).getText());
+        }
+        return builder.toString();
+    }
+
+    /**
+     * 是否为常量模板
+     * <p>常量模板不包含任何表达式，渲染结果和调用参数无关</p>
+     *
+     * @return 常量模板返回 {@code true}，否则返回 {@code false}
+     */
+    public boolean isConstant() {
+        return constantText != null;
     }
 
     public boolean hasIterateVariable() {
@@ -443,40 +560,15 @@ public class MappingTemplate {
 
 
     public String render(Object[] args) {
+        if (constantText != null) {
+            return constantText;
+        }
         try {
             ForestJsonConverter jsonConverter = variableScope.getConfiguration().getJsonConverter();
-            int len = exprList.size();
+            RenderNode[] renderNodes = nodes;
             StringBuilder builder = new StringBuilder();
-            for (int i = 0; i < len; i++) {
-                MappingExpr expr = exprList.get(i);
-                Object val = null;
-                MappingParameter param = null;
-                if (expr instanceof MappingString) {
-                    builder.append(((MappingString) expr).getText());
-                } else if (expr instanceof MappingIndex) {
-                    try {
-                        Integer index = ((MappingIndex) expr).getIndex();
-                        param = parameters[index];
-                        val = args[index];
-                    } catch (Exception ex) {
-                    }
-                    if (val != null) {
-                        val = getParameterValue(jsonConverter, val);
-                        if (param != null && param.isUrlEncode()) {
-                            val = URLUtils.forceEncode(String.valueOf(val), param.getCharset());
-                        }
-                        builder.append(val);
-                    }
-                } else {
-                    val = expr.render(args);
-                    if (val != null) {
-                        val = getParameterValue(jsonConverter, val);
-                        if (param != null && param.isUrlEncode()) {
-                            val = URLUtils.forceEncode(String.valueOf(val), param.getCharset());
-                        }
-                        builder.append(val);
-                    }
-                }
+            for (RenderNode node : renderNodes) {
+                node.render(builder, jsonConverter, args);
             }
             return builder.toString();
         } catch (ForestVariableUndefinedException ex) {
@@ -558,6 +650,7 @@ public class MappingTemplate {
     public MappingTemplate clone() {
         MappingTemplate template = new MappingTemplate(this.template, this.variableScope, this.properties, this.parameters);
         template.exprList = this.exprList;
+        template.nodes = this.nodes;
         return template;
     }
 
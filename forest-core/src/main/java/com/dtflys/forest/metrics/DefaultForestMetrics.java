@@ -0,0 +1,221 @@
+package com.dtflys.forest.metrics;
+
+import com.dtflys.forest.http.ForestRequest;
+import com.dtflys.forest.http.ForestResponse;
+import com.dtflys.forest.limiter.ForestConcurrencyLimiter;
+import com.dtflys.forest.reflection.ForestMethod;
+import com.dtflys.forest.utils.ForestDataType;
+
+import java.net.URI;
+import java.util.Collections;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 默认的Forest指标收集器
+ * <p>不依赖任何第三方库，按接口方法和主机分别统计耗时直方图，按接口方法统计重试次数和失败次数，
+ * 按数据类型统计序列化和反序列化耗时，并保存已绑定的连接池，可以随时读取</p>
+ * <p>接口方法的名称格式为 {@code 接口类名.方法名}，主机名称格式为 {@code 域名:端口}</p>
+ *
+ * @author gongjun[dt_flys@hotmail.com]
+ * @since 1.5.2
+ */
+public class DefaultForestMetrics implements ForestMetrics {
+
+    private final Map<String, ForestHistogram> methodLatencies = new ConcurrentHashMap<>();
+
+    private final Map<String, ForestHistogram> hostLatencies = new ConcurrentHashMap<>();
+
+    private final Map<String, LongAdder> methodErrors = new ConcurrentHashMap<>();
+
+    private final Map<String, LongAdder> methodRetries = new ConcurrentHashMap<>();
+
+    private final Map<String, ForestHistogram> encodeLatencies = new ConcurrentHashMap<>();
+
+    private final Map<String, ForestHistogram> decodeLatencies = new ConcurrentHashMap<>();
+
+    private final Map<String, ForestConnectionPool> connectionPools = new ConcurrentHashMap<>();
+
+    @Override
+    public void recordRequest(ForestRequest request, ForestResponse response, long duration, TimeUnit unit) {
+        String methodName = getMethodName(request);
+        histogram(methodLatencies, methodName).record(duration, unit);
+        String host = getHost(request);
+        if (host != null) {
+            histogram(hostLatencies, host).record(duration, unit);
+        }
+        if (response == null || !response.isSuccess()) {
+            counter(methodErrors, methodName).increment();
+        }
+    }
+
+    @Override
+    public void recordRetry(ForestRequest request, int retryCount) {
+        counter(methodRetries, getMethodName(request)).increment();
+    }
+
+    @Override
+    public void recordEncode(ForestDataType dataType, long duration, TimeUnit unit) {
+        histogram(encodeLatencies, getDataTypeName(dataType)).record(duration, unit);
+    }
+
+    @Override
+    public void recordDecode(ForestDataType dataType, long duration, TimeUnit unit) {
+        histogram(decodeLatencies, getDataTypeName(dataType)).record(duration, unit);
+    }
+
+    @Override
+    public void bindConnectionPool(String name, ForestConnectionPool pool) {
+        connectionPools.put(name, pool);
+    }
+
+    /**
+     * 获取接口方法的名称
+     *
+     * @param request Forest请求对象，{@link ForestRequest}类实例
+     * @return 接口方法名称，格式为 {@code 接口类名.方法名}
+     */
+    public static String getMethodName(ForestRequest request) {
+        ForestMethod method = request.getMethod();
+        if (method == null || method.getMethod() == null) {
+            return request.getType().getName();
+        }
+        return method.getMethod().getDeclaringClass().getSimpleName() + "." + method.getMethodName();
+    }
+
+    /**
+     * 获取请求的主机名称
+     *
+     * @param request Forest请求对象，{@link ForestRequest}类实例
+     * @return 主机名称，格式为 {@code 域名:端口}，URL不合法时返回 {@code null}
+     */
+    public static String getHost(ForestRequest request) {
+        try {
+            URI uri = request.getURI();
+            if (uri.getHost() == null) {
+                return null;
+            }
+            return ForestConcurrencyLimiter.hostOf(uri.getScheme(), uri.getHost(), uri.getPort());
+        } catch (RuntimeException e) {
+            return null;
+        }
+    }
+
+    private static String getDataTypeName(ForestDataType dataType) {
+        return dataType != null ? dataType.getName() : ForestDataType.AUTO.getName();
+    }
+
+    private static ForestHistogram histogram(Map<String, ForestHistogram> histograms, String name) {
+        ForestHistogram histogram = histograms.get(name);
+        if (histogram != null) {
+            return histogram;
+        }
+        return histograms.computeIfAbsent(name, k -> new ForestHistogram());
+    }
+
+    private static LongAdder counter(Map<String, LongAdder> counters, String name) {
+        LongAdder counter = counters.get(name);
+        if (counter != null) {
+            return counter;
+        }
+        return counters.computeIfAbsent(name, k -> new LongAdder());
+    }
+
+    /**
+     * 清空所有统计数据，已绑定的连接池保留
+     */
+    public void reset() {
+        methodLatencies.clear();
+        hostLatencies.clear();
+        methodErrors.clear();
+        methodRetries.clear();
+        encodeLatencies.clear();
+        decodeLatencies.clear();
+    }
+
+    /**
+     * 获取接口方法的耗时直方图
+     *
+     * @param methodName 接口方法名称，格式为 {@code 接口类名.方法名}
+     * @return 耗时直方图，还没有请求时返回 {@code null}
+     */
+    public ForestHistogram getMethodLatency(String methodName) {
+        return methodLatencies.get(methodName);
+    }
+
+    public Map<String, ForestHistogram> getMethodLatencies() {
+        return Collections.unmodifiableMap(methodLatencies);
+    }
+
+    /**
+     * 获取主机的耗时直方图
+     *
+     * @param host 主机名称，格式为 {@code 域名:端口}
+     * @return 耗时直方图，还没有请求时返回 {@code null}
+     */
+    public ForestHistogram getHostLatency(String host) {
+        return hostLatencies.get(host);
+    }
+
+    public Map<String, ForestHistogram> getHostLatencies() {
+        return Collections.unmodifiableMap(hostLatencies);
+    }
+
+    /**
+     * 获取接口方法的失败次数
+     *
+     * @param methodName 接口方法名称，格式为 {@code 接口类名.方法名}
+     * @return 失败次数
+     */
+    public long getErrorCount(String methodName) {
+        LongAdder counter = methodErrors.get(methodName);
+        return counter != null ? counter.sum() : 0;
+    }
+
+    /**
+     * 获取接口方法的重试次数
+     *
+     * @param methodName 接口方法名称，格式为 {@code 接口类名.方法名}
+     * @return 重试次数
+     */
+    public long getRetryCount(String methodName) {
+        LongAdder counter = methodRetries.get(methodName);
+        return counter != null ? counter.sum() : 0;
+    }
+
+    /**
+     * 获取序列化耗时直方图
+     *
+     * @param dataType 数据类型，{@link ForestDataType}类实例
+     * @return 耗时直方图，还没有记录时返回 {@code null}
+     */
+    public ForestHistogram getEncodeLatency(ForestDataType dataType) {
+        return encodeLatencies.get(getDataTypeName(dataType));
+    }
+
+    /**
+     * 获取反序列化耗时直方图
+     *
+     * @param dataType 数据类型，{@link ForestDataType}类实例
+     * @return 耗时直方图，还没有记录时返回 {@code null}
+     */
+    public ForestHistogram getDecodeLatency(ForestDataType dataType) {
+        return decodeLatencies.get(getDataTypeName(dataType));
+    }
+
+    /**
+     * 获取已绑定的连接池
+     *
+     * @param name 连接池名称
+     * @return 连接池状态，未绑定时返回 {@code null}
+     */
+    public ForestConnectionPool getConnectionPool(String name) {
+        return connectionPools.get(name);
+    }
+
+    public Map<String, ForestConnectionPool> getConnectionPools() {
+        return Collections.unmodifiableMap(connectionPools);
+    }
+}
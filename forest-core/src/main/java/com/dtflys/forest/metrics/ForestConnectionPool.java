@@ -0,0 +1,39 @@
+package com.dtflys.forest.metrics;
+
+/**
+ * 连接池状态
+ * <p>由连接管理器实现，每次调用都返回连接池当前的状态</p>
+ *
+ * @author gongjun[dt_flys@hotmail.com]
+ * @since 1.5.2
+ */
+public interface ForestConnectionPool {
+
+    /**
+     * 获取正在使用的连接数
+     *
+     * @return 连接数
+     */
+    int getLeased();
+
+    /**
+     * 获取空闲的连接数
+     *
+     * @return 连接数
+     */
+    int getIdle();
+
+    /**
+     * 获取等待连接的请求数
+     *
+     * @return 请求数
+     */
+    int getPending();
+
+    /**
+     * 获取最大连接数
+     *
+     * @return 连接数
+     */
+    int getMax();
+}
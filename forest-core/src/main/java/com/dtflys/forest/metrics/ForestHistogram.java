@@ -0,0 +1,152 @@
+package com.dtflys.forest.metrics;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 耗时直方图
+ * <p>桶的划分方式与HdrHistogram相同：按2的幂分段，每段再均分为 {@value #SUB_BUCKET_COUNT} 个子桶，
+ * 所以任意耗时的相对误差不超过 1/{@value #SUB_BUCKET_COUNT}。记录一次耗时只需要几次位运算和一次原子自增，
+ * 不会分配内存</p>
+ *
+ * @author gongjun[dt_flys@hotmail.com]
+ * @since 1.5.2
+ */
+public class ForestHistogram {
+
+    private final static int SUB_BUCKET_BITS = 5;
+
+    private final static int SUB_BUCKET_COUNT = 1 << SUB_BUCKET_BITS;
+
+    /**
+     * 桶的总数，足以容纳任意非负的 {@code long} 值
+     */
+    private final static int BUCKET_COUNT = (Long.SIZE - SUB_BUCKET_BITS) * SUB_BUCKET_COUNT;
+
+    private final AtomicLongArray buckets = new AtomicLongArray(BUCKET_COUNT);
+
+    private final LongAdder count = new LongAdder();
+
+    private final LongAdder total = new LongAdder();
+
+    private final AtomicLong max = new AtomicLong(0);
+
+    /**
+     * 记录一次耗时
+     *
+     * @param duration 耗时，小于 0 时按 0 记录
+     * @param unit 时间单位
+     */
+    public void record(long duration, TimeUnit unit) {
+        long nanos = Math.max(unit.toNanos(duration), 0);
+        buckets.incrementAndGet(indexOf(nanos));
+        count.increment();
+        total.add(nanos);
+        long prev;
+        while (nanos > (prev = max.get()) && !max.compareAndSet(prev, nanos)) {
+        }
+    }
+
+    /**
+     * 获取记录的次数
+     *
+     * @return 次数
+     */
+    public long getCount() {
+        return count.sum();
+    }
+
+    /**
+     * 获取总耗时
+     *
+     * @param unit 时间单位
+     * @return 总耗时
+     */
+    public long getTotal(TimeUnit unit) {
+        return unit.convert(total.sum(), TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * 获取平均耗时
+     *
+     * @param unit 时间单位
+     * @return 平均耗时，还没有记录时返回 0
+     */
+    public double getMean(TimeUnit unit) {
+        long n = count.sum();
+        if (n == 0) {
+            return 0;
+        }
+        return (double) total.sum() / n / unit.toNanos(1);
+    }
+
+    /**
+     * 获取最大耗时
+     *
+     * @param unit 时间单位
+     * @return 最大耗时
+     */
+    public long getMax(TimeUnit unit) {
+        return unit.convert(max.get(), TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * 计算耗时的百分位数
+     * <p>返回值为百分位所在桶的上界，不超过记录过的最大耗时</p>
+     *
+     * @param percentile 百分位，取值范围为 (0, 100]
+     * @param unit 时间单位
+     * @return 耗时，还没有记录时返回 -1
+     */
+    public long getPercentile(double percentile, TimeUnit unit) {
+        long n = 0;
+        long[] counts = new long[BUCKET_COUNT];
+        for (int i = 0; i < BUCKET_COUNT; i++) {
+            counts[i] = buckets.get(i);
+            n += counts[i];
+        }
+        if (n == 0) {
+            return -1;
+        }
+        long rank = Math.max((long) Math.ceil(percentile / 100 * n), 1);
+        long seen = 0;
+        for (int i = 0; i < BUCKET_COUNT; i++) {
+            seen += counts[i];
+            if (seen >= rank) {
+                return unit.convert(Math.min(upperBoundOf(i), max.get()), TimeUnit.NANOSECONDS);
+            }
+        }
+        return getMax(unit);
+    }
+
+    /**
+     * 清空记录
+     */
+    public void reset() {
+        for (int i = 0; i < BUCKET_COUNT; i++) {
+            buckets.set(i, 0);
+        }
+        count.reset();
+        total.reset();
+        max.set(0);
+    }
+
+    static int indexOf(long value) {
+        if (value < SUB_BUCKET_COUNT) {
+            return (int) value;
+        }
+        int shift = Long.SIZE - 1 - Long.numberOfLeadingZeros(value) - SUB_BUCKET_BITS;
+        return (shift + 1) * SUB_BUCKET_COUNT + (int) (value >>> shift) - SUB_BUCKET_COUNT;
+    }
+
+    static long upperBoundOf(int index) {
+        if (index < SUB_BUCKET_COUNT) {
+            return index;
+        }
+        int shift = index / SUB_BUCKET_COUNT - 1;
+        long lower = (long) (SUB_BUCKET_COUNT + index % SUB_BUCKET_COUNT) << shift;
+        return lower + (1L << shift) - 1;
+    }
+}
@@ -0,0 +1,72 @@
+package com.dtflys.forest.metrics;
+
+import com.dtflys.forest.http.ForestRequest;
+import com.dtflys.forest.http.ForestResponse;
+import com.dtflys.forest.utils.ForestDataType;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Forest指标收集接口
+ * <p>通过 {@link com.dtflys.forest.config.ForestConfiguration#setMetrics(ForestMetrics)} 设置后，
+ * Forest会在请求结束、重试、序列化和反序列化时回调对应的方法，连接管理器初始化时绑定连接池。
+ * 未设置时各处只做一次空值判断，不产生额外开销</p>
+ * <p>所有方法都可能在I/O线程中被并发调用，实现类需要保证线程安全，且不应阻塞</p>
+ *
+ * @author gongjun[dt_flys@hotmail.com]
+ * @since 1.5.2
+ * @see DefaultForestMetrics
+ */
+public interface ForestMetrics {
+
+    /**
+     * 记录一次接口方法调用的耗时
+     * <p>耗时从调用接口方法开始，到得到最终结果（包括重试）为止</p>
+     *
+     * @param request Forest请求对象，{@link ForestRequest}类实例
+     * @param response Forest响应对象，{@link ForestResponse}类实例，请求在发送前失败时可能为 {@code null}
+     * @param duration 耗时
+     * @param unit 时间单位
+     */
+    default void recordRequest(ForestRequest request, ForestResponse response, long duration, TimeUnit unit) {
+    }
+
+    /**
+     * 记录一次重试
+     *
+     * @param request Forest请求对象，{@link ForestRequest}类实例
+     * @param retryCount 即将进行的是第几次重试，从1开始
+     */
+    default void recordRetry(ForestRequest request, int retryCount) {
+    }
+
+    /**
+     * 记录一次请求体序列化的耗时
+     *
+     * @param dataType 数据类型，{@link ForestDataType}类实例
+     * @param duration 耗时
+     * @param unit 时间单位
+     */
+    default void recordEncode(ForestDataType dataType, long duration, TimeUnit unit) {
+    }
+
+    /**
+     * 记录一次响应内容反序列化的耗时
+     *
+     * @param dataType 数据类型，{@link ForestDataType}类实例
+     * @param duration 耗时
+     * @param unit 时间单位
+     */
+    default void recordDecode(ForestDataType dataType, long duration, TimeUnit unit) {
+    }
+
+    /**
+     * 绑定连接池
+     * <p>在连接管理器初始化时调用，同名的连接池重新绑定时替换原来的连接池</p>
+     *
+     * @param name 连接池名称
+     * @param pool 连接池状态，{@link ForestConnectionPool}接口实例
+     */
+    default void bindConnectionPool(String name, ForestConnectionPool pool) {
+    }
+}
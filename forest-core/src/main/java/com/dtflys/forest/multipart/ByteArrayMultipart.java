@@ -53,6 +53,11 @@ public class ByteArrayMultipart extends ForestMultipart<byte[]> {
         return null;
     }
 
+    @Override
+    public boolean isRepeatable() {
+        return true;
+    }
+
 
     @Override
     public byte[] getBytes() {
@@ -62,6 +62,16 @@ public abstract class ForestMultipart<T> {
 
     public abstract File getFile();
 
+    /**
+     * 是否可以重复读取内容，即每次调用 {@link #getInputStream()} 都能得到完整的内容
+     * <p>可以重复读取的内容在请求重试时可以被重新发送</p>
+     *
+     * @return {@code true}: 可以重复读取，{@code false}: 不可以重复读取
+     */
+    public boolean isRepeatable() {
+        return isFile();
+    }
+
     public byte[] getBytes() {
         ByteArrayOutputStream byteArrayOutputStream = new ByteArrayOutputStream();
         InputStream inputStream = getInputStream();
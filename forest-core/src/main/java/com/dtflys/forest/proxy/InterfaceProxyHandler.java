@@ -63,9 +63,6 @@ public class InterfaceProxyHandler<T> implements InvocationHandler, VariableScop
     // 日志配置信息
     private LogConfiguration baseLogConfiguration;
 
-    // 构造方法-未指定任何Class，后面调用传入 Class 和 作用域
-    private final Constructor<MethodHandles.Lookup> defaultMethodConstructor;
-
     // 实例化对象
     private MethodHandles.Lookup defaultMethodLookup;
 
@@ -92,14 +89,7 @@ public class InterfaceProxyHandler<T> implements InvocationHandler, VariableScop
         this.interceptorFactory = configuration.getInterceptorFactory();
 
         try {
-            // 创建一个MethodHandles.Lookup对象的构造函数 含有两个参数 Class 和 int TODO 这里需要仔细去看看...
-            defaultMethodConstructor = MethodHandles.Lookup.class.getDeclaredConstructor(Class.class, int.class);
-            // 如果该构造函数私有，设置可用
-            if (!defaultMethodConstructor.isAccessible()) {
-                defaultMethodConstructor.setAccessible(true);
-            }
-            // 通过构造函数创建 MethodHandles.Lookup 对象
-            defaultMethodLookup = defaultMethodConstructor.newInstance(interfaceClass, MethodHandles.Lookup.PRIVATE);
+            defaultMethodLookup = createDefaultMethodLookup(interfaceClass);
         } catch (Throwable e) {
             throw new ForestRuntimeException(e);
         }
@@ -188,6 +178,30 @@ public class InterfaceProxyHandler<T> implements InvocationHandler, VariableScop
         return forestMethod.invoke(args);
     }
 
+    /**
+     * 创建调用接口默认方法的 {@link MethodHandles.Lookup} 对象
+     * <p>Java 9 及以上通过 {@code MethodHandles.privateLookupIn} 创建，
+     * Java 8 没有该方法，通过 {@link MethodHandles.Lookup} 的私有构造函数创建</p>
+     *
+     * @param interfaceClass 接口类
+     * @return {@link MethodHandles.Lookup} 实例
+     * @throws Throwable 创建失败时抛出
+     */
+    private static MethodHandles.Lookup createDefaultMethodLookup(Class<?> interfaceClass) throws Throwable {
+        Method privateLookupIn;
+        try {
+            privateLookupIn = MethodHandles.class.getMethod("privateLookupIn", Class.class, MethodHandles.Lookup.class);
+        } catch (NoSuchMethodException e) {
+            Constructor<MethodHandles.Lookup> constructor =
+                    MethodHandles.Lookup.class.getDeclaredConstructor(Class.class, int.class);
+            if (!constructor.isAccessible()) {
+                constructor.setAccessible(true);
+            }
+            return constructor.newInstance(interfaceClass, MethodHandles.Lookup.PRIVATE);
+        }
+        return (MethodHandles.Lookup) privateLookupIn.invoke(null, interfaceClass, MethodHandles.lookup());
+    }
+
   private Object invokeDefaultMethod(Object proxy, Method method, Object[] args)
           throws Throwable {
     return defaultMethodLookup.unreflectSpecial(method, interfaceClass)
@@ -5,6 +5,8 @@ import com.dtflys.forest.annotation.MethodLifeCycle;
 import com.dtflys.forest.annotation.ParamLifeCycle;
 import com.dtflys.forest.annotation.RequestAttributes;
 import com.dtflys.forest.backend.ContentType;
+import com.dtflys.forest.balancer.ForestEndpoint;
+import com.dtflys.forest.balancer.ForestEndpointGroup;
 import com.dtflys.forest.callback.OnError;
 import com.dtflys.forest.callback.OnLoadCookie;
 import com.dtflys.forest.callback.OnProgress;
@@ -16,6 +18,7 @@ import com.dtflys.forest.converter.ForestConverter;
 import com.dtflys.forest.converter.json.ForestJsonConverter;
 import com.dtflys.forest.exceptions.ForestInterceptorDefineException;
 import com.dtflys.forest.exceptions.ForestRuntimeException;
+import com.dtflys.forest.exceptions.ForestTemplateSyntaxError;
 import com.dtflys.forest.filter.Filter;
 import com.dtflys.forest.http.ForestQueryParameter;
 import com.dtflys.forest.http.ForestRequest;
@@ -26,6 +29,7 @@ import com.dtflys.forest.http.body.RequestBodyBuilder;
 import com.dtflys.forest.http.body.StringRequestBody;
 import com.dtflys.forest.interceptor.Interceptor;
 import com.dtflys.forest.interceptor.InterceptorAttributes;
+import com.dtflys.forest.interceptor.InterceptorChain;
 import com.dtflys.forest.interceptor.InterceptorFactory;
 import com.dtflys.forest.lifecycles.BaseAnnotationLifeCycle;
 import com.dtflys.forest.lifecycles.MethodAnnotationLifeCycle;
@@ -34,10 +38,12 @@ import com.dtflys.forest.lifecycles.method.RequestLifeCycle;
 import com.dtflys.forest.logging.DefaultLogHandler;
 import com.dtflys.forest.logging.LogConfiguration;
 import com.dtflys.forest.logging.ForestLogHandler;
+import com.dtflys.forest.mapping.MappingNameValueTemplate;
 import com.dtflys.forest.mapping.MappingParameter;
 import com.dtflys.forest.mapping.MappingTemplate;
 import com.dtflys.forest.mapping.MappingVariable;
 import com.dtflys.forest.mapping.SubVariableScope;
+import com.dtflys.forest.metrics.ForestMetrics;
 import com.dtflys.forest.multipart.ForestMultipart;
 import com.dtflys.forest.multipart.ForestMultipartFactory;
 import com.dtflys.forest.proxy.InterfaceProxyHandler;
@@ -72,6 +78,10 @@ public class ForestMethod<T> implements VariableScope {
     private String[] methodNameItems;
     private Class returnClass;
     private Type returnType;
+    /**
+     * 方法返回类型是否为ForestRequest，此时returnClass和returnType为其泛型参数类型，即请求执行后的结果类型
+     */
+    private boolean returnRequest;
     private MetaRequest metaRequest;
     private MappingTemplate baseUrlTemplate;
     private MappingTemplate urlTemplate;
@@ -97,8 +107,9 @@ public class ForestMethod<T> implements VariableScope {
     private long progressStep = -1;
     private ForestConverter decoder = null;
     private MappingTemplate sslKeyStoreId;
-    private MappingTemplate[] dataTemplateArray;
-    private MappingTemplate[] headerTemplateArray;
+    private MappingNameValueTemplate[] dataTemplateArray;
+    private MappingNameValueTemplate[] headerTemplateArray;
+    private MappingNameValueTemplate[] baseHeaderTemplateArray;
     private MappingParameter[] parameterTemplateArray;
     private MappingParameter[] forestParameters;
     private List<MappingParameter> namedParameters = new ArrayList<>();
@@ -113,6 +124,7 @@ public class ForestMethod<T> implements VariableScope {
     private List<Interceptor> baseInterceptorList;
     private List<Interceptor> interceptorList;
     private List<InterceptorAttributes> interceptorAttributesList;
+    private InterceptorChain interceptorChain = InterceptorChain.EMPTY;
     private Type onSuccessClassGenericType = null;
     private Class retryerClass = null;
     private boolean async = false;
@@ -127,6 +139,36 @@ public class ForestMethod<T> implements VariableScope {
     private LogConfiguration logConfiguration = null;
     private Map<String, Object> extensionParameters = new HashMap<>();
 
+    /*
+     * 以下为方法初始化时预先计算好的请求计划，每次调用时不再重复计算
+     */
+    /**
+     * 由常量模板拼接好的完整URL
+     */
+    private String constantUrl;
+    /**
+     * 由常量模板解析好的请求类型
+     */
+    private ForestRequestType constantType;
+    /**
+     * 由常量模板解析好的数据类型
+     */
+    private ForestDataType constantDataType;
+    /**
+     * 方法和接口级别合并后的超时时间、重试次数和最大重试间隔，为空时使用全局配置
+     */
+    private Integer planTimeout;
+    private Integer planRetryCount;
+    private Long planMaxRetryInterval;
+    /**
+     * 方法或接口级别的重试器构造函数
+     */
+    private Constructor<? extends Retryer> planRetryerConstructor;
+    /**
+     * 参数名中包含迭代变量（_it、_index）的命名参数
+     */
+    private Set<MappingParameter> iterateNameParameters = Collections.emptySet();
+
     public ForestMethod(InterfaceProxyHandler interfaceProxyHandler, ForestConfiguration configuration, Method method) {
         this.interfaceProxyHandler = interfaceProxyHandler;
         this.configuration = configuration;
@@ -136,6 +178,7 @@ public class ForestMethod<T> implements VariableScope {
         this.forestParameters = new MappingParameter[method.getParameterCount()];
         processBaseProperties();
         processMethodAnnotations();
+        processInterceptorChain();
     }
 
     @Override
@@ -200,6 +243,15 @@ public class ForestMethod<T> implements VariableScope {
             baseSslProtocolTemplate = makeTemplate(baseSslProtocol);
         }
 
+        String[] baseHeaderArray = baseMetaRequest.getHeaders();
+        if (baseHeaderArray != null && baseHeaderArray.length > 0) {
+            baseHeaderTemplateArray = new MappingNameValueTemplate[baseHeaderArray.length];
+            for (int j = 0; j < baseHeaderArray.length; j++) {
+                baseHeaderTemplateArray[j] = new MappingNameValueTemplate(
+                        makeTemplate(baseHeaderArray[j]), null, ":");
+            }
+        }
+
         baseLogConfiguration = interfaceProxyHandler.getBaseLogConfiguration();
 
         baseTimeout = baseMetaRequest.getTimeout();
@@ -358,6 +410,24 @@ public class ForestMethod<T> implements VariableScope {
     }
 
 
+    /**
+     * 获取方法上拦截器的属性模板
+     * @param interceptorClass 拦截器类
+     * @return 拦截器属性，{@link InterceptorAttributes}类实例，不存在时返回 {@code null}
+     */
+    public InterceptorAttributes getInterceptorAttributes(Class interceptorClass) {
+        if (interceptorAttributesList == null) {
+            return null;
+        }
+        InterceptorAttributes result = null;
+        for (InterceptorAttributes attributes : interceptorAttributesList) {
+            if (attributes.getInterceptorClass() == interceptorClass) {
+                result = attributes;
+            }
+        }
+        return result;
+    }
+
     public void setMetaRequest(MetaRequest metaRequest) {
         if (metaRequest != null && this.metaRequest != null) {
             throw new ForestRuntimeException("[Forest] annotation \""
@@ -424,9 +494,25 @@ public class ForestMethod<T> implements VariableScope {
         // 处理请求元信息
         if (this.metaRequest != null) {
             processMetaRequest(this.metaRequest);
+            processRequestPlan();
         }
 
         returnClass = method.getReturnType();
+        returnRequest = ForestRequest.class.isAssignableFrom(returnClass);
+        if (returnRequest) {
+            // 返回请求对象的方法在初始化时确定结果类型，调用时不再修改共享的字段
+            Type genericReturnType = method.getGenericReturnType();
+            if (genericReturnType instanceof ParameterizedType) {
+                Type[] genTypes = ((ParameterizedType) genericReturnType).getActualTypeArguments();
+                if (genTypes.length > 0) {
+                    returnClass = ReflectUtils.getClassByType(genTypes[0]);
+                    returnType = genTypes[0];
+                } else {
+                    returnClass = String.class;
+                    returnType = String.class;
+                }
+            }
+        }
     }
 
     private void processMetaRequest(MetaRequest metaRequest) {
@@ -505,18 +591,18 @@ public class ForestMethod<T> implements VariableScope {
         logConfiguration.setLogHandler(logHandler);
 
 
-        dataTemplateArray = new MappingTemplate[dataArray.length];
+        dataTemplateArray = new MappingNameValueTemplate[dataArray.length];
         for (int j = 0; j < dataArray.length; j++) {
             String data = dataArray[j];
             MappingTemplate dataTemplate = makeTemplate(data);
-            dataTemplateArray[j] = dataTemplate;
+            dataTemplateArray[j] = new MappingNameValueTemplate(dataTemplate, "&", "=");
         }
 
-        headerTemplateArray = new MappingTemplate[headerArray.length];
+        headerTemplateArray = new MappingNameValueTemplate[headerArray.length];
         for (int j = 0; j < headerArray.length; j++) {
             String header = headerArray[j];
             MappingTemplate headerTemplate = makeTemplate(header);
-            headerTemplateArray[j] = headerTemplate;
+            headerTemplateArray[j] = new MappingNameValueTemplate(headerTemplate, null, ":");
         }
 
         Class[] interceptorClasses = metaRequest.getInterceptor();
@@ -540,6 +626,94 @@ public class ForestMethod<T> implements VariableScope {
 
     }
 
+    /**
+     * 按全局拦截器、接口拦截器、方法拦截器的顺序生成拦截器链，所有请求共享
+     */
+    private void processInterceptorChain() {
+        InterceptorChain chain = new InterceptorChain();
+        if (globalInterceptorList != null) {
+            for (Interceptor item : globalInterceptorList) {
+                chain.addInterceptor(item);
+            }
+        }
+        if (baseInterceptorList != null) {
+            for (Interceptor item : baseInterceptorList) {
+                chain.addInterceptor(item);
+            }
+        }
+        if (interceptorList != null) {
+            for (Interceptor item : interceptorList) {
+                chain.addInterceptor(item);
+            }
+        }
+        interceptorChain = chain.share();
+    }
+
+    /**
+     * 预先计算请求计划
+     * <p>将只依赖注解的常量部分在方法初始化时计算好，每次调用时只需处理和参数相关的部分</p>
+     */
+    private void processRequestPlan() {
+        if (urlTemplate.isConstant() && (baseUrlTemplate == null || baseUrlTemplate.isConstant())) {
+            String baseUrl = baseUrlTemplate == null ? null : StringUtils.trimBegin(baseUrlTemplate.render(null));
+            constantUrl = URLUtils.getValidURL(baseUrl, urlTemplate.render(null));
+        }
+        if (typeTemplate.isConstant()) {
+            try {
+                constantType = type(null);
+            } catch (ForestRuntimeException ignored) {
+                // 不支持的请求类型仍在调用时报错
+            }
+        }
+        if (dataTypeTemplate.isConstant()) {
+            constantDataType = dataType(null);
+        }
+
+        if (timeout != null) {
+            planTimeout = timeout;
+        } else if (baseTimeout != null) {
+            planTimeout = baseTimeout;
+        }
+        if (retryCount != null) {
+            planRetryCount = retryCount;
+        } else if (baseRetryCount != null) {
+            planRetryCount = baseRetryCount;
+        }
+        if (maxRetryInterval >= 0) {
+            planMaxRetryInterval = maxRetryInterval;
+        } else if (baseMaxRetryInterval != null) {
+            planMaxRetryInterval = baseMaxRetryInterval;
+        }
+        if (retryerClass != null && Retryer.class.isAssignableFrom(retryerClass)) {
+            planRetryerConstructor = getRetryerConstructor(retryerClass);
+        } else if (baseRetryerClass != null && Retryer.class.isAssignableFrom(baseRetryerClass)) {
+            planRetryerConstructor = getRetryerConstructor(baseRetryerClass);
+        }
+
+        Set<MappingParameter> iterateParams = null;
+        for (MappingParameter parameter : namedParameters) {
+            if (parameter.isObjectProperties() || parameter.getIndex() == null
+                    || StringUtils.isEmpty(parameter.getName())) {
+                continue;
+            }
+            boolean hasIterateVariable;
+            try {
+                hasIterateVariable = makeTemplate(parameter.getName()).hasIterateVariable();
+            } catch (ForestTemplateSyntaxError e) {
+                hasIterateVariable = false;
+            }
+            if (hasIterateVariable) {
+                if (iterateParams == null) {
+                    iterateParams = new HashSet<>();
+                }
+                iterateParams.add(parameter);
+            }
+        }
+        if (iterateParams != null) {
+            iterateNameParameters = iterateParams;
+        }
+    }
+
     /**
      * 处理参数列表
      * @param parameters 参数数组，{@link Parameter}类数组实例
@@ -646,12 +820,31 @@ public class ForestMethod<T> implements VariableScope {
      * @param request Forest请求对象，{@link ForestRequest}类实例
      */
     private void setRetryerToRequest(Class retryerClass, ForestRequest request) {
+        setRetryerToRequest(getRetryerConstructor(retryerClass), request);
+    }
+
+    /**
+     * 获取重试器的构造函数
+     * @param retryerClass 重试策略类型
+     * @return 以 {@link ForestRequest} 为参数的构造函数
+     */
+    private static Constructor<? extends Retryer> getRetryerConstructor(Class retryerClass) {
         try {
-            Constructor constructor = retryerClass.getConstructor(ForestRequest.class);
-            Retryer retryer = (Retryer) constructor.newInstance(request);
-            request.setRetryer(retryer);
+            return retryerClass.getConstructor(ForestRequest.class);
         } catch (NoSuchMethodException e) {
             throw new ForestRuntimeException(e);
+        }
+    }
+
+    /**
+     * 给请求设置重试策略
+     * @param constructor 重试器的构造函数
+     * @param request Forest请求对象，{@link ForestRequest}类实例
+     */
+    private void setRetryerToRequest(Constructor<? extends Retryer> constructor, ForestRequest request) {
+        try {
+            Retryer retryer = constructor.newInstance(request);
+            request.setRetryer(retryer);
         } catch (IllegalAccessException e) {
             throw new ForestRuntimeException(e);
         } catch (InstantiationException e) {
@@ -683,22 +876,47 @@ public class ForestMethod<T> implements VariableScope {
         throw new ForestRuntimeException("Http request type \"" + renderedType + "\" is not be supported.");
     }
 
+    /**
+     * 获得最终的数据类型
+     * @param args 调用本对象对应方法时传入的参数数组
+     * @return 数据类型，{@link ForestDataType}类实例
+     */
+    private ForestDataType dataType(Object[] args) {
+        String dataType = dataTypeTemplate.render(args);
+        if (StringUtils.isEmpty(dataType)) {
+            return ForestDataType.TEXT;
+        }
+        return ForestDataType.findByName(dataType.toUpperCase());
+    }
+
     /**
      * 创建请求
      * @param args 调用本对象对应方法时传入的参数数组
      * @return Forest请求对象，{@link ForestRequest}类实例
      */
     private ForestRequest makeRequest(Object[] args) {
-        MetaRequest baseMetaRequest = interfaceProxyHandler.getBaseMetaRequest();
-        String baseUrl = null;
-        if (baseUrlTemplate != null) {
-            baseUrl = StringUtils.trimBegin(baseUrlTemplate.render(args));
-        }
         if (urlTemplate == null) {
             throw new ForestRuntimeException("request URL is empty");
         }
-        String renderedUrl = urlTemplate.render(args);
-        ForestRequestType type = type(args);
+        String renderedUrl = constantUrl;
+        if (renderedUrl == null) {
+            String baseUrl = null;
+            if (baseUrlTemplate != null) {
+                baseUrl = StringUtils.trimBegin(baseUrlTemplate.render(args));
+            }
+            renderedUrl = URLUtils.getValidURL(baseUrl, urlTemplate.render(args));
+        }
+        ForestEndpoint endpoint = null;
+        if (ForestEndpointGroup.isGroupUrl(renderedUrl)) {
+            String groupName = ForestEndpointGroup.getGroupName(renderedUrl);
+            ForestEndpointGroup endpointGroup = configuration.getEndpointGroup(groupName);
+            if (endpointGroup == null) {
+                throw new ForestRuntimeException("[Forest] Endpoint group \"" + groupName + "\" is not registered");
+            }
+            endpoint = endpointGroup.choose();
+            renderedUrl = endpointGroup.resolveUrl(renderedUrl, endpoint);
+        }
+        ForestRequestType type = constantType != null ? constantType : type(args);
         String baseContentEncoding = null;
         if (baseEncodeTemplate != null) {
             baseContentEncoding = baseEncodeTemplate.render(args);
@@ -747,24 +965,11 @@ public class ForestMethod<T> implements VariableScope {
             renderedUserAgent = userAgentTemplate.render(args).trim();
         }
         List<RequestNameValue> nameValueList = new ArrayList<>();
-        String [] headerArray = baseMetaRequest.getHeaders();
-        MappingTemplate[] baseHeaders = null;
-        if (headerArray != null && headerArray.length > 0) {
-            baseHeaders = new MappingTemplate[headerArray.length];
-            for (int j = 0; j < baseHeaders.length; j++) {
-                MappingTemplate header = new MappingTemplate(
-                        headerArray[j], this, configuration.getProperties(), forestParameters);
-                baseHeaders[j] = header;
-            }
-        }
-
-
-        renderedUrl = URLUtils.getValidURL(baseUrl, renderedUrl);
-
 
         // createExecutor and initialize http instance
         ForestRequest<T> request = new ForestRequest(configuration, this, args);
         request.setUrl(renderedUrl)
+                .setEndpoint(endpoint)
                 .setType(type)
                 .setCharset(charset)
                 .setSslProtocol(sslProtocol)
@@ -949,8 +1154,8 @@ public class ForestMethod<T> implements VariableScope {
                                         parameter.isUrlEncode(), parameter.getCharset());
                             }
                         } else {
-                            MappingTemplate template = makeTemplate(nameValue.getName());
-                            if (obj instanceof Iterable && template.hasIterateVariable()) {
+                            if (obj instanceof Iterable && iterateNameParameters.contains(parameter)) {
+                                MappingTemplate template = makeTemplate(nameValue.getName());
                                 int index = 0;
                                 VariableScope parentScope = template.getVariableScope();
                                 for (Object subItem : (Iterable) obj) {
@@ -1027,14 +1232,14 @@ public class ForestMethod<T> implements VariableScope {
         if (configuration.getDefaultParameters() != null) {
             request.addNameValue(configuration.getDefaultParameters());
         }
-        if (baseHeaders != null && baseHeaders.length > 0) {
-            for (MappingTemplate baseHeader : baseHeaders) {
-                String headerText = baseHeader.render(args);
-                String[] headerNameValue = headerText.split(":", 2);
-                if (headerNameValue.length > 1) {
-                    String name = headerNameValue[0].trim();
-                    if (request.getHeader(name) == null) {
-                        request.addHeader(name, headerNameValue[1].trim());
+        if (baseHeaderTemplateArray != null) {
+            for (MappingNameValueTemplate baseHeader : baseHeaderTemplateArray) {
+                for (String[] headerNameValue : baseHeader.nameValues(args)) {
+                    if (headerNameValue.length > 1) {
+                        String name = headerNameValue[0].trim();
+                        if (request.getHeader(name) == null) {
+                            request.addHeader(name, headerNameValue[1].trim());
+                        }
                     }
                 }
             }
@@ -1047,12 +1252,10 @@ public class ForestMethod<T> implements VariableScope {
         renderedContentType = request.getContentType();
         if (renderedContentType == null || renderedContentType.equalsIgnoreCase(ContentType.APPLICATION_X_WWW_FORM_URLENCODED)) {
             for (int i = 0; i < dataTemplateArray.length; i++) {
-                MappingTemplate dataTemplate = dataTemplateArray[i];
-                String data = dataTemplate.render(args);
-                String[] paramArray = data.split("&");
+                MappingNameValueTemplate dataTemplate = dataTemplateArray[i];
+                String[][] paramArray = dataTemplate.nameValues(args);
                 for (int j = 0; j < paramArray.length; j++) {
-                    String dataParam = paramArray[j];
-                    String[] dataNameValue = dataParam.split("=", 2);
+                    String[] dataNameValue = paramArray[j];
                     if (dataNameValue.length > 0) {
                         String name = dataNameValue[0].trim();
                         RequestNameValue nameValue = new RequestNameValue(name, type.getDefaultParamTarget());
@@ -1066,7 +1269,7 @@ public class ForestMethod<T> implements VariableScope {
             }
         } else {
             for (int i = 0; i < dataTemplateArray.length; i++) {
-                MappingTemplate dataTemplate = dataTemplateArray[i];
+                MappingNameValueTemplate dataTemplate = dataTemplateArray[i];
                 String data = dataTemplate.render(args);
                 request.addBody(data);
             }
@@ -1074,9 +1277,8 @@ public class ForestMethod<T> implements VariableScope {
         request.addNameValue(nameValueList);
 
         for (int i = 0; i < headerTemplateArray.length; i++) {
-            MappingTemplate headerTemplate = headerTemplateArray[i];
-            String header = headerTemplate.render(args);
-            String[] headNameValue = header.split(":", 2);
+            MappingNameValueTemplate headerTemplate = headerTemplateArray[i];
+            String[] headNameValue = headerTemplate.nameValues(args)[0];
             if (headNameValue.length > 0) {
                 String name = headNameValue[0].trim();
                 RequestNameValue nameValue = new RequestNameValue(name, TARGET_HEADER);
@@ -1087,38 +1289,31 @@ public class ForestMethod<T> implements VariableScope {
             }
         }
 
-        if (timeout != null) {
-            request.setTimeout(timeout);
-        } else if (baseTimeout != null) {
-            request.setTimeout(baseTimeout);
+        if (planTimeout != null) {
+            request.setTimeout(planTimeout);
         } else if (configuration.getTimeout() != null) {
             request.setTimeout(configuration.getTimeout());
         }
 
-        if (retryCount != null) {
-            request.setRetryCount(retryCount);
-        } else if (baseRetryCount != null) {
-            request.setRetryCount(baseRetryCount);
+        if (planRetryCount != null) {
+            request.setRetryCount(planRetryCount);
         } else if (configuration.getRetryCount() != null) {
             request.setRetryCount(configuration.getRetryCount());
         }
 
-        if (maxRetryInterval >= 0) {
-            request.setMaxRetryInterval(maxRetryInterval);
-        } else if (baseMaxRetryInterval != null) {
-            request.setMaxRetryInterval(baseMaxRetryInterval);
+        if (planMaxRetryInterval != null) {
+            request.setMaxRetryInterval(planMaxRetryInterval);
         } else if (configuration.getMaxRetryInterval() >= 0) {
             request.setMaxRetryInterval(configuration.getMaxRetryInterval());
         }
 
-        Class globalRetryerClass = configuration.getRetryer();
-
-        if (retryerClass != null && Retryer.class.isAssignableFrom(retryerClass)) {
-            setRetryerToRequest(retryerClass, request);
-        } else if (baseRetryerClass != null && Retryer.class.isAssignableFrom(baseRetryerClass)) {
-            setRetryerToRequest(baseRetryerClass, request);
-        } else if (globalRetryerClass != null && Retryer.class.isAssignableFrom(globalRetryerClass)) {
-            setRetryerToRequest(globalRetryerClass, request);
+        if (planRetryerConstructor != null) {
+            setRetryerToRequest(planRetryerConstructor, request);
+        } else {
+            Class globalRetryerClass = configuration.getRetryer();
+            if (globalRetryerClass != null && Retryer.class.isAssignableFrom(globalRetryerClass)) {
+                setRetryerToRequest(globalRetryerClass, request);
+            }
         }
 
         if (onSuccessParameter != null) {
@@ -1144,39 +1339,19 @@ public class ForestMethod<T> implements VariableScope {
             request.setOnLoadCookie(onLoadCookieCallback);
         }
 
-        String dataType = dataTypeTemplate.render(args);
-        if (StringUtils.isEmpty(dataType)) {
-            request.setDataType(ForestDataType.TEXT);
-        } else {
-            dataType = dataType.toUpperCase();
-            ForestDataType forestDataType = ForestDataType.findByName(dataType);
-            request.setDataType(forestDataType);
-        }
+        request.setDataType(constantDataType != null ? constantDataType : dataType(args));
 
         if (interceptorAttributesList != null && interceptorAttributesList.size() > 0) {
             for (InterceptorAttributes attributes : interceptorAttributesList) {
-                request.addInterceptorAttributes(attributes.getInterceptorClass(), attributes);
-                request.getInterceptorAttributes(attributes.getInterceptorClass()).render(args);
+                // 每个请求使用自己的属性对象，渲染结果不写入方法上共享的属性对象
+                Class interceptorClass = attributes.getInterceptorClass();
+                request.addInterceptorAttributes(interceptorClass,
+                        new InterceptorAttributes(interceptorClass, attributes.getAttributeTemplates()));
+                request.getInterceptorAttributes(interceptorClass).render(args);
             }
         }
 
-        if (globalInterceptorList != null && globalInterceptorList.size() > 0) {
-            for (Interceptor item : globalInterceptorList) {
-                request.addInterceptor(item);
-            }
-        }
-
-        if (baseInterceptorList != null && baseInterceptorList.size() > 0) {
-            for (Interceptor item : baseInterceptorList) {
-                request.addInterceptor(item);
-            }
-        }
-
-        if (interceptorList != null && interceptorList.size() > 0) {
-            for (Interceptor item : interceptorList) {
-                request.addInterceptor(item);
-            }
-        }
+        request.setInterceptorChain(interceptorChain);
         return request;
     }
 
@@ -1203,6 +1378,8 @@ public class ForestMethod<T> implements VariableScope {
      * @return 调用本对象对应方法结束后返回的值，任意类型的对象实例
      */
     public Object invoke(Object[] args) {
+        ForestMetrics metrics = configuration.getMetrics();
+        long startTime = metrics != null ? System.nanoTime() : 0;
         ForestRequest request = makeRequest(args);
         MethodLifeCycleHandler<T> lifeCycleHandler = new MethodLifeCycleHandler<>(
                 this, onSuccessClassGenericType);
@@ -1210,22 +1387,12 @@ public class ForestMethod<T> implements VariableScope {
                 .setLifeCycleHandler(lifeCycleHandler);
         lifeCycleHandler.handleInvokeMethod(request, this, args);
         // 如果返回类型为ForestRequest，直接返回请求对象
-        if (ForestRequest.class.isAssignableFrom(returnClass)) {
-            Type retType = getReturnType();
-            if (retType instanceof ParameterizedType) {
-                ParameterizedType parameterizedType = (ParameterizedType) retType;
-                Type[] genTypes = parameterizedType.getActualTypeArguments();
-                if (genTypes.length > 0) {
-                    Type targetType = genTypes[0];
-                    returnClass = ReflectUtils.getClassByType(targetType);
-                    returnType = targetType;
-                } else {
-                    returnClass = String.class;
-                    returnType = String.class;
-                }
-            }
+        if (returnRequest) {
             return request;
         }
+        if (metrics != null) {
+            lifeCycleHandler.setMetrics(metrics, startTime);
+        }
         return request.execute();
     }
 
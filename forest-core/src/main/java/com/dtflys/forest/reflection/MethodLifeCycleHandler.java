@@ -12,11 +12,15 @@ import com.dtflys.forest.handler.ResultHandler;
 import com.dtflys.forest.http.ForestCookies;
 import com.dtflys.forest.http.ForestRequest;
 import com.dtflys.forest.http.ForestResponse;
+import com.dtflys.forest.metrics.ForestMetrics;
 import com.dtflys.forest.retryer.Retryer;
 import com.dtflys.forest.utils.ForestProgress;
 import com.dtflys.forest.utils.ReflectUtils;
 
+import java.lang.reflect.ParameterizedType;
 import java.lang.reflect.Type;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLongFieldUpdater;
 
 /**
  * 请求方法生命周期处理器
@@ -31,14 +35,62 @@ public class MethodLifeCycleHandler<T> implements LifeCycleHandler {
 
     private final Type onSuccessClassGenericType;
 
+    /**
+     * 方法返回值是否为异步结果类型
+     * <p>异步请求的方法返回值是结果对象本身，回调中得到的响应结果不能覆盖它</p>
+     */
+    private final boolean futureReturn;
+
+    /**
+     * 成功响应按方法返回值解码后的类型，异步结果类型的方法为其泛型参数的类型
+     */
+    private final Type resultType;
+
     private static final ResultHandler RESULT_HANDLER = new ResultHandler();
 
     private volatile T resultData;
 
+    private static final AtomicLongFieldUpdater<MethodLifeCycleHandler> START_TIME =
+            AtomicLongFieldUpdater.newUpdater(MethodLifeCycleHandler.class, "startTime");
+
+    /**
+     * 指标收集器，为空时不记录耗时
+     */
+    private ForestMetrics metrics;
+
+    /**
+     * 调用开始的时间（纳秒），记录耗时后置为 0，保证每次调用只记录一次
+     */
+    private volatile long startTime;
+
     public MethodLifeCycleHandler(ForestMethod method, Type onSuccessClassGenericType) {
         this.onSuccessClassGenericType = onSuccessClassGenericType;
         this.returnType = method.getReturnType();
         this.returnClass = method.getReturnClass();
+        this.futureReturn = returnClass != null && ReflectUtils.isFutureType(returnClass);
+        this.resultType = futureReturn && returnType instanceof ParameterizedType ?
+                ((ParameterizedType) returnType).getActualTypeArguments()[0] : returnType;
+    }
+
+    /**
+     * 开始记录本次调用的耗时
+     *
+     * @param metrics 指标收集器，{@link ForestMetrics}接口实例
+     * @param startTime 调用开始的时间（纳秒）
+     */
+    void setMetrics(ForestMetrics metrics, long startTime) {
+        this.metrics = metrics;
+        this.startTime = startTime;
+    }
+
+    private void recordMetrics(ForestRequest request, ForestResponse response) {
+        if (metrics == null) {
+            return;
+        }
+        long start = START_TIME.getAndSet(this, 0);
+        if (start != 0) {
+            metrics.recordRequest(request, response, System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        }
     }
 
     @Override
@@ -84,7 +136,8 @@ public class MethodLifeCycleHandler<T> implements LifeCycleHandler {
                 throw th;
             }
         } finally {
-            request.getInterceptorChain().afterExecute(request, response);
+            recordMetrics(request, response);
+            request.getCurrentInterceptorChain().afterExecute(request, response);
         }
     }
 
@@ -100,7 +153,7 @@ public class MethodLifeCycleHandler<T> implements LifeCycleHandler {
         if (!(resultData instanceof ForestResponse)) {
             response.setResult(resultData);
         }
-        this.resultData = (T) resultData;
+        setResultData(resultData);
         return resultData;
     }
 
@@ -108,10 +161,14 @@ public class MethodLifeCycleHandler<T> implements LifeCycleHandler {
 
     @Override
     public Object handleSuccess(Object resultData, ForestRequest request, ForestResponse response) {
-        request.getInterceptorChain().onSuccess(resultData, request, response);
+        recordMetrics(request, response);
+        request.getCurrentInterceptorChain().onSuccess(resultData, request, response);
         OnSuccess onSuccess = request.getOnSuccess();
         if (onSuccess != null) {
-            resultData = RESULT_HANDLER.getResult(request, response, onSuccessClassGenericType, ReflectUtils.getClassByType(onSuccessClassGenericType));
+            if (onSuccessClassGenericType != null && !onSuccessClassGenericType.equals(resultType)) {
+                // 回调参数与方法返回值的类型不同时才按回调参数的类型另行解码
+                resultData = RESULT_HANDLER.getResult(request, response, onSuccessClassGenericType, ReflectUtils.getClassByType(onSuccessClassGenericType));
+            }
             onSuccess.onSuccess(resultData, request, response);
         }
         resultData = response.getResult();
@@ -120,7 +177,7 @@ public class MethodLifeCycleHandler<T> implements LifeCycleHandler {
 
     @Override
     public void handleInvokeMethod(ForestRequest request, ForestMethod method, Object[] args) {
-        request.getInterceptorChain().onInvokeMethod(request, method, args);
+        request.getCurrentInterceptorChain().onInvokeMethod(request, method, args);
     }
 
     @Override
@@ -131,6 +188,7 @@ public class MethodLifeCycleHandler<T> implements LifeCycleHandler {
 
     @Override
     public Object handleError(ForestRequest request, ForestResponse response, Throwable ex) {
+        recordMetrics(request, response);
         ForestRuntimeException e = null;
         if (ex instanceof ForestRuntimeException) {
             e = (ForestRuntimeException) ex;
@@ -138,7 +196,7 @@ public class MethodLifeCycleHandler<T> implements LifeCycleHandler {
         else {
             e = new ForestRuntimeException(ex);
         }
-        request.getInterceptorChain().onError(e, request, response);
+        request.getCurrentInterceptorChain().onError(e, request, response);
         Object resultData = null;
         if (request.getOnError() != null) {
             request.getOnError().onError(e, request, response);
@@ -157,7 +215,7 @@ public class MethodLifeCycleHandler<T> implements LifeCycleHandler {
 
     @Override
     public void handleProgress(ForestRequest request, ForestProgress progress) {
-        request.getInterceptorChain().onProgress(progress);
+        request.getCurrentInterceptorChain().onProgress(progress);
         OnProgress onProgress = request.getOnProgress();
         if (onProgress != null) {
             onProgress.onProgress(progress);
@@ -166,7 +224,7 @@ public class MethodLifeCycleHandler<T> implements LifeCycleHandler {
 
     @Override
     public void handleLoadCookie(ForestRequest request, ForestCookies cookies) {
-        request.getInterceptorChain().onLoadCookie(request, cookies);
+        request.getCurrentInterceptorChain().onLoadCookie(request, cookies);
         OnLoadCookie onLoadCookie = request.getOnLoadCookie();
         if (onLoadCookie != null) {
             onLoadCookie.onLoadCookie(request, cookies);
@@ -175,7 +233,7 @@ public class MethodLifeCycleHandler<T> implements LifeCycleHandler {
 
     @Override
     public void handleSaveCookie(ForestRequest request, ForestCookies cookies) {
-        request.getInterceptorChain().onSaveCookie(request, cookies);
+        request.getCurrentInterceptorChain().onSaveCookie(request, cookies);
         OnSaveCookie onSaveCookie = request.getOnSaveCookie();
         if (onSaveCookie != null) {
             onSaveCookie.onSaveCookie(request, cookies);
@@ -184,10 +242,17 @@ public class MethodLifeCycleHandler<T> implements LifeCycleHandler {
 
     @Override
     public Object handleResult(Object resultData) {
-        this.resultData = (T) resultData;
+        setResultData(resultData);
         return resultData;
     }
 
+    private void setResultData(Object resultData) {
+        if (futureReturn && !returnClass.isInstance(resultData)) {
+            return;
+        }
+        this.resultData = (T) resultData;
+    }
+
 
     @Override
     public Type getReturnType() {
@@ -5,9 +5,25 @@ import com.dtflys.forest.http.ForestRequest;
 
 /**
  * 基于退避算法的重试器
+ * <p>子类只覆盖了 {@link #canRetry(ForestRetryException)} 时，仍以其作为是否重试的依据：
+ * {@link #nextRetryInterval(ForestRetryException)} 会调用它，重试器也会被视为阻塞的重试器</p>
  */
 public class BackOffRetryer implements Retryer {
 
+    /**
+     * 重试器类是否覆盖了 {@link #canRetry(ForestRetryException)} 方法的缓存
+     */
+    private final static ClassValue<Boolean> CAN_RETRY_OVERRIDDEN = new ClassValue<Boolean>() {
+        @Override
+        protected Boolean computeValue(Class<?> type) {
+            try {
+                return type.getMethod("canRetry", ForestRetryException.class).getDeclaringClass() != BackOffRetryer.class;
+            } catch (NoSuchMethodException e) {
+                return false;
+            }
+        }
+    };
+
     protected final ForestRequest request;
 
     protected final int maxRetryCount;
@@ -26,6 +42,31 @@ public class BackOffRetryer implements Retryer {
 
     @Override
     public void canRetry(ForestRetryException ex) throws Throwable {
+        long interval = retryInterval(ex);
+        if (!RetryScheduler.await(interval)) {
+            throw ex;
+        }
+    }
+
+    @Override
+    public long nextRetryInterval(ForestRetryException ex) throws Throwable {
+        if (isCanRetryOverridden()) {
+            // 子类的 canRetry 可能会否决重试，在其中完成等待
+            canRetry(ex);
+            return 0L;
+        }
+        return retryInterval(ex);
+    }
+
+    /**
+     * 判断是否可以重试，并计算下次重试前需要等待的时间
+     * <p>{@link #canRetry(ForestRetryException)} 和 {@link #nextRetryInterval(ForestRetryException)} 都通过该方法计算</p>
+     *
+     * @param ex 重试异常，{@link ForestRetryException}类实例
+     * @return 下次重试前需要等待的时间，单位为毫秒
+     * @throws Throwable 不能重试时抛出
+     */
+    protected long retryInterval(ForestRetryException ex) throws Throwable {
         int currentCount = ex.getCurrentRetryCount();
         if (currentCount >= maxRetryCount) {
             if (currentCount == 0) {
@@ -37,15 +78,20 @@ public class BackOffRetryer implements Retryer {
         if (interval > maxRetryInterval) {
             interval = maxRetryInterval;
         }
-        if (interval > 0) {
-            try {
-                Thread.sleep(interval);
-            } catch (InterruptedException e) {
-                Thread.currentThread().interrupt();
-                throw ex;
-            }
+        if (interval < 0) {
+            interval = 0;
         }
         this.waitedTime += interval;
+        return interval;
+    }
+
+    @Override
+    public boolean isBlocking() {
+        return isCanRetryOverridden();
+    }
+
+    private boolean isCanRetryOverridden() {
+        return CAN_RETRY_OVERRIDDEN.get(getClass());
     }
 
     protected long nextInterval(int currentCount) {
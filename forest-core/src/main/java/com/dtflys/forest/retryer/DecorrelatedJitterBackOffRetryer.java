@@ -0,0 +1,40 @@
+package com.dtflys.forest.retryer;
+
+import com.dtflys.forest.http.ForestRequest;
+
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * 基于去相关抖动(Decorrelated Jitter)退避算法的重试器
+ * <p>每次重试的等待时间在基础等待时间到上一次等待时间的 3 倍之间随机取值，且不超过最大重试间隔。
+ * 基础等待时间为指数退避的第一次等待时间，即 1 秒与最大重试间隔中的较小值</p>
+ *
+ * @author gongjun[dt_flys@hotmail.com]
+ * @since 1.5.2
+ */
+public class DecorrelatedJitterBackOffRetryer extends BackOffRetryer {
+
+    /**
+     * 基础等待时间，单位为毫秒
+     */
+    protected final long baseInterval;
+
+    protected long lastInterval;
+
+    public DecorrelatedJitterBackOffRetryer(ForestRequest request) {
+        super(request);
+        this.baseInterval = Math.max(super.nextInterval(0), 0L);
+        this.lastInterval = baseInterval;
+    }
+
+    @Override
+    protected long nextInterval(int currentCount) {
+        long upper = Math.max(baseInterval, lastInterval * 3);
+        long interval = baseInterval + ThreadLocalRandom.current().nextLong(upper - baseInterval + 1);
+        if (maxRetryInterval >= 0 && interval > maxRetryInterval) {
+            interval = maxRetryInterval;
+        }
+        lastInterval = interval;
+        return interval;
+    }
+}
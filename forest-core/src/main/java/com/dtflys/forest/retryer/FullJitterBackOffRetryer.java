@@ -0,0 +1,29 @@
+package com.dtflys.forest.retryer;
+
+import com.dtflys.forest.http.ForestRequest;
+
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * 基于全抖动(Full Jitter)退避算法的重试器
+ * <p>每次重试的等待时间在 0 到 2^n 秒(不超过最大重试间隔)之间随机取值，
+ * 避免大量请求在同一时刻集中重试</p>
+ *
+ * @author gongjun[dt_flys@hotmail.com]
+ * @since 1.5.2
+ */
+public class FullJitterBackOffRetryer extends BackOffRetryer {
+
+    public FullJitterBackOffRetryer(ForestRequest request) {
+        super(request);
+    }
+
+    @Override
+    protected long nextInterval(int currentCount) {
+        long ceiling = super.nextInterval(currentCount);
+        if (ceiling <= 0) {
+            return 0;
+        }
+        return ThreadLocalRandom.current().nextLong(ceiling + 1);
+    }
+}
@@ -17,4 +17,14 @@ public class NoneRetryer implements Retryer {
     public void canRetry(ForestRetryException ex) throws Throwable {
         throw ex.getCause();
     }
+
+    @Override
+    public long nextRetryInterval(ForestRetryException ex) throws Throwable {
+        throw ex.getCause();
+    }
+
+    @Override
+    public boolean isBlocking() {
+        return false;
+    }
 }
@@ -0,0 +1,189 @@
+package com.dtflys.forest.retryer;
+
+import com.dtflys.forest.exceptions.ForestRetryException;
+import com.dtflys.forest.http.ForestRequest;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+
+/**
+ * 请求重试调度器
+ * <p>异步请求的重试在等待时间结束后由调度线程重新发送，
+ * 等待期间不占用 OkHttp 的调度线程或 httpclient 的 I/O 线程</p>
+ * <p>只实现了阻塞的 {@link Retryer#canRetry(ForestRetryException)} 的重试器，
+ * 在单独的线程中判断和等待，不会阻塞所有请求共享的调度线程</p>
+ *
+ * @author gongjun[dt_flys@hotmail.com]
+ * @since 1.5.2
+ */
+public class RetryScheduler {
+
+    private final static Logger log = LoggerFactory.getLogger(RetryScheduler.class);
+
+    private final static AtomicInteger SCHEDULER_COUNT = new AtomicInteger(0);
+
+    private final int schedulerIndex = SCHEDULER_COUNT.incrementAndGet();
+
+    private final ScheduledExecutorService executor;
+
+    /**
+     * 执行阻塞的重试判断的线程池，在第一次使用时创建
+     */
+    private volatile ExecutorService blockingExecutor;
+
+    public RetryScheduler() {
+        ScheduledThreadPoolExecutor scheduledExecutor = new ScheduledThreadPoolExecutor(1, createThreadFactory("forest-retry-"));
+        scheduledExecutor.setRemoveOnCancelPolicy(true);
+        this.executor = scheduledExecutor;
+    }
+
+    public RetryScheduler(ScheduledExecutorService executor) {
+        this.executor = executor;
+    }
+
+    private ThreadFactory createThreadFactory(final String prefix) {
+        return new ThreadFactory() {
+            private final AtomicInteger count = new AtomicInteger(0);
+
+            @Override
+            public Thread newThread(Runnable r) {
+                Thread thread = new Thread(r, prefix + schedulerIndex + "-" + count.incrementAndGet());
+                thread.setDaemon(true);
+                return thread;
+            }
+        };
+    }
+
+    private ExecutorService getBlockingExecutor() {
+        ExecutorService blocking = this.blockingExecutor;
+        if (blocking == null) {
+            synchronized (this) {
+                blocking = this.blockingExecutor;
+                if (blocking == null) {
+                    blocking = Executors.newCachedThreadPool(createThreadFactory("forest-retry-blocking-"));
+                    this.blockingExecutor = blocking;
+                }
+            }
+        }
+        return blocking;
+    }
+
+    /**
+     * 在等待指定时间后执行重试任务
+     * <p>任务抛出的异常只打印日志</p>
+     *
+     * @param task 重试任务
+     * @param interval 等待时间，单位为毫秒
+     */
+    public void schedule(Runnable task, long interval) {
+        schedule(task, interval, th -> log.error("[Forest] An error occurred while executing the scheduled task", th));
+    }
+
+    /**
+     * 在等待指定时间后执行重试任务
+     *
+     * @param task 重试任务
+     * @param interval 等待时间，单位为毫秒
+     * @param onError 任务抛出异常或调度器已关闭时的处理，保证发起重试的请求总能得到结果
+     */
+    public void schedule(Runnable task, long interval, Consumer<Throwable> onError) {
+        try {
+            executor.schedule(() -> {
+                try {
+                    task.run();
+                } catch (Throwable th) {
+                    onError.accept(th);
+                }
+            }, Math.max(interval, 0L), TimeUnit.MILLISECONDS);
+        } catch (RejectedExecutionException e) {
+            onError.accept(e);
+        }
+    }
+
+    /**
+     * 判断异步请求是否可以重试，可以重试时在等待时间结束后执行重试任务
+     * <p>重试器的 {@link Retryer#isBlocking()} 为 {@code true} 时，
+     * 判断和等待都在单独的线程中进行，之后立即执行重试任务</p>
+     *
+     * @param request Forest请求对象，{@link ForestRequest}类实例
+     * @param ex 重试异常，{@link ForestRetryException}类实例
+     * @param task 重试任务
+     * @param onGiveUp 不能重试时的处理，参数为重试器抛出的异常
+     * @param onError 重试任务抛出异常时的处理
+     */
+    public void retry(ForestRequest request, ForestRetryException ex, Runnable task,
+                      Consumer<Throwable> onGiveUp, Consumer<Throwable> onError) {
+        Retryer retryer = request.getRetryer();
+        if (retryer == null || !retryer.isBlocking()) {
+            long interval;
+            try {
+                interval = request.nextRetryInterval(ex);
+            } catch (Throwable th) {
+                onGiveUp.accept(th);
+                return;
+            }
+            schedule(task, interval, onError);
+            return;
+        }
+        try {
+            getBlockingExecutor().execute(() -> {
+                try {
+                    request.nextRetryInterval(ex);
+                } catch (Throwable th) {
+                    try {
+                        onGiveUp.accept(th);
+                    } catch (Throwable giveUpError) {
+                        log.error("[Forest] An error occurred while handling the async response", giveUpError);
+                    }
+                    return;
+                }
+                try {
+                    task.run();
+                } catch (Throwable th) {
+                    onError.accept(th);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            onError.accept(e);
+        }
+    }
+
+    /**
+     * 关闭调度器，尚未执行的重试任务将被丢弃
+     */
+    public void shutdown() {
+        executor.shutdownNow();
+        ExecutorService blocking = this.blockingExecutor;
+        if (blocking != null) {
+            blocking.shutdownNow();
+        }
+    }
+
+    /**
+     * 同步请求在当前线程中等待下次重试
+     *
+     * @param interval 等待时间，单位为毫秒
+     * @return 等待结束返回 {@code true}，线程被中断时返回 {@code false}
+     */
+    public static boolean await(long interval) {
+        if (interval <= 0) {
+            return true;
+        }
+        try {
+            Thread.sleep(interval);
+            return true;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+}
@@ -9,4 +9,31 @@ public interface Retryer {
 
     void canRetry(ForestRetryException ex) throws Throwable;
 
+    /**
+     * 判断是否可以重试，并返回下次重试前需要等待的时间
+     * <p>与 {@link #canRetry(ForestRetryException)} 不同，该方法不会阻塞当前线程，
+     * 异步请求由重试调度器在等待时间结束后重新发送</p>
+     * <p>默认实现直接调用 {@link #canRetry(ForestRetryException)}，并返回0</p>
+     *
+     * @param ex 重试异常，{@link ForestRetryException}类实例
+     * @return 下次重试前需要等待的时间，单位为毫秒
+     * @throws Throwable 不能重试时抛出
+     */
+    default long nextRetryInterval(ForestRetryException ex) throws Throwable {
+        canRetry(ex);
+        return 0L;
+    }
+
+    /**
+     * 计算重试等待时间时是否会阻塞当前线程
+     * <p>只实现了 {@link #canRetry(ForestRetryException)} 的重试器会在其中等待，默认为 {@code true}，
+     * 异步请求会在单独的线程中调用这类重试器，不会阻塞所有请求共享的重试调度线程；
+     * 实现了不阻塞的 {@link #nextRetryInterval(ForestRetryException)} 的重试器应返回 {@code false}</p>
+     *
+     * @return {@code true}：会阻塞，{@code false}：不会阻塞
+     */
+    default boolean isBlocking() {
+        return true;
+    }
+
 }
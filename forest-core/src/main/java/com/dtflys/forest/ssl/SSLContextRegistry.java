@@ -0,0 +1,128 @@
+package com.dtflys.forest.ssl;
+
+import com.dtflys.forest.exceptions.ForestRuntimeException;
+import com.dtflys.forest.http.ForestRequest;
+import com.dtflys.forest.utils.StringUtils;
+
+import javax.net.ssl.SSLContext;
+import javax.net.ssl.SSLSessionContext;
+import javax.net.ssl.SSLSocketFactory;
+import java.security.KeyManagementException;
+import java.security.NoSuchAlgorithmException;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * SSL上下文注册表
+ * <p>按 (Key Store ID, SSL协议, 加密套件) 缓存构建好的 {@link SSLContext}，
+ * 同一组合只构建一次，由各个后端的连接管理器共享，以便复用 TLS 会话</p>
+ *
+ * @author gongjun[dt_flys@hotmail.com]
+ * @since 1.5.2
+ */
+public class SSLContextRegistry {
+
+    private final Map<String, SSLContext> contextCache = new ConcurrentHashMap<>();
+
+    private final Map<String, SSLSocketFactory> socketFactoryCache = new ConcurrentHashMap<>();
+
+    /**
+     * TLS 会话缓存大小，为 {@code null} 时使用 JDK 默认值
+     */
+    private final Integer sessionCacheSize;
+
+    /**
+     * TLS 会话超时时间，单位为秒，为 {@code null} 时使用 JDK 默认值
+     */
+    private final Integer sessionTimeout;
+
+    public SSLContextRegistry(Integer sessionCacheSize, Integer sessionTimeout) {
+        this.sessionCacheSize = sessionCacheSize;
+        this.sessionTimeout = sessionTimeout;
+    }
+
+    /**
+     * 获取请求对应的SSL上下文，不存在时构建并缓存
+     *
+     * @param request Forest请求对象，{@link ForestRequest}类实例
+     * @param protocol SSL协议名称
+     * @return SSL上下文，{@link SSLContext}类实例
+     */
+    public SSLContext getSSLContext(ForestRequest request, String protocol) {
+        return contextCache.computeIfAbsent(cacheKey(request.getKeyStore(), protocol),
+                key -> createSSLContext(request, protocol));
+    }
+
+    /**
+     * 获取请求对应的SSL Socket Factory
+     *
+     * @param request Forest请求对象，{@link ForestRequest}类实例
+     * @param protocol SSL协议名称
+     * @return {@link SSLSocketFactory} 实例
+     */
+    public SSLSocketFactory getSSLSocketFactory(ForestRequest request, String protocol) {
+        // SSLContext.getSocketFactory() 每次都会返回新实例，需单独缓存以保证连接池能按同一地址复用连接
+        return socketFactoryCache.computeIfAbsent(cacheKey(request.getKeyStore(), protocol),
+                key -> getSSLContext(request, protocol).getSocketFactory());
+    }
+
+    /**
+     * 清空所有已缓存的SSL上下文
+     */
+    public void clear() {
+        socketFactoryCache.clear();
+        contextCache.clear();
+    }
+
+    /**
+     * 获取已缓存的SSL上下文数量
+     * @return 缓存数量
+     */
+    public int size() {
+        return contextCache.size();
+    }
+
+    protected SSLContext createSSLContext(ForestRequest request, String protocol) {
+        SSLContext sslContext;
+        try {
+            if (request.getKeyStore() == null) {
+                sslContext = SSLUtils.createIgnoreVerifySSL(protocol);
+            } else {
+                sslContext = SSLUtils.customSSL(request, protocol);
+            }
+        } catch (KeyManagementException e) {
+            throw new ForestRuntimeException(e);
+        } catch (NoSuchAlgorithmException e) {
+            throw new ForestRuntimeException(e);
+        }
+        if (sslContext == null) {
+            throw new ForestRuntimeException("SSL context cannot be initialized.");
+        }
+        SSLSessionContext sessionContext = sslContext.getClientSessionContext();
+        if (sessionContext != null) {
+            if (sessionCacheSize != null) {
+                sessionContext.setSessionCacheSize(sessionCacheSize);
+            }
+            if (sessionTimeout != null) {
+                sessionContext.setSessionTimeout(sessionTimeout);
+            }
+        }
+        return sslContext;
+    }
+
+    private static String cacheKey(SSLKeyStore keyStore, String protocol) {
+        StringBuilder builder = new StringBuilder();
+        if (keyStore != null) {
+            builder.append(keyStore.getId());
+        }
+        builder.append('|');
+        if (StringUtils.isNotEmpty(protocol)) {
+            builder.append(protocol);
+        }
+        builder.append('|');
+        if (keyStore != null && keyStore.getCipherSuites() != null) {
+            builder.append(String.join(",", keyStore.getCipherSuites()));
+        }
+        return builder.toString();
+    }
+}
@@ -31,30 +31,29 @@ public class SSLUtils {
      * @return SSL上下文，{@link SSLContext}类实例
      */
     public static SSLContext customSSL(ForestRequest request) {
+        return customSSL(request, request.getSslProtocol());
+    }
+
+    /**
+     * 自定义SSL证书
+     * @param request Forest请求对象，{@link ForestRequest}类实例
+     * @param protocol SSL协议名称
+     * @return SSL上下文，{@link SSLContext}类实例
+     */
+    public static SSLContext customSSL(ForestRequest request, String protocol) {
         SSLContext sslContext = null;
         SSLKeyStore fKeyStore = request.getKeyStore();
         final KeyStore keyStore = fKeyStore.getTrustStore();
         String certPass = fKeyStore.getCertPass();
         if (keyStore != null) {
             try {
-
-                 //密钥库
-                char[] certPassCharArray = certPass.toCharArray();
-                KeyManagerFactory kmf = KeyManagerFactory.getInstance("sunx509");
-                kmf.init(keyStore, certPassCharArray);
-
-                TrustManagerFactory tmf = TrustManagerFactory
-                        .getInstance(TrustManagerFactory.getDefaultAlgorithm());
-                tmf.init(keyStore);
-
                 SSLContextBuilder scBuilder = SSLContexts.custom();
-                String protocol = request.getSslProtocol();
                 if (StringUtils.isNotEmpty(protocol)) {
                     scBuilder.useProtocol(protocol);
                 }
                 scBuilder.loadTrustMaterial(keyStore, new TrustSelfSignedStrategy());
                 if (certPass != null) {
-                    scBuilder.loadKeyMaterial(keyStore, certPassCharArray);
+                    scBuilder.loadKeyMaterial(keyStore, certPass.toCharArray());
                 }
                 sslContext = scBuilder.build();
             } catch (NoSuchAlgorithmException e) {
@@ -112,38 +111,43 @@ public class SSLUtils {
         if (request == null) {
             return null;
         }
-        try {
-            SSLContext sslContext = SSLUtils.getSSLContext(request, protocol);
-            if (sslContext == null) {
-                throw new ForestRuntimeException("SSL context cannot be initialized.");
-            }
-            return sslContext.getSocketFactory();
-        } catch (KeyManagementException e) {
-            throw new ForestRuntimeException(e);
-        } catch (NoSuchAlgorithmException e) {
-            throw new ForestRuntimeException(e);
-        }
+        return request.getConfiguration().getSslContextRegistry().getSSLSocketFactory(request, protocol);
     }
 
     private static ConcurrentHashMap<String, SSLSocketFactoryBuilder> sslSocketFactoryBuilderCache = new ConcurrentHashMap<>();
+
+    /**
+     * 获取SSL Socket Factory
+     * <p>未指定自定义的 {@link SSLSocketFactoryBuilder} 时，从全局配置的SSL上下文注册表中获取共享的实例</p>
+     *
+     * @param request Forest请求对象，{@link ForestRequest}类实例
+     * @param protocol 协议名称
+     * @return {@link SSLSocketFactory} 实例
+     * @throws ForestRuntimeException 自定义的 {@link SSLSocketFactoryBuilder} 无法创建或创建失败时抛出
+     */
     public static SSLSocketFactory getSSLSocketFactory (ForestRequest request, String protocol){
         if (Objects.isNull(request.getKeyStore())) {
             return getDefaultSSLSocketFactory(request, protocol);
         }
         String key = request.getKeyStore().getSslSocketFactoryBuilder();
-        SSLSocketFactoryBuilder sslSocketFactoryBuilder = sslSocketFactoryBuilderCache.get(key);
-        if (Objects.isNull(sslSocketFactoryBuilder)){
-            if (StringUtils.isNotEmpty(key)) {
-                try {
-                    sslSocketFactoryBuilder = (SSLSocketFactoryBuilder)Class.forName(key).newInstance();
-                    sslSocketFactoryBuilderCache.put(key, sslSocketFactoryBuilder);
-                    return sslSocketFactoryBuilder.getSSLSocketFactory(request, protocol);
-                } catch (Exception e) {
-                    e.printStackTrace();
+        if (StringUtils.isNotEmpty(key)) {
+            try {
+                SSLSocketFactoryBuilder sslSocketFactoryBuilder = sslSocketFactoryBuilderCache.get(key);
+                if (Objects.isNull(sslSocketFactoryBuilder)) {
+                    sslSocketFactoryBuilder = (SSLSocketFactoryBuilder) Class.forName(key).newInstance();
+                    SSLSocketFactoryBuilder existed = sslSocketFactoryBuilderCache.putIfAbsent(key, sslSocketFactoryBuilder);
+                    if (existed != null) {
+                        sslSocketFactoryBuilder = existed;
+                    }
                 }
+                return sslSocketFactoryBuilder.getSSLSocketFactory(request, protocol);
+            } catch (ForestRuntimeException e) {
+                throw e;
+            } catch (Exception e) {
+                throw new ForestRuntimeException("[Forest] Failed to create SSL socket factory by builder '" + key + "'", e);
             }
         }
-        return getDefaultSSLSocketFactory(request, request.getSslProtocol());
+        return getDefaultSSLSocketFactory(request, protocol);
     }
 
 }
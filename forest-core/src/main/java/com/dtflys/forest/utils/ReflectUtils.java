@@ -20,6 +20,8 @@ import java.util.HashMap;
 import java.util.HashSet;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.Future;
 
 public class ReflectUtils {
 
@@ -161,6 +163,24 @@ public class ReflectUtils {
         return false;
     }
 
+    /**
+     * 是否为异步结果类型
+     * @param type Java类，{@link Class}类实例
+     * @return {@code true}：是 {@link Future} 或 {@link CompletionStage} 类型，{@code false}：不是异步结果类型
+     */
+    public static boolean isFutureType(Class type) {
+        return Future.class.isAssignableFrom(type) || CompletionStage.class.isAssignableFrom(type);
+    }
+
+    /**
+     * 是否为 {@link CompletionStage} 类型
+     * @param type Java类，{@link Class}类实例
+     * @return {@code true}：是 {@link CompletionStage} 类型，{@code false}：不是
+     */
+    public static boolean isCompletionStageType(Class type) {
+        return CompletionStage.class.isAssignableFrom(type);
+    }
+
 
     /**
      * 从注解对象中获取所有属性
@@ -0,0 +1,93 @@
+package com.dtflys.forest.utils;
+
+import com.dtflys.forest.exceptions.ForestRuntimeException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+
+/**
+ * 线程工具类
+ * <p>虚拟线程通过反射调用，在 Java 21 以下的运行环境中不可用，但不影响 Java 8 的编译</p>
+ *
+ * @author gongjun[dt_flys@hotmail.com]
+ * @since 1.5.2
+ */
+public final class ThreadUtils {
+
+    private final static Logger log = LoggerFactory.getLogger(ThreadUtils.class);
+
+    /**
+     * {@code Executors.newVirtualThreadPerTaskExecutor()} 方法，运行环境不支持虚拟线程时为 {@code null}
+     */
+    private final static Method NEW_VIRTUAL_THREAD_EXECUTOR = findMethod(Executors.class, "newVirtualThreadPerTaskExecutor");
+
+    private ThreadUtils() {
+    }
+
+    private static Method findMethod(Class<?> type, String name) {
+        try {
+            return type.getMethod(name);
+        } catch (NoSuchMethodException | SecurityException e) {
+            return null;
+        }
+    }
+
+    /**
+     * 当前运行环境是否支持虚拟线程
+     * @return 支持为 {@code true}, 否则为 {@code false}
+     */
+    public static boolean isVirtualThreadSupported() {
+        return NEW_VIRTUAL_THREAD_EXECUTOR != null;
+    }
+
+    /**
+     * 创建每个任务一个虚拟线程的线程池
+     * @return {@link ExecutorService} 实例
+     * @throws ForestRuntimeException 运行环境不支持虚拟线程时抛出
+     */
+    public static ExecutorService newVirtualThreadPerTaskExecutor() {
+        if (NEW_VIRTUAL_THREAD_EXECUTOR == null) {
+            throw new ForestRuntimeException("Virtual threads are not supported by Java " +
+                    System.getProperty("java.version") + ", Java 21 or later is required");
+        }
+        try {
+            return (ExecutorService) NEW_VIRTUAL_THREAD_EXECUTOR.invoke(null);
+        } catch (IllegalAccessException e) {
+            throw new ForestRuntimeException(e);
+        } catch (InvocationTargetException e) {
+            throw new ForestRuntimeException(e.getCause());
+        }
+    }
+
+    /**
+     * 在线程池中执行任务
+     * <p>线程池为 {@code null} 时在当前线程中执行；线程池拒绝任务时同样在当前线程中执行，保证回调不会丢失。
+     * 在线程池中执行时，任务抛出的异常只打印日志</p>
+     *
+     * @param executor 线程池
+     * @param task 任务
+     */
+    public static void execute(Executor executor, Runnable task) {
+        if (executor == null) {
+            task.run();
+            return;
+        }
+        try {
+            executor.execute(() -> {
+                try {
+                    task.run();
+                } catch (Throwable th) {
+                    log.error("[Forest] An error occurred while handling the async response", th);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            task.run();
+        }
+    }
+}
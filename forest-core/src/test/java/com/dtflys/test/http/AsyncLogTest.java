@@ -0,0 +1,182 @@
+package com.dtflys.test.http;
+
+import com.dtflys.forest.backend.HttpBackend;
+import com.dtflys.forest.config.ForestConfiguration;
+import com.dtflys.forest.logging.AsyncLogHandler;
+import com.dtflys.forest.logging.ForestLogger;
+import com.dtflys.test.http.client.AsyncLogClient;
+import com.dtflys.test.mock.AsyncLogMockServer;
+import org.junit.Before;
+import org.junit.BeforeClass;
+import org.junit.Rule;
+import org.junit.Test;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static junit.framework.Assert.assertEquals;
+import static junit.framework.Assert.assertFalse;
+import static junit.framework.Assert.assertTrue;
+
+public class AsyncLogTest extends BaseClientTest {
+
+    @Rule
+    public AsyncLogMockServer server = new AsyncLogMockServer(this);
+
+    private static ForestConfiguration configuration;
+
+    private static AsyncLogHandler logHandler;
+
+    private static AsyncLogClient asyncLogClient;
+
+    private RecordingLogger logger;
+
+    @BeforeClass
+    public static void prepareClient() {
+        configuration = ForestConfiguration.configuration();
+        configuration.setVariableValue("port", AsyncLogMockServer.port);
+        logHandler = new AsyncLogHandler();
+        configuration.setLogHandler(logHandler);
+    }
+
+    @Before
+    public void prepareMockServer() {
+        server.initServer();
+        logger = new RecordingLogger();
+        logHandler.setLogger(logger);
+    }
+
+    public AsyncLogTest(HttpBackend backend) {
+        super(backend, configuration);
+        asyncLogClient = configuration.createInstance(AsyncLogClient.class);
+    }
+
+    @Test
+    public void testAsyncLog() throws InterruptedException {
+        assertEquals("ok", asyncLogClient.getJson().get("status"));
+        logger.await(3);
+        List<String> contents = logger.contents;
+        assertEquals(3, contents.size());
+        assertTrue(contents.get(0).startsWith("[Forest] Request: "));
+        assertTrue(contents.get(0).contains("GET http://localhost:" + AsyncLogMockServer.port + "/log/json"));
+        assertTrue(contents.get(1).startsWith("[Forest] Response: Status = 200"));
+        assertEquals("[Forest] Response Content:\n\t" + AsyncLogMockServer.EXPECTED, contents.get(2));
+        for (String threadName : logger.threadNames) {
+            assertTrue(threadName.startsWith("forest-log-"));
+        }
+    }
+
+    @Test
+    public void testTruncateBody() throws InterruptedException {
+        StringBuilder builder = new StringBuilder();
+        for (int i = 0; i < 100; i++) {
+            builder.append("x");
+        }
+        logHandler.setMaxBodySize(16);
+        try {
+            asyncLogClient.postJson(builder.toString());
+            logger.await(3);
+        } finally {
+            logHandler.setMaxBodySize(AsyncLogHandler.DEFAULT_MAX_BODY_SIZE);
+        }
+        String requestLog = logger.contents.get(0);
+        assertTrue(requestLog.contains("Body: {\"content\":\"xxxx...("));
+        assertTrue(requestLog.endsWith("chars, truncated)"));
+        assertFalse(requestLog.contains(builder.toString()));
+        assertEquals("[Forest] Response Content:\n\t" + AsyncLogMockServer.EXPECTED, logger.contents.get(2));
+    }
+
+    @Test
+    public void testSampling() throws InterruptedException {
+        logHandler.setSampleRate("AsyncLogClient.getSampled", 0);
+        try {
+            for (int i = 0; i < 3; i++) {
+                asyncLogClient.getSampled();
+            }
+            asyncLogClient.getJson();
+            logger.await(3);
+        } finally {
+            logHandler.setSampleRate("AsyncLogClient.getSampled", 1);
+        }
+        // 日志按顺序输出，getJson的日志输出时之前的日志都已处理
+        assertEquals(3, logger.contents.size());
+        for (String content : logger.contents) {
+            assertFalse(content.contains("/log/sampled"));
+        }
+    }
+
+    @Test
+    public void testLoggerDisabled() throws InterruptedException {
+        logger.infoEnabled = false;
+        asyncLogClient.getSampled();
+        logger.infoEnabled = true;
+        asyncLogClient.getJson();
+        logger.await(3);
+        assertEquals(3, logger.contents.size());
+        assertFalse(logger.contents.get(0).contains("/log/sampled"));
+    }
+
+    @Test
+    public void testDropWhenFull() throws InterruptedException {
+        ForestConfiguration dropConfiguration = ForestConfiguration.configuration();
+        dropConfiguration.setVariableValue("port", AsyncLogMockServer.port);
+        dropConfiguration.setBackend(backend);
+        AsyncLogHandler dropHandler = new AsyncLogHandler(2);
+        dropConfiguration.setLogHandler(dropHandler);
+        CountDownLatch latch = new CountDownLatch(1);
+        RecordingLogger blockingLogger = new RecordingLogger() {
+            @Override
+            public void info(String content, Object... args) {
+                try {
+                    latch.await(10, TimeUnit.SECONDS);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                super.info(content, args);
+            }
+        };
+        dropHandler.setLogger(blockingLogger);
+        AsyncLogClient client = dropConfiguration.createInstance(AsyncLogClient.class);
+        try {
+            // 每次请求产生3条日志，后台线程阻塞时缓冲区最多再容纳2条
+            for (int i = 0; i < 5; i++) {
+                assertEquals("ok", client.getJson().get("status"));
+            }
+            assertTrue(dropHandler.getDroppedCount() >= 12);
+        } finally {
+            latch.countDown();
+            dropConfiguration.close();
+        }
+        assertEquals(15, blockingLogger.contents.size() + dropHandler.getDroppedCount());
+    }
+
+    private static class RecordingLogger extends ForestLogger {
+
+        final List<String> contents = new CopyOnWriteArrayList<>();
+
+        final List<String> threadNames = new CopyOnWriteArrayList<>();
+
+        volatile boolean infoEnabled = true;
+
+        @Override
+        public boolean isInfoEnabled() {
+            return infoEnabled;
+        }
+
+        @Override
+        public void info(String content, Object... args) {
+            contents.add(content);
+            threadNames.add(Thread.currentThread().getName());
+        }
+
+        void await(int count) throws InterruptedException {
+            long deadline = System.currentTimeMillis() + 5000;
+            while (contents.size() < count && System.currentTimeMillis() < deadline) {
+                Thread.sleep(10);
+            }
+        }
+    }
+
+}
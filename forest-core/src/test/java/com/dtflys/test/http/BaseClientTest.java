@@ -43,6 +43,14 @@ public abstract class BaseClientTest {
                         {new OkHttp3Backend()}});
     }
 
+    /**
+     * 每个测试都会重启 Mock Server，清掉连接池中已失效的连接
+     */
+    @Before
+    public void evictIdleConnections() {
+        backend.evictIdleConnections();
+    }
+
     @After
     public void afterRequests() {
         try {
@@ -11,6 +11,9 @@ import org.junit.Rule;
 import org.junit.Test;
 
 import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
 
 import static junit.framework.Assert.assertEquals;
 
@@ -78,4 +81,28 @@ public class BinaryClientTest extends BaseClientTest {
         assertEquals(BinaryMockServer.EXPECTED, result);
     }
 
+    @Test
+    public void testUploadInputStream() throws IOException {
+        String path = this.getClass().getResource("/test-img.jpg").getPath();
+        if (path.startsWith("/") && isWindows()) {
+            path = path.substring(1);
+        }
+        try (InputStream in = new FileInputStream(path)) {
+            String result = binaryClient.uploadOctetStreamWithInputStream(in, "test-xxx.jpg");
+            assertEquals(BinaryMockServer.EXPECTED, result);
+        }
+    }
+
+    @Test
+    public void testUploadDataInputStream() throws IOException {
+        String path = this.getClass().getResource("/test-img.jpg").getPath();
+        if (path.startsWith("/") && isWindows()) {
+            path = path.substring(1);
+        }
+        try (InputStream in = new FileInputStream(path)) {
+            String result = binaryClient.uploadOctetStreamWithDataInputStream(in, "test-xxx.jpg");
+            assertEquals(BinaryMockServer.EXPECTED, result);
+        }
+    }
+
 }
@@ -0,0 +1,143 @@
+package com.dtflys.test.http;
+
+import cn.hutool.core.io.FileUtil;
+import com.dtflys.forest.backend.HttpBackend;
+import com.dtflys.forest.cache.FileCacheStorage;
+import com.dtflys.forest.cache.ForestCacheEntry;
+import com.dtflys.forest.cache.MemoryCacheStorage;
+import com.dtflys.forest.config.ForestConfiguration;
+import com.dtflys.test.http.client.CacheClient;
+import com.dtflys.test.mock.CacheMockServer;
+import org.junit.Before;
+import org.junit.BeforeClass;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static junit.framework.Assert.assertEquals;
+import static junit.framework.Assert.assertFalse;
+import static junit.framework.Assert.assertNotNull;
+import static junit.framework.Assert.assertNull;
+
+public class CacheClientTest extends BaseClientTest {
+
+    @Rule
+    public CacheMockServer server = new CacheMockServer(this);
+
+    @Rule
+    public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+    private static ForestConfiguration configuration;
+
+    private static CacheClient cacheClient;
+
+    @BeforeClass
+    public static void prepareClient() {
+        configuration = ForestConfiguration.configuration();
+        configuration.setVariableValue("port", CacheMockServer.port);
+    }
+
+    @Before
+    public void prepareMockServer() {
+        server.initServer();
+        configuration.getResponseCacheStorage().clear();
+    }
+
+    public CacheClientTest(HttpBackend backend) {
+        super(backend, configuration);
+        cacheClient = configuration.createInstance(CacheClient.class);
+    }
+
+    @Test
+    public void testFreshResponse() {
+        AtomicInteger successCount = new AtomicInteger(0);
+        for (int i = 0; i < 3; i++) {
+            String result = cacheClient.getFresh((data, request, response) -> {
+                assertEquals(CacheMockServer.EXPECTED, data);
+                successCount.incrementAndGet();
+            });
+            assertEquals(CacheMockServer.EXPECTED, result);
+        }
+        assertEquals(3, successCount.get());
+    }
+
+    @Test
+    public void testRevalidateWithETag() {
+        assertEquals(CacheMockServer.EXPECTED, cacheClient.getWithETag());
+        assertEquals(CacheMockServer.EXPECTED, cacheClient.getWithETag());
+    }
+
+    @Test
+    public void testCredentials() {
+        // 不同凭据的请求不共用缓存
+        assertEquals("1", cacheClient.getWithCredentials("Bearer foo"));
+        assertEquals("1", cacheClient.getWithCredentials("Bearer foo"));
+        assertEquals("2", cacheClient.getWithCredentials("Bearer bar"));
+        assertEquals("2", cacheClient.getWithCredentials("Bearer bar"));
+    }
+
+    @Test
+    public void testNoStore() {
+        assertEquals("1", cacheClient.getNoStore());
+        assertEquals("2", cacheClient.getNoStore());
+    }
+
+    @Test
+    public void testMemoryStorageEviction() {
+        MemoryCacheStorage storage = new MemoryCacheStorage(2, 1024);
+        storage.put("a", createEntry("a", "1"));
+        storage.put("b", createEntry("b", "2"));
+        storage.get("a");
+        storage.put("c", createEntry("c", "3"));
+        assertEquals(2, storage.size());
+        assertNotNull(storage.get("a"));
+        assertNull(storage.get("b"));
+        assertNotNull(storage.get("c"));
+    }
+
+    @Test
+    public void testFileStorage() throws Exception {
+        FileCacheStorage storage = new FileCacheStorage(temporaryFolder.newFolder("cache"));
+        long now = System.currentTimeMillis();
+        storage.put("a", new ForestCacheEntry("a", 200,
+                Collections.singletonList(new String[] {"Cache-Control", "max-age=60"}),
+                CacheMockServer.EXPECTED.getBytes(StandardCharsets.UTF_8), now, now,
+                Collections.singletonMap("accept-language", null)));
+        ForestCacheEntry entry = storage.get("a");
+        assertNotNull(entry);
+        assertEquals(CacheMockServer.EXPECTED, new String(entry.getBody(), StandardCharsets.UTF_8));
+        assertEquals("max-age=60", entry.getHeaderValue("Cache-Control"));
+        assertEquals(1, entry.getVaryHeaders().size());
+        assertNull(entry.getVaryHeaders().get("accept-language"));
+        storage.remove("a");
+        assertNull(storage.get("a"));
+    }
+
+    @Test
+    public void testFileStorageCorrupted() throws Exception {
+        File directory = temporaryFolder.newFolder("cache");
+        FileCacheStorage storage = new FileCacheStorage(directory);
+        storage.put("a", createEntry("a", CacheMockServer.EXPECTED));
+        File[] files = directory.listFiles();
+        assertEquals(1, files.length);
+        // 截断的文件当作不存在并被删除
+        byte[] bytes = FileUtil.readBytes(files[0]);
+        FileUtil.writeBytes(Arrays.copyOf(bytes, bytes.length - 1), files[0]);
+        assertNull(storage.get("a"));
+        assertFalse(files[0].exists());
+    }
+
+    private ForestCacheEntry createEntry(String key, String body) {
+        long now = System.currentTimeMillis();
+        return new ForestCacheEntry(key, 200,
+                Collections.singletonList(new String[] {"Cache-Control", "max-age=60"}),
+                body.getBytes(StandardCharsets.UTF_8), now, now, Collections.emptyMap());
+    }
+
+}
@@ -0,0 +1,216 @@
+package com.dtflys.test.http;
+
+import com.dtflys.forest.backend.HttpBackend;
+import com.dtflys.forest.breaker.ForestCircuitBreaker;
+import com.dtflys.forest.config.ForestConfiguration;
+import com.dtflys.forest.exceptions.ForestCircuitBreakerOpenException;
+import com.dtflys.forest.exceptions.ForestNetworkException;
+import com.dtflys.forest.exceptions.ForestRuntimeException;
+import com.dtflys.forest.lifecycles.breaker.CircuitBreakerLifeCycle;
+import com.dtflys.test.http.client.CircuitBreakerClient;
+import com.dtflys.test.mock.CircuitBreakerMockServer;
+import org.junit.Before;
+import org.junit.BeforeClass;
+import org.junit.Rule;
+import org.junit.Test;
+
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static junit.framework.Assert.assertEquals;
+import static junit.framework.Assert.assertFalse;
+import static junit.framework.Assert.assertNull;
+import static junit.framework.Assert.assertTrue;
+
+public class CircuitBreakerTest extends BaseClientTest {
+
+    private final static String HOST = "localhost:" + CircuitBreakerMockServer.port;
+
+    @Rule
+    public CircuitBreakerMockServer server = new CircuitBreakerMockServer(this);
+
+    private static ForestConfiguration configuration;
+
+    private static CircuitBreakerClient circuitBreakerClient;
+
+    private static CircuitBreakerLifeCycle lifeCycle;
+
+    @BeforeClass
+    public static void prepareClient() {
+        configuration = ForestConfiguration.configuration();
+        configuration.setVariableValue("port", CircuitBreakerMockServer.port);
+        configuration.setRetryCount(0);
+        lifeCycle = configuration.getInterceptorFactory().getInterceptor(CircuitBreakerLifeCycle.class);
+    }
+
+    @Before
+    public void prepareMockServer() {
+        server.initServer();
+        for (ForestCircuitBreaker circuitBreaker : lifeCycle.getCircuitBreakers().values()) {
+            circuitBreaker.reset();
+        }
+    }
+
+    public CircuitBreakerTest(HttpBackend backend) {
+        super(backend, configuration);
+        circuitBreakerClient = configuration.createInstance(CircuitBreakerClient.class);
+    }
+
+    @Test
+    public void testOpenAfterFailures() {
+        assertEquals(CircuitBreakerMockServer.EXPECTED, circuitBreakerClient.get(200));
+        for (int i = 0; i < 3; i++) {
+            try {
+                circuitBreakerClient.get(500);
+                assertTrue(false);
+            } catch (ForestNetworkException e) {
+                assertEquals(500, e.getStatusCode().intValue());
+            }
+        }
+        // 熔断器打开后，即使是能成功的请求也会被直接拒绝
+        long startTime = System.currentTimeMillis();
+        try {
+            circuitBreakerClient.get(200);
+            assertTrue(false);
+        } catch (ForestCircuitBreakerOpenException e) {
+            assertTrue(e.getCircuitBreakerName().contains("CircuitBreakerClient.get(int)"));
+        }
+        assertTrue(System.currentTimeMillis() - startTime < 200);
+    }
+
+    @Test
+    public void testOnErrorWhenOpen() {
+        AtomicReference<ForestRuntimeException> error = new AtomicReference<>();
+        for (int i = 0; i < 4; i++) {
+            circuitBreakerClient.get(500, (ex, request, response) -> error.set(ex));
+            assertTrue(error.get() instanceof ForestNetworkException);
+        }
+        String result = circuitBreakerClient.get(200, (ex, request, response) -> error.set(ex));
+        assertNull(result);
+        assertTrue(error.get() instanceof ForestCircuitBreakerOpenException);
+    }
+
+    @Test
+    public void testHalfOpen() throws InterruptedException {
+        for (int i = 0; i < 2; i++) {
+            try {
+                circuitBreakerClient.getWithHalfOpen(500);
+                assertTrue(false);
+            } catch (ForestNetworkException e) {
+                assertEquals(500, e.getStatusCode().intValue());
+            }
+        }
+        try {
+            circuitBreakerClient.getWithHalfOpen(200);
+            assertTrue(false);
+        } catch (ForestCircuitBreakerOpenException e) {
+        }
+        Thread.sleep(400);
+        // 探测请求失败，重新打开
+        try {
+            circuitBreakerClient.getWithHalfOpen(500);
+            assertTrue(false);
+        } catch (ForestNetworkException e) {
+        }
+        try {
+            circuitBreakerClient.getWithHalfOpen(200);
+            assertTrue(false);
+        } catch (ForestCircuitBreakerOpenException e) {
+        }
+        Thread.sleep(400);
+        // 探测请求成功，关闭熔断器
+        assertEquals(CircuitBreakerMockServer.EXPECTED, circuitBreakerClient.getWithHalfOpen(200));
+        assertEquals(CircuitBreakerMockServer.EXPECTED, circuitBreakerClient.getWithHalfOpen(200));
+    }
+
+    @Test
+    public void testOpenAfterSlowCalls() {
+        assertEquals(CircuitBreakerMockServer.EXPECTED, circuitBreakerClient.getSlow());
+        assertEquals(CircuitBreakerMockServer.EXPECTED, circuitBreakerClient.getSlow());
+        try {
+            circuitBreakerClient.getSlow();
+            assertTrue(false);
+        } catch (ForestCircuitBreakerOpenException e) {
+        }
+    }
+
+    @Test
+    public void testAsyncWhenOpen() throws Exception {
+        for (int i = 0; i < 2; i++) {
+            try {
+                circuitBreakerClient.getAsync(500).get(5, TimeUnit.SECONDS);
+            } catch (ExecutionException e) {
+            }
+        }
+        // 异步请求的结果在回调线程中统计，等待熔断器打开
+        for (int i = 0; i < 50 && openCircuitBreakers() == 0; i++) {
+            Thread.sleep(20);
+        }
+        try {
+            circuitBreakerClient.getAsync(200).get(5, TimeUnit.SECONDS);
+            assertTrue(false);
+        } catch (ExecutionException e) {
+            assertTrue(e.getCause() instanceof ForestCircuitBreakerOpenException);
+        }
+    }
+
+    @Test
+    public void testHostScopeWithFallback() {
+        for (int i = 0; i < 2; i++) {
+            try {
+                circuitBreakerClient.getByHost(500);
+                assertTrue(false);
+            } catch (ForestNetworkException e) {
+            }
+        }
+        assertEquals(ForestCircuitBreaker.State.OPEN, lifeCycle.getCircuitBreaker(HOST).getState());
+        // 同一主机的其它方法共享熔断器，被拒绝时返回降级的结果
+        assertEquals(CircuitBreakerClient.FALLBACK, circuitBreakerClient.getOtherByHost());
+        assertEquals(CircuitBreakerClient.FALLBACK, circuitBreakerClient.getByHost(200));
+    }
+
+    @Test
+    public void testHostScopeConflict() {
+        assertEquals(CircuitBreakerMockServer.EXPECTED, circuitBreakerClient.getOtherByHost());
+        // 共享主机熔断器的方法的属性不同
+        try {
+            circuitBreakerClient.getConflictingByHost();
+            assertTrue(false);
+        } catch (ForestRuntimeException e) {
+            assertTrue(e.getMessage().contains("getConflictingByHost"));
+        }
+        assertEquals(CircuitBreakerMockServer.EXPECTED, circuitBreakerClient.getOtherByHost());
+    }
+
+    @Test
+    public void testReleaseHalfOpenPermission() {
+        ForestCircuitBreaker circuitBreaker = new ForestCircuitBreaker("test")
+                .setWindowSize(1)
+                .setMinimumCalls(1)
+                .setWaitDurationInOpenState(0, TimeUnit.MILLISECONDS)
+                .setPermittedCallsInHalfOpen(1);
+        circuitBreaker.onResult(0, true);
+        assertEquals(ForestCircuitBreaker.State.OPEN, circuitBreaker.getState());
+        assertTrue(circuitBreaker.tryAcquirePermission());
+        assertEquals(ForestCircuitBreaker.State.HALF_OPEN, circuitBreaker.getState());
+        for (int i = 0; i < 3; i++) {
+            assertFalse(circuitBreaker.tryAcquirePermission());
+        }
+        // 没有发送的探测请求归还名额，被拒绝的请求不会使名额变为负数
+        circuitBreaker.releasePermission();
+        assertTrue(circuitBreaker.tryAcquirePermission());
+        assertFalse(circuitBreaker.tryAcquirePermission());
+        circuitBreaker.releasePermission();
+        circuitBreaker.releasePermission();
+        assertTrue(circuitBreaker.tryAcquirePermission());
+        assertFalse(circuitBreaker.tryAcquirePermission());
+    }
+
+    private static long openCircuitBreakers() {
+        return lifeCycle.getCircuitBreakers().values().stream()
+                .filter(circuitBreaker -> circuitBreaker.getState() == ForestCircuitBreaker.State.OPEN)
+                .count();
+    }
+
+}
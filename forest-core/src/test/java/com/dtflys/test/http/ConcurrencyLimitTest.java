@@ -0,0 +1,216 @@
+package com.dtflys.test.http;
+
+import com.dtflys.forest.backend.HttpBackend;
+import com.dtflys.forest.config.ForestConfiguration;
+import com.dtflys.forest.limiter.AimdLimit;
+import com.dtflys.forest.limiter.ConcurrencyLimitExceededException;
+import com.dtflys.forest.limiter.ForestConcurrencyLimiter;
+import com.dtflys.forest.limiter.GradientLimit;
+import com.dtflys.test.http.client.ConcurrencyLimitClient;
+import com.dtflys.test.mock.ConcurrencyLimitMockServer;
+import org.junit.Before;
+import org.junit.BeforeClass;
+import org.junit.Rule;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static junit.framework.Assert.assertEquals;
+import static junit.framework.Assert.assertTrue;
+
+public class ConcurrencyLimitTest extends BaseClientTest {
+
+    private final static String HOST = "localhost:" + ConcurrencyLimitMockServer.port;
+
+    @Rule
+    public ConcurrencyLimitMockServer server = new ConcurrencyLimitMockServer(this);
+
+    private static ForestConfiguration configuration;
+
+    private static ConcurrencyLimitClient concurrencyLimitClient;
+
+    private ForestConcurrencyLimiter limiter;
+
+    @BeforeClass
+    public static void prepareClient() {
+        configuration = ForestConfiguration.configuration();
+        configuration.setVariableValue("port", ConcurrencyLimitMockServer.port);
+        configuration.setRetryCount(0);
+    }
+
+    @Before
+    public void prepareMockServer() {
+        server.initServer();
+        limiter = new ForestConcurrencyLimiter()
+                .setLimitFactory(() -> new AimdLimit().setInitialLimit(1).setMaxLimit(1));
+        configuration.setConcurrencyLimiter(limiter);
+    }
+
+    public ConcurrencyLimitTest(HttpBackend backend) {
+        super(backend, configuration);
+        concurrencyLimitClient = configuration.createInstance(ConcurrencyLimitClient.class);
+    }
+
+    @Test
+    public void testRejectBeyondLimit() throws Exception {
+        List<Throwable> errors = runConcurrently(2);
+        assertEquals(1, errors.size());
+        assertTrue(hasLimitException(errors.get(0)));
+        assertEquals(0, limiter.getInFlight(HOST));
+    }
+
+    @Test
+    public void testQueueBeyondLimit() throws Exception {
+        limiter.setMaxQueueSize(1).setMaxQueueWait(5000);
+        List<Throwable> errors = runConcurrently(2);
+        assertEquals(0, errors.size());
+        assertEquals(1, limiter.getLimit(HOST));
+        assertEquals(0, limiter.getQueueDepth(HOST));
+        assertEquals(0, limiter.getInFlight(HOST));
+    }
+
+    @Test
+    public void testRejectAsyncBeyondLimit() throws Exception {
+        Future<String> first = concurrencyLimitClient.getSlowAsync();
+        Thread.sleep(100);
+        Future<String> second = concurrencyLimitClient.getSlowAsync();
+        assertEquals(ConcurrencyLimitMockServer.EXPECTED, first.get(5, TimeUnit.SECONDS));
+        try {
+            second.get(5, TimeUnit.SECONDS);
+            assertTrue(false);
+        } catch (ExecutionException e) {
+            assertTrue(hasLimitException(e));
+        }
+    }
+
+    @Test
+    public void testQueueAsyncWithoutBlocking() throws Exception {
+        limiter.setMaxQueueSize(2).setMaxQueueWait(5000);
+        long start = System.currentTimeMillis();
+        List<Future<String>> futures = new ArrayList<>();
+        for (int i = 0; i < 3; i++) {
+            futures.add(concurrencyLimitClient.getSlowAsync());
+        }
+        // 排队的异步请求不阻塞调用线程
+        assertTrue(System.currentTimeMillis() - start < 500);
+        assertEquals(2, limiter.getQueueDepth(HOST));
+        for (Future<String> future : futures) {
+            assertEquals(ConcurrencyLimitMockServer.EXPECTED, future.get(5, TimeUnit.SECONDS));
+        }
+        assertTrue(System.currentTimeMillis() - start >= 1500);
+        assertEquals(0, limiter.getQueueDepth(HOST));
+        assertEquals(0, awaitInFlight());
+    }
+
+    @Test
+    public void testQueueAsyncTimeout() throws Exception {
+        limiter.setMaxQueueSize(1).setMaxQueueWait(100);
+        Future<String> first = concurrencyLimitClient.getSlowAsync();
+        Future<String> second = concurrencyLimitClient.getSlowAsync();
+        try {
+            second.get(5, TimeUnit.SECONDS);
+            assertTrue(false);
+        } catch (ExecutionException e) {
+            assertTrue(hasLimitException(e));
+        }
+        assertEquals(ConcurrencyLimitMockServer.EXPECTED, first.get(5, TimeUnit.SECONDS));
+        assertEquals(0, limiter.getQueueDepth(HOST));
+        assertEquals(0, awaitInFlight());
+    }
+
+    @Test
+    public void testAcquireAsync() throws Exception {
+        limiter.setMaxQueueSize(1).setMaxQueueWait(5000);
+        ForestConcurrencyLimiter.Permit permit = limiter.acquire("example.com:80");
+        CompletableFuture<ForestConcurrencyLimiter.Permit> waiter =
+                limiter.acquireAsync("example.com:80", configuration.getRetryScheduler());
+        assertTrue(!waiter.isDone());
+        assertEquals(1, limiter.getQueueDepth("example.com:80"));
+        permit.release(false);
+        assertTrue(waiter.isDone());
+        assertEquals(1, limiter.getInFlight("example.com:80"));
+        waiter.get().ignore();
+        assertEquals(0, limiter.getInFlight("example.com:80"));
+
+        // 取消排队的请求后移出队列，归还的许可不会分配给它
+        permit = limiter.acquire("example.com:80");
+        waiter = limiter.acquireAsync("example.com:80", configuration.getRetryScheduler());
+        waiter.cancel(false);
+        assertEquals(0, limiter.getQueueDepth("example.com:80"));
+        permit.release(false);
+        assertEquals(0, limiter.getInFlight("example.com:80"));
+    }
+
+    @Test
+    public void testAimdLimit() {
+        AimdLimit limit = new AimdLimit().setInitialLimit(10);
+        limit.onSample(TimeUnit.MILLISECONDS.toNanos(10), 10, false);
+        assertEquals(11, limit.getLimit());
+        limit.onSample(TimeUnit.MILLISECONDS.toNanos(10), 1, false);
+        assertEquals(11, limit.getLimit());
+        limit.onSample(TimeUnit.MILLISECONDS.toNanos(10), 11, true);
+        assertEquals(9, limit.getLimit());
+    }
+
+    @Test
+    public void testGradientLimit() {
+        GradientLimit limit = new GradientLimit().setInitialLimit(20);
+        for (int i = 0; i < 50; i++) {
+            limit.onSample(TimeUnit.MILLISECONDS.toNanos(10), 20, false);
+        }
+        int stableLimit = limit.getLimit();
+        assertTrue(stableLimit >= 20);
+        for (int i = 0; i < 20; i++) {
+            limit.onSample(TimeUnit.MILLISECONDS.toNanos(100), stableLimit, false);
+        }
+        assertTrue(limit.getLimit() < stableLimit);
+    }
+
+    private List<Throwable> runConcurrently(int count) throws InterruptedException {
+        ExecutorService executor = Executors.newFixedThreadPool(count);
+        List<Future<String>> futures = new ArrayList<>(count);
+        try {
+            for (int i = 0; i < count; i++) {
+                futures.add(executor.submit(() -> concurrencyLimitClient.getSlow()));
+            }
+            List<Throwable> errors = new ArrayList<>();
+            for (Future<String> future : futures) {
+                try {
+                    assertEquals(ConcurrencyLimitMockServer.EXPECTED, future.get());
+                } catch (ExecutionException e) {
+                    errors.add(e.getCause());
+                }
+            }
+            return errors;
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    /**
+     * httpclient 后端的 {@link Future} 在回调归还许可之前就已完成，需要等待回调执行结束
+     */
+    private int awaitInFlight() throws InterruptedException {
+        for (int i = 0; i < 50 && limiter.getInFlight(HOST) > 0; i++) {
+            Thread.sleep(20);
+        }
+        return limiter.getInFlight(HOST);
+    }
+
+    private static boolean hasLimitException(Throwable th) {
+        for (Throwable cause = th; cause != null; cause = cause.getCause()) {
+            if (cause instanceof ConcurrencyLimitExceededException) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+}
@@ -0,0 +1,109 @@
+package com.dtflys.test.http;
+
+import com.dtflys.forest.backend.HttpBackend;
+import com.dtflys.forest.balancer.ForestEndpoint;
+import com.dtflys.forest.balancer.ForestEndpointGroup;
+import com.dtflys.forest.config.ForestConfiguration;
+import com.dtflys.forest.exceptions.ForestNetworkException;
+import com.dtflys.forest.exceptions.ForestRuntimeException;
+import com.dtflys.test.http.client.EndpointGroupClient;
+import com.dtflys.test.mock.EndpointGroupMockServer;
+import org.junit.Before;
+import org.junit.BeforeClass;
+import org.junit.Rule;
+import org.junit.Test;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import static junit.framework.Assert.assertEquals;
+import static junit.framework.Assert.assertFalse;
+import static junit.framework.Assert.assertTrue;
+
+public class EndpointGroupTest extends BaseClientTest {
+
+    private final static String BASE_URL = "http://localhost:" + EndpointGroupMockServer.port;
+
+    @Rule
+    public EndpointGroupMockServer server = new EndpointGroupMockServer(this);
+
+    private static ForestConfiguration configuration;
+
+    private static EndpointGroupClient endpointGroupClient;
+
+    private ForestEndpointGroup flakyGroup;
+
+    @BeforeClass
+    public static void prepareClient() {
+        configuration = ForestConfiguration.configuration();
+        configuration.setRetryCount(0);
+    }
+
+    @Before
+    public void prepareMockServer() {
+        server.initServer();
+        configuration.registerEndpointGroup("balanced", BASE_URL + "/a/", BASE_URL + "/b");
+        flakyGroup = configuration.registerEndpointGroup("flaky", BASE_URL + "/a", BASE_URL + "/down")
+                .setMaxFailures(2)
+                .setEjectDuration(300, TimeUnit.MILLISECONDS);
+    }
+
+    public EndpointGroupTest(HttpBackend backend) {
+        super(backend, configuration);
+        endpointGroupClient = configuration.createInstance(EndpointGroupClient.class);
+    }
+
+    @Test
+    public void testBalanceAcrossEndpoints() {
+        Map<String, Integer> counts = new HashMap<>();
+        for (int i = 0; i < 40; i++) {
+            counts.merge(endpointGroupClient.hello(), 1, Integer::sum);
+        }
+        assertEquals(2, counts.size());
+        assertTrue(counts.get("a") > 0);
+        assertTrue(counts.get("b") > 0);
+        for (ForestEndpoint endpoint : configuration.getEndpointGroup("balanced").getEndpoints()) {
+            assertEquals(0, endpoint.getInFlight());
+            assertTrue(endpoint.getLatency(TimeUnit.NANOSECONDS) > 0);
+        }
+    }
+
+    @Test
+    public void testEjectFailingEndpoint() throws InterruptedException {
+        ForestEndpoint down = flakyGroup.getEndpoints().get(1);
+        int failures = 0;
+        for (int i = 0; i < 20; i++) {
+            try {
+                assertEquals("a", endpointGroupClient.helloFlaky());
+            } catch (ForestNetworkException e) {
+                assertEquals(503, e.getStatusCode().intValue());
+                failures++;
+            }
+        }
+        // 连续失败两次后被移出，之后的请求都发送到正常的节点
+        assertTrue(failures <= 2);
+        if (failures == 2) {
+            assertFalse(down.isAvailable());
+            Thread.sleep(400);
+            assertTrue(down.isAvailable());
+        }
+    }
+
+    @Test
+    public void testRetryOnAnotherEndpoint() throws Exception {
+        flakyGroup.setMaxFailures(1000);
+        for (int i = 0; i < 10; i++) {
+            assertEquals("a", endpointGroupClient.helloFlakyWithRetry());
+        }
+        for (int i = 0; i < 10; i++) {
+            assertEquals("a", endpointGroupClient.helloFlakyWithRetryAsync().get(5, TimeUnit.SECONDS));
+        }
+    }
+
+    @Test(expected = ForestRuntimeException.class)
+    public void testUnknownEndpointGroup() {
+        endpointGroupClient.helloUnknown();
+    }
+
+}
@@ -0,0 +1,135 @@
+package com.dtflys.test.http;
+
+import com.dtflys.forest.backend.HttpBackend;
+import com.dtflys.forest.backend.okhttp3.OkHttp3Backend;
+import com.dtflys.forest.config.ForestConfiguration;
+import com.dtflys.test.http.client.ExecutorClient;
+import com.dtflys.test.mock.ExecutorMockServer;
+import org.junit.AfterClass;
+import org.junit.Before;
+import org.junit.BeforeClass;
+import org.junit.Rule;
+import org.junit.Test;
+
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static junit.framework.Assert.assertEquals;
+import static junit.framework.Assert.assertNotNull;
+import static junit.framework.Assert.assertTrue;
+
+public class ExecutorTest extends BaseClientTest {
+
+    @Rule
+    public ExecutorMockServer server = new ExecutorMockServer(this);
+
+    private static ForestConfiguration configuration;
+
+    private static ThreadPoolExecutor dispatchExecutor;
+
+    private static ExecutorService callbackExecutor;
+
+    private static ExecutorClient executorClient;
+
+    @BeforeClass
+    public static void prepareClient() {
+        configuration = ForestConfiguration.configuration();
+        configuration.setVariableValue("port", ExecutorMockServer.port);
+        // 每个测试都会重启 Mock Server，连接池中残留的连接可能已被重置
+        configuration.setRetryCount(1);
+        dispatchExecutor = new ThreadPoolExecutor(0, Integer.MAX_VALUE, 60, TimeUnit.SECONDS,
+                new LinkedBlockingQueue<>(), threadFactory("test-dispatch-"));
+        callbackExecutor = new ThreadPoolExecutor(2, 2, 60, TimeUnit.SECONDS,
+                new LinkedBlockingQueue<>(), threadFactory("test-callback-"));
+        configuration.setDispatchExecutor(dispatchExecutor);
+        configuration.setCallbackExecutor(callbackExecutor);
+    }
+
+    @AfterClass
+    public static void shutdownExecutors() {
+        dispatchExecutor.shutdown();
+        callbackExecutor.shutdown();
+    }
+
+    @Before
+    public void prepareMockServer() {
+        server.initServer();
+    }
+
+    public ExecutorTest(HttpBackend backend) {
+        super(backend, configuration);
+        executorClient = configuration.createInstance(ExecutorClient.class);
+    }
+
+    private static ThreadFactory threadFactory(String prefix) {
+        AtomicInteger count = new AtomicInteger(0);
+        return r -> {
+            Thread thread = new Thread(r, prefix + count.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+
+    @Test
+    public void testOnSuccessOnCallbackExecutor() throws InterruptedException {
+        CountDownLatch latch = new CountDownLatch(1);
+        AtomicReference<String> threadName = new AtomicReference<>();
+        AtomicReference<Map> result = new AtomicReference<>();
+        executorClient.getAsync((data, request, response) -> {
+            threadName.set(Thread.currentThread().getName());
+            result.set(data);
+            latch.countDown();
+        });
+        assertTrue(latch.await(5, TimeUnit.SECONDS));
+        assertTrue(threadName.get().startsWith("test-callback-"));
+        assertEquals("ok", result.get().get("status"));
+    }
+
+    @Test
+    public void testOnErrorOnCallbackExecutor() throws InterruptedException {
+        CountDownLatch latch = new CountDownLatch(1);
+        AtomicReference<String> threadName = new AtomicReference<>();
+        executorClient.getError((ex, request, response) -> {
+            threadName.set(Thread.currentThread().getName());
+            latch.countDown();
+        });
+        assertTrue(latch.await(5, TimeUnit.SECONDS));
+        assertTrue(threadName.get().startsWith("test-callback-"));
+    }
+
+    @Test
+    public void testSyncRequestInCallback() throws InterruptedException {
+        CountDownLatch latch = new CountDownLatch(1);
+        AtomicReference<Map> result = new AtomicReference<>();
+        executorClient.getAsync((data, request, response) -> {
+            // 回调不在网络线程中执行，可以直接发送同步请求
+            result.set(executorClient.get());
+            latch.countDown();
+        });
+        assertTrue(latch.await(5, TimeUnit.SECONDS));
+        assertNotNull(result.get());
+        assertEquals("ok", result.get().get("status"));
+    }
+
+    @Test
+    public void testDispatchExecutor() throws InterruptedException {
+        long taskCount = dispatchExecutor.getTaskCount();
+        CountDownLatch latch = new CountDownLatch(1);
+        executorClient.getAsync((data, request, response) -> latch.countDown());
+        assertTrue(latch.await(5, TimeUnit.SECONDS));
+        if (backend instanceof OkHttp3Backend) {
+            assertTrue(dispatchExecutor.getTaskCount() > taskCount);
+        } else {
+            // httpclient 的异步请求由I/O线程发送
+            assertEquals(taskCount, dispatchExecutor.getTaskCount());
+        }
+    }
+
+}
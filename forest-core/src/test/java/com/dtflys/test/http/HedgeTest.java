@@ -0,0 +1,121 @@
+package com.dtflys.test.http;
+
+import com.dtflys.forest.backend.HttpBackend;
+import com.dtflys.forest.config.ForestConfiguration;
+import com.dtflys.forest.hedge.ForestHedgeBudget;
+import com.dtflys.forest.hedge.ForestLatencyWindow;
+import com.dtflys.forest.lifecycles.hedge.HedgeLifeCycle;
+import com.dtflys.test.http.client.HedgeClient;
+import com.dtflys.test.mock.HedgeMockServer;
+import org.junit.Before;
+import org.junit.BeforeClass;
+import org.junit.Rule;
+import org.junit.Test;
+
+import java.util.concurrent.TimeUnit;
+
+import static junit.framework.Assert.assertEquals;
+import static junit.framework.Assert.assertTrue;
+
+public class HedgeTest extends BaseClientTest {
+
+    @Rule
+    public HedgeMockServer server = new HedgeMockServer(this);
+
+    private static ForestConfiguration configuration;
+
+    private static HedgeClient hedgeClient;
+
+    private ForestHedgeBudget budget;
+
+    @BeforeClass
+    public static void prepareClient() {
+        configuration = ForestConfiguration.configuration();
+        configuration.setVariableValue("port", HedgeMockServer.port);
+        configuration.setRetryCount(0);
+    }
+
+    @Before
+    public void prepareMockServer() throws Exception {
+        server.initServer();
+        // 预热连接，避免测试中的第一个请求使用连接池中上一个测试遗留的连接
+        hedgeClient.get("fast").get(5, TimeUnit.SECONDS);
+        budget = new ForestHedgeBudget().setRatio(1);
+        configuration.setHedgeBudget(budget);
+    }
+
+    public HedgeTest(HttpBackend backend) {
+        super(backend, configuration);
+        hedgeClient = configuration.createInstance(HedgeClient.class);
+    }
+
+    @Test
+    public void testHedgeWins() throws Exception {
+        long startTime = System.currentTimeMillis();
+        assertEquals(HedgeMockServer.EXPECTED, hedgeClient.get("tail").get(5, TimeUnit.SECONDS));
+        // 原始请求需要 1 秒，对冲请求在 100 毫秒后发出并立即返回
+        assertTrue(System.currentTimeMillis() - startTime < 800);
+        assertEquals(1, budget.getHedgesSent());
+        assertEquals(1, budget.getHedgesWon());
+    }
+
+    @Test
+    public void testHedgeWinsWithFuture() throws Exception {
+        long startTime = System.currentTimeMillis();
+        assertEquals(HedgeMockServer.EXPECTED, hedgeClient.getFuture("tail").get(5, TimeUnit.SECONDS));
+        assertTrue(System.currentTimeMillis() - startTime < 800);
+        assertEquals(1, budget.getHedgesSent());
+        assertEquals(1, budget.getHedgesWon());
+    }
+
+    @Test
+    public void testNoHedgeWithoutBudget() throws Exception {
+        budget.setRatio(0);
+        long startTime = System.currentTimeMillis();
+        assertEquals(HedgeMockServer.EXPECTED, hedgeClient.get("tail").get(5, TimeUnit.SECONDS));
+        assertTrue(System.currentTimeMillis() - startTime >= 1000);
+        assertEquals(1, budget.getRequests());
+        assertEquals(0, budget.getHedgesSent());
+    }
+
+    @Test
+    public void testBudgetLimitsHedges() throws Exception {
+        budget.setRatio(0.5);
+        for (int i = 0; i < 10; i++) {
+            assertEquals(HedgeMockServer.EXPECTED, hedgeClient.get("fast").get(5, TimeUnit.SECONDS));
+        }
+        assertEquals(10, budget.getRequests());
+        assertTrue(budget.getHedgesSent() <= 5);
+        assertTrue(budget.getHedgesWon() <= budget.getHedgesSent());
+    }
+
+    @Test
+    public void testSyncNotHedged() {
+        long startTime = System.currentTimeMillis();
+        assertEquals(HedgeMockServer.EXPECTED, hedgeClient.getSync("tail"));
+        assertTrue(System.currentTimeMillis() - startTime >= 1000);
+        assertEquals(0, budget.getRequests());
+    }
+
+    @Test
+    public void testHedgeByPercentile() throws Exception {
+        for (int i = 0; i < 5; i++) {
+            assertEquals(HedgeMockServer.EXPECTED, hedgeClient.getByPercentile("warm").get(5, TimeUnit.SECONDS));
+        }
+        // 耗时在异步结果完成后才记录，等待样本数达到 minimumSamples
+        ForestLatencyWindow window = configuration.getInterceptorFactory().getInterceptor(HedgeLifeCycle.class)
+                .getLatencyWindow(HedgeClient.class.getMethod("getByPercentile", String.class).toGenericString());
+        for (int i = 0; i < 50 && window.getSize() < 5; i++) {
+            Thread.sleep(20);
+        }
+        // Mock Server 在连接所属的 I/O 线程中等待延迟时间，预热中对冲请求留下的连接可能与原始请求共用同一个 I/O 线程，
+        // 清掉这些连接，让原始请求和对冲请求各自使用新的连接
+        backend.evictIdleConnections();
+        // 等待时间为最近请求耗时的中位数，约 100 毫秒
+        long startTime = System.currentTimeMillis();
+        assertEquals(HedgeMockServer.EXPECTED, hedgeClient.getByPercentile("tail").get(5, TimeUnit.SECONDS));
+        assertTrue(System.currentTimeMillis() - startTime < 800);
+        assertEquals(1, budget.getHedgesWon());
+    }
+
+}
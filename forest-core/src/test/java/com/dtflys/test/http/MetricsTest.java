@@ -0,0 +1,147 @@
+package com.dtflys.test.http;
+
+import com.dtflys.forest.backend.HttpBackend;
+import com.dtflys.forest.config.ForestConfiguration;
+import com.dtflys.forest.exceptions.ForestNetworkException;
+import com.dtflys.forest.metrics.DefaultForestMetrics;
+import com.dtflys.forest.metrics.ForestConnectionPool;
+import com.dtflys.forest.metrics.ForestHistogram;
+import com.dtflys.forest.utils.ForestDataType;
+import com.dtflys.test.http.client.MetricsClient;
+import com.dtflys.test.mock.MetricsMockServer;
+import org.junit.Before;
+import org.junit.BeforeClass;
+import org.junit.Rule;
+import org.junit.Test;
+
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static junit.framework.Assert.assertEquals;
+import static junit.framework.Assert.assertNotNull;
+import static junit.framework.Assert.assertNull;
+import static junit.framework.Assert.assertSame;
+import static junit.framework.Assert.assertTrue;
+import static junit.framework.Assert.fail;
+
+public class MetricsTest extends BaseClientTest {
+
+    private final static String HOST = "localhost:" + MetricsMockServer.port;
+
+    @Rule
+    public MetricsMockServer server = new MetricsMockServer(this);
+
+    private static ForestConfiguration configuration;
+
+    private static DefaultForestMetrics metrics;
+
+    private static MetricsClient metricsClient;
+
+    @BeforeClass
+    public static void prepareClient() {
+        configuration = ForestConfiguration.configuration();
+        configuration.setVariableValue("port", MetricsMockServer.port);
+        configuration.setRetryCount(0);
+        metrics = new DefaultForestMetrics();
+        configuration.setMetrics(metrics);
+    }
+
+    @Before
+    public void prepareMockServer() {
+        server.initServer();
+        metrics.reset();
+    }
+
+    public MetricsTest(HttpBackend backend) {
+        super(backend, configuration);
+        metricsClient = configuration.createInstance(MetricsClient.class);
+    }
+
+    @Test
+    public void testRequestLatency() {
+        for (int i = 0; i < 5; i++) {
+            assertEquals("ok", metricsClient.getJson().get("status"));
+        }
+        ForestHistogram methodLatency = metrics.getMethodLatency("MetricsClient.getJson");
+        assertNotNull(methodLatency);
+        assertEquals(5, methodLatency.getCount());
+        assertTrue(methodLatency.getPercentile(50, TimeUnit.NANOSECONDS) > 0);
+        assertTrue(methodLatency.getPercentile(100, TimeUnit.NANOSECONDS) <= methodLatency.getMax(TimeUnit.NANOSECONDS));
+        assertEquals(5, metrics.getHostLatency(HOST).getCount());
+        assertEquals(0, metrics.getErrorCount("MetricsClient.getJson"));
+        assertEquals(5, metrics.getDecodeLatency(ForestDataType.AUTO).getCount());
+    }
+
+    @Test
+    public void testAsyncRequestLatency() throws Exception {
+        assertEquals("ok", metricsClient.getJsonAsync().get(5, TimeUnit.SECONDS).get("status"));
+        // 异步回调完成后才记录耗时
+        Thread.sleep(100);
+        assertEquals(1, metrics.getMethodLatency("MetricsClient.getJsonAsync").getCount());
+    }
+
+    @Test
+    public void testAsyncDecodeOnce() throws Exception {
+        AtomicReference<Map> data = new AtomicReference<>();
+        CountDownLatch latch = new CountDownLatch(1);
+        Map result = metricsClient.getJsonAsync((map, request, response) -> {
+            data.set(map);
+            latch.countDown();
+        }).get(5, TimeUnit.SECONDS);
+        assertTrue(latch.await(5, TimeUnit.SECONDS));
+        // 异步结果和 OnSuccess 回调使用同一个解码结果
+        assertSame(result, data.get());
+        assertEquals(1, metrics.getDecodeLatency(ForestDataType.AUTO).getCount());
+    }
+
+    @Test
+    public void testEncodeLatency() {
+        assertEquals("ok", metricsClient.postJson("foo").get("status"));
+        assertEquals(1, metrics.getEncodeLatency(ForestDataType.JSON).getCount());
+        assertEquals(1, metrics.getMethodLatency("MetricsClient.postJson").getCount());
+    }
+
+    @Test
+    public void testRetryCount() {
+        try {
+            metricsClient.getDown();
+            fail();
+        } catch (ForestNetworkException e) {
+            assertEquals(503, e.getStatusCode().intValue());
+        }
+        assertEquals(2, metrics.getRetryCount("MetricsClient.getDown"));
+        assertEquals(1, metrics.getErrorCount("MetricsClient.getDown"));
+        assertEquals(1, metrics.getMethodLatency("MetricsClient.getDown").getCount());
+        assertNull(metrics.getDecodeLatency(ForestDataType.AUTO));
+    }
+
+    @Test
+    public void testConnectionPool() {
+        metricsClient.getJson();
+        assertTrue(metrics.getConnectionPools().size() > 0);
+        for (ForestConnectionPool pool : metrics.getConnectionPools().values()) {
+            assertTrue(pool.getMax() > 0);
+            assertTrue(pool.getLeased() >= 0);
+            assertTrue(pool.getIdle() >= 0);
+            assertEquals(0, pool.getPending());
+        }
+        String poolName = "okhttp3".equals(backend.getName()) ? "okhttp3" : "httpclient";
+        assertTrue(metrics.getConnectionPool(poolName).getIdle() > 0);
+    }
+
+    @Test
+    public void testBindConnectionPoolAfterBackendInitialized() {
+        // 如 Spring Boot 中在所有单例Bean初始化后才设置指标收集器
+        DefaultForestMetrics lateMetrics = new DefaultForestMetrics();
+        try {
+            configuration.setMetrics(lateMetrics);
+            String poolName = "okhttp3".equals(backend.getName()) ? "okhttp3" : "httpclient";
+            assertNotNull(lateMetrics.getConnectionPool(poolName));
+        } finally {
+            configuration.setMetrics(metrics);
+        }
+    }
+
+}
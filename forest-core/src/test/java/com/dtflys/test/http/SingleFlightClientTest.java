@@ -0,0 +1,106 @@
+package com.dtflys.test.http;
+
+import com.dtflys.forest.backend.HttpBackend;
+import com.dtflys.forest.config.ForestConfiguration;
+import com.dtflys.forest.exceptions.ForestNetworkException;
+import com.dtflys.test.http.client.SingleFlightClient;
+import com.dtflys.test.mock.SingleFlightMockServer;
+import org.junit.Before;
+import org.junit.BeforeClass;
+import org.junit.Rule;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static junit.framework.Assert.assertEquals;
+import static junit.framework.Assert.fail;
+
+public class SingleFlightClientTest extends BaseClientTest {
+
+    private final static int THREADS = 8;
+
+    @Rule
+    public SingleFlightMockServer server = new SingleFlightMockServer(this);
+
+    private static ForestConfiguration configuration;
+
+    private static SingleFlightClient singleFlightClient;
+
+    @BeforeClass
+    public static void prepareClient() {
+        configuration = ForestConfiguration.configuration();
+        configuration.setVariableValue("port", SingleFlightMockServer.port);
+    }
+
+    @Before
+    public void prepareMockServer() {
+        server.initServer();
+    }
+
+    public SingleFlightClientTest(HttpBackend backend) {
+        super(backend, configuration);
+        singleFlightClient = configuration.createInstance(SingleFlightClient.class);
+    }
+
+    @Test
+    public void testCoalesceConcurrentRequests() throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        try {
+            CountDownLatch start = new CountDownLatch(1);
+            List<Future<String>> futures = new ArrayList<>(THREADS);
+            for (int i = 0; i < THREADS; i++) {
+                futures.add(executor.submit(() -> {
+                    start.await();
+                    return singleFlightClient.get("1");
+                }));
+            }
+            start.countDown();
+            // 服务端只响应一次，所有调用都得到了同一个结果
+            for (Future<String> future : futures) {
+                assertEquals(SingleFlightMockServer.EXPECTED, future.get());
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+        assertEquals(0, configuration.getSingleFlight().getInFlightCount());
+    }
+
+    @Test
+    public void testHeadersFromInterceptorsNotCoalesced() throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        try {
+            CountDownLatch start = new CountDownLatch(1);
+            Future<String> futureA = executor.submit(() -> {
+                start.await();
+                return singleFlightClient.getWithTenant("2", "a");
+            });
+            Future<String> futureB = executor.submit(() -> {
+                start.await();
+                return singleFlightClient.getWithTenant("2", "b");
+            });
+            start.countDown();
+            // 指纹在拦截器添加请求头之后计算，两个请求都被发送
+            assertEquals("a", futureA.get());
+            assertEquals("b", futureB.get());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    public void testSequentialRequestsNotCoalesced() {
+        assertEquals(SingleFlightMockServer.EXPECTED, singleFlightClient.get("1"));
+        try {
+            singleFlightClient.get("1");
+            fail();
+        } catch (ForestNetworkException e) {
+            assertEquals(404, e.getStatusCode().intValue());
+        }
+    }
+
+}
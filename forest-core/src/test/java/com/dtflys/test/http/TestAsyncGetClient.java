@@ -27,10 +27,13 @@ import org.junit.Test;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.ExecutionException;
 import java.util.concurrent.Future;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
 import java.util.concurrent.atomic.AtomicBoolean;
 
 import static org.junit.Assert.*;
@@ -114,6 +117,58 @@ public class TestAsyncGetClient extends BaseClientTest {
         assertEquals(AsyncGetMockServer.EXPECTED, data);
     }
 
+    @Test
+    public void testAsyncSimpleGetWithCompletableFuture() throws ExecutionException, InterruptedException, TimeoutException {
+        CompletableFuture<String> future = getClient.asyncSimpleGetWithCompletableFuture();
+        assertNotNull(future);
+        assertEquals(AsyncGetMockServer.EXPECTED, future.get(5, TimeUnit.SECONDS));
+    }
+
+    @Test
+    public void testAsyncSimpleGetWithCompletionStage() throws ExecutionException, InterruptedException, TimeoutException {
+        CompletableFuture<Integer> future = getClient.asyncSimpleGetWithCompletionStage()
+                .thenApply(String::length)
+                .toCompletableFuture();
+        assertEquals(Integer.valueOf(AsyncGetMockServer.EXPECTED.length()), future.get(5, TimeUnit.SECONDS));
+    }
+
+    @Test
+    public void testAsyncErrorGetWithCompletableFuture() throws InterruptedException, TimeoutException {
+        CompletableFuture<String> future = getClient.asyncErrorGetWithCompletableFuture();
+        try {
+            future.get(5, TimeUnit.SECONDS);
+            fail();
+        } catch (ExecutionException e) {
+            assertTrue(e.getCause() instanceof ForestNetworkException);
+            assertEquals(Integer.valueOf(404), ((ForestNetworkException) e.getCause()).getStatusCode());
+        }
+    }
+
+    @Test
+    public void testAsyncInvalidGetWithCompletableFuture() throws ExecutionException, InterruptedException, TimeoutException {
+        // 解析响应时抛出的异常以异常结束返回的结果，且不影响共享的客户端继续发送请求
+        CompletableFuture<TestResult> future = getClient.asyncInvalidGetWithCompletableFuture();
+        try {
+            future.get(5, TimeUnit.SECONDS);
+            fail();
+        } catch (ExecutionException e) {
+            assertTrue(e.getCause() instanceof ForestRuntimeException);
+        }
+        assertEquals(AsyncGetMockServer.EXPECTED,
+                getClient.asyncSimpleGetWithCompletableFuture().get(5, TimeUnit.SECONDS));
+    }
+
+    @Test
+    public void testCancelCompletableFuture() throws ExecutionException, InterruptedException {
+        CompletableFuture<String> future = getClient.asyncSimpleGetWithCompletableFuture();
+        assertTrue(future.cancel(true));
+        assertTrue(future.isCancelled());
+        try {
+            future.get();
+            fail();
+        } catch (CancellationException ignored) {
+        }
+    }
 
     @Test
     public void testAsyncVarParamGet() throws InterruptedException, ExecutionException {
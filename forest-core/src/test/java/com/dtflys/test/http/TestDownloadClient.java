@@ -1,5 +1,6 @@
 package com.dtflys.test.http;
 
+import cn.hutool.core.io.FileUtil;
 import com.dtflys.forest.backend.HttpBackend;
 import com.dtflys.forest.config.ForestConfiguration;
 import com.dtflys.forest.http.ForestResponse;
@@ -16,6 +17,9 @@ import org.junit.Rule;
 import org.junit.Test;
 
 import java.io.File;
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
 
 import static junit.framework.Assert.*;
 
@@ -100,5 +104,78 @@ public class TestDownloadClient extends BaseClientTest {
         assertEquals("test-xxx.jpg", file.getName());
     }
 
+    @Test
+    public void testDownloadImageFileWithStreaming() {
+        String dir = Thread.currentThread().getContextClassLoader().getResource("").getPath() + "TestDownload";
+        AtomicBoolean done = new AtomicBoolean(false);
+        File file = downloadClient.downloadImageFileWithStreaming(dir, progress -> {
+            if (progress.isDone()) {
+                done.set(true);
+            }
+        });
+        assertNotNull(file);
+        assertTrue(file.exists());
+        assertEquals("test-xxx.jpg", file.getName());
+        assertTrue(Arrays.equals(readTestImage(), FileUtil.readBytes(file)));
+        assertTrue(done.get());
+    }
+
+    @Test
+    public void testDownloadImageFileWithResume() {
+        String dir = Thread.currentThread().getContextClassLoader().getResource("").getPath() + "TestDownload";
+        String filename = "test-resume-" + backend.getName() + ".jpg";
+        byte[] expected = readTestImage();
+        File partFile = new File(dir, filename);
+        FileUtil.writeBytes(Arrays.copyOf(expected, DownloadMockServer.RESUME_FROM), partFile);
+
+        File file = downloadClient.downloadImageFileWithResume(dir, filename);
+        assertNotNull(file);
+        assertTrue(Arrays.equals(expected, FileUtil.readBytes(file)));
+    }
+
+    @Test
+    public void testDownloadCompleteImageFileWithResume() {
+        String dir = Thread.currentThread().getContextClassLoader().getResource("").getPath() + "TestDownload";
+        String filename = "test-resume-complete-" + backend.getName() + ".jpg";
+        byte[] expected = readTestImage();
+        FileUtil.writeBytes(expected, new File(dir, filename));
+
+        File file = downloadClient.downloadImageFileWithResume(dir, filename);
+        assertNotNull(file);
+        assertTrue(Arrays.equals(expected, FileUtil.readBytes(file)));
+    }
+
+    @Test
+    public void testDownloadImageFileWithSegments() {
+        String dir = Thread.currentThread().getContextClassLoader().getResource("").getPath() + "TestDownload";
+        String filename = "test-segments-" + backend.getName() + ".jpg";
+        byte[] expected = readTestImage();
+        AtomicLong currentBytes = new AtomicLong(0);
+        AtomicBoolean done = new AtomicBoolean(false);
+        File file = downloadClient.downloadImageFileWithSegments(dir, filename, progress -> {
+            currentBytes.set(progress.getCurrentBytes());
+            if (progress.isDone()) {
+                done.set(true);
+            }
+        });
+        assertNotNull(file);
+        assertTrue(Arrays.equals(expected, FileUtil.readBytes(file)));
+        assertEquals(expected.length, currentBytes.get());
+        assertTrue(done.get());
+    }
+
+    @Test
+    public void testDownloadImageFileWithSegmentsUnsupported() {
+        // 服务端忽略 Range 请求头返回完整的文件时，按一次普通的 GET 请求下载
+        String dir = Thread.currentThread().getContextClassLoader().getResource("").getPath() + "TestDownload";
+        String filename = "test-segments-unsupported-" + backend.getName() + ".jpg";
+        File file = downloadClient.downloadImageFileWithSegmentsUnsupported(dir, filename);
+        assertNotNull(file);
+        assertTrue(Arrays.equals(readTestImage(), FileUtil.readBytes(file)));
+    }
+
+    private byte[] readTestImage() {
+        return FileUtil.readBytes(new File(this.getClass().getResource("/test-img.jpg").getPath()));
+    }
 
 }
@@ -0,0 +1,102 @@
+package com.dtflys.test.http;
+
+import com.dtflys.forest.backend.httpclient.conn.ForestHttpRequestRetryHandler;
+import com.dtflys.forest.backend.httpclient.conn.HttpclientConnectionManager;
+import com.dtflys.forest.backend.httpclient.entity.HttpGetWithBodyEntity;
+import com.dtflys.forest.config.ForestConfiguration;
+import com.dtflys.forest.http.ForestProxy;
+import com.dtflys.forest.http.ForestRequest;
+import org.apache.http.NoHttpResponseException;
+import org.apache.http.auth.AuthScope;
+import org.apache.http.client.HttpClient;
+import org.apache.http.client.config.RequestConfig;
+import org.apache.http.client.methods.HttpPatch;
+import org.apache.http.client.methods.HttpPost;
+import org.apache.http.client.protocol.HttpClientContext;
+import org.apache.http.impl.client.BasicCookieStore;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+public class TestHttpclientConnectionManager {
+
+    private ForestConfiguration configuration;
+
+    private HttpclientConnectionManager connectionManager;
+
+    @Before
+    public void prepare() {
+        configuration = ForestConfiguration.configuration();
+        connectionManager = new HttpclientConnectionManager();
+        connectionManager.init(configuration);
+    }
+
+    @After
+    public void close() {
+        connectionManager.close();
+    }
+
+    private ForestRequest createRequest(int timeout) {
+        return new ForestRequest(configuration)
+                .setUrl("http://localhost:8080/test")
+                .setTimeout(timeout);
+    }
+
+    @Test
+    public void testHttpClientReused() {
+        HttpClient client1 = connectionManager.getHttpClient(createRequest(3000));
+        HttpClient client2 = connectionManager.getHttpClient(createRequest(5000));
+        connectionManager.afterConnect();
+        assertSame(client1, client2);
+    }
+
+    @Test
+    public void testRequestSettingsInContext() {
+        BasicCookieStore cookieStore = new BasicCookieStore();
+        HttpClientContext context = connectionManager.createHttpContext(createRequest(5000), cookieStore);
+        RequestConfig config = context.getRequestConfig();
+        assertEquals(5000, config.getConnectTimeout());
+        assertEquals(5000, config.getSocketTimeout());
+        assertNull(config.getProxy());
+        assertSame(cookieStore, context.getCookieStore());
+
+        ForestRequest proxyRequest = createRequest(3000)
+                .setProxy(new ForestProxy("127.0.0.1", 8888)
+                        .setUsername("foo")
+                        .setPassword("bar"));
+        context = connectionManager.createHttpContext(proxyRequest, null);
+        assertEquals("127.0.0.1", context.getRequestConfig().getProxy().getHostName());
+        assertEquals(8888, context.getRequestConfig().getProxy().getPort());
+        assertNotNull(context.getCredentialsProvider()
+                .getCredentials(new AuthScope("127.0.0.1", 8888)));
+    }
+
+    @Test
+    public void testRetryOnlyIdempotentRequests() {
+        ForestHttpRequestRetryHandler retryHandler = new ForestHttpRequestRetryHandler();
+        NoHttpResponseException exception = new NoHttpResponseException("localhost:8080 failed to respond");
+
+        HttpClientContext context = HttpClientContext.create();
+        context.setAttribute(HttpClientContext.HTTP_REQ_SENT, Boolean.TRUE);
+        context.setAttribute(HttpClientContext.HTTP_REQUEST, new HttpGetWithBodyEntity("http://localhost:8080/test"));
+        assertTrue(retryHandler.retryRequest(exception, 1, context));
+
+        context.setAttribute(HttpClientContext.HTTP_REQUEST, new HttpPost("http://localhost:8080/test"));
+        assertFalse(retryHandler.retryRequest(exception, 1, context));
+
+        context.setAttribute(HttpClientContext.HTTP_REQUEST, new HttpPatch("http://localhost:8080/test"));
+        assertFalse(retryHandler.retryRequest(exception, 1, context));
+
+        // 请求还未发出时可以安全地重试
+        context.setAttribute(HttpClientContext.HTTP_REQ_SENT, Boolean.FALSE);
+        assertTrue(retryHandler.retryRequest(exception, 1, context));
+    }
+
+}
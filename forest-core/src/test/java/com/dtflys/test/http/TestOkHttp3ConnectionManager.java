@@ -0,0 +1,258 @@
+package com.dtflys.test.http;
+
+import com.dtflys.forest.backend.okhttp3.conn.OkHttp3ConnectionManager;
+import com.dtflys.forest.config.ForestConfiguration;
+import com.dtflys.forest.exceptions.ForestRuntimeException;
+import com.dtflys.forest.http.ForestProxy;
+import com.dtflys.forest.http.ForestRequest;
+import com.dtflys.forest.reflection.NoneLifeCycleHandler;
+import com.dtflys.test.mock.OkHttp3ConnectionMockServer;
+import okhttp3.Call;
+import okhttp3.OkHttpClient;
+import okhttp3.Protocol;
+import okhttp3.Request;
+import okhttp3.Response;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+public class TestOkHttp3ConnectionManager {
+
+    @Rule
+    public OkHttp3ConnectionMockServer server = new OkHttp3ConnectionMockServer(this);
+
+    private ForestConfiguration configuration;
+
+    private OkHttp3ConnectionManager connectionManager;
+
+    @Before
+    public void prepare() {
+        configuration = ForestConfiguration.configuration();
+        connectionManager = new OkHttp3ConnectionManager();
+        connectionManager.init(configuration);
+    }
+
+    private ForestRequest createRequest(int timeout) {
+        return new ForestRequest(configuration)
+                .setUrl("http://localhost:8080/test")
+                .setTimeout(timeout);
+    }
+
+    @Test
+    public void testClientReusedForSameProfile() {
+        NoneLifeCycleHandler handler = new NoneLifeCycleHandler();
+        OkHttpClient client1 = connectionManager.getClient(createRequest(3000), handler);
+        OkHttpClient client2 = connectionManager.getClient(createRequest(3000), handler);
+        assertSame(client1, client2);
+    }
+
+    @Test
+    public void testClientDerivedForDifferentProfile() {
+        NoneLifeCycleHandler handler = new NoneLifeCycleHandler();
+        OkHttpClient client1 = connectionManager.getClient(createRequest(3000), handler);
+        OkHttpClient client2 = connectionManager.getClient(createRequest(5000), handler);
+        ForestRequest proxyRequest = createRequest(3000)
+                .setProxy(new ForestProxy("127.0.0.1", 8888));
+        OkHttpClient client3 = connectionManager.getClient(proxyRequest, handler);
+        assertNotSame(client1, client2);
+        assertNotSame(client1, client3);
+        assertEquals(5000, client2.readTimeoutMillis());
+        assertSame(client1.connectionPool(), client2.connectionPool());
+        assertSame(client1.dispatcher(), client2.dispatcher());
+        assertSame(client1.dispatcher(), client3.dispatcher());
+    }
+
+    @Test
+    public void testDispatcherFollowsConnectionLimits() {
+        configuration.setMaxConnections(200);
+        configuration.setMaxRouteConnections(50);
+        connectionManager.init(configuration);
+        OkHttpClient client = connectionManager.getClient(createRequest(3000), new NoneLifeCycleHandler());
+        assertEquals(200, client.dispatcher().getMaxRequests());
+        assertEquals(50, client.dispatcher().getMaxRequestsPerHost());
+    }
+
+    @Test
+    public void testHostDispatcher() {
+        configuration.setHostMaxConnections("Slow.Example.com", 8);
+        connectionManager.init(configuration);
+        NoneLifeCycleHandler handler = new NoneLifeCycleHandler();
+        OkHttpClient client = connectionManager.getClient(createRequest(3000), handler);
+        OkHttpClient hostClient1 = connectionManager.getClient(new ForestRequest(configuration)
+                .setUrl("http://slow.example.com/a")
+                .setTimeout(3000), handler);
+        OkHttpClient hostClient2 = connectionManager.getClient(new ForestRequest(configuration)
+                .setUrl("https://SLOW.example.com:8443/b")
+                .setTimeout(3000), handler);
+        assertNotSame(client.dispatcher(), hostClient1.dispatcher());
+        assertSame(hostClient1.dispatcher(), hostClient2.dispatcher());
+        assertEquals(8, hostClient1.dispatcher().getMaxRequests());
+        assertEquals(8, hostClient1.dispatcher().getMaxRequestsPerHost());
+        // 与全局调度器共用连接池和线程池
+        assertSame(client.connectionPool(), hostClient1.connectionPool());
+        assertSame(client.dispatcher().executorService(), hostClient1.dispatcher().executorService());
+    }
+
+    /**
+     * 创建统计实际同时发送的请求数的客户端，网络拦截器在应用拦截器之后执行
+     */
+    private OkHttpClient countingClient(AtomicInteger maxRunning) {
+        AtomicInteger running = new AtomicInteger();
+        return connectionManager.getClient(createRequest(5000), new NoneLifeCycleHandler())
+                .newBuilder()
+                .addNetworkInterceptor(chain -> {
+                    maxRunning.accumulateAndGet(running.incrementAndGet(), Math::max);
+                    try {
+                        return chain.proceed(chain.request());
+                    } finally {
+                        running.decrementAndGet();
+                    }
+                })
+                .build();
+    }
+
+    private static Request slowRequest() {
+        return new Request.Builder()
+                .url("http://localhost:" + OkHttp3ConnectionMockServer.port + "/slow")
+                .build();
+    }
+
+    @Test
+    public void testLimitSyncRequests() throws Exception {
+        server.initServer();
+        configuration.setMaxRouteConnections(2);
+        connectionManager.init(configuration);
+        AtomicInteger maxRunning = new AtomicInteger();
+        OkHttpClient client = countingClient(maxRunning);
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        long start = System.currentTimeMillis();
+        try {
+            List<Future<Integer>> futures = new ArrayList<>();
+            for (int i = 0; i < 4; i++) {
+                futures.add(executor.submit(() -> {
+                    try (Response response = connectionManager.execute(client.newCall(slowRequest()), 5000)) {
+                        return response.code();
+                    }
+                }));
+            }
+            for (Future<Integer> future : futures) {
+                assertEquals(Integer.valueOf(200), future.get(10, TimeUnit.SECONDS));
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+        // 同时发送的同步请求不超过每个主机的最大请求数，4 个请求至少分 2 批发送
+        assertEquals(2, maxRunning.get());
+        assertTrue(System.currentTimeMillis() - start >= 1000);
+    }
+
+    @Test
+    public void testCancelWaitingSyncRequest() throws Exception {
+        server.initServer();
+        configuration.setMaxRouteConnections(1);
+        connectionManager.init(configuration);
+        OkHttpClient client = countingClient(new AtomicInteger());
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        try {
+            Future<Integer> first = executor.submit(() -> {
+                try (Response response = connectionManager.execute(client.newCall(slowRequest()), 5000)) {
+                    return response.code();
+                }
+            });
+            Thread.sleep(100);
+            Call waiting = client.newCall(slowRequest());
+            Future<Response> second = executor.submit(() -> connectionManager.execute(waiting, 5000));
+            Thread.sleep(50);
+            long start = System.currentTimeMillis();
+            waiting.cancel();
+            try {
+                second.get(5, TimeUnit.SECONDS);
+                fail();
+            } catch (ExecutionException e) {
+                assertTrue(e.getCause() instanceof IOException);
+            }
+            // 取消后立即停止等待，不需要等第一个请求结束
+            assertTrue(System.currentTimeMillis() - start < 300);
+            assertFalse(first.isDone());
+            assertEquals(Integer.valueOf(200), first.get(5, TimeUnit.SECONDS));
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    public void testSyncRequestWaitTimeout() throws Exception {
+        server.initServer();
+        configuration.setMaxRouteConnections(1);
+        connectionManager.init(configuration);
+        OkHttpClient client = countingClient(new AtomicInteger());
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            Future<Integer> first = executor.submit(() -> {
+                try (Response response = connectionManager.execute(client.newCall(slowRequest()), 5000)) {
+                    return response.code();
+                }
+            });
+            Thread.sleep(100);
+            long start = System.currentTimeMillis();
+            try {
+                connectionManager.execute(client.newCall(slowRequest()), 100);
+                fail();
+            } catch (InterruptedIOException e) {
+                assertTrue(System.currentTimeMillis() - start < 300);
+            }
+            assertEquals(Integer.valueOf(200), first.get(5, TimeUnit.SECONDS));
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    public void testHttpProtocolsAndPingInterval() {
+        configuration.setHttpProtocols(Arrays.asList("h2_prior_knowledge"));
+        configuration.setPingInterval(15000);
+        connectionManager.init(configuration);
+        OkHttpClient client = connectionManager.getClient(createRequest(3000), new NoneLifeCycleHandler());
+        assertEquals(Collections.singletonList(Protocol.H2_PRIOR_KNOWLEDGE), client.protocols());
+        assertEquals(15000, client.pingIntervalMillis());
+    }
+
+    @Test
+    public void testInvalidHttpProtocols() {
+        configuration.setHttpProtocols(Arrays.asList("h3"));
+        try {
+            connectionManager.init(configuration);
+            fail();
+        } catch (ForestRuntimeException e) {
+            assertTrue(e.getMessage().contains("h3"));
+        }
+        configuration.setHttpProtocols(Arrays.asList("h2"));
+        try {
+            connectionManager.init(configuration);
+            fail();
+        } catch (ForestRuntimeException e) {
+            assertTrue(e.getMessage().contains("http/1.1"));
+        }
+    }
+
+}
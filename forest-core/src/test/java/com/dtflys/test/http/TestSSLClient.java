@@ -66,7 +66,7 @@ public class TestSSLClient extends BaseClientTest {
                 "ssl_client.keystore",
                 "client",
                 "456789",
-                "com.dtflys.spring.test.ssl.MySSLSocketFactoryBuilder");
+                "com.dtflys.test.ssl.MySSLSocketFactoryBuilder");
         configuration.registerKeyStore(sslKeyStore);
     }
 
@@ -0,0 +1,83 @@
+package com.dtflys.test.http;
+
+import com.dtflys.forest.config.ForestConfiguration;
+import com.dtflys.forest.exceptions.ForestRuntimeException;
+import com.dtflys.forest.http.ForestRequest;
+import com.dtflys.forest.ssl.SSLKeyStore;
+import com.dtflys.forest.ssl.SSLUtils;
+import org.junit.Before;
+import org.junit.Test;
+
+import javax.net.ssl.SSLContext;
+import javax.net.ssl.SSLSocketFactory;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+public class TestSSLContextRegistry {
+
+    private ForestConfiguration configuration;
+
+    @Before
+    public void prepare() {
+        configuration = ForestConfiguration.configuration()
+                .setSslSessionCacheSize(128)
+                .setSslSessionTimeout(600);
+        configuration.registerKeyStore(new SSLKeyStore(
+                "ssl_client",
+                "ssl_client.keystore",
+                "client",
+                "456789",
+                null));
+    }
+
+    private ForestRequest createRequest(String keyStoreId) {
+        ForestRequest request = new ForestRequest(configuration)
+                .setUrl("https://localhost:5555/hello/user");
+        if (keyStoreId != null) {
+            request.setKeyStore(configuration.getKeyStore(keyStoreId));
+        }
+        return request;
+    }
+
+    @Test
+    public void testSocketFactoryShared() {
+        SSLSocketFactory factory1 = SSLUtils.getSSLSocketFactory(createRequest("ssl_client"), SSLUtils.TLS_1_2);
+        SSLSocketFactory factory2 = SSLUtils.getSSLSocketFactory(createRequest("ssl_client"), SSLUtils.TLS_1_2);
+        SSLSocketFactory factory3 = SSLUtils.getSSLSocketFactory(createRequest(null), SSLUtils.TLS_1_2);
+        SSLSocketFactory factory4 = SSLUtils.getSSLSocketFactory(createRequest(null), SSLUtils.TLS_1_2);
+        assertSame(factory1, factory2);
+        assertSame(factory3, factory4);
+        assertNotSame(factory1, factory3);
+        assertEquals(2, configuration.getSslContextRegistry().size());
+    }
+
+    @Test
+    public void testSessionSettings() {
+        SSLContext sslContext = configuration.getSslContextRegistry()
+                .getSSLContext(createRequest("ssl_client"), SSLUtils.TLS_1_2);
+        assertEquals(128, sslContext.getClientSessionContext().getSessionCacheSize());
+        assertEquals(600, sslContext.getClientSessionContext().getSessionTimeout());
+    }
+
+    @Test
+    public void testInvalidSocketFactoryBuilder() {
+        configuration.registerKeyStore(new SSLKeyStore(
+                "ssl_invalid_builder",
+                "ssl_client.keystore",
+                "client",
+                "456789",
+                "com.dtflys.test.NoSuchSSLSocketFactoryBuilder"));
+        try {
+            SSLUtils.getSSLSocketFactory(createRequest("ssl_invalid_builder"), SSLUtils.TLS_1_2);
+            fail();
+        } catch (ForestRuntimeException e) {
+            assertTrue(e.getMessage().contains("com.dtflys.test.NoSuchSSLSocketFactoryBuilder"));
+            assertTrue(e.getCause() instanceof ClassNotFoundException);
+        }
+    }
+
+}
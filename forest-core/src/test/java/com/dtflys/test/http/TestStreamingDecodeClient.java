@@ -0,0 +1,64 @@
+package com.dtflys.test.http;
+
+import com.dtflys.forest.backend.HttpBackend;
+import com.dtflys.forest.config.ForestConfiguration;
+import com.dtflys.forest.http.ForestResponse;
+import com.dtflys.test.http.client.GetClient;
+import com.dtflys.test.mock.GetMockServer;
+import org.junit.Before;
+import org.junit.BeforeClass;
+import org.junit.Rule;
+import org.junit.Test;
+
+import java.util.Map;
+
+import static org.junit.Assert.*;
+
+public class TestStreamingDecodeClient extends BaseClientTest {
+
+    @Rule
+    public GetMockServer server = new GetMockServer(this);
+
+    private static ForestConfiguration configuration;
+
+    private static GetClient getClient;
+
+    @BeforeClass
+    public static void prepareClient() {
+        configuration = ForestConfiguration.configuration();
+        configuration.setVariableValue("port", GetMockServer.port);
+        configuration.setStreamingDecodeEnabled(true);
+    }
+
+    public TestStreamingDecodeClient(HttpBackend backend) {
+        super(backend, configuration);
+        getClient = configuration.createInstance(GetClient.class);
+    }
+
+    @Before
+    public void prepareMockServer() {
+        server.initServer();
+    }
+
+    @Test
+    public void testJsonMapGet() {
+        Map map = getClient.jsonMapGet();
+        assertNotNull(map);
+        assertEquals("ok", map.get("status"));
+    }
+
+    @Test
+    public void testAutoMapGet() {
+        ForestResponse<Map<String, Object>> response = getClient.autoMapGet();
+        assertNotNull(response);
+        assertEquals("ok", response.getResult().get("status"));
+        // 响应内容已由转换器以流的形式读取
+        assertNull(response.getContent());
+    }
+
+    @Test
+    public void testStringGetNotStreamed() {
+        String result = getClient.simpleGet();
+        assertEquals(GetMockServer.EXPECTED, result);
+    }
+}
@@ -77,6 +77,17 @@ public class TestUploadClient extends BaseClientTest {
     }
 
 
+    @Test
+    public void testReturnRequestResultType() {
+        String path = this.getClass().getResource("/test-img.jpg").getPath();
+        // 每次调用返回的请求都按泛型参数的类型解码，包括第一次调用
+        for (int i = 0; i < 2; i++) {
+            ForestRequest<Map> request = uploadClient.upload(path, progress -> {});
+            assertEquals(Map.class, request.getLifeCycleHandler().getReturnType());
+            assertEquals(Map.class, request.getMethod().getReturnClass());
+        }
+    }
+
     @Test
     public void testUploadFilePath() {
         String path = this.getClass().getResource("/test-img.jpg").getPath();
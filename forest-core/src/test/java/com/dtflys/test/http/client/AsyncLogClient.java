@@ -0,0 +1,22 @@
+package com.dtflys.test.http.client;
+
+import com.dtflys.forest.annotation.Body;
+import com.dtflys.forest.annotation.Get;
+import com.dtflys.forest.annotation.LogEnabled;
+import com.dtflys.forest.annotation.Post;
+
+import java.util.Map;
+
+@LogEnabled(logResponseContent = true)
+public interface AsyncLogClient {
+
+    @Get(url = "http://localhost:${port}/log/json")
+    Map getJson();
+
+    @Get(url = "http://localhost:${port}/log/sampled")
+    Map getSampled();
+
+    @Post(url = "http://localhost:${port}/log/json", contentType = "application/json")
+    Map postJson(@Body("content") String content);
+
+}
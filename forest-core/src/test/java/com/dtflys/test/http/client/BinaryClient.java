@@ -8,6 +8,7 @@ import com.dtflys.forest.annotation.Var;
 import com.dtflys.forest.backend.ContentType;
 
 import java.io.File;
+import java.io.InputStream;
 
 public interface BinaryClient {
 
@@ -33,4 +34,18 @@ public interface BinaryClient {
     @LogEnabled(logResponseContent = true)
     String uploadOctetStreamWithDataFile(@DataFile("file") File file, @Var("filename") String filename);
 
+    @Post(
+            url = "http://localhost:${port}/upload-octet-stream/${filename}",
+            contentType = ContentType.APPLICATION_OCTET_STREAM
+    )
+    @LogEnabled(logResponseContent = true)
+    String uploadOctetStreamWithInputStream(@Body InputStream body, @Var("filename") String filename);
+
+    @Post(
+            url = "http://localhost:${port}/upload-octet-stream/${filename}",
+            contentType = ContentType.APPLICATION_OCTET_STREAM
+    )
+    @LogEnabled(logResponseContent = true)
+    String uploadOctetStreamWithDataInputStream(@DataFile(value = "file", fileName = "${1}") InputStream inputStream, @Var("filename") String filename);
+
 }
@@ -0,0 +1,23 @@
+package com.dtflys.test.http.client;
+
+import com.dtflys.forest.annotation.Get;
+import com.dtflys.forest.annotation.Header;
+import com.dtflys.forest.callback.OnSuccess;
+import com.dtflys.forest.extensions.HttpCache;
+
+@HttpCache
+public interface CacheClient {
+
+    @Get(url = "http://localhost:${port}/cache/fresh")
+    String getFresh(OnSuccess<String> onSuccess);
+
+    @Get(url = "http://localhost:${port}/cache/etag")
+    String getWithETag();
+
+    @Get(url = "http://localhost:${port}/cache/credentials")
+    String getWithCredentials(@Header("Authorization") String authorization);
+
+    @Get(url = "http://localhost:${port}/cache/no-store")
+    String getNoStore();
+
+}
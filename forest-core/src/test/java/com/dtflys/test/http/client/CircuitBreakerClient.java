@@ -0,0 +1,56 @@
+package com.dtflys.test.http.client;
+
+import com.dtflys.forest.annotation.Get;
+import com.dtflys.forest.callback.OnError;
+import com.dtflys.forest.exceptions.ForestRuntimeException;
+import com.dtflys.forest.extensions.CircuitBreaker;
+import com.dtflys.forest.http.ForestRequest;
+import com.dtflys.forest.http.ForestResponse;
+
+import java.util.concurrent.Future;
+
+public interface CircuitBreakerClient {
+
+    String FALLBACK = "fallback";
+
+    @CircuitBreaker(windowSize = 4, minimumCalls = 4)
+    @Get(url = "http://localhost:${port}/cb/${0}")
+    String get(int status);
+
+    @CircuitBreaker(windowSize = 4, minimumCalls = 4)
+    @Get(url = "http://localhost:${port}/cb/${0}")
+    String get(int status, OnError onError);
+
+    @CircuitBreaker(windowSize = 2, minimumCalls = 2, waitDurationInOpenState = 300, permittedCallsInHalfOpen = 1)
+    @Get(url = "http://localhost:${port}/cb/${0}")
+    String getWithHalfOpen(int status);
+
+    @CircuitBreaker(windowSize = 2, minimumCalls = 2, slowCallDuration = 200, slowCallRateThreshold = 50)
+    @Get(url = "http://localhost:${port}/cb/slow")
+    String getSlow();
+
+    @CircuitBreaker(windowSize = 2, minimumCalls = 2)
+    @Get(url = "http://localhost:${port}/cb/${0}", async = true)
+    Future<String> getAsync(int status);
+
+    @CircuitBreaker(scope = CircuitBreaker.Scope.HOST, windowSize = 2, minimumCalls = 2, fallback = Fallback.class)
+    @Get(url = "http://localhost:${port}/cb/${0}")
+    String getByHost(int status);
+
+    @CircuitBreaker(scope = CircuitBreaker.Scope.HOST, windowSize = 2, minimumCalls = 2, fallback = Fallback.class)
+    @Get(url = "http://localhost:${port}/cb/200")
+    String getOtherByHost();
+
+    @CircuitBreaker(scope = CircuitBreaker.Scope.HOST, windowSize = 10, minimumCalls = 2, fallback = Fallback.class)
+    @Get(url = "http://localhost:${port}/cb/200")
+    String getConflictingByHost();
+
+    class Fallback implements OnError {
+
+        @Override
+        public void onError(ForestRuntimeException ex, ForestRequest request, ForestResponse response) {
+            response.setResult(FALLBACK);
+        }
+    }
+
+}
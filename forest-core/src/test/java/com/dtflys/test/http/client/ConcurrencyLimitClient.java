@@ -0,0 +1,15 @@
+package com.dtflys.test.http.client;
+
+import com.dtflys.forest.annotation.Get;
+
+import java.util.concurrent.Future;
+
+public interface ConcurrencyLimitClient {
+
+    @Get(url = "http://localhost:${port}/slow")
+    String getSlow();
+
+    @Get(url = "http://localhost:${port}/slow", async = true)
+    Future<String> getSlowAsync();
+
+}
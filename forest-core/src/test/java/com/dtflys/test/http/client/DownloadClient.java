@@ -31,4 +31,20 @@ public interface DownloadClient {
     @DownloadFile(dir = "${dir}")
     File downloadImageFile(@Var("dir") String dir);
 
+    @Get("http://localhost:${port}/download/test-img.jpg")
+    @DownloadFile(dir = "${dir}", streaming = true)
+    File downloadImageFileWithStreaming(@Var("dir") String dir, OnProgress onProgress);
+
+    @Get("http://localhost:${port}/download/range/test-img.jpg")
+    @DownloadFile(dir = "${dir}", filename = "${filename}", streaming = true, resume = true)
+    File downloadImageFileWithResume(@Var("dir") String dir, @Var("filename") String filename);
+
+    @Get("http://localhost:${port}/download/segment/test-img.jpg")
+    @DownloadFile(dir = "${dir}", filename = "${filename}", segments = 4)
+    File downloadImageFileWithSegments(@Var("dir") String dir, @Var("filename") String filename, OnProgress onProgress);
+
+    @Get("http://localhost:${port}/download/test-img.jpg")
+    @DownloadFile(dir = "${dir}", filename = "${filename}", segments = 4)
+    File downloadImageFileWithSegmentsUnsupported(@Var("dir") String dir, @Var("filename") String filename);
+
 }
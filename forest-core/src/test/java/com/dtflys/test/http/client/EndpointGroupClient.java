@@ -0,0 +1,26 @@
+package com.dtflys.test.http.client;
+
+import com.dtflys.forest.annotation.BaseRequest;
+import com.dtflys.forest.annotation.Get;
+
+import java.util.concurrent.CompletableFuture;
+
+@BaseRequest(baseURL = "lb://balanced")
+public interface EndpointGroupClient {
+
+    @Get(url = "/hello")
+    String hello();
+
+    @Get(url = "lb://flaky/hello")
+    String helloFlaky();
+
+    @Get(url = "lb://flaky/hello", retryCount = 1, maxRetryInterval = 10)
+    String helloFlakyWithRetry();
+
+    @Get(url = "lb://flaky/hello", async = true, retryCount = 1, maxRetryInterval = 10)
+    CompletableFuture<String> helloFlakyWithRetryAsync();
+
+    @Get(url = "lb://unknown/hello")
+    String helloUnknown();
+
+}
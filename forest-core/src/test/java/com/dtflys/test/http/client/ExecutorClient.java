@@ -0,0 +1,20 @@
+package com.dtflys.test.http.client;
+
+import com.dtflys.forest.annotation.Get;
+import com.dtflys.forest.callback.OnError;
+import com.dtflys.forest.callback.OnSuccess;
+
+import java.util.Map;
+
+public interface ExecutorClient {
+
+    @Get(url = "http://localhost:${port}/executor/ok")
+    Map get();
+
+    @Get(url = "http://localhost:${port}/executor/ok", async = true)
+    void getAsync(OnSuccess<Map> onSuccess);
+
+    @Get(url = "http://localhost:${port}/executor/error", async = true)
+    void getError(OnError onError);
+
+}
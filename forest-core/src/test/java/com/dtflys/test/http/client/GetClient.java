@@ -16,6 +16,8 @@ import com.fasterxml.jackson.databind.JsonNode;
 
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
 import java.util.concurrent.Future;
 
 /**
@@ -151,6 +153,13 @@ public interface GetClient {
     )
     JsonNode jsonMapGet2();
 
+    @Request(
+            url = "http://localhost:${port}/hello/user",
+            headers = {"Accept:text/plain"},
+            data = "username=foo"
+    )
+    ForestResponse<Map<String, Object>> autoMapGet();
+
 
     @Request(
             url = "http://localhost:${port}/hello/user",
@@ -291,6 +300,34 @@ public interface GetClient {
     )
     Future<String> asyncSimpleGetWithFuture();
 
+    @Request(
+            url = "http://localhost:5000/hello/user?username=foo",
+            async = true,
+            headers = {"Accept:text/plain"}
+    )
+    CompletableFuture<String> asyncSimpleGetWithCompletableFuture();
+
+    @Request(
+            url = "http://localhost:5000/hello/user?username=foo",
+            async = true,
+            headers = {"Accept:text/plain"}
+    )
+    CompletionStage<String> asyncSimpleGetWithCompletionStage();
+
+    @Request(
+            url = "http://localhost:5000/hello/user?username=error",
+            async = true,
+            headers = {"Accept:text/plain"}
+    )
+    CompletableFuture<String> asyncErrorGetWithCompletableFuture();
+
+    @Request(
+            url = "http://localhost:5000/hello/user?username=invalid",
+            async = true,
+            dataType = "json"
+    )
+    CompletableFuture<TestResult> asyncInvalidGetWithCompletableFuture();
+
 
     @Request(
             url = "http://localhost:5000/hello/user",
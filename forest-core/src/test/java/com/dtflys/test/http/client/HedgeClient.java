@@ -0,0 +1,27 @@
+package com.dtflys.test.http.client;
+
+import com.dtflys.forest.annotation.Get;
+import com.dtflys.forest.extensions.Hedge;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Future;
+
+public interface HedgeClient {
+
+    @Hedge(delay = 100)
+    @Get(url = "http://localhost:${port}/hedge/${0}", async = true)
+    CompletableFuture<String> get(String path);
+
+    @Hedge(delay = 100)
+    @Get(url = "http://localhost:${port}/hedge/${0}", async = true)
+    Future<String> getFuture(String path);
+
+    @Hedge(delay = 100)
+    @Get(url = "http://localhost:${port}/hedge/${0}")
+    String getSync(String path);
+
+    @Hedge(percentile = 50, minimumSamples = 5)
+    @Get(url = "http://localhost:${port}/hedge/${0}", async = true)
+    CompletableFuture<String> getByPercentile(String path);
+
+}
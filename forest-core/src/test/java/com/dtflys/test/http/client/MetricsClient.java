@@ -0,0 +1,28 @@
+package com.dtflys.test.http.client;
+
+import com.dtflys.forest.annotation.Body;
+import com.dtflys.forest.annotation.Get;
+import com.dtflys.forest.annotation.Post;
+import com.dtflys.forest.callback.OnSuccess;
+
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+
+public interface MetricsClient {
+
+    @Get(url = "http://localhost:${port}/metrics/json")
+    Map getJson();
+
+    @Get(url = "http://localhost:${port}/metrics/json", async = true)
+    CompletableFuture<Map> getJsonAsync();
+
+    @Get(url = "http://localhost:${port}/metrics/json", async = true)
+    CompletableFuture<Map> getJsonAsync(OnSuccess<Map> onSuccess);
+
+    @Post(url = "http://localhost:${port}/metrics/json", contentType = "application/json")
+    Map postJson(@Body("name") String name);
+
+    @Get(url = "http://localhost:${port}/metrics/down", retryCount = 2, maxRetryInterval = 10)
+    String getDown();
+
+}
@@ -0,0 +1,17 @@
+package com.dtflys.test.http.client;
+
+import com.dtflys.forest.annotation.Get;
+import com.dtflys.forest.annotation.Query;
+import com.dtflys.forest.extensions.SingleFlight;
+import com.dtflys.test.interceptor.TenantInterceptor;
+
+@SingleFlight
+public interface SingleFlightClient {
+
+    @Get(url = "http://localhost:${port}/flight")
+    String get(@Query("id") String id);
+
+    @Get(url = "http://localhost:${port}/flight", interceptor = TenantInterceptor.class)
+    String getWithTenant(@Query("id") String id, String tenant);
+
+}
@@ -2,6 +2,7 @@ package com.dtflys.test.interceptor;
 
 import com.dtflys.forest.annotation.Post;
 import com.dtflys.forest.annotation.Request;
+import com.dtflys.forest.http.ForestRequest;
 
 
 /**
@@ -17,6 +18,13 @@ public interface InterceptorClient {
     )
     String simple();
 
+    @Post(
+            url = "http://localhost:${port}/hello/user?username=foo",
+            headers = {"Accept:text/plain"},
+            interceptor = SimpleInterceptor.class
+    )
+    ForestRequest<String> simpleRequest();
+
     @Request(
             url = "http://localhost:${port}/hello/user?username=foo",
             headers = {"Accept:text/plain"},
@@ -0,0 +1,16 @@
+package com.dtflys.test.interceptor;
+
+import com.dtflys.forest.http.ForestRequest;
+import com.dtflys.forest.interceptor.Interceptor;
+
+/**
+ * 在发送请求前根据参数添加租户请求头
+ */
+public class TenantInterceptor implements Interceptor {
+
+    @Override
+    public boolean beforeExecute(ForestRequest request) {
+        request.addHeader("X-Tenant", String.valueOf(request.getArgument(1)));
+        return true;
+    }
+}
@@ -1,6 +1,7 @@
 package com.dtflys.test.interceptor;
 
 import com.dtflys.forest.backend.HttpBackend;
+import com.dtflys.forest.http.ForestRequest;
 import com.dtflys.forest.http.ForestResponse;
 import com.dtflys.forest.logging.ForestLogger;
 import com.dtflys.test.http.BaseClientTest;
@@ -72,6 +73,27 @@ public class TestInterceptor extends BaseClientTest {
                 "\t\tAccept: text/plain");
     }
 
+    @Test
+    public void testAddInterceptorToChain() {
+        StringBuilder trace = new StringBuilder();
+        ForestRequest<String> request = interceptorClient.simpleRequest();
+        int size = request.getCurrentInterceptorChain().getInterceptorSize();
+        request.getInterceptorChain().addInterceptor(new Interceptor() {
+            @Override
+            public boolean beforeExecute(ForestRequest request) {
+                trace.append("added");
+                return true;
+            }
+        });
+        assertEquals(size + 1, request.getInterceptorChain().getInterceptorSize());
+        assertEquals("XX: " + GetMockServer.EXPECTED, request.execute());
+        assertEquals("added", trace.toString());
+        // 方法共享的拦截器链不受影响
+        ForestRequest<String> request2 = interceptorClient.simpleRequest();
+        assertEquals(size, request2.getCurrentInterceptorChain().getInterceptorSize());
+        assertTrue(request2.getCurrentInterceptorChain().isShared());
+    }
+
     @Test
     public void testMultipleInterceptor() {
         String result = interceptorClient.multiple();
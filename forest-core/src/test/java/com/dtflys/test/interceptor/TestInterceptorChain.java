@@ -1,5 +1,6 @@
 package com.dtflys.test.interceptor;
 
+import com.dtflys.forest.config.ForestConfiguration;
 import com.dtflys.forest.exceptions.ForestRuntimeException;
 import com.dtflys.forest.http.ForestRequest;
 import com.dtflys.forest.http.ForestResponse;
@@ -12,7 +13,10 @@ import java.util.concurrent.atomic.AtomicInteger;
 
 import static junit.framework.Assert.assertEquals;
 import static junit.framework.Assert.assertFalse;
+import static junit.framework.Assert.assertNotSame;
+import static junit.framework.Assert.assertSame;
 import static junit.framework.Assert.assertTrue;
+import static junit.framework.Assert.fail;
 
 /**
  * @author gongjun[jun.gong@thebeastshop.com]
@@ -136,4 +140,107 @@ public class TestInterceptorChain {
         assertTrue(only2After.get());
     }
 
+
+    @Test
+    public void testSharedInterceptorChain() {
+        final StringBuilder trace = new StringBuilder();
+        Interceptor interceptor1 = new Interceptor() {
+            @Override
+            public boolean beforeExecute(ForestRequest request) {
+                trace.append("1");
+                return true;
+            }
+        };
+        Interceptor interceptor2 = new Interceptor() {
+            @Override
+            public boolean beforeExecute(ForestRequest request) {
+                trace.append("2");
+                return true;
+            }
+        };
+
+        InterceptorChain chain = new InterceptorChain().addInterceptor(interceptor1);
+        InterceptorChain shared = chain.share();
+        assertTrue(shared.isShared());
+        assertFalse(chain.isShared());
+        chain.addInterceptor(interceptor2);
+        assertEquals(1, shared.getInterceptorSize());
+        assertEquals(2, chain.getInterceptorSize());
+        try {
+            shared.addInterceptor(interceptor2);
+            fail();
+        } catch (ForestRuntimeException e) {
+            assertEquals(1, shared.getInterceptorSize());
+        }
+
+        ForestRequest request1 = new ForestRequest(ForestConfiguration.configuration());
+        ForestRequest request2 = new ForestRequest(ForestConfiguration.configuration());
+        request1.setInterceptorChain(shared);
+        request2.setInterceptorChain(shared);
+        assertSame(shared, request1.getCurrentInterceptorChain());
+        request1.addInterceptor(interceptor2);
+        assertNotSame(shared, request1.getCurrentInterceptorChain());
+        assertSame(shared, request2.getCurrentInterceptorChain());
+        assertEquals(1, shared.getInterceptorSize());
+
+        assertTrue(request1.getInterceptorChain().beforeExecute(request1));
+        assertEquals("12", trace.toString());
+        trace.setLength(0);
+        assertTrue(request2.getCurrentInterceptorChain().beforeExecute(request2));
+        assertEquals("1", trace.toString());
+        // 通过 getInterceptorChain 修改时同样先复制
+        request2.getInterceptorChain().addInterceptor(interceptor2);
+        assertEquals(1, shared.getInterceptorSize());
+        assertEquals(2, request2.getCurrentInterceptorChain().getInterceptorSize());
+    }
+
+    @Test
+    public void testCancelWhenVetoed() {
+        final StringBuilder trace = new StringBuilder();
+        Interceptor interceptor1 = new Interceptor() {
+            @Override
+            public void onCancel(ForestRequest request) {
+                trace.append("c1");
+            }
+        };
+        Interceptor interceptor2 = new Interceptor() {
+            @Override
+            public boolean beforeExecute(ForestRequest request) {
+                return true;
+            }
+
+            @Override
+            public void onCancel(ForestRequest request) {
+                trace.append("c2");
+            }
+        };
+        Interceptor interceptor3 = new Interceptor() {
+            @Override
+            public boolean beforeExecute(ForestRequest request) {
+                trace.append("b3");
+                return false;
+            }
+
+            @Override
+            public void onCancel(ForestRequest request) {
+                trace.append("c3");
+            }
+        };
+        Interceptor interceptor4 = new Interceptor() {
+            @Override
+            public void onCancel(ForestRequest request) {
+                trace.append("c4");
+            }
+        };
+
+        InterceptorChain chain = new InterceptorChain()
+                .addInterceptor(interceptor1)
+                .addInterceptor(interceptor2)
+                .addInterceptor(interceptor3)
+                .addInterceptor(interceptor4);
+        assertFalse(chain.beforeExecute(null));
+        // 只有已经放行了请求的拦截器会被取消，顺序与放行的顺序相反
+        assertEquals("b3c2c1", trace.toString());
+    }
+
 }
@@ -0,0 +1,83 @@
+package com.dtflys.test.mapping;
+
+import com.dtflys.forest.config.ForestConfiguration;
+import com.dtflys.forest.exceptions.ForestRuntimeException;
+import com.dtflys.forest.mapping.MappingParameter;
+import com.dtflys.forest.mapping.MappingTemplate;
+import com.dtflys.forest.mapping.MappingVariable;
+import com.dtflys.forest.reflection.ForestMethod;
+import junit.framework.Assert;
+import org.junit.Test;
+import org.mockito.Mockito;
+
+import java.util.HashMap;
+import java.util.Map;
+
+public class TestMappingAccessor {
+
+    public static class User {
+        private final String name;
+
+        public User(String name) {
+            this.name = name;
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        public String greet() {
+            return "Hello " + name;
+        }
+    }
+
+    public static class Admin extends User {
+        public Admin(String name) {
+            super(name);
+        }
+
+        public String greet() {
+            return "Welcome " + getName();
+        }
+    }
+
+    private static class Hidden {
+        private String getName() {
+            return "hidden";
+        }
+    }
+
+    private MappingTemplate template(String text) {
+        ForestMethod forestMethod = Mockito.mock(ForestMethod.class);
+        Mockito.when(forestMethod.getConfiguration()).thenReturn(ForestConfiguration.configuration());
+        MappingVariable variable = new MappingVariable("user", Object.class);
+        variable.setIndex(0);
+        Mockito.when(forestMethod.getVariable("user")).thenReturn(variable);
+        return new MappingTemplate(text, forestMethod, null, new MappingParameter[] {variable});
+    }
+
+    @Test
+    public void testPropertyAccess() {
+        MappingTemplate template = template("${user.name}");
+        Assert.assertEquals("Peter", template.render(new Object[] {new User("Peter")}));
+        Assert.assertEquals("Marry", template.render(new Object[] {new User("Marry")}));
+        // 同一节点访问不同类型的对象
+        Assert.assertEquals("Linda", template.render(new Object[] {new Admin("Linda")}));
+        Assert.assertEquals("hidden", template.render(new Object[] {new Hidden()}));
+        Map<String, Object> map = new HashMap<>();
+        map.put("name", "Tom");
+        Assert.assertEquals("Tom", template.render(new Object[] {map}));
+    }
+
+    @Test
+    public void testMethodInvoke() {
+        MappingTemplate template = template("${user.greet()}");
+        Assert.assertEquals("Hello Peter", template.render(new Object[] {new User("Peter")}));
+        Assert.assertEquals("Welcome Linda", template.render(new Object[] {new Admin("Linda")}));
+    }
+
+    @Test(expected = ForestRuntimeException.class)
+    public void testNoSuchProperty() {
+        template("${user.age}").render(new Object[] {new User("Peter")});
+    }
+}
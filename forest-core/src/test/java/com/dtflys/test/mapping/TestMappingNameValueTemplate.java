@@ -0,0 +1,50 @@
+package com.dtflys.test.mapping;
+
+import com.dtflys.forest.config.ForestConfiguration;
+import com.dtflys.forest.mapping.MappingNameValueTemplate;
+import com.dtflys.forest.mapping.MappingParameter;
+import com.dtflys.forest.mapping.MappingTemplate;
+import com.dtflys.forest.reflection.ForestMethod;
+import junit.framework.Assert;
+import org.junit.Test;
+import org.mockito.Mockito;
+
+public class TestMappingNameValueTemplate {
+
+    private ForestMethod mockMethod() {
+        ForestMethod forestMethod = Mockito.mock(ForestMethod.class);
+        Mockito.when(forestMethod.getConfiguration()).thenReturn(ForestConfiguration.configuration());
+        return forestMethod;
+    }
+
+    @Test
+    public void testConstantTemplate() {
+        ForestMethod forestMethod = mockMethod();
+        MappingTemplate template = new MappingTemplate("a=1&b=2&c", forestMethod, null, new MappingParameter[0]);
+        Assert.assertTrue(template.isConstant());
+        MappingNameValueTemplate nameValueTemplate = new MappingNameValueTemplate(template, "&", "=");
+        String[][] nameValues = nameValueTemplate.nameValues(null);
+        Assert.assertSame(nameValues, nameValueTemplate.nameValues(new Object[0]));
+        Assert.assertEquals(3, nameValues.length);
+        Assert.assertEquals("a", nameValues[0][0]);
+        Assert.assertEquals("1", nameValues[0][1]);
+        Assert.assertEquals("b", nameValues[1][0]);
+        Assert.assertEquals("2", nameValues[1][1]);
+        Assert.assertEquals(1, nameValues[2].length);
+    }
+
+    @Test
+    public void testParameterTemplate() {
+        ForestMethod forestMethod = mockMethod();
+        MappingParameter parameter = new MappingParameter(String.class);
+        parameter.setIndex(0);
+        MappingTemplate template = new MappingTemplate("Accept: ${0}", forestMethod, null,
+                new MappingParameter[] {parameter});
+        Assert.assertFalse(template.isConstant());
+        MappingNameValueTemplate nameValueTemplate = new MappingNameValueTemplate(template, null, ":");
+        String[][] nameValues = nameValueTemplate.nameValues(new Object[] {"text/plain"});
+        Assert.assertEquals(1, nameValues.length);
+        Assert.assertEquals("Accept", nameValues[0][0]);
+        Assert.assertEquals(" text/plain", nameValues[0][1]);
+    }
+}
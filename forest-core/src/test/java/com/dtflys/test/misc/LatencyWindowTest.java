@@ -0,0 +1,53 @@
+package com.dtflys.test.misc;
+
+import com.dtflys.forest.hedge.ForestLatencyWindow;
+import org.junit.Test;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertEquals;
+
+public class LatencyWindowTest {
+
+    @Test
+    public void testPercentile() {
+        ForestLatencyWindow window = new ForestLatencyWindow(100);
+        assertEquals(-1, window.getPercentile(50, TimeUnit.MILLISECONDS));
+        for (int i = 100; i > 0; i--) {
+            window.record(i, TimeUnit.MILLISECONDS);
+        }
+        assertEquals(100, window.getSize());
+        assertEquals(50, window.getPercentile(50, TimeUnit.MILLISECONDS));
+        assertEquals(99, window.getPercentile(99, TimeUnit.MILLISECONDS));
+        assertEquals(100, window.getPercentile(100, TimeUnit.MILLISECONDS));
+    }
+
+    @Test
+    public void testSnapshotRefresh() {
+        ForestLatencyWindow window = new ForestLatencyWindow(100);
+        for (int i = 0; i < 100; i++) {
+            window.record(10, TimeUnit.MILLISECONDS);
+        }
+        assertEquals(10, window.getPercentile(100, TimeUnit.MILLISECONDS));
+        // 新增样本不足快照样本数的 1/10 时沿用快照
+        for (int i = 0; i < 9; i++) {
+            window.record(1000, TimeUnit.MILLISECONDS);
+        }
+        assertEquals(10, window.getPercentile(100, TimeUnit.MILLISECONDS));
+        window.record(1000, TimeUnit.MILLISECONDS);
+        assertEquals(1000, window.getPercentile(100, TimeUnit.MILLISECONDS));
+    }
+
+    @Test
+    public void testSnapshotRefreshWhileFilling() {
+        ForestLatencyWindow window = new ForestLatencyWindow(100);
+        window.record(500, TimeUnit.MILLISECONDS);
+        assertEquals(500, window.getPercentile(50, TimeUnit.MILLISECONDS));
+        // 样本较少时每个新样本都会更新快照，不会一直使用预热阶段的耗时
+        for (int i = 0; i < 4; i++) {
+            window.record(100, TimeUnit.MILLISECONDS);
+            window.getPercentile(50, TimeUnit.MILLISECONDS);
+        }
+        assertEquals(100, window.getPercentile(50, TimeUnit.MILLISECONDS));
+    }
+}
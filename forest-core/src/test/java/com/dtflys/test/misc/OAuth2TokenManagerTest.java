@@ -0,0 +1,136 @@
+package com.dtflys.test.misc;
+
+import com.dtflys.forest.exceptions.ForestRuntimeException;
+import com.dtflys.forest.lifecycles.authorization.OAuth2LifeCycle;
+import com.dtflys.forest.lifecycles.authorization.OAuth2Token;
+import com.dtflys.forest.lifecycles.authorization.OAuth2TokenManager;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+public class OAuth2TokenManagerTest {
+
+    private static OAuth2LifeCycle.TokenCache createToken(String accessToken, long expiresIn) {
+        OAuth2Token token = new OAuth2Token();
+        token.setAccess_token(accessToken);
+        token.setExpires_in(expiresIn);
+        return new OAuth2LifeCycle.TokenCache("client", token);
+    }
+
+    private static Function<OAuth2LifeCycle.TokenCache, OAuth2LifeCycle.TokenCache> fetcher(
+            AtomicInteger count, long expiresIn, long sleep) {
+        return current -> {
+            int index = count.incrementAndGet();
+            if (sleep > 0) {
+                try {
+                    Thread.sleep(sleep);
+                } catch (InterruptedException e) {
+                    throw new ForestRuntimeException(e);
+                }
+            }
+            return createToken("token-" + index, expiresIn);
+        };
+    }
+
+    private static void awaitCount(AtomicInteger count, int expected) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 5000;
+        while (count.get() < expected && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+    }
+
+    @Test
+    public void testSingleFlight() throws Exception {
+        OAuth2TokenManager manager = new OAuth2TokenManager();
+        AtomicInteger count = new AtomicInteger(0);
+        int threads = 8;
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<OAuth2LifeCycle.TokenCache>> futures = new ArrayList<>();
+        try {
+            for (int i = 0; i < threads; i++) {
+                futures.add(executor.submit(() -> {
+                    start.await();
+                    return manager.getToken("single", 600, fetcher(count, 3600, 200));
+                }));
+            }
+            start.countDown();
+            for (Future<OAuth2LifeCycle.TokenCache> future : futures) {
+                assertEquals("token-1", future.get().getAccessToken());
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+        assertEquals(1, count.get());
+    }
+
+    @Test
+    public void testRefreshInBackground() throws Exception {
+        OAuth2TokenManager manager = new OAuth2TokenManager();
+        AtomicInteger count = new AtomicInteger(0);
+        // 有效期在刷新时间内，使用时在后台刷新
+        OAuth2LifeCycle.TokenCache first = manager.getToken("background", 600, fetcher(count, 100, 0));
+        assertEquals("token-1", first.getAccessToken());
+
+        long startTime = System.currentTimeMillis();
+        OAuth2LifeCycle.TokenCache second = manager.getToken("background", 600, fetcher(count, 100, 500));
+        assertTrue(System.currentTimeMillis() - startTime < 400);
+        assertSame(first, second);
+
+        awaitCount(count, 2);
+        long deadline = System.currentTimeMillis() + 5000;
+        while (manager.getCachedToken("background") == first && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+        assertEquals("token-2", manager.getCachedToken("background").getAccessToken());
+    }
+
+    @Test
+    public void testScheduledRefresh() throws Exception {
+        OAuth2TokenManager manager = new OAuth2TokenManager();
+        AtomicInteger usedCount = new AtomicInteger(0);
+        AtomicInteger idleCount = new AtomicInteger(0);
+        // 有效期3秒，过期前1秒刷新
+        manager.getToken("used", 1, fetcher(usedCount, 3, 0));
+        manager.getToken("used", 1, fetcher(usedCount, 3, 0));
+        manager.getToken("idle", 1, fetcher(idleCount, 3, 0));
+        assertEquals(1, usedCount.get());
+
+        awaitCount(usedCount, 2);
+        assertEquals(2, usedCount.get());
+        assertEquals(1, idleCount.get());
+        manager.clear();
+    }
+
+    @Test
+    public void testFetchError() {
+        OAuth2TokenManager manager = new OAuth2TokenManager();
+        AtomicInteger count = new AtomicInteger(0);
+        try {
+            manager.getToken("error", 600, current -> {
+                count.incrementAndGet();
+                throw new ForestRuntimeException("token error");
+            });
+            fail();
+        } catch (ForestRuntimeException e) {
+            assertEquals("token error", e.getMessage());
+        }
+        OAuth2LifeCycle.TokenCache token = manager.getToken("error", 600, fetcher(count, 3600, 0));
+        assertEquals("token-2", token.getAccessToken());
+        assertNotSame(null, manager.getCachedToken("error"));
+    }
+
+}
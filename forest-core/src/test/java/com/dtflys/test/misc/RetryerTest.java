@@ -0,0 +1,165 @@
+package com.dtflys.test.misc;
+
+import com.dtflys.forest.config.ForestConfiguration;
+import com.dtflys.forest.exceptions.ForestRetryException;
+import com.dtflys.forest.http.ForestRequest;
+import com.dtflys.forest.retryer.BackOffRetryer;
+import com.dtflys.forest.retryer.DecorrelatedJitterBackOffRetryer;
+import com.dtflys.forest.retryer.FullJitterBackOffRetryer;
+import com.dtflys.forest.retryer.RetryScheduler;
+import com.dtflys.forest.retryer.Retryer;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+public class RetryerTest {
+
+    private ForestRequest createRequest() {
+        return new ForestRequest(ForestConfiguration.configuration())
+                .setRetryCount(5)
+                .setMaxRetryInterval(5000);
+    }
+
+    private ForestRetryException retryException(ForestRequest request, int currentCount) {
+        return new ForestRetryException(new IOException("error"), request, request.getRetryCount(), currentCount);
+    }
+
+    @Test
+    public void testBackOffInterval() throws Throwable {
+        ForestRequest request = createRequest();
+        BackOffRetryer retryer = new BackOffRetryer(request);
+        assertEquals(1000, retryer.nextRetryInterval(retryException(request, 0)));
+        assertEquals(2000, retryer.nextRetryInterval(retryException(request, 1)));
+        assertEquals(4000, retryer.nextRetryInterval(retryException(request, 2)));
+        assertEquals(5000, retryer.nextRetryInterval(retryException(request, 3)));
+        assertEquals(12000, retryer.getWaitedTime());
+        try {
+            retryer.nextRetryInterval(retryException(request, 5));
+            fail();
+        } catch (ForestRetryException ignored) {
+        }
+    }
+
+    @Test
+    public void testBackOffRetryerOverridingCanRetry() throws Throwable {
+        ForestRequest request = createRequest().setMaxRetryInterval(10);
+        BackOffRetryer retryer = new BackOffRetryer(request) {
+            @Override
+            public void canRetry(ForestRetryException ex) throws Throwable {
+                if (ex.getCause() instanceof IllegalStateException) {
+                    throw ex;
+                }
+                super.canRetry(ex);
+            }
+        };
+        assertTrue(retryer.isBlocking());
+        assertFalse(new BackOffRetryer(request).isBlocking());
+        // 覆盖的 canRetry 仍然决定是否重试，并在其中完成等待
+        assertEquals(0, retryer.nextRetryInterval(retryException(request, 0)));
+        assertEquals(10, retryer.getWaitedTime());
+        ForestRetryException vetoed = new ForestRetryException(
+                new IllegalStateException("error"), request, request.getRetryCount(), 1);
+        try {
+            retryer.nextRetryInterval(vetoed);
+            fail();
+        } catch (ForestRetryException e) {
+            assertSame(vetoed, e);
+        }
+    }
+
+    @Test
+    public void testFullJitterInterval() throws Throwable {
+        ForestRequest request = createRequest();
+        FullJitterBackOffRetryer retryer = new FullJitterBackOffRetryer(request);
+        for (int i = 0; i < 5; i++) {
+            long ceiling = Math.min(5000, (long) Math.pow(2, i) * 1000);
+            long interval = retryer.nextRetryInterval(retryException(request, i));
+            assertTrue(interval >= 0 && interval <= ceiling);
+        }
+    }
+
+    @Test
+    public void testDecorrelatedJitterInterval() throws Throwable {
+        ForestRequest request = createRequest();
+        DecorrelatedJitterBackOffRetryer retryer = new DecorrelatedJitterBackOffRetryer(request);
+        for (int i = 0; i < 5; i++) {
+            long interval = retryer.nextRetryInterval(retryException(request, i));
+            assertTrue(interval >= 1000 && interval <= 5000);
+        }
+    }
+
+    @Test
+    public void testDecorrelatedJitterBaseInterval() throws Throwable {
+        ForestRequest request = createRequest().setMaxRetryInterval(300);
+        DecorrelatedJitterBackOffRetryer retryer = new DecorrelatedJitterBackOffRetryer(request);
+        for (int i = 0; i < 5; i++) {
+            assertEquals(300, retryer.nextRetryInterval(retryException(request, i)));
+        }
+    }
+
+    @Test
+    public void testRetrySchedulerTaskError() throws InterruptedException {
+        RetryScheduler scheduler = new RetryScheduler();
+        try {
+            CountDownLatch latch = new CountDownLatch(1);
+            AtomicReference<Throwable> error = new AtomicReference<>();
+            RuntimeException exception = new RuntimeException("error");
+            scheduler.schedule(() -> {
+                throw exception;
+            }, 10, th -> {
+                error.set(th);
+                latch.countDown();
+            });
+            assertTrue(latch.await(5, TimeUnit.SECONDS));
+            assertSame(exception, error.get());
+        } finally {
+            scheduler.shutdown();
+        }
+    }
+
+    @Test
+    public void testRetryWithBlockingRetryer() throws InterruptedException {
+        RetryScheduler scheduler = new RetryScheduler();
+        try {
+            AtomicReference<Thread> retryerThread = new AtomicReference<>();
+            Retryer blockingRetryer = ex -> {
+                retryerThread.set(Thread.currentThread());
+                Thread.sleep(100);
+            };
+            ForestRequest request = createRequest().setRetryer(blockingRetryer);
+            assertTrue(request.getRetryer().isBlocking());
+            CountDownLatch latch = new CountDownLatch(1);
+            scheduler.retry(request, retryException(request, 0), latch::countDown,
+                    th -> fail(), th -> fail());
+            assertTrue(latch.await(5, TimeUnit.SECONDS));
+            assertTrue(retryerThread.get().getName().startsWith("forest-retry-blocking-"));
+            assertFalse(retryerThread.get() == Thread.currentThread());
+        } finally {
+            scheduler.shutdown();
+        }
+    }
+
+    @Test
+    public void testRetryScheduler() throws InterruptedException {
+        RetryScheduler scheduler = new RetryScheduler();
+        try {
+            CountDownLatch latch = new CountDownLatch(1);
+            long start = System.currentTimeMillis();
+            scheduler.schedule(latch::countDown, 100);
+            assertTrue(latch.await(5, TimeUnit.SECONDS));
+            assertTrue(System.currentTimeMillis() - start >= 100);
+        } finally {
+            scheduler.shutdown();
+        }
+    }
+
+}
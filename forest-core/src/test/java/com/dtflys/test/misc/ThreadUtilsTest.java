@@ -0,0 +1,87 @@
+package com.dtflys.test.misc;
+
+import com.dtflys.forest.config.ForestConfiguration;
+import com.dtflys.forest.exceptions.ForestRuntimeException;
+import com.dtflys.forest.utils.ThreadUtils;
+import org.junit.Test;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+public class ThreadUtilsTest {
+
+    @Test
+    public void testVirtualThreadEnabled() throws Exception {
+        ForestConfiguration configuration = ForestConfiguration.configuration();
+        configuration.setVirtualThreadEnabled(true);
+        try {
+            if (!ThreadUtils.isVirtualThreadSupported()) {
+                // 运行环境低于 Java 21 时忽略该设置
+                assertFalse(configuration.isVirtualThreadEnabled());
+                assertNull(configuration.getCallbackExecutor());
+                assertNull(configuration.getDispatchExecutor());
+                return;
+            }
+            assertTrue(configuration.isVirtualThreadEnabled());
+            assertNotNull(configuration.getCallbackExecutor());
+            assertSame(configuration.getCallbackExecutor(), configuration.getDispatchExecutor());
+            CountDownLatch latch = new CountDownLatch(1);
+            AtomicReference<Thread> thread = new AtomicReference<>();
+            configuration.getCallbackExecutor().execute(() -> {
+                thread.set(Thread.currentThread());
+                latch.countDown();
+            });
+            assertTrue(latch.await(5, TimeUnit.SECONDS));
+            assertTrue((Boolean) Thread.class.getMethod("isVirtual").invoke(thread.get()));
+        } finally {
+            configuration.close();
+        }
+    }
+
+    @Test
+    public void testNewVirtualThreadPerTaskExecutor() {
+        if (ThreadUtils.isVirtualThreadSupported()) {
+            ExecutorService executor = ThreadUtils.newVirtualThreadPerTaskExecutor();
+            executor.shutdown();
+            return;
+        }
+        try {
+            ThreadUtils.newVirtualThreadPerTaskExecutor();
+            fail();
+        } catch (ForestRuntimeException e) {
+            assertTrue(e.getMessage().contains("Java 21"));
+        }
+    }
+
+    @Test
+    public void testExecute() throws InterruptedException {
+        AtomicReference<Thread> thread = new AtomicReference<>();
+        ThreadUtils.execute(null, () -> thread.set(Thread.currentThread()));
+        assertSame(Thread.currentThread(), thread.get());
+
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        CountDownLatch latch = new CountDownLatch(1);
+        ThreadUtils.execute(executor, () -> {
+            thread.set(Thread.currentThread());
+            latch.countDown();
+        });
+        assertTrue(latch.await(5, TimeUnit.SECONDS));
+        assertFalse(Thread.currentThread() == thread.get());
+
+        // 线程池拒绝执行时在当前线程中执行
+        executor.shutdown();
+        ThreadUtils.execute(executor, () -> thread.set(Thread.currentThread()));
+        assertSame(Thread.currentThread(), thread.get());
+    }
+
+}
@@ -40,6 +40,19 @@ public class AsyncGetMockServer extends MockServerRule {
                         .withDelay(TimeUnit.SECONDS, 1)
         );
 
+        mockClient.when(
+                request()
+                        .withPath("/hello/user")
+                        .withMethod("GET")
+                        .withQueryStringParameter("username",  "invalid")
+        )
+        .respond(
+                response()
+                        .withStatusCode(200)
+                        .withHeader(new Header(HttpHeaders.CONTENT_TYPE, "application/json"))
+                        .withBody("<html>")
+        );
+
     }
 
 }
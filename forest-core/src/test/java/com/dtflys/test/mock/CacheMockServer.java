@@ -0,0 +1,90 @@
+package com.dtflys.test.mock;
+
+import org.mockserver.client.server.MockServerClient;
+import org.mockserver.junit.MockServerRule;
+import org.mockserver.matchers.Times;
+import org.mockserver.model.Header;
+
+import static org.mockserver.model.HttpRequest.request;
+import static org.mockserver.model.HttpResponse.response;
+
+public class CacheMockServer extends MockServerRule {
+
+    public final static String EXPECTED = "{\"status\": \"ok\"}";
+
+    public final static String ETAG = "\"v1\"";
+
+    public final static Integer port = 5104;
+
+    public CacheMockServer(Object target) {
+        super(target, port);
+    }
+
+    public void initServer() {
+        MockServerClient mockClient = new MockServerClient("localhost", port);
+        // 只响应一次，之后的请求必须命中缓存
+        mockClient.when(
+                request()
+                        .withPath("/cache/fresh")
+                        .withMethod("GET"),
+                Times.once())
+                .respond(
+                        response()
+                                .withStatusCode(200)
+                                .withHeader(new Header("Content-Type", "application/json"))
+                                .withHeader(new Header("Cache-Control", "max-age=60"))
+                                .withBody(EXPECTED));
+        // 需要验证的缓存，带 If-None-Match 的请求返回 304
+        mockClient.when(
+                request()
+                        .withPath("/cache/etag")
+                        .withMethod("GET")
+                        .withHeader(new Header("If-None-Match", ETAG)),
+                Times.once())
+                .respond(
+                        response()
+                                .withStatusCode(304)
+                                .withHeader(new Header("ETag", ETAG)));
+        mockClient.when(
+                request()
+                        .withPath("/cache/etag")
+                        .withMethod("GET"),
+                Times.once())
+                .respond(
+                        response()
+                                .withStatusCode(200)
+                                .withHeader(new Header("Content-Type", "application/json"))
+                                .withHeader(new Header("Cache-Control", "no-cache"))
+                                .withHeader(new Header("ETag", ETAG))
+                                .withBody(EXPECTED));
+        // 可以缓存，每次请求返回不同的内容，用于区分不同凭据的缓存
+        for (int i = 1; i <= 2; i++) {
+            mockClient.when(
+                    request()
+                            .withPath("/cache/credentials")
+                            .withMethod("GET"),
+                    Times.once())
+                    .respond(
+                            response()
+                                    .withStatusCode(200)
+                                    .withHeader(new Header("Content-Type", "text/plain"))
+                                    .withHeader(new Header("Cache-Control", "max-age=60"))
+                                    .withBody(String.valueOf(i)));
+        }
+        // 不允许缓存，每次请求返回不同的内容
+        for (int i = 1; i <= 2; i++) {
+            mockClient.when(
+                    request()
+                            .withPath("/cache/no-store")
+                            .withMethod("GET"),
+                    Times.once())
+                    .respond(
+                            response()
+                                    .withStatusCode(200)
+                                    .withHeader(new Header("Content-Type", "text/plain"))
+                                    .withHeader(new Header("Cache-Control", "no-store"))
+                                    .withBody(String.valueOf(i)));
+        }
+    }
+
+}
@@ -0,0 +1,54 @@
+package com.dtflys.test.mock;
+
+import org.mockserver.client.server.MockServerClient;
+import org.mockserver.junit.MockServerRule;
+import org.mockserver.model.Header;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.mockserver.model.HttpRequest.request;
+import static org.mockserver.model.HttpResponse.response;
+
+public class CircuitBreakerMockServer extends MockServerRule {
+
+    public final static String EXPECTED = "{\"status\": \"ok\"}";
+
+    public final static Integer port = 5107;
+
+    public CircuitBreakerMockServer(Object target) {
+        super(target, port);
+    }
+
+    public void initServer() {
+        MockServerClient mockClient = new MockServerClient("localhost", port);
+        mockClient.when(
+                request()
+                        .withPath("/cb/200")
+                        .withMethod("GET"))
+                .respond(
+                        response()
+                                .withStatusCode(200)
+                                .withHeader(new Header("Content-Type", "application/json"))
+                                .withBody(EXPECTED));
+        mockClient.when(
+                request()
+                        .withPath("/cb/500")
+                        .withMethod("GET"))
+                .respond(
+                        response()
+                                .withStatusCode(500)
+                                .withHeader(new Header("Content-Type", "application/json"))
+                                .withBody("{\"status\": \"error\"}"));
+        mockClient.when(
+                request()
+                        .withPath("/cb/slow")
+                        .withMethod("GET"))
+                .respond(
+                        response()
+                                .withStatusCode(200)
+                                .withHeader(new Header("Content-Type", "application/json"))
+                                .withBody(EXPECTED)
+                                .withDelay(TimeUnit.MILLISECONDS, 300));
+    }
+
+}
@@ -6,6 +6,7 @@ import org.mockserver.junit.MockServerRule;
 import org.mockserver.model.Header;
 
 import java.io.File;
+import java.util.Arrays;
 
 import static org.mockserver.model.HttpRequest.request;
 import static org.mockserver.model.HttpResponse.response;
@@ -16,6 +17,16 @@ public class DownloadMockServer extends MockServerRule {
 
     public final static Integer port = 5091;
 
+    /**
+     * 断点续传测试中已下载的字节数
+     */
+    public final static int RESUME_FROM = 1024;
+
+    /**
+     * 分段下载测试中的分段数
+     */
+    public final static int SEGMENTS = 4;
+
     public DownloadMockServer(Object target) {
         super(target, port);
     }
@@ -42,6 +53,51 @@ public class DownloadMockServer extends MockServerRule {
                                 .withStatusCode(200)
                                 .withHeader(new Header("Content-Disposition", "attachment;filename=test-xxx.jpg"))
                                 .withBody(byteArray));
+
+        // 只响应断点续传请求，未携带 Range 请求头时返回 404
+        // 续传从已下载的最后一个字节开始请求，文件已完整时只返回最后一个字节
+        for (int start : new int[] {RESUME_FROM - 1, byteArray.length - 1}) {
+            mockClient.when(
+                    request()
+                            .withPath("/download/range/test-img.jpg")
+                            .withMethod("GET")
+                            .withHeader("Range", "bytes=" + start + "-"))
+                    .respond(
+                            response()
+                                    .withStatusCode(206)
+                                    .withHeader(new Header("Content-Range",
+                                            "bytes " + start + "-" + (byteArray.length - 1) + "/" + byteArray.length))
+                                    .withBody(Arrays.copyOfRange(byteArray, start, byteArray.length)));
+        }
+
+        // 探测请求只请求第一个字节，不携带 If-Range 请求头
+        mockClient.when(
+                request()
+                        .withPath("/download/segment/test-img.jpg")
+                        .withMethod("GET")
+                        .withHeader("Range", "bytes=0-0"))
+                .respond(
+                        response()
+                                .withStatusCode(206)
+                                .withHeader(new Header("Content-Range", "bytes 0-0/" + byteArray.length))
+                                .withHeader(new Header("ETag", "\"test-img\""))
+                                .withBody(Arrays.copyOf(byteArray, 1)));
+        long segmentSize = (byteArray.length + SEGMENTS - 1) / SEGMENTS;
+        for (int start = 0; start < byteArray.length; start += segmentSize) {
+            int end = (int) Math.min(start + segmentSize, byteArray.length) - 1;
+            mockClient.when(
+                    request()
+                            .withPath("/download/segment/test-img.jpg")
+                            .withMethod("GET")
+                            .withHeader("Range", "bytes=" + start + "-" + end)
+                            .withHeader("If-Range", "\"test-img\""))
+                    .respond(
+                            response()
+                                    .withStatusCode(206)
+                                    .withHeader(new Header("Content-Range",
+                                            "bytes " + start + "-" + end + "/" + byteArray.length))
+                                    .withBody(Arrays.copyOfRange(byteArray, start, end + 1)));
+        }
     }
 
 }
@@ -0,0 +1,42 @@
+package com.dtflys.test.mock;
+
+import org.mockserver.client.server.MockServerClient;
+import org.mockserver.junit.MockServerRule;
+import org.mockserver.model.Header;
+
+import static org.mockserver.model.HttpRequest.request;
+import static org.mockserver.model.HttpResponse.response;
+
+public class EndpointGroupMockServer extends MockServerRule {
+
+    public final static Integer port = 5108;
+
+    public EndpointGroupMockServer(Object target) {
+        super(target, port);
+    }
+
+    public void initServer() {
+        MockServerClient mockClient = new MockServerClient("localhost", port);
+        for (String node : new String[] {"a", "b"}) {
+            mockClient.when(
+                    request()
+                            .withPath("/" + node + "/hello")
+                            .withMethod("GET"))
+                    .respond(
+                            response()
+                                    .withStatusCode(200)
+                                    .withHeader(new Header("Content-Type", "text/plain"))
+                                    .withBody(node));
+        }
+        mockClient.when(
+                request()
+                        .withPath("/down/hello")
+                        .withMethod("GET"))
+                .respond(
+                        response()
+                                .withStatusCode(503)
+                                .withHeader(new Header("Content-Type", "text/plain"))
+                                .withBody("down"));
+    }
+
+}
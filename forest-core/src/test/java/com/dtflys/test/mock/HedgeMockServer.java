@@ -0,0 +1,67 @@
+package com.dtflys.test.mock;
+
+import org.mockserver.client.server.MockServerClient;
+import org.mockserver.junit.MockServerRule;
+import org.mockserver.matchers.Times;
+import org.mockserver.model.Header;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.mockserver.model.HttpRequest.request;
+import static org.mockserver.model.HttpResponse.response;
+
+public class HedgeMockServer extends MockServerRule {
+
+    public final static String EXPECTED = "{\"status\": \"ok\"}";
+
+    public final static Integer port = 5109;
+
+    public HedgeMockServer(Object target) {
+        super(target, port);
+    }
+
+    public void initServer() {
+        MockServerClient mockClient = new MockServerClient("localhost", port);
+        // 第一次请求很慢，之后的请求立即返回
+        mockClient.when(
+                request()
+                        .withPath("/hedge/tail")
+                        .withMethod("GET"),
+                Times.once())
+                .respond(
+                        response()
+                                .withStatusCode(200)
+                                .withHeader(new Header("Content-Type", "application/json"))
+                                .withBody(EXPECTED)
+                                .withDelay(TimeUnit.MILLISECONDS, 1000));
+        mockClient.when(
+                request()
+                        .withPath("/hedge/tail")
+                        .withMethod("GET"))
+                .respond(
+                        response()
+                                .withStatusCode(200)
+                                .withHeader(new Header("Content-Type", "application/json"))
+                                .withBody(EXPECTED));
+        mockClient.when(
+                request()
+                        .withPath("/hedge/fast")
+                        .withMethod("GET"))
+                .respond(
+                        response()
+                                .withStatusCode(200)
+                                .withHeader(new Header("Content-Type", "application/json"))
+                                .withBody(EXPECTED));
+        mockClient.when(
+                request()
+                        .withPath("/hedge/warm")
+                        .withMethod("GET"))
+                .respond(
+                        response()
+                                .withStatusCode(200)
+                                .withHeader(new Header("Content-Type", "application/json"))
+                                .withBody(EXPECTED)
+                                .withDelay(TimeUnit.MILLISECONDS, 100));
+    }
+
+}
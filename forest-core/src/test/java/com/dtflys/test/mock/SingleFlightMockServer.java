@@ -0,0 +1,56 @@
+package com.dtflys.test.mock;
+
+import org.mockserver.client.server.MockServerClient;
+import org.mockserver.junit.MockServerRule;
+import org.mockserver.matchers.Times;
+import org.mockserver.model.Header;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.mockserver.model.HttpRequest.request;
+import static org.mockserver.model.HttpResponse.response;
+
+public class SingleFlightMockServer extends MockServerRule {
+
+    public final static String EXPECTED = "{\"status\": \"ok\"}";
+
+    public final static Integer port = 5105;
+
+    public SingleFlightMockServer(Object target) {
+        super(target, port);
+    }
+
+    public void initServer() {
+        MockServerClient mockClient = new MockServerClient("localhost", port);
+        // 只响应一次，合并后的请求只会发送一次
+        mockClient.when(
+                request()
+                        .withPath("/flight")
+                        .withMethod("GET")
+                        .withQueryStringParameter("id", "1"),
+                Times.once())
+                .respond(
+                        response()
+                                .withStatusCode(200)
+                                .withHeader(new Header("Content-Type", "application/json"))
+                                .withBody(EXPECTED)
+                                .withDelay(TimeUnit.MILLISECONDS, 500));
+        // 请求头由拦截器添加，不同租户的请求不能合并
+        for (String tenant : new String[] {"a", "b"}) {
+            mockClient.when(
+                    request()
+                            .withPath("/flight")
+                            .withMethod("GET")
+                            .withQueryStringParameter("id", "2")
+                            .withHeader(new Header("X-Tenant", tenant)),
+                    Times.once())
+                    .respond(
+                            response()
+                                    .withStatusCode(200)
+                                    .withHeader(new Header("Content-Type", "text/plain"))
+                                    .withBody(tenant)
+                                    .withDelay(TimeUnit.MILLISECONDS, 500));
+        }
+    }
+
+}
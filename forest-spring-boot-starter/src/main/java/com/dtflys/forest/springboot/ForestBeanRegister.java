@@ -88,6 +88,15 @@ public class ForestBeanRegister implements ResourceLoaderAware, BeanPostProcesso
         beanDefinitionBuilder
                 .addPropertyValue("maxConnections", forestConfigurationProperties.getMaxConnections())
                 .addPropertyValue("maxRouteConnections", forestConfigurationProperties.getMaxRouteConnections())
+                .addPropertyValue("hostMaxConnections", forestConfigurationProperties.getHostMaxConnections())
+                .addPropertyValue("maxIdleConnections", forestConfigurationProperties.getMaxIdleConnections())
+                .addPropertyValue("keepAliveTime", forestConfigurationProperties.getKeepAliveTime())
+                .addPropertyValue("httpProtocols", forestConfigurationProperties.getHttpProtocols())
+                .addPropertyValue("pingInterval", forestConfigurationProperties.getPingInterval())
+                .addPropertyValue("ioThreadCount", forestConfigurationProperties.getIoThreadCount())
+                .addPropertyValue("ioSelectInterval", forestConfigurationProperties.getIoSelectInterval())
+                .addPropertyValue("ioTcpNoDelay", forestConfigurationProperties.getIoTcpNoDelay())
+                .addPropertyValue("ioSoKeepAlive", forestConfigurationProperties.getIoSoKeepAlive())
                 .addPropertyValue("timeout", forestConfigurationProperties.getTimeout())
                 .addPropertyValue("connectTimeout", forestConfigurationProperties.getConnectTimeout())
                 .addPropertyValue("charset", forestConfigurationProperties.getCharset())
@@ -98,13 +107,18 @@ public class ForestBeanRegister implements ResourceLoaderAware, BeanPostProcesso
                 .addPropertyValue("logRequest", forestConfigurationProperties.isLogRequest())
                 .addPropertyValue("logResponseStatus", forestConfigurationProperties.isLogResponseStatus())
                 .addPropertyValue("logResponseContent", forestConfigurationProperties.isLogResponseContent())
+                .addPropertyValue("streamingDecodeEnabled", forestConfigurationProperties.isStreamingDecodeEnabled())
+                .addPropertyValue("virtualThreadEnabled", forestConfigurationProperties.isVirtualThreadEnabled())
                 .addPropertyValue("logHandler", logHandler)
                 .addPropertyValue("backendName", forestConfigurationProperties.getBackend())
                 .addPropertyValue("interceptors", forestConfigurationProperties.getInterceptors())
                 .addPropertyValue("sslProtocol", forestConfigurationProperties.getSslProtocol())
+                .addPropertyValue("sslSessionCacheSize", forestConfigurationProperties.getSslSessionCacheSize())
+                .addPropertyValue("sslSessionTimeout", forestConfigurationProperties.getSslSessionTimeout())
                 .addPropertyValue("variables", forestConfigurationProperties.getVariables())
                 .setLazyInit(false)
-                .setFactoryMethod("configuration");
+                .setFactoryMethod("configuration")
+                .setDestroyMethodName("close");
 
         // 注册拦截器对象
         BeanDefinition interceptorFactoryBeanDefinition = registerInterceptorFactoryBean();
@@ -0,0 +1,62 @@
+package com.dtflys.forest.springboot.metrics;
+
+import com.dtflys.forest.config.ForestConfiguration;
+import com.dtflys.forest.metrics.ForestMetrics;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.boot.autoconfigure.AutoConfigureAfter;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnBean;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnClass;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnMissingBean;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Forest指标自动配置
+ * <p>classpath中有Micrometer且容器中有 {@link MeterRegistry} 时，创建 {@link MicrometerForestMetrics}，
+ * 并在所有单例Bean初始化后设置为ForestConfiguration的指标收集器；容器中已有 {@link ForestMetrics} 时使用已有的实例。
+ * 可以通过 {@code forest.metrics.enabled=false} 关闭</p>
+ *
+ * @author gongjun[dt_flys@hotmail.com]
+ * @since 1.5.2
+ */
+@Configuration
+@ConditionalOnClass(MeterRegistry.class)
+@ConditionalOnProperty(prefix = "forest.metrics", name = "enabled", matchIfMissing = true)
+@AutoConfigureAfter(name = "org.springframework.boot.actuate.autoconfigure.metrics.CompositeMeterRegistryAutoConfiguration")
+public class ForestMetricsAutoConfiguration {
+
+    @Bean
+    @ConditionalOnBean(MeterRegistry.class)
+    @ConditionalOnMissingBean(ForestMetrics.class)
+    public MicrometerForestMetrics micrometerForestMetrics(MeterRegistry registry) {
+        return new MicrometerForestMetrics(registry);
+    }
+
+    /**
+     * 在所有单例Bean初始化后为ForestConfiguration设置指标收集器
+     * <p>ForestConfiguration由Bean后置处理器提前创建，此时MeterRegistry还不能初始化，所以延后设置。
+     * HTTP后端已经初始化时连接池在设置时立即绑定，否则在发送第一个请求、初始化HTTP后端时绑定</p>
+     *
+     * @param metricsProvider 指标收集器
+     * @param configurationProvider ForestConfiguration
+     * @return {@link SmartInitializingSingleton}接口实例
+     */
+    @Bean
+    public SmartInitializingSingleton forestMetricsInitializer(ObjectProvider<ForestMetrics> metricsProvider,
+                                                               ObjectProvider<ForestConfiguration> configurationProvider) {
+        return () -> {
+            ForestMetrics metrics = metricsProvider.getIfAvailable();
+            if (metrics == null) {
+                return;
+            }
+            configurationProvider.forEach(configuration -> {
+                if (configuration.getMetrics() == null) {
+                    configuration.setMetrics(metrics);
+                }
+            });
+        };
+    }
+}
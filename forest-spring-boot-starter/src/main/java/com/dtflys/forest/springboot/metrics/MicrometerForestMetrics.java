@@ -0,0 +1,103 @@
+package com.dtflys.forest.springboot.metrics;
+
+import com.dtflys.forest.http.ForestRequest;
+import com.dtflys.forest.http.ForestResponse;
+import com.dtflys.forest.metrics.DefaultForestMetrics;
+import com.dtflys.forest.metrics.ForestConnectionPool;
+import com.dtflys.forest.metrics.ForestMetrics;
+import com.dtflys.forest.utils.ForestDataType;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.Timer;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.function.ToIntFunction;
+
+/**
+ * 将Forest指标注册到Micrometer的指标收集器
+ * <ul>
+ *     <li>{@code forest.client.requests}: 接口方法调用耗时，标签为 method、host、status</li>
+ *     <li>{@code forest.client.retries}: 重试次数，标签为 method</li>
+ *     <li>{@code forest.client.encode} / {@code forest.client.decode}: 序列化和反序列化耗时，标签为 dataType</li>
+ *     <li>{@code forest.client.connections.leased/idle/pending/max}: 连接池状态，标签为 pool</li>
+ * </ul>
+ *
+ * @author gongjun[dt_flys@hotmail.com]
+ * @since 1.5.2
+ */
+public class MicrometerForestMetrics implements ForestMetrics {
+
+    private final MeterRegistry registry;
+
+    /**
+     * 已绑定的连接池，同名连接池重新绑定时只替换引用，Gauge保持不变
+     */
+    private final Map<String, ForestConnectionPool> connectionPools = new ConcurrentHashMap<>();
+
+    public MicrometerForestMetrics(MeterRegistry registry) {
+        this.registry = registry;
+    }
+
+    @Override
+    public void recordRequest(ForestRequest request, ForestResponse response, long duration, TimeUnit unit) {
+        String host = DefaultForestMetrics.getHost(request);
+        String status = response == null || response.getStatusCode() <= 0 ?
+                "IO_ERROR" : String.valueOf(response.getStatusCode());
+        Timer.builder("forest.client.requests")
+                .tags(Tags.of(
+                        "method", DefaultForestMetrics.getMethodName(request),
+                        "host", host != null ? host : "none",
+                        "status", status))
+                .register(registry)
+                .record(duration, unit);
+    }
+
+    @Override
+    public void recordRetry(ForestRequest request, int retryCount) {
+        Counter.builder("forest.client.retries")
+                .tag("method", DefaultForestMetrics.getMethodName(request))
+                .register(registry)
+                .increment();
+    }
+
+    @Override
+    public void recordEncode(ForestDataType dataType, long duration, TimeUnit unit) {
+        recordConvert("forest.client.encode", dataType, duration, unit);
+    }
+
+    @Override
+    public void recordDecode(ForestDataType dataType, long duration, TimeUnit unit) {
+        recordConvert("forest.client.decode", dataType, duration, unit);
+    }
+
+    private void recordConvert(String name, ForestDataType dataType, long duration, TimeUnit unit) {
+        Timer.builder(name)
+                .tag("dataType", dataType != null ? dataType.getName() : ForestDataType.AUTO.getName())
+                .register(registry)
+                .record(duration, unit);
+    }
+
+    @Override
+    public void bindConnectionPool(String name, ForestConnectionPool pool) {
+        if (connectionPools.put(name, pool) != null) {
+            return;
+        }
+        registerGauge("forest.client.connections.leased", name, ForestConnectionPool::getLeased);
+        registerGauge("forest.client.connections.idle", name, ForestConnectionPool::getIdle);
+        registerGauge("forest.client.connections.pending", name, ForestConnectionPool::getPending);
+        registerGauge("forest.client.connections.max", name, ForestConnectionPool::getMax);
+    }
+
+    private void registerGauge(String gaugeName, String poolName, ToIntFunction<ForestConnectionPool> value) {
+        Gauge.builder(gaugeName, connectionPools, pools -> {
+                    ForestConnectionPool pool = pools.get(poolName);
+                    return pool != null ? value.applyAsInt(pool) : Double.NaN;
+                })
+                .tag("pool", poolName)
+                .register(registry);
+    }
+}
@@ -36,6 +36,51 @@ public class ForestConfigurationProperties {
      */
     private int maxRouteConnections = 500;
 
+    /**
+     * maximum number of connections allowed per host name, overrides maxRouteConnections
+     */
+    private Map<String, Integer> hostMaxConnections = new HashMap<>();
+
+    /**
+     * maximum number of idle connections kept in the okhttp3 connection pool, defaults to maxConnections
+     */
+    private Integer maxIdleConnections;
+
+    /**
+     * idle connections are closed after this time in milliseconds, defaults to 60 seconds
+     */
+    private Integer keepAliveTime;
+
+    /**
+     * http protocols used by okhttp3, such as http/1.1, h2 and h2_prior_knowledge
+     */
+    private List<String> httpProtocols;
+
+    /**
+     * ping interval of HTTP/2 connections in milliseconds, okhttp3 only
+     */
+    private Integer pingInterval;
+
+    /**
+     * thread count of the I/O reactor for async requests, defaults to the number of available processors
+     */
+    private Integer ioThreadCount;
+
+    /**
+     * select interval of the I/O reactor for async requests in milliseconds
+     */
+    private Integer ioSelectInterval;
+
+    /**
+     * enable TCP_NODELAY on connections of the I/O reactor for async requests
+     */
+    private Boolean ioTcpNoDelay;
+
+    /**
+     * enable SO_KEEPALIVE on connections of the I/O reactor for async requests
+     */
+    private Boolean ioSoKeepAlive;
+
     /**
      * timeout in milliseconds
      */
@@ -86,6 +131,16 @@ public class ForestConfigurationProperties {
      */
     private boolean logResponseContent = false;
 
+    /**
+     * Enable streaming deserialization of response content
+     */
+    private boolean streamingDecodeEnabled = false;
+
+    /**
+     * Enable one virtual thread per async request (Java 21 or later)
+     */
+    private boolean virtualThreadEnabled = false;
+
     /**
      * Class of log handler
      */
@@ -97,6 +152,16 @@ public class ForestConfigurationProperties {
      */
     private String sslProtocol = SSLUtils.TLS_1_2;
 
+    /**
+     * TLS session cache size, JDK default when null
+     */
+    private Integer sslSessionCacheSize;
+
+    /**
+     * TLS session timeout in seconds, JDK default when null
+     */
+    private Integer sslSessionTimeout;
+
     /**
      * backend of forest: httpclient, okhttp3
      */
@@ -155,6 +220,78 @@ public class ForestConfigurationProperties {
         this.maxRouteConnections = maxRouteConnections;
     }
 
+    public Map<String, Integer> getHostMaxConnections() {
+        return hostMaxConnections;
+    }
+
+    public void setHostMaxConnections(Map<String, Integer> hostMaxConnections) {
+        this.hostMaxConnections = hostMaxConnections;
+    }
+
+    public Integer getMaxIdleConnections() {
+        return maxIdleConnections;
+    }
+
+    public void setMaxIdleConnections(Integer maxIdleConnections) {
+        this.maxIdleConnections = maxIdleConnections;
+    }
+
+    public Integer getKeepAliveTime() {
+        return keepAliveTime;
+    }
+
+    public void setKeepAliveTime(Integer keepAliveTime) {
+        this.keepAliveTime = keepAliveTime;
+    }
+
+    public List<String> getHttpProtocols() {
+        return httpProtocols;
+    }
+
+    public void setHttpProtocols(List<String> httpProtocols) {
+        this.httpProtocols = httpProtocols;
+    }
+
+    public Integer getPingInterval() {
+        return pingInterval;
+    }
+
+    public void setPingInterval(Integer pingInterval) {
+        this.pingInterval = pingInterval;
+    }
+
+    public Integer getIoThreadCount() {
+        return ioThreadCount;
+    }
+
+    public void setIoThreadCount(Integer ioThreadCount) {
+        this.ioThreadCount = ioThreadCount;
+    }
+
+    public Integer getIoSelectInterval() {
+        return ioSelectInterval;
+    }
+
+    public void setIoSelectInterval(Integer ioSelectInterval) {
+        this.ioSelectInterval = ioSelectInterval;
+    }
+
+    public Boolean getIoTcpNoDelay() {
+        return ioTcpNoDelay;
+    }
+
+    public void setIoTcpNoDelay(Boolean ioTcpNoDelay) {
+        this.ioTcpNoDelay = ioTcpNoDelay;
+    }
+
+    public Boolean getIoSoKeepAlive() {
+        return ioSoKeepAlive;
+    }
+
+    public void setIoSoKeepAlive(Boolean ioSoKeepAlive) {
+        this.ioSoKeepAlive = ioSoKeepAlive;
+    }
+
     public int getTimeout() {
         return timeout;
     }
@@ -235,6 +372,22 @@ public class ForestConfigurationProperties {
         this.logResponseContent = logResponseContent;
     }
 
+    public boolean isStreamingDecodeEnabled() {
+        return streamingDecodeEnabled;
+    }
+
+    public void setStreamingDecodeEnabled(boolean streamingDecodeEnabled) {
+        this.streamingDecodeEnabled = streamingDecodeEnabled;
+    }
+
+    public boolean isVirtualThreadEnabled() {
+        return virtualThreadEnabled;
+    }
+
+    public void setVirtualThreadEnabled(boolean virtualThreadEnabled) {
+        this.virtualThreadEnabled = virtualThreadEnabled;
+    }
+
     public Class<? extends ForestLogHandler> getLogHandler() {
         return logHandler;
     }
@@ -251,6 +404,22 @@ public class ForestConfigurationProperties {
         this.sslProtocol = sslProtocol;
     }
 
+    public Integer getSslSessionCacheSize() {
+        return sslSessionCacheSize;
+    }
+
+    public void setSslSessionCacheSize(Integer sslSessionCacheSize) {
+        this.sslSessionCacheSize = sslSessionCacheSize;
+    }
+
+    public Integer getSslSessionTimeout() {
+        return sslSessionTimeout;
+    }
+
+    public void setSslSessionTimeout(Integer sslSessionTimeout) {
+        this.sslSessionTimeout = sslSessionTimeout;
+    }
+
     public String getBackend() {
         return backend;
     }
@@ -23,6 +23,7 @@ import org.springframework.test.context.ActiveProfiles;
 import org.springframework.test.context.junit4.SpringRunner;
 
 import javax.annotation.Resource;
+import java.util.Arrays;
 
 import static junit.framework.Assert.assertEquals;
 import static junit.framework.Assert.assertNotNull;
@@ -57,6 +58,11 @@ public class Test0 {
     public void testConfiguration() {
         assertEquals(Integer.valueOf(1200), config0.getMaxConnections());
         assertEquals(Integer.valueOf(1100), config0.getMaxRouteConnections());
+        assertEquals(Integer.valueOf(20), config0.getHostMaxConnections().get("www.thebeastshop.com"));
+        assertEquals(Integer.valueOf(300), config0.getMaxIdleConnections());
+        assertEquals(Integer.valueOf(30000), config0.getKeepAliveTime());
+        assertEquals(Arrays.asList("h2", "http/1.1"), config0.getHttpProtocols());
+        assertEquals(Integer.valueOf(15000), config0.getPingInterval());
         assertEquals(Integer.valueOf(1000), config0.getTimeout());
         assertEquals(Integer.valueOf(1123), config0.getConnectTimeout());
         assertEquals("UTF-8", config0.getCharset());